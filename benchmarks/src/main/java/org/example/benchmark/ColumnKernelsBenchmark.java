@@ -0,0 +1,136 @@
+package org.example.benchmark;
+
+import org.example.MainApp;
+import org.example.kernel.ColumnKernels;
+import org.example.kernel.ColumnSummary;
+import org.example.model.Employee;
+import org.example.model.EmployeeTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * The SIMD {@link ColumnKernels} against the plain loop kernels and against the
+ * stream pipelines over a {@code List<Employee>} that the same questions were
+ * answered with before. Each group asks one question three ways:
+ * {@code *Stream} over the list, {@code *Scalar} and {@code *Vector} over the
+ * columns of an {@link EmployeeTable}. The {@code report*} benchmarks run whole
+ * MainApp reports over the list and over the table, which picks the vector
+ * kernels.
+ * <p>
+ * The benchmark JVMs are started with {@code --add-modules jdk.incubator.vector},
+ * without it {@code *Vector} silently runs the plain loops.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class ColumnKernelsBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private List<Employee> employees;
+    private EmployeeTable table;
+    private int maleCode;
+    private int[] selected;
+    private final ColumnKernels scalar = ColumnKernels.scalar();
+    private final ColumnKernels vector = ColumnKernels.preferred();
+    private final MainApp app = new MainApp();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        employees = new EmployeeGenerator(8, 0.5, 42).generate(rows);
+        table = EmployeeTable.of(employees);
+        maleCode = table.genderDictionary().find("male");
+        selected = new int[rows];
+        if (vector == scalar)
+            throw new IllegalStateException("the vector kernels are not available in this JVM");
+    }
+
+    @Benchmark
+    public LongSummaryStatistics salaryStream() {
+        return employees.stream().mapToLong(Employee::getSalary).summaryStatistics();
+    }
+
+    @Benchmark
+    public ColumnSummary salaryScalar() {
+        return scalar.summarize(table.salaryColumn(), 0, table.size());
+    }
+
+    @Benchmark
+    public ColumnSummary salaryVector() {
+        return vector.summarize(table.salaryColumn(), 0, table.size());
+    }
+
+    @Benchmark
+    public LongSummaryStatistics maleSalaryStream() {
+        return employees.stream().filter(Employee::isMale).mapToLong(Employee::getSalary).summaryStatistics();
+    }
+
+    @Benchmark
+    public ColumnSummary maleSalaryScalar() {
+        return scalar.summarize(table.salaryColumn(), table.genderColumn(), 0, table.size(), maleCode, maleCode);
+    }
+
+    @Benchmark
+    public ColumnSummary maleSalaryVector() {
+        return vector.summarize(table.salaryColumn(), table.genderColumn(), 0, table.size(), maleCode, maleCode);
+    }
+
+    @Benchmark
+    public long joinedAfter2015Stream() {
+        return employees.stream().filter(employee -> employee.getYearOfJoining() > 2015).count();
+    }
+
+    @Benchmark
+    public int joinedAfter2015Scalar() {
+        return scalar.count(table.yearOfJoiningColumn(), 0, table.size(), 2016, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int joinedAfter2015Vector() {
+        return vector.count(table.yearOfJoiningColumn(), 0, table.size(), 2016, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int[] under25Stream() {
+        return IntStream.range(0, employees.size()).filter(row -> employees.get(row).getAge() <= 25).toArray();
+    }
+
+    @Benchmark
+    public int under25Scalar() {
+        return scalar.select(table.ageColumn(), 0, table.size(), Integer.MIN_VALUE, 25, selected);
+    }
+
+    @Benchmark
+    public int under25Vector() {
+        return vector.select(table.ageColumn(), 0, table.size(), Integer.MIN_VALUE, 25, selected);
+    }
+
+    @Benchmark
+    public Map<String, Long> reportAvgAndTotalSalaryList() {
+        return app.avgAndTotalSalary(employees);
+    }
+
+    @Benchmark
+    public Map<String, Long> reportAvgAndTotalSalaryTable() {
+        return app.avgAndTotalSalary(table);
+    }
+
+    @Benchmark
+    public Map<String, Long> reportAvgMaleFemaleSalaryList() {
+        return app.avgMaleFemaleSalary(employees);
+    }
+
+    @Benchmark
+    public Map<String, Long> reportAvgMaleFemaleSalaryTable() {
+        return app.avgMaleFemaleSalary(table);
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.benchmark;
+
+import org.example.aggregation.ConcurrentAggregationStore;
+import org.example.aggregation.PartialAggregate;
+import org.example.model.EmployeeRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writers pushing employees into one {@link ConcurrentAggregationStore}.
+ * {@code accept} is run by every benchmark thread, so running it with
+ * {@code -t 1}, {@code -t 4}, {@code -t 16} shows how the writers scale on the
+ * machine; {@code ingestWithSnapshots} adds a reader taking snapshots next to
+ * three writers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentAggregationStoreBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private List<EmployeeRecord> employees;
+    private ConcurrentAggregationStore store;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        employees = EmployeeRecord.of(new EmployeeGenerator(8, 0.5, 42).generate(rows));
+    }
+
+    @Setup(Level.Iteration)
+    public void newStore() {
+        store = new ConcurrentAggregationStore();
+    }
+
+    /**
+     * The next row of one writer; writers start at different rows so they do not
+     * all race on the same extremes.
+     */
+    @State(Scope.Thread)
+    public static class Writer {
+        int row;
+
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentAggregationStoreBenchmark benchmark) {
+            row = benchmark.threads.getAndIncrement() * 7919 % benchmark.rows;
+        }
+
+        EmployeeRecord next(List<EmployeeRecord> employees) {
+            EmployeeRecord employee = employees.get(row);
+            row = row + 1 == employees.size() ? 0 : row + 1;
+            return employee;
+        }
+    }
+
+    @Benchmark
+    public void accept(Writer writer) {
+        store.accept(writer.next(employees));
+    }
+
+    @Benchmark
+    @Group("ingestWithSnapshots")
+    @GroupThreads(3)
+    public void writer(Writer writer) {
+        store.accept(writer.next(employees));
+    }
+
+    @Benchmark
+    @Group("ingestWithSnapshots")
+    @GroupThreads(1)
+    public PartialAggregate snapshot() {
+        return store.snapshot();
+    }
+}
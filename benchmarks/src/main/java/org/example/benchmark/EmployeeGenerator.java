@@ -0,0 +1,66 @@
+package org.example.benchmark;
+
+import org.example.model.Employee;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic employees for the benchmarks.
+ * <p>
+ * The first departments are the ones the reports look for by name ("sales",
+ * "marketing", "productDevelopment"), the rest are numbered, so every report has
+ * work to do whatever the cardinality. The same seed always gives the same list.
+ */
+public class EmployeeGenerator {
+    private static final String[] NAMED_DEPARTMENTS = {"sales", "marketing", "productDevelopment", "development",
+            "design"};
+
+    private final int departments;
+    private final double maleRatio;
+    private final long seed;
+
+    /**
+     * @param departments the number of distinct departments, at least 1
+     * @param maleRatio   the fraction of employees that are male, between 0 and 1
+     * @param seed        the seed of the random generator
+     */
+    public EmployeeGenerator(int departments, double maleRatio, long seed) {
+        if (departments < 1)
+            throw new IllegalArgumentException("departments should be at least 1 : " + departments);
+        if (maleRatio < 0 || maleRatio > 1)
+            throw new IllegalArgumentException("maleRatio should be between 0 and 1 : " + maleRatio);
+        this.departments = departments;
+        this.maleRatio = maleRatio;
+        this.seed = seed;
+    }
+
+    /**
+     * @param department the index of a department
+     * @return the name of that department
+     */
+    public static String department(int department) {
+        return department < NAMED_DEPARTMENTS.length ? NAMED_DEPARTMENTS[department] : "department" + department;
+    }
+
+    /**
+     * Generate the given number of employees.
+     *
+     * @param rows the number of employees
+     * @return a new list of employees
+     */
+    public List<Employee> generate(int rows) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] names = new String[departments];
+        for (int i = 0; i < departments; i++)
+            names[i] = department(i);
+
+        List<Employee> employees = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(41),
+                    random.nextDouble() < maleRatio ? "male" : "female", names[random.nextInt(departments)],
+                    1990 + random.nextInt(34), 20_000L + random.nextInt(5_000_000)));
+        return employees;
+    }
+}
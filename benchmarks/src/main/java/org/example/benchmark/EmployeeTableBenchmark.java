@@ -0,0 +1,138 @@
+package org.example.benchmark;
+
+import org.example.MainApp;
+import org.example.aggregation.AggregationResult;
+import org.example.aggregation.DepartmentGrouping;
+import org.example.aggregation.ExecutionMode;
+import org.example.aggregation.Report;
+import org.example.exceptions.EmployeeNotFound;
+import org.example.model.Employee;
+import org.example.model.EmployeeTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@link EmployeeTable} overloads of {@link MainApp}, over the
+ * same data as {@link MainAppBenchmark} so the two can be compared directly.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class EmployeeTableBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"8"})
+    public int departments;
+
+    @Param({"0.5"})
+    public double maleRatio;
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    public ExecutionMode mode;
+
+    private EmployeeTable table;
+    private MainApp app;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = EmployeeTable.of(new EmployeeGenerator(departments, maleRatio, 42).generate(rows));
+        app = new MainApp(mode);
+    }
+
+    @Benchmark
+    public AggregationResult aggregateAllReports() {
+        return app.aggregate(table, Report.values());
+    }
+
+    @Benchmark
+    public Map<String, Long> countMaleAndFemale() {
+        return app.countMaleAndFemale(table);
+    }
+
+    @Benchmark
+    public List<String> allDepartments() {
+        return app.allDepartments(table);
+    }
+
+    @Benchmark
+    public Map<String, Integer> averageAgeOfEmployees() {
+        return app.averageAgeOfEmployees(table);
+    }
+
+    @Benchmark
+    public Employee getMaxPayedEmployee() {
+        return app.getMaxPayedEmployee(table);
+    }
+
+    @Benchmark
+    public List<Employee> getEmployeesJoinedAfter2015() {
+        return app.getEmployeesJoinedAfter2015(table);
+    }
+
+    @Benchmark
+    public Map<String, Integer> countNumberOfEmployeesInEachDepartment() {
+        return app.countNumberOfEmployeesInEachDepartment(table);
+    }
+
+    @Benchmark
+    public Map<String, Long> averageSalaryOfEachDepartment() {
+        return app.averageSalaryOfEachDepartment(table);
+    }
+
+    @Benchmark
+    public Employee getYoungestMaleEmployee() {
+        try {
+            return app.getYoungestMaleEmployee(table);
+        } catch (EmployeeNotFound e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public Employee getMaxExperiencedEmployee() {
+        return app.getMaxExperiencedEmployee(table);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Integer>> employeesInSaleAndMarketing() {
+        return app.employeesInSaleAndMarketing(table);
+    }
+
+    @Benchmark
+    public Map<String, Long> avgMaleFemaleSalary() {
+        return app.avgMaleFemaleSalary(table);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> employeesInEachDepartment() {
+        return app.employeesInEachDepartment(table);
+    }
+
+    @Benchmark
+    public DepartmentGrouping groupByDepartment() {
+        return app.groupByDepartment(table);
+    }
+
+    @Benchmark
+    public Map<String, Long> avgAndTotalSalary() {
+        return app.avgAndTotalSalary(table);
+    }
+
+    @Benchmark
+    public Map<String, List<Employee>> separateEmployees() {
+        return app.separateEmployees(table);
+    }
+
+    @Benchmark
+    public Employee oldestEmployee() {
+        return app.oldestEmployee(table);
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.benchmark;
+
+import org.example.MainApp;
+import org.example.aggregation.EmployeeAggregator;
+import org.example.aggregation.RangeReduction;
+import org.example.aggregation.Report;
+import org.example.metrics.Instrumentation;
+import org.example.model.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link Instrumentation} of the reports. {@code uninstrumented} runs
+ * the same pass as {@link MainApp#avgMaleFemaleSalary(List)} without going through
+ * an instrumentation, so the difference to {@code disabled}, which goes through
+ * {@link Instrumentation#DISABLED} like every default MainApp, is the disabled
+ * overhead and should stay under 1%. {@code enabled} shows the cost of recording.
+ * <p>
+ * Before measuring, several other reports are run so that the instrumentation
+ * sees as many different report bodies as it does in an application.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class InstrumentationBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private List<Employee> employees;
+    private MainApp disabled;
+    private MainApp enabled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        employees = new EmployeeGenerator(8, 0.5, 42).generate(rows);
+        disabled = new MainApp();
+        enabled = new MainApp().withInstrumentation(new Instrumentation());
+
+        List<Employee> few = new EmployeeGenerator(8, 0.5, 7).generate(100);
+        for (MainApp app : List.of(disabled, enabled)) {
+            for (int i = 0; i < 20_000; i++) {
+                app.countMaleAndFemale(few);
+                app.averageAgeOfEmployees(few);
+                app.getMaxPayedEmployee(few);
+                app.getEmployeesJoinedAfter2015(few);
+                app.employeesInEachDepartment(few);
+                app.oldestEmployee(few);
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, Long> uninstrumented() {
+        Report[] reports = {Report.AVERAGE_GENDER_SALARY};
+        return RangeReduction.reduce(employees, false,
+                () -> new EmployeeAggregator(reports),
+                (aggregator, row, employee) -> aggregator.accept(employee),
+                EmployeeAggregator::merge).result().averageGenderSalary();
+    }
+
+    @Benchmark
+    public Map<String, Long> disabled() {
+        return disabled.avgMaleFemaleSalary(employees);
+    }
+
+    @Benchmark
+    public Map<String, Long> enabled() {
+        return enabled.avgMaleFemaleSalary(employees);
+    }
+}
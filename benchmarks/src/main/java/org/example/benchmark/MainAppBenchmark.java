@@ -0,0 +1,156 @@
+package org.example.benchmark;
+
+import org.example.MainApp;
+import org.example.aggregation.AggregationResult;
+import org.example.aggregation.ApproximateResult;
+import org.example.aggregation.DepartmentGrouping;
+import org.example.aggregation.ExecutionMode;
+import org.example.aggregation.HistogramResult;
+import org.example.aggregation.Report;
+import org.example.exceptions.EmployeeNotFound;
+import org.example.model.Employee;
+import org.example.paging.Page;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of every public report of {@link MainApp} over a {@code List<Employee>}.
+ * {@code getList} is left out as it reads from the console.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MainAppBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"8"})
+    public int departments;
+
+    @Param({"0.5"})
+    public double maleRatio;
+
+    @Param({"SEQUENTIAL", "PARALLEL"})
+    public ExecutionMode mode;
+
+    private List<Employee> employees;
+    private MainApp app;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        employees = new EmployeeGenerator(departments, maleRatio, 42).generate(rows);
+        app = new MainApp(mode);
+    }
+
+    @Benchmark
+    public AggregationResult aggregateAllReports() {
+        return app.aggregate(employees, Report.values());
+    }
+
+    @Benchmark
+    public ApproximateResult approximate() {
+        return app.approximate(employees);
+    }
+
+    @Benchmark
+    public Map<String, Long> countMaleAndFemale() {
+        return app.countMaleAndFemale(employees);
+    }
+
+    @Benchmark
+    public List<String> allDepartments() {
+        return app.allDepartments(employees);
+    }
+
+    @Benchmark
+    public Map<String, Integer> averageAgeOfEmployees() {
+        return app.averageAgeOfEmployees(employees);
+    }
+
+    @Benchmark
+    public Employee getMaxPayedEmployee() {
+        return app.getMaxPayedEmployee(employees);
+    }
+
+    @Benchmark
+    public List<Employee> getEmployeesJoinedAfter2015() {
+        return app.getEmployeesJoinedAfter2015(employees);
+    }
+
+    @Benchmark
+    public Page<Employee> getEmployeesJoinedAfter2015FirstPage() {
+        return app.pagedEmployeesJoinedAfter2015(employees).page(null, 50);
+    }
+
+    @Benchmark
+    public Map<String, Integer> countNumberOfEmployeesInEachDepartment() {
+        return app.countNumberOfEmployeesInEachDepartment(employees);
+    }
+
+    @Benchmark
+    public Map<String, Long> averageSalaryOfEachDepartment() {
+        return app.averageSalaryOfEachDepartment(employees);
+    }
+
+    @Benchmark
+    public Employee getYoungestMaleEmployee() {
+        try {
+            return app.getYoungestMaleEmployee(employees);
+        } catch (EmployeeNotFound e) {
+            // fewer than three departments, there is no productDevelopment
+            return null;
+        }
+    }
+
+    @Benchmark
+    public Employee getMaxExperiencedEmployee() {
+        return app.getMaxExperiencedEmployee(employees);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Integer>> employeesInSaleAndMarketing() {
+        return app.employeesInSaleAndMarketing(employees);
+    }
+
+    @Benchmark
+    public Map<String, Long> avgMaleFemaleSalary() {
+        return app.avgMaleFemaleSalary(employees);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> employeesInEachDepartment() {
+        return app.employeesInEachDepartment(employees);
+    }
+
+    @Benchmark
+    public DepartmentGrouping groupByDepartment() {
+        return app.groupByDepartment(employees);
+    }
+
+    @Benchmark
+    public Map<String, Long> avgAndTotalSalary() {
+        return app.avgAndTotalSalary(employees);
+    }
+
+    @Benchmark
+    public Map<String, List<Employee>> separateEmployees() {
+        return app.separateEmployees(employees);
+    }
+
+    @Benchmark
+    public HistogramResult salaryHistogram() {
+        return app.salaryHistogram(employees, 500_000, 1_000_000, 2_000_000, 3_000_000, 4_000_000);
+    }
+
+    @Benchmark
+    public Employee oldestEmployee() {
+        return app.oldestEmployee(employees);
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.benchmark;
+
+import org.example.MainApp;
+import org.example.aggregation.AggregationResult;
+import org.example.aggregation.Report;
+import org.example.model.Employee;
+import org.example.model.EmployeeColumns;
+import org.example.model.EmployeeTable;
+import org.example.offheap.OffHeapEmployeeStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same roster kept as a {@code List<Employee>}, as an {@link EmployeeTable}
+ * and in an {@link OffHeapEmployeeStore}. {@code fullCollection} times a full
+ * garbage collection while the roster is alive, which is what a large on-heap
+ * roster makes slow; the other benchmarks run reports over it, to see what
+ * reading native memory costs. Run with {@code -prof gc} to see the allocation
+ * of each report.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--enable-preview"})
+@State(Scope.Benchmark)
+public class OffHeapEmployeeStoreBenchmark {
+
+    public enum Storage {LIST, TABLE, OFF_HEAP}
+
+    @Param({"2000000"})
+    public int rows;
+
+    @Param({"LIST", "TABLE", "OFF_HEAP"})
+    public Storage storage;
+
+    private List<Employee> employees;
+    private EmployeeColumns columns;
+    private final MainApp app = new MainApp();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Employee> generated = new EmployeeGenerator(8, 0.5, 42).generate(rows);
+        switch (storage) {
+            case LIST -> employees = generated;
+            case TABLE -> columns = EmployeeTable.of(generated);
+            case OFF_HEAP -> columns = OffHeapEmployeeStore.of(generated);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (columns instanceof OffHeapEmployeeStore store)
+            store.close();
+    }
+
+    @Benchmark
+    public void fullCollection() {
+        System.gc();
+    }
+
+    @Benchmark
+    public Map<String, Long> avgMaleFemaleSalary() {
+        return employees != null ? app.avgMaleFemaleSalary(employees) : app.avgMaleFemaleSalary(columns);
+    }
+
+    @Benchmark
+    public AggregationResult aggregateAllReports() {
+        return employees != null ? app.aggregate(employees, Report.values()) : app.aggregate(columns, Report.values());
+    }
+
+    @Benchmark
+    public Map<String, List<String>> employeesInEachDepartment() {
+        return employees != null ? app.employeesInEachDepartment(employees) : app.employeesInEachDepartment(columns);
+    }
+}
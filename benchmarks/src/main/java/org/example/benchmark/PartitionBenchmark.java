@@ -0,0 +1,68 @@
+package org.example.benchmark;
+
+import org.example.aggregation.PartialAggregate;
+import org.example.io.MappedEmployeeFileWriter;
+import org.example.model.Employee;
+import org.example.partition.PartitionCoordinator;
+import org.example.partition.PartitionWorker;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Aggregates a mapped employee file in 1, 2 and 4 worker processes, each reading
+ * its own range of rows, against a single pass in this JVM. The process runs
+ * include starting the JVMs, so they only pay off once the file is large and the
+ * machine has the cores to run the workers side by side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class PartitionBenchmark {
+
+    @Param({"2000000"})
+    public int rows;
+
+    @Param({"1", "2", "4"})
+    public int partitions;
+
+    private Path directory;
+    private Path file;
+    private PartitionCoordinator coordinator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Employee> employees = new EmployeeGenerator(8, 0.5, 42).generate(rows);
+        directory = Files.createTempDirectory("partition-benchmark");
+        file = directory.resolve("roster.map");
+        MappedEmployeeFileWriter.write(file, employees);
+        coordinator = new PartitionCoordinator(directory.resolve("workers"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(path);
+        }
+    }
+
+    @Benchmark
+    public PartialAggregate rowRanges() throws IOException {
+        return coordinator.runRowRanges(file, partitions);
+    }
+
+    @Benchmark
+    public PartialAggregate singlePass() throws IOException {
+        return PartitionWorker.aggregate(file, 0, rows);
+    }
+}
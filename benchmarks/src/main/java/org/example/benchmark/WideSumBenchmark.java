@@ -0,0 +1,82 @@
+package org.example.benchmark;
+
+import org.example.aggregation.AggregationResult;
+import org.example.aggregation.EmployeeAggregator;
+import org.example.aggregation.Report;
+import org.example.aggregation.WideSum;
+import org.example.model.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the overflow detection of {@link WideSum} on the common path, where no
+ * sum overflows. {@code wrapping} accumulates the gender and total salary reports
+ * the way the {@link EmployeeAggregator} did before, with plain long adds that
+ * silently wrap around; {@code exact} runs the aggregator itself, which carries
+ * every salary add into a high word.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class WideSumBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private List<Employee> employees;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        employees = new EmployeeGenerator(8, 0.5, 42).generate(rows);
+    }
+
+    @Benchmark
+    public long wrapping() {
+        WrappingAggregator aggregator = new WrappingAggregator();
+        for (Employee employee : employees)
+            aggregator.accept(employee.departmentId(), employee.isMale(), employee.age(), employee.salary());
+        return aggregator.maleSalary / aggregator.maleCount + aggregator.femaleSalary
+                / (aggregator.rows - aggregator.maleCount) + aggregator.totalSalary / aggregator.rows;
+    }
+
+    @Benchmark
+    public long exact() {
+        EmployeeAggregator aggregator = new EmployeeAggregator(Report.AVERAGE_GENDER_SALARY, Report.SALARY_TOTALS);
+        for (Employee employee : employees)
+            aggregator.accept(employee);
+        AggregationResult result = aggregator.result();
+        return result.averageGenderSalary().get("male") + result.averageGenderSalary().get("female")
+                + result.salaryTotals().get("average");
+    }
+
+    /**
+     * The salary accumulation of the aggregator before the sums became exact
+     */
+    private static class WrappingAggregator {
+        long rows;
+        long maleCount;
+        long maleAge;
+        long femaleAge;
+        long maleSalary;
+        long femaleSalary;
+        long totalSalary;
+
+        void accept(int departmentId, boolean male, int age, long salary) {
+            rows++;
+            if (male) {
+                maleCount++;
+                maleAge += age;
+                maleSalary += salary;
+            } else {
+                femaleAge += age;
+                femaleSalary += salary;
+            }
+            totalSalary += salary;
+        }
+    }
+}
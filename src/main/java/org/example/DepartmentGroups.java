@@ -0,0 +1,71 @@
+package org.example;
+
+import org.example.model.Departments;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One value per department, held in an array indexed by {@link Departments} id
+ * instead of a map keyed by the department string. The departments keep the
+ * order in which they were first seen, like a {@code LinkedHashMap} would.
+ *
+ * @param <T> the type of the values
+ */
+class DepartmentGroups<T> {
+    private Object[] values = new Object[Departments.size()];
+    private int[] order = new int[8];
+    private int size;
+
+    /**
+     * @return the value of the department, created by the supplier the first time
+     */
+    @SuppressWarnings("unchecked")
+    T computeIfAbsent(int departmentId, Supplier<T> supplier) {
+        if (departmentId >= values.length)
+            values = Arrays.copyOf(values, Math.max(departmentId + 1, Departments.size()));
+        Object value = values[departmentId];
+        if (value == null) {
+            value = supplier.get();
+            values[departmentId] = value;
+            if (size == order.length)
+                order = Arrays.copyOf(order, size * 2);
+            order[size++] = departmentId;
+        }
+        return (T) value;
+    }
+
+    /**
+     * Add the values of groups built over later rows, appending the departments
+     * this one has not seen.
+     *
+     * @return these groups
+     */
+    @SuppressWarnings("unchecked")
+    DepartmentGroups<T> merge(DepartmentGroups<T> other, BinaryOperator<T> merge) {
+        for (int i = 0; i < other.size; i++) {
+            int departmentId = other.order[i];
+            T value = (T) other.values[departmentId];
+            T current = computeIfAbsent(departmentId, () -> value);
+            if (current != value)
+                values[departmentId] = merge.apply(current, value);
+        }
+        return this;
+    }
+
+    /**
+     * @param finisher turns each value into the value of the map
+     * @return the departments and their values, in order of first appearance
+     */
+    @SuppressWarnings("unchecked")
+    <R> Map<String, R> toMap(Function<T, R> finisher) {
+        Map<String, R> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++)
+            map.put(Departments.nameOf(order[i]), finisher.apply((T) values[order[i]]));
+        return map;
+    }
+}
@@ -1,16 +1,311 @@
 package org.example;
 
+import org.example.aggregation.AggregationResult;
+import org.example.aggregation.ApproximateAggregator;
+import org.example.aggregation.ApproximateResult;
+import org.example.aggregation.ColumnScan;
+import org.example.aggregation.DepartmentGrouping;
+import org.example.aggregation.EmployeeAggregator;
+import org.example.aggregation.ExecutionMode;
+import org.example.aggregation.HistogramAggregator;
+import org.example.aggregation.HistogramResult;
+import org.example.aggregation.PartialAggregate;
+import org.example.aggregation.RangeReduction;
+import org.example.aggregation.Report;
 import org.example.exceptions.EmployeeNotFound;
+import org.example.io.EmployeeReader;
+import org.example.io.EmployeeSink;
+import org.example.kernel.ColumnKernels;
+import org.example.metrics.Instrumentation;
+import org.example.model.Departments;
 import org.example.model.Employee;
+import org.example.model.EmployeeColumns;
+import org.example.model.EmployeeData;
+import org.example.model.EmployeeRecord;
+import org.example.model.EmployeeTable;
+import org.example.model.StringDictionary;
+import org.example.paging.PagedRows;
+import org.example.query.Query;
+import org.example.query.QueryPlanner;
+import org.example.query.QueryResult;
+import org.example.repository.IndexedEmployeeRepository;
+import org.example.server.ReportServer;
+import org.example.sketch.KllSketch;
+import org.example.sketch.TopK;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+// the Instrumentation.Call of a report is only there to be closed when the
+// report returns, which -Xlint:try reports for every report that does not use it
+@SuppressWarnings("try")
 public class MainApp {
     private static final Scanner sc = new Scanner(System.in);
 
-    public static void main(String[] args) {
+    /**
+     * lists smaller than this are always scanned sequentially, splitting them costs
+     * more than it saves
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+    private final ExecutionMode executionMode;
+    private final int parallelThreshold;
+    private final Instrumentation instrumentation;
+
+    public MainApp() {
+        this(ExecutionMode.SEQUENTIAL);
+    }
+
+    public MainApp(ExecutionMode executionMode) {
+        this(executionMode, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    public MainApp(ExecutionMode executionMode, int parallelThreshold) {
+        this(executionMode, parallelThreshold, Instrumentation.DISABLED);
+    }
+
+    /**
+     * @param instrumentation records the calls of every report, over a list, a
+     *                        table, an indexed roster or a reader,
+     *                        {@link Instrumentation#DISABLED} to record nothing
+     */
+    public MainApp(ExecutionMode executionMode, int parallelThreshold, Instrumentation instrumentation) {
+        this.executionMode = executionMode;
+        this.parallelThreshold = parallelThreshold;
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * Serve the reports of a roster file over HTTP, see {@link ReportServer}.
+     * <p>
+     * Usage: {@code MainApp <roster file> [port]}, the port being 8080 by default.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: MainApp <roster file> [port]");
+            System.exit(2);
+        }
+        List<EmployeeRecord> employees = new ArrayList<>();
+        try (EmployeeReader reader = EmployeeReader.open(Path.of(args[0]))) {
+            reader.read(EmployeeSink.toRecords(employees));
+        }
+        ReportServer server = new ReportServer(new MainApp(ExecutionMode.PARALLEL), employees);
+        int port = server.start(args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+        System.out.println("serving the reports of " + employees.size() + " employees on port " + port);
+    }
+
+    /**
+     * Return a MainApp that runs its reports in the given mode, for choosing the
+     * mode of a single call, e.g. {@code app.withExecutionMode(PARALLEL).countMaleAndFemale(employees)}.
+     *
+     * @param executionMode the mode of the returned MainApp
+     * @return a MainApp with the same threshold and the given mode
+     */
+    public MainApp withExecutionMode(ExecutionMode executionMode) {
+        return executionMode == this.executionMode ? this
+                : new MainApp(executionMode, parallelThreshold, instrumentation);
+    }
+
+    /**
+     * Return a MainApp that records its calls in the given instrumentation, e.g.
+     * {@code app.withInstrumentation(new Instrumentation())}.
+     *
+     * @param instrumentation the instrumentation of the returned MainApp
+     * @return a MainApp with the same mode and threshold
+     */
+    public MainApp withInstrumentation(Instrumentation instrumentation) {
+        return instrumentation == this.instrumentation ? this
+                : new MainApp(executionMode, parallelThreshold, instrumentation);
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public Instrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    private boolean parallel(int size) {
+        return executionMode == ExecutionMode.PARALLEL && size >= parallelThreshold;
+    }
+
+    private <T> Stream<T> stream(List<T> list) {
+        return parallel(list.size()) ? list.parallelStream() : list.stream();
+    }
+
+    private IntStream rows(EmployeeColumns table) {
+        IntStream rows = IntStream.range(0, table.size());
+        return parallel(table.size()) ? rows.parallel() : rows;
+    }
+
+    /**
+     * Compute all the given reports in a single pass over the list of employees.
+     * The report methods below are views over this, so a caller that needs several
+     * of them should ask for all of them at once.
+     *
+     * @param employees a list of employees
+     * @param reports   the reports to compute
+     * @return the combined result of the requested reports
+     */
+    public AggregationResult aggregate(List<? extends EmployeeData> employees, Report... reports) {
+        try (Instrumentation.Call call = instrumentation.start("aggregate(List)", employees.size())) {
+            return scan(employees, reports);
+        }
+    }
+
+    private AggregationResult scan(List<? extends EmployeeData> employees, Report... reports) {
+        return RangeReduction.reduce(employees, parallel(employees.size()),
+                () -> new EmployeeAggregator(reports),
+                (aggregator, row, employee) -> aggregator.accept(employee),
+                EmployeeAggregator::merge).result();
+    }
+
+    /**
+     * Compute all the given reports in a single pass over the columns of the table.
+     *
+     * @param table   a table of employees
+     * @param reports the reports to compute
+     * @return the combined result of the requested reports
+     */
+    public AggregationResult aggregate(EmployeeColumns table, Report... reports) {
+        try (Instrumentation.Call call = instrumentation.start("aggregate(EmployeeColumns)", table.size())) {
+            return scan(table, reports);
+        }
+    }
+
+    private AggregationResult scan(EmployeeColumns table, Report... reports) {
+        if (table instanceof EmployeeTable columns && !parallel(table.size()) && ColumnScan.supports(reports))
+            return ColumnScan.aggregate(columns, ColumnKernels.preferred(), reports);
+        int[] departmentIds = departmentIds(table);
+        return RangeReduction.reduce(table.size(), parallel(table.size()),
+                () -> new EmployeeAggregator(reports),
+                (aggregator, row) -> aggregator.accept(departmentIds[table.departmentCode(row)], table.isMale(row),
+                        table.age(row), table.salary(row)),
+                EmployeeAggregator::merge).result();
+    }
+
+    /**
+     * Compute all the given reports while the employees are being read, without
+     * keeping them in memory. Reading and aggregating overlap, so the reports are
+     * ready as soon as the last record is parsed.
+     *
+     * @param reader  a source of employee records, e.g. {@code EmployeeReader.open(path)}
+     * @param reports the reports to compute
+     * @return the combined result of the requested reports
+     * @throws IOException if the input cannot be read
+     */
+    public AggregationResult aggregate(EmployeeReader reader, Report... reports) throws IOException {
+        try (Instrumentation.Call call = instrumentation.start("aggregate(EmployeeReader)", 0)) {
+            EmployeeAggregator aggregator = new EmployeeAggregator(reports);
+            call.rows(reader.read(EmployeeSink.toAggregator(aggregator)));
+            return aggregator.result();
+        }
+    }
+
+    /**
+     * Compute the approximate department and salary reports from a sample of the
+     * list, reading only the sampled employees when the list has random access and
+     * the rest in a single pass otherwise. See {@link ApproximateResult} for the
+     * error bounds.
+     *
+     * @param employees a list of employees
+     * @return the estimates, each with its bounds
+     */
+    public ApproximateResult approximate(List<? extends EmployeeData> employees) {
+        try (Instrumentation.Call call = instrumentation.start("approximate(List)", employees.size())) {
+            if (employees instanceof RandomAccess)
+                return ApproximateAggregator.sample(employees.size(), row -> employees.get(row).department(),
+                        row -> employees.get(row).salary());
+            return RangeReduction.reduce(employees, parallel(employees.size()),
+                    ApproximateAggregator::new,
+                    (aggregator, row, employee) -> aggregator.accept(row, employee.department(), employee.salary()),
+                    ApproximateAggregator::merge).result();
+        }
+    }
+
+    /**
+     * Compute the approximate department and salary reports from a sample of the
+     * table, reading only the sampled rows.
+     *
+     * @param table a table of employees
+     * @return the estimates, each with its bounds
+     */
+    public ApproximateResult approximate(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start("approximate(EmployeeColumns)", table.size())) {
+            return ApproximateAggregator.sample(table.size(), table::department, table::salary);
+        }
+    }
+
+    /**
+     * Compute the approximate department and salary reports while the employees
+     * are being read, without keeping them in memory.
+     *
+     * @param reader a source of employee records
+     * @return the estimates, each with its bounds
+     * @throws IOException if the input cannot be read
+     */
+    public ApproximateResult approximate(EmployeeReader reader) throws IOException {
+        try (Instrumentation.Call call = instrumentation.start("approximate(EmployeeReader)", 0)) {
+            ApproximateAggregator aggregator = new ApproximateAggregator();
+            long[] row = {0};
+            call.rows(reader.read((id, name, age, gender, department, yearOfJoining, salary) -> aggregator.accept(
+                    row[0]++, department, salary)));
+            return aggregator.result();
+        }
+    }
+
+    /**
+     * Compute every report, and the employees the max salary, oldest and most
+     * experienced reports return, as a {@link PartialAggregate} that can be
+     * serialized and merged with the partials of other partitions.
+     *
+     * @param employees a list of employees, one partition of a roster
+     * @return the partial of the list, using the position in the list as order
+     */
+    public PartialAggregate partial(List<? extends EmployeeData> employees) {
+        try (Instrumentation.Call call = instrumentation.start("partial(List)", employees.size())) {
+            return RangeReduction.reduce(employees, parallel(employees.size()),
+                    PartialAggregate::new,
+                    (partial, row, employee) -> partial.accept(row, employee),
+                    PartialAggregate::merge);
+        }
+    }
 
+    /**
+     * Run several queries together in a single pass over the list of employees.
+     *
+     * @param employees a list of employees
+     * @param queries   the queries to run
+     * @return the result of every query, in the same order as the queries
+     */
+    public List<QueryResult> query(List<Employee> employees, Query... queries) {
+        try (Instrumentation.Call call = instrumentation.start("query(List)", employees.size())) {
+            return QueryPlanner.execute(employees, List.of(queries), parallel(employees.size()));
+        }
+    }
+
+    /**
+     * Run several queries over an indexed roster. Selective queries are answered
+     * from the indexes and the others share a single pass over the roster.
+     *
+     * @param repository an indexed roster
+     * @param queries    the queries to run
+     * @return the result of every query, in the same order as the queries
+     */
+    public List<QueryResult> query(IndexedEmployeeRepository repository, Query... queries) {
+        try (Instrumentation.Call call = instrumentation.start("query(IndexedEmployeeRepository)", repository.size())) {
+            return QueryPlanner.execute(repository, List.of(queries), parallel(repository.size()));
+        }
     }
 
     /**
@@ -19,12 +314,39 @@ public class MainApp {
      * @param employees The list of employees
      * @return A map with the number of male and female employees.
      */
-    public Map<String, Long> countMaleAndFemale(List<Employee> employees) {
-        Map<String, Long> genders = new HashMap<>();
-        long male = employees.stream().filter(e -> e.getGender().equalsIgnoreCase("male")).count();
-        genders.put("male", male);
-        genders.put("female", employees.size() - male);
-        return genders;
+    public Map<String, Long> countMaleAndFemale(List<? extends EmployeeData> employees) {
+        try (Instrumentation.Call call = instrumentation.start("countMaleAndFemale(List)", employees.size())) {
+            return scan(employees, Report.GENDER_COUNT).genderCount();
+        }
+    }
+
+    /**
+     * Count the number of male and female employees in the table.
+     *
+     * @param table a table of employees
+     * @return A map with the number of male and female employees.
+     */
+    public Map<String, Long> countMaleAndFemale(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start("countMaleAndFemale(EmployeeColumns)", table.size())) {
+            return scan(table, Report.GENDER_COUNT).genderCount();
+        }
+    }
+
+    /**
+     * Count the number of male and female employees from the gender index, without
+     * looking at any employee.
+     *
+     * @param repository an indexed roster
+     * @return A map with the number of male and female employees.
+     */
+    public Map<String, Long> countMaleAndFemale(IndexedEmployeeRepository repository) {
+        try (Instrumentation.Call call = instrumentation.start("countMaleAndFemale(IndexedEmployeeRepository)",
+                repository.size())) {
+            Map<String, Long> genders = new HashMap<>();
+            genders.put("male", (long) repository.maleCount());
+            genders.put("female", (long) (repository.size() - repository.maleCount()));
+            return genders;
+        }
     }
 
     /**
@@ -33,9 +355,42 @@ public class MainApp {
      * @param employees a list of employees
      * @return A set of all the departments in the list of employees.
      */
-    public List<String> allDepartments(List<Employee> employees) {
+    public List<String> allDepartments(List<? extends EmployeeData> employees) {
+        try (Instrumentation.Call call = instrumentation.start("allDepartments(List)", employees.size())) {
+            return new ArrayList<>(RangeReduction.reduce(employees, parallel(employees.size()),
+                    DepartmentGroups<Boolean>::new,
+                    (departments, row, employee) -> departments.computeIfAbsent(employee.departmentId(),
+                            () -> Boolean.TRUE),
+                    (left, right) -> left.merge(right, (seen, alsoSeen) -> seen))
+                    .toMap(seen -> seen).keySet());
+        }
+    }
+
+    /**
+     * Given a table of employees, return all the departments. The department
+     * dictionary already holds every distinct department in order of first
+     * appearance, so no rows are scanned.
+     *
+     * @param table a table of employees
+     * @return A list of all the departments in the table.
+     */
+    public List<String> allDepartments(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start("allDepartments(EmployeeColumns)", table.size())) {
+            return new ArrayList<>(table.departmentDictionary().values());
+        }
+    }
 
-        return employees.stream().map(Employee::getDepartment).distinct().collect(Collectors.toList());
+    /**
+     * All the departments of an indexed roster, read from the department index.
+     *
+     * @param repository an indexed roster
+     * @return A list of all the departments in order of first appearance.
+     */
+    public List<String> allDepartments(IndexedEmployeeRepository repository) {
+        try (Instrumentation.Call call = instrumentation.start("allDepartments(IndexedEmployeeRepository)",
+                repository.size())) {
+            return new ArrayList<>(repository.departments());
+        }
     }
 
     /**
@@ -45,23 +400,23 @@ public class MainApp {
      * @param employees a list of employees
      * @return A map with the average age of male and female employees.
      */
-    public Map<String, Integer> averageAgeOfEmployees(List<Employee> employees) {
-        Map<String, Integer> ages = new HashMap<>();
-
-        Integer[] genders = {0, 0, 0};
-
-        employees.forEach(employee -> {
-            if (employee.getGender().equalsIgnoreCase("male")) {
-                genders[0] += employee.getAge();
-                genders[2]++;
-            } else
-                genders[1] += employee.getAge();
-        });
-
-        ages.put("male", genders[0] / genders[2]);
-        ages.put("female", genders[1] / (employees.size() - genders[2]));
+    public Map<String, Integer> averageAgeOfEmployees(List<? extends EmployeeData> employees) {
+        try (Instrumentation.Call call = instrumentation.start("averageAgeOfEmployees(List)", employees.size())) {
+            return scan(employees, Report.AVERAGE_AGE).averageAge();
+        }
+    }
 
-        return ages;
+    /**
+     * Average age of male and female employees in the table.
+     *
+     * @param table a table of employees
+     * @return A map with the average age of male and female employees.
+     */
+    public Map<String, Integer> averageAgeOfEmployees(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start("averageAgeOfEmployees(EmployeeColumns)",
+                table.size())) {
+            return scan(table, Report.AVERAGE_AGE).averageAge();
+        }
     }
 
     /**
@@ -70,8 +425,37 @@ public class MainApp {
      * @param employees a list of employees
      * @return The employee with the highest salary.
      */
-    public Employee getMaxPayedEmployee(List<Employee> employees) {
-        return Collections.max(employees, Comparator.comparingLong(Employee::getSalary));
+    public <E extends EmployeeData> E getMaxPayedEmployee(List<E> employees) {
+        try (Instrumentation.Call call = instrumentation.start("getMaxPayedEmployee(List)", employees.size())) {
+            return firstExtreme(employees, EmployeeData::salary, true);
+        }
+    }
+
+    /**
+     * Return the employee with the highest salary in the table.
+     *
+     * @param table a table of employees
+     * @return The employee with the highest salary.
+     */
+    public Employee getMaxPayedEmployee(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start("getMaxPayedEmployee(EmployeeColumns)", table.size())) {
+            return table.get(firstExtreme(table.size(), table::salary, true));
+        }
+    }
+
+    /**
+     * Return the employee with the highest salary, read from the salary index.
+     *
+     * @param repository an indexed roster
+     * @return The employee with the highest salary.
+     */
+    public Employee getMaxPayedEmployee(IndexedEmployeeRepository repository) {
+        try (Instrumentation.Call call = instrumentation.start("getMaxPayedEmployee(IndexedEmployeeRepository)",
+                repository.size())) {
+            if (repository.size() == 0)
+                throw new NoSuchElementException();
+            return repository.get(repository.salaryIndex().firstOfMax());
+        }
     }
 
     /**
@@ -80,242 +464,1260 @@ public class MainApp {
      * @param employees The list of employees
      * @return A list of employees who joined after 2015.
      */
-    public List<Employee> getEmployeesJoinedAfter2015(List<Employee> employees) {
-        return employees.stream().filter(employee -> employee.getYearOfJoining() > 2015).collect(Collectors.toList());
+    public <E extends EmployeeData> List<E> getEmployeesJoinedAfter2015(List<E> employees) {
+        return getEmployeesJoinedAfter(employees, 2015);
     }
 
     /**
-     * For each employee in the list of employees, if the department of the employee
-     * is already in the map, then increment
-     * the count of employees in that department by 1, else add the department to
-     * the map with a count of 1
+     * Return a list of employees who joined after the given year.
      *
-     * @param employees a list of Employee objects
-     * @return A map of department names and the number of employees in each
-     * department.
+     * @param employees The list of employees
+     * @param year      the last year that is left out
+     * @return A list of employees who joined after the year.
      */
-    public Map<String, Integer> countNumberOfEmployeesInEachDepartment(List<Employee> employees) {
-        Map<String, Integer> departmentEmployees = new LinkedHashMap<>();
-        for (Employee employee : employees) {
-            if (departmentEmployees.containsKey(employee.getDepartment())) {
-                departmentEmployees.put(employee.getDepartment(),
-                        departmentEmployees.get(employee.getDepartment()) + 1);
-            } else {
-                departmentEmployees.put(employee.getDepartment(), 1);
-            }
+    public <E extends EmployeeData> List<E> getEmployeesJoinedAfter(List<E> employees, int year) {
+        try (Instrumentation.Call call = instrumentation.start("getEmployeesJoinedAfter(List)", employees.size())) {
+            return stream(employees).filter(employee -> employee.yearOfJoining() > year)
+                    .collect(Collectors.toList());
         }
-        return departmentEmployees;
     }
 
     /**
-     * We are iterating through the list of employees and adding the salary of each
-     * employee to the departmentEmployees
-     * map.
-     * We are also using the countNumberOfEmployeesInEachDepartment function to get
-     * the number of employees in each
-     * department.
-     * After we have the total salary of each department, we are dividing it by the
-     * number of employees in that department
-     * to get the average salary.
-     * We are returning the departmentEmployees map which now contains the average
-     * salary of each department.
+     * The employees who joined after 2015, delivered lazily, see
+     * {@link #pagedEmployeesJoinedAfter(List, int)}.
      *
-     * @param employees List of employees
-     * @return A map of department and average salary of employees in that
-     * department.
+     * @param employees The list of employees
+     * @return the employees who joined after 2015, as pages or as a publisher
      */
-    public Map<String, Long> averageSalaryOfEachDepartment(List<Employee> employees) {
-        Map<String, Long> departmentEmployees = new LinkedHashMap<>();
-        Map<String, Integer> noOfEmployeesInEachDepartment = this.countNumberOfEmployeesInEachDepartment(employees);
+    public <E extends EmployeeData> PagedRows<E> pagedEmployeesJoinedAfter2015(List<E> employees) {
+        return pagedEmployeesJoinedAfter(employees, 2015);
+    }
 
-        for (Employee employee : employees) {
-            if (departmentEmployees.containsKey(employee.getDepartment())) {
-                departmentEmployees.put(employee.getDepartment(),
-                        departmentEmployees.get(employee.getDepartment()) + employee.getSalary());
-            } else {
-                departmentEmployees.put(employee.getDepartment(), employee.getSalary());
-            }
+    /**
+     * The employees who joined after the given year, delivered lazily: a page at a
+     * time with a cursor, or through a {@code Flow.Publisher} with backpressure.
+     * The list is scanned only as far as the page or the subscriber needs.
+     *
+     * @param employees The list of employees
+     * @param year      the last year that is left out
+     * @return the employees of {@link #getEmployeesJoinedAfter(List, int)}, as
+     * pages or as a publisher
+     */
+    public <E extends EmployeeData> PagedRows<E> pagedEmployeesJoinedAfter(List<E> employees, int year) {
+        try (Instrumentation.Call call = instrumentation.start("pagedEmployeesJoinedAfter(List)", employees.size())) {
+            List<E> rows = randomAccess(employees);
+            return new PagedRows<>("getEmployeesJoinedAfter:" + year, rows.size(),
+                    row -> rows.get(row).yearOfJoining() > year, rows::get);
         }
+    }
 
-        departmentEmployees.replaceAll(
-                (department, salary) -> salary / noOfEmployeesInEachDepartment.get(department));
-        return departmentEmployees;
+    /**
+     * Return the employees of the table who joined after 2015.
+     *
+     * @param table a table of employees
+     * @return A list of employees who joined after 2015.
+     */
+    public List<Employee> getEmployeesJoinedAfter2015(EmployeeColumns table) {
+        return getEmployeesJoinedAfter(table, 2015);
     }
 
     /**
-     * Get the youngest male employee from the product development department.
+     * Return the employees of the table who joined after the given year.
      *
-     * @param employees List of employees
-     * @return The youngest male employee in the productDevelopment department.
+     * @param table a table of employees
+     * @param year  the last year that is left out
+     * @return A list of employees who joined after the year.
+     */
+    public List<Employee> getEmployeesJoinedAfter(EmployeeColumns table, int year) {
+        try (Instrumentation.Call call = instrumentation.start("getEmployeesJoinedAfter(EmployeeColumns)",
+                table.size())) {
+            if (table instanceof EmployeeTable columns && !parallel(table.size()))
+                return year == Integer.MAX_VALUE ? new ArrayList<>()
+                        : rowsWhere(columns, columns.yearOfJoiningColumn(), year + 1, Integer.MAX_VALUE);
+            return rows(table).filter(row -> table.yearOfJoining(row) > year).mapToObj(table::get)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * The employees of a table whose value in an int column is in {@code [min, max]},
+     * in row order, found with the {@link ColumnKernels}.
      */
-    public Employee getYoungestMaleEmployee(List<Employee> employees) throws EmployeeNotFound {
-        return employees.stream()
-                .filter(employee -> employee.getDepartment().equalsIgnoreCase("productDevelopment") && employee.getGender().equalsIgnoreCase("male"))
-                .min(Comparator.comparingInt(Employee::getAge))
-                .orElseThrow(() -> new EmployeeNotFound("productDevelopment"));
+    private static List<Employee> rowsWhere(EmployeeTable table, int[] column, int min, int max) {
+        ColumnKernels kernels = ColumnKernels.preferred();
+        int[] rows = new int[kernels.count(column, 0, table.size(), min, max)];
+        kernels.select(column, 0, table.size(), min, max, rows);
+        List<Employee> employees = new ArrayList<>(rows.length);
+        for (int row : rows)
+            employees.add(table.get(row));
+        return employees;
     }
 
     /**
-     * It returns the employee with the minimum year of joining from the list of
-     * employees(that means most experienced)
+     * Return the employees who joined after 2015, found with a range lookup on the
+     * year of joining index.
      *
-     * @param employees List of employees
-     * @return employee with the max experience
+     * @param repository an indexed roster
+     * @return A list of employees who joined after 2015.
      */
-    public Employee getMaxExperiencedEmployee(List<Employee> employees) {
-        return employees.stream().min(Comparator.comparingInt(Employee::getYearOfJoining)).get();
+    public List<Employee> getEmployeesJoinedAfter2015(IndexedEmployeeRepository repository) {
+        return getEmployeesJoinedAfter(repository, 2015);
     }
 
     /**
-     * It takes a list of employees and returns a map of departments and a map of
-     * genders and the number of employees of
-     * that gender in that department
+     * Return the employees who joined after the given year, found with a range
+     * lookup on the year of joining index.
      *
-     * @param employees List of employees
-     * @return A map of maps. The outer map has two keys, "sales" and "marketing".
-     * The inner maps have two keys, "male" and
-     * "female". The values of the inner maps are the number of employees in
-     * the department with the corresponding gender.
+     * @param repository an indexed roster
+     * @param year       the last year that is left out
+     * @return A list of employees who joined after the year.
      */
-    public Map<String, Map<String, Integer>> employeesInSaleAndMarketing(List<Employee> employees) {
-        Map<String, Map<String, Integer>> maleAndFemales = new LinkedHashMap<>();
-        Map<String, Integer> sales = new LinkedHashMap<>();
-        Map<String, Integer> marketing = new LinkedHashMap<>();
-        employees.forEach(employee -> {
-            if (employee.getDepartment().equalsIgnoreCase("sales")) {
-                if (employee.getGender().equalsIgnoreCase("male")) {
-                    if (sales.containsKey("male"))
-                        sales.put("male", sales.get("male") + 1);
-                    else
-                        sales.put("male", 1);
-                } else {
-                    if (sales.containsKey("female"))
-                        sales.put("female", sales.get("female") + 1);
-                    else
-                        sales.put("female", 1);
-                }
-            } else if (employee.getDepartment().equalsIgnoreCase("marketing")) {
-                if (employee.getGender().equalsIgnoreCase("male")) {
-                    if (marketing.containsKey("male"))
-                        marketing.put("male", marketing.get("male") + 1);
-                    else
-                        marketing.put("male", 1);
-                } else {
-                    if (marketing.containsKey("female"))
-                        marketing.put("female", marketing.get("female") + 1);
-                    else
-                        marketing.put("female", 1);
-                }
-            }
-        });
+    public List<Employee> getEmployeesJoinedAfter(IndexedEmployeeRepository repository, int year) {
+        try (Instrumentation.Call call = instrumentation.start("getEmployeesJoinedAfter(IndexedEmployeeRepository)",
+                repository.size())) {
+            return repository.get(repository.yearOfJoiningIndex().rowsBetween(year + 1L, Long.MAX_VALUE));
+        }
+    }
 
-        maleAndFemales.put("sales", sales);
-        maleAndFemales.put("marketing", marketing);
-        return maleAndFemales;
+    /**
+     * Count the number of employees in each department, in the order the
+     * departments first appear in the list.
+     *
+     * @param employees a list of Employee objects
+     * @return A map of department names and the number of employees in each
+     * department.
+     */
+    public Map<String, Integer> countNumberOfEmployeesInEachDepartment(List<? extends EmployeeData> employees) {
+        try (Instrumentation.Call call = instrumentation.start("countNumberOfEmployeesInEachDepartment(List)",
+                employees.size())) {
+            return scan(employees, Report.DEPARTMENT_COUNT).departmentCount();
+        }
     }
 
     /**
-     * It takes a list of employees and returns a map of average salaries for male
-     * and female employees
+     * Count the number of employees in each department of the table.
      *
-     * @param employees a list of employees
-     * @return A map with the average salary of male and female employees.
+     * @param table a table of employees
+     * @return A map of department names and the number of employees in each
+     * department.
      */
-    public Map<String, Long> avgMaleFemaleSalary(List<Employee> employees) {
-        Long[] genders = {0L, 0L, 0L};
-        employees.forEach(employee -> {
-            if (employee.getGender().equalsIgnoreCase("male")) {
-                genders[0] += employee.getSalary();
-                genders[2]++;
-            } else
-                genders[1] += employee.getSalary();
-        });
-        Map<String, Long> avgSalary = new HashMap<>();
-        avgSalary.put("male", genders[0] / genders[2]);
-        avgSalary.put("female", genders[1] / (employees.size() - genders[2]));
-        return avgSalary;
-    }
-
-    /**
-     * We're iterating over the list of employees, and for each employee, we're
-     * checking if the departmentEmployees map
-     * already contains the employee's department. If it does, we're adding the
-     * employee's name to the list of names for
-     * that department. If it doesn't, we're creating a new list with the employee's
-     * name and adding it to the map
+    public Map<String, Integer> countNumberOfEmployeesInEachDepartment(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start(
+                "countNumberOfEmployeesInEachDepartment(EmployeeColumns)", table.size())) {
+            return scan(table, Report.DEPARTMENT_COUNT).departmentCount();
+        }
+    }
+
+    /**
+     * Count the number of employees in each department from the sizes of the
+     * department index.
      *
-     * @param employees List<Employee>
-     * @return A map of departments and the employees in each department.
+     * @param repository an indexed roster
+     * @return A map of department names and the number of employees in each
+     * department.
      */
-    public Map<String, List<String>> employeesInEachDepartment(List<Employee> employees) {
-        Map<String, List<String>> departmentEmployees = new LinkedHashMap<>();
-        employees.forEach(employee -> {
-            if (departmentEmployees.containsKey(employee.getDepartment())) {
-                List<String> namesList = departmentEmployees.get(employee.getDepartment());
-                namesList.add(employee.getName());
-                departmentEmployees.put(employee.getDepartment(), namesList);
-            } else {
-                List<String> name = new ArrayList<>();
-                name.add(employee.getName());
-                departmentEmployees.put(employee.getDepartment(), name);
-            }
-        });
+    public Map<String, Integer> countNumberOfEmployeesInEachDepartment(IndexedEmployeeRepository repository) {
+        try (Instrumentation.Call call = instrumentation.start(
+                "countNumberOfEmployeesInEachDepartment(IndexedEmployeeRepository)", repository.size())) {
+            Map<String, Integer> departmentEmployees = new LinkedHashMap<>();
+            for (String department : repository.departments())
+                departmentEmployees.put(department, repository.countOfDepartment(department));
+            return departmentEmployees;
+        }
+    }
 
-        return departmentEmployees;
+    /**
+     * The total salary and the number of employees of each department are
+     * accumulated in the same pass, and the total is divided by the number of
+     * employees in that department to get the average salary.
+     *
+     * @param employees List of employees
+     * @return A map of department and average salary of employees in that
+     * department.
+     */
+    public Map<String, Long> averageSalaryOfEachDepartment(List<? extends EmployeeData> employees) {
+        try (Instrumentation.Call call = instrumentation.start("averageSalaryOfEachDepartment(List)",
+                employees.size())) {
+            return scan(employees, Report.DEPARTMENT_AVERAGE_SALARY).departmentAverageSalary();
+        }
     }
 
     /**
-     * Given a list of employees, return a map containing the total and average
-     * salary of all employees.
+     * Average salary of each department of the table.
      *
-     * @param employees a list of employees
-     * @return A map with two keys, "total" and "average", and the corresponding
-     * values.
+     * @param table a table of employees
+     * @return A map of department and average salary of employees in that
+     * department.
      */
-    public Map<String, Long> avgAndTotalSalary(List<Employee> employees) {
-        Long totalSalary = employees.stream().map(Employee::getSalary).reduce(Long::sum).get();
-        Map<String, Long> salaries = new LinkedHashMap<>();
-        salaries.put("total", totalSalary);
-        salaries.put("average", totalSalary / employees.size());
-        return salaries;
+    public Map<String, Long> averageSalaryOfEachDepartment(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start("averageSalaryOfEachDepartment(EmployeeColumns)",
+                table.size())) {
+            return scan(table, Report.DEPARTMENT_AVERAGE_SALARY).departmentAverageSalary();
+        }
     }
 
     /**
-     * It takes a list of employees, separates them into two lists based on their
-     * age, and returns a
-     * map of those two lists
+     * Get the youngest male employee from the product development department.
      *
      * @param employees List of employees
-     * @return A map of employees.
+     * @return The youngest male employee in the productDevelopment department.
      */
-    public Map<String, List<Employee>> separateEmployees(List<Employee> employees) {
-        List<Employee> under25 = new ArrayList<>();
-        List<Employee> above25 = new ArrayList<>();
-        employees.forEach(employee -> {
-            if (employee.getAge() < 26)
-                under25.add(employee);
-            else
-                above25.add(employee);
-        });
-        Map<String, List<Employee>> mapOfEmployees = new LinkedHashMap<>();
-        mapOfEmployees.put("under25", under25);
-        mapOfEmployees.put("above25", above25);
-        return mapOfEmployees;
+    public <E extends EmployeeData> E getYoungestMaleEmployee(List<E> employees) throws EmployeeNotFound {
+        return getYoungestMaleEmployee(employees, "productDevelopment");
     }
 
     /**
-     * "Return the employee with the highest age from the list of employees."
-     * <p>
-     * The function takes a list of employees and returns the employee with the
-     * highest age
+     * Get the youngest male employee of a department.
      *
-     * @param employees The list of employees to be sorted.
-     * @return The oldest employee
+     * @param employees  List of employees
+     * @param department the department, in any case
+     * @return The youngest male employee in the department.
      */
-    public Employee oldestEmployee(List<Employee> employees) {
-        return Collections.max(employees, Comparator.comparingInt(Employee::getAge));
+    public <E extends EmployeeData> E getYoungestMaleEmployee(List<E> employees, String department)
+            throws EmployeeNotFound {
+        try (Instrumentation.Call call = instrumentation.start("getYoungestMaleEmployee(List)", employees.size())) {
+            boolean[] matching = Departments.matchingIgnoreCase(department);
+            E youngest = firstExtreme(employees, employee -> employee.isMale()
+                    && employee.departmentId() < matching.length && matching[employee.departmentId()],
+                    EmployeeData::age, false);
+            if (youngest == null)
+                throw new EmployeeNotFound(department);
+            return youngest;
+        }
     }
 
+    /**
+     * Get the youngest male employee of the product development department from
+     * the table.
+     *
+     * @param table a table of employees
+     * @return The youngest male employee in the productDevelopment department.
+     */
+    public Employee getYoungestMaleEmployee(EmployeeColumns table) throws EmployeeNotFound {
+        return getYoungestMaleEmployee(table, "productDevelopment");
+    }
+
+    /**
+     * Get the youngest male employee of a department from the table. The
+     * department is compared once per dictionary code, not once per row.
+     *
+     * @param table      a table of employees
+     * @param department the department, in any case
+     * @return The youngest male employee in the department.
+     */
+    public Employee getYoungestMaleEmployee(EmployeeColumns table, String department) throws EmployeeNotFound {
+        try (Instrumentation.Call call = instrumentation.start("getYoungestMaleEmployee(EmployeeColumns)",
+                table.size())) {
+            boolean[] matching = new boolean[table.departmentDictionary().size()];
+            for (int code = 0; code < matching.length; code++)
+                matching[code] = table.departmentDictionary().decode(code).equalsIgnoreCase(department);
+
+            return table.get(rows(table)
+                    .filter(row -> matching[table.departmentCode(row)] && table.isMale(row))
+                    .reduce((youngest, row) -> table.age(row) < table.age(youngest) ? row : youngest)
+                    .orElseThrow(() -> new EmployeeNotFound(department)));
+        }
+    }
+
+    /**
+     * Get the youngest male employee of the product development department,
+     * looking only at the employees of that department.
+     *
+     * @param repository an indexed roster
+     * @return The youngest male employee in the productDevelopment department.
+     */
+    public Employee getYoungestMaleEmployee(IndexedEmployeeRepository repository) throws EmployeeNotFound {
+        return getYoungestMaleEmployee(repository, "productDevelopment");
+    }
+
+    /**
+     * Get the youngest male employee of a department, looking only at the
+     * employees of that department.
+     *
+     * @param repository an indexed roster
+     * @param department the department, in any case
+     * @return The youngest male employee in the department.
+     */
+    public Employee getYoungestMaleEmployee(IndexedEmployeeRepository repository, String department)
+            throws EmployeeNotFound {
+        try (Instrumentation.Call call = instrumentation.start("getYoungestMaleEmployee(IndexedEmployeeRepository)",
+                repository.size())) {
+            Employee youngest = null;
+            for (int row : repository.rowsOfDepartmentIgnoreCase(department)) {
+                Employee employee = repository.get(row);
+                if (employee.isMale() && (youngest == null || employee.getAge() < youngest.getAge()))
+                    youngest = employee;
+            }
+            if (youngest == null)
+                throw new EmployeeNotFound(department);
+            return youngest;
+        }
+    }
+
+    /**
+     * It returns the employee with the minimum year of joining from the list of
+     * employees(that means most experienced)
+     *
+     * @param employees List of employees
+     * @return employee with the max experience
+     */
+    public <E extends EmployeeData> E getMaxExperiencedEmployee(List<E> employees) {
+        try (Instrumentation.Call call = instrumentation.start("getMaxExperiencedEmployee(List)", employees.size())) {
+            return firstExtreme(employees, EmployeeData::yearOfJoining, false);
+        }
+    }
+
+    /**
+     * Return the employee of the table with the minimum year of joining.
+     *
+     * @param table a table of employees
+     * @return employee with the max experience
+     */
+    public Employee getMaxExperiencedEmployee(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start("getMaxExperiencedEmployee(EmployeeColumns)",
+                table.size())) {
+            return table.get(firstExtreme(table.size(), table::yearOfJoining, false));
+        }
+    }
+
+    /**
+     * Return the employee with the minimum year of joining, read from the year of
+     * joining index.
+     *
+     * @param repository an indexed roster
+     * @return employee with the max experience
+     */
+    public Employee getMaxExperiencedEmployee(IndexedEmployeeRepository repository) {
+        try (Instrumentation.Call call = instrumentation.start("getMaxExperiencedEmployee(IndexedEmployeeRepository)",
+                repository.size())) {
+            if (repository.size() == 0)
+                throw new NoSuchElementException("No value present");
+            return repository.get(repository.yearOfJoiningIndex().firstOfMin());
+        }
+    }
+
+    /**
+     * It takes a list of employees and returns a map of departments and a map of
+     * genders and the number of employees of
+     * that gender in that department
+     *
+     * @param employees List of employees
+     * @return A map of maps. The outer map has two keys, "sales" and "marketing".
+     * The inner maps have two keys, "male" and
+     * "female". The values of the inner maps are the number of employees in
+     * the department with the corresponding gender.
+     */
+    public Map<String, Map<String, Integer>> employeesInSaleAndMarketing(List<? extends EmployeeData> employees) {
+        return employeesInDepartments(employees, "sales", "marketing");
+    }
+
+    /**
+     * Number of male and female employees of each of the given departments.
+     *
+     * @param employees   List of employees
+     * @param departments the departments to count, in any case
+     * @return A map of maps. The outer map has the given departments as keys, in
+     * the given order. The inner maps have the keys "male" and "female", in order
+     * of first appearance, for the genders found in that department.
+     */
+    public Map<String, Map<String, Integer>> employeesInDepartments(List<? extends EmployeeData> employees,
+            String... departments) {
+        try (Instrumentation.Call call = instrumentation.start("employeesInDepartments(List)", employees.size())) {
+            String[] byDepartmentId = new String[Departments.size()];
+            for (int id = 0; id < byDepartmentId.length; id++) {
+                for (String department : departments) {
+                    if (department.equalsIgnoreCase(Departments.nameOf(id))) {
+                        byDepartmentId[id] = department;
+                        break;
+                    }
+                }
+            }
+
+            return RangeReduction.reduce(employees, parallel(employees.size()),
+                    () -> newDepartmentGenders(departments),
+                    (maleAndFemales, row, employee) -> {
+                        int departmentId = employee.departmentId();
+                        String department = departmentId < byDepartmentId.length ? byDepartmentId[departmentId] : null;
+                        if (department != null)
+                            maleAndFemales.get(department).merge(employee.gender().label(), 1,
+                                    Integer::sum);
+                    },
+                    MainApp::mergeDepartmentGenders);
+        }
+    }
+
+    /**
+     * Number of male and female employees of the sales and marketing departments
+     * of the table.
+     *
+     * @param table a table of employees
+     * @return A map of maps, shaped like {@link #employeesInSaleAndMarketing(List)}.
+     */
+    public Map<String, Map<String, Integer>> employeesInSaleAndMarketing(EmployeeColumns table) {
+        return employeesInDepartments(table, "sales", "marketing");
+    }
+
+    /**
+     * Number of male and female employees of each of the given departments of the
+     * table. The departments are matched once per dictionary code, not once per
+     * row.
+     *
+     * @param table       a table of employees
+     * @param departments the departments to count, in any case
+     * @return A map of maps, shaped like {@link #employeesInDepartments(List, String...)}.
+     */
+    public Map<String, Map<String, Integer>> employeesInDepartments(EmployeeColumns table, String... departments) {
+        try (Instrumentation.Call call = instrumentation.start("employeesInDepartments(EmployeeColumns)",
+                table.size())) {
+            StringDictionary dictionary = table.departmentDictionary();
+            String[] byDepartment = new String[dictionary.size()];
+            for (int code = 0; code < byDepartment.length; code++) {
+                for (String department : departments) {
+                    if (dictionary.decode(code).equalsIgnoreCase(department)) {
+                        byDepartment[code] = department;
+                        break;
+                    }
+                }
+            }
+
+            return RangeReduction.reduce(table.size(), parallel(table.size()),
+                    () -> newDepartmentGenders(departments),
+                    (maleAndFemales, row) -> {
+                        String department = byDepartment[table.departmentCode(row)];
+                        if (department != null)
+                            maleAndFemales.get(department).merge(table.isMale(row) ? "male" : "female", 1,
+                                    Integer::sum);
+                    },
+                    MainApp::mergeDepartmentGenders);
+        }
+    }
+
+    /**
+     * Number of male and female employees of the sales and marketing departments,
+     * looking only at the employees of those two departments.
+     *
+     * @param repository an indexed roster
+     * @return A map of maps, shaped like {@link #employeesInSaleAndMarketing(List)}.
+     */
+    public Map<String, Map<String, Integer>> employeesInSaleAndMarketing(IndexedEmployeeRepository repository) {
+        return employeesInDepartments(repository, "sales", "marketing");
+    }
+
+    /**
+     * Number of male and female employees of each of the given departments,
+     * looking only at the employees of those departments.
+     *
+     * @param repository  an indexed roster
+     * @param departments the departments to count, in any case
+     * @return A map of maps, shaped like {@link #employeesInDepartments(List, String...)}.
+     */
+    public Map<String, Map<String, Integer>> employeesInDepartments(IndexedEmployeeRepository repository,
+            String... departments) {
+        try (Instrumentation.Call call = instrumentation.start("employeesInDepartments(IndexedEmployeeRepository)",
+                repository.size())) {
+            Map<String, Map<String, Integer>> maleAndFemales = newDepartmentGenders(departments);
+            Set<String> seen = new HashSet<>();
+            maleAndFemales.forEach((department, genders) -> {
+                // a department given twice in different case is only counted under the first
+                if (!seen.add(department.toLowerCase(Locale.ROOT)))
+                    return;
+                for (int row : repository.rowsOfDepartmentIgnoreCase(department))
+                    genders.merge(repository.get(row).isMale() ? "male" : "female", 1, Integer::sum);
+            });
+            return maleAndFemales;
+        }
+    }
+
+    /**
+     * It takes a list of employees and returns a map of average salaries for male
+     * and female employees
+     *
+     * @param employees a list of employees
+     * @return A map with the average salary of male and female employees.
+     */
+    public Map<String, Long> avgMaleFemaleSalary(List<? extends EmployeeData> employees) {
+        try (Instrumentation.Call call = instrumentation.start("avgMaleFemaleSalary(List)", employees.size())) {
+            return scan(employees, Report.AVERAGE_GENDER_SALARY).averageGenderSalary();
+        }
+    }
+
+    /**
+     * Average salary of male and female employees of the table.
+     *
+     * @param table a table of employees
+     * @return A map with the average salary of male and female employees.
+     */
+    public Map<String, Long> avgMaleFemaleSalary(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start("avgMaleFemaleSalary(EmployeeColumns)", table.size())) {
+            return scan(table, Report.AVERAGE_GENDER_SALARY).averageGenderSalary();
+        }
+    }
+
+    /**
+     * Group the names of the employees by department, keeping both the departments
+     * and the names of each department in list order.
+     *
+     * @param employees List<Employee>
+     * @return A map of departments and the employees in each department.
+     */
+    public Map<String, List<String>> employeesInEachDepartment(List<? extends EmployeeData> employees) {
+        try (Instrumentation.Call call = instrumentation.start("employeesInEachDepartment(List)", employees.size())) {
+            return RangeReduction.reduce(employees, parallel(employees.size()),
+                    DepartmentGroups<List<String>>::new,
+                    (departmentEmployees, row, employee) -> departmentEmployees
+                            .computeIfAbsent(employee.departmentId(), ArrayList::new).add(employee.name()),
+                    (left, right) -> left.merge(right, (names, moreNames) -> {
+                        names.addAll(moreNames);
+                        return names;
+                    }))
+                    .toMap(names -> names);
+        }
+    }
+
+    /**
+     * The names of the employees of one department, as in
+     * {@link #employeesInEachDepartment(List)}, delivered lazily: a page at a time
+     * with a cursor, or through a {@code Flow.Publisher} with backpressure.
+     *
+     * @param employees  List<Employee>
+     * @param department a department, as written
+     * @return the names of the employees of the department, as pages or as a
+     * publisher
+     */
+    public PagedRows<String> pagedEmployeesInDepartment(List<? extends EmployeeData> employees, String department) {
+        try (Instrumentation.Call call = instrumentation.start("pagedEmployeesInDepartment(List)", employees.size())) {
+            int departmentId = Departments.find(department);
+            // a department no employee was ever in has no rows to scan
+            List<? extends EmployeeData> rows = departmentId < 0 ? List.of() : randomAccess(employees);
+            return new PagedRows<>("employeesInDepartment:" + department, rows.size(),
+                    row -> rows.get(row).departmentId() == departmentId, row -> rows.get(row).name());
+        }
+    }
+
+    /**
+     * Group the rows of the list by department, in a compact form that does not
+     * copy the employees; see {@link DepartmentGrouping}.
+     *
+     * @param employees a list of employees
+     * @return the rows of each department, departments in list order
+     */
+    public DepartmentGrouping groupByDepartment(List<? extends EmployeeData> employees) {
+        try (Instrumentation.Call call = instrumentation.start("groupByDepartment(List)", employees.size())) {
+            return departmentGrouping(employees);
+        }
+    }
+
+    private static DepartmentGrouping departmentGrouping(List<? extends EmployeeData> employees) {
+        if (!(employees instanceof RandomAccess)) {
+            // read the departments with the iterator, get walks the list
+            int[] departmentIds = new int[employees.size()];
+            int row = 0;
+            for (EmployeeData employee : employees)
+                departmentIds[row++] = employee.departmentId();
+            return DepartmentGrouping.of(departmentIds.length, Departments.size(), id -> departmentIds[id],
+                    Departments::nameOf);
+        }
+        return DepartmentGrouping.of(employees.size(), Departments.size(), row -> employees.get(row).departmentId(),
+                Departments::nameOf);
+    }
+
+    /**
+     * Names of the employees of each department of the table, with the names
+     * grouped by department code instead of hashing the department of every row.
+     * A sequential run counts the rows of each department first, from the
+     * department column alone, so every list is created at its final size.
+     *
+     * @param table a table of employees
+     * @return A map of departments and the employees in each department.
+     */
+    public Map<String, List<String>> employeesInEachDepartment(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start("employeesInEachDepartment(EmployeeColumns)",
+                table.size())) {
+            StringDictionary departments = table.departmentDictionary();
+            if (!parallel(table.size()))
+                return DepartmentGrouping.collect(table.size(), departments.size(), table::departmentCode,
+                        departments::decode, table::name);
+            List<List<String>> names = RangeReduction.reduce(table.size(), parallel(table.size()),
+                    () -> {
+                        List<List<String>> byDepartment = new ArrayList<>(departments.size());
+                        for (int code = 0; code < departments.size(); code++)
+                            byDepartment.add(new ArrayList<>());
+                        return byDepartment;
+                    },
+                    (byDepartment, row) -> byDepartment.get(table.departmentCode(row)).add(table.name(row)),
+                    (left, right) -> {
+                        for (int code = 0; code < left.size(); code++)
+                            left.get(code).addAll(right.get(code));
+                        return left;
+                    });
+
+            Map<String, List<String>> departmentEmployees = new LinkedHashMap<>();
+            for (int code = 0; code < departments.size(); code++)
+                departmentEmployees.put(departments.decode(code), names.get(code));
+            return departmentEmployees;
+        }
+    }
+
+    /**
+     * Group the rows of the table by department code, see
+     * {@link #groupByDepartment(List)}.
+     *
+     * @param table a table of employees
+     * @return the rows of each department, departments in table order
+     */
+    public DepartmentGrouping groupByDepartment(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start("groupByDepartment(EmployeeColumns)", table.size())) {
+            return departmentGrouping(table);
+        }
+    }
+
+    private static DepartmentGrouping departmentGrouping(EmployeeColumns table) {
+        StringDictionary departments = table.departmentDictionary();
+        return DepartmentGrouping.of(table.size(), departments.size(), table::departmentCode, departments::decode);
+    }
+
+    /**
+     * Names of the employees of each department, read department by department
+     * from the department index.
+     *
+     * @param repository an indexed roster
+     * @return A map of departments and the employees in each department.
+     */
+    public Map<String, List<String>> employeesInEachDepartment(IndexedEmployeeRepository repository) {
+        try (Instrumentation.Call call = instrumentation.start("employeesInEachDepartment(IndexedEmployeeRepository)",
+                repository.size())) {
+            Map<String, List<String>> departmentEmployees = new LinkedHashMap<>();
+            for (String department : repository.departments()) {
+                int[] rows = repository.rowsOfDepartment(department);
+                List<String> names = new ArrayList<>(rows.length);
+                for (int row : rows)
+                    names.add(repository.get(row).getName());
+                departmentEmployees.put(department, names);
+            }
+            return departmentEmployees;
+        }
+    }
+
+    /**
+     * Given a list of employees, return a map containing the total and average
+     * salary of all employees.
+     *
+     * @param employees a list of employees
+     * @return A map with two keys, "total" and "average", and the corresponding
+     * values.
+     */
+    public Map<String, Long> avgAndTotalSalary(List<? extends EmployeeData> employees) {
+        try (Instrumentation.Call call = instrumentation.start("avgAndTotalSalary(List)", employees.size())) {
+            return scan(employees, Report.SALARY_TOTALS).salaryTotals();
+        }
+    }
+
+    /**
+     * Total and average salary of all the employees of the table.
+     *
+     * @param table a table of employees
+     * @return A map with two keys, "total" and "average", and the corresponding
+     * values.
+     */
+    public Map<String, Long> avgAndTotalSalary(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start("avgAndTotalSalary(EmployeeColumns)", table.size())) {
+            return scan(table, Report.SALARY_TOTALS).salaryTotals();
+        }
+    }
+
+    /**
+     * It takes a list of employees, separates them into two lists based on their
+     * age, and returns a
+     * map of those two lists
+     *
+     * @param employees List of employees
+     * @return A map of employees.
+     */
+    public <E extends EmployeeData> Map<String, List<E>> separateEmployees(List<E> employees) {
+        return separateEmployees(employees, 25);
+    }
+
+    /**
+     * Separate the employees into those at most the given age and those older.
+     *
+     * @param employees List of employees
+     * @param age       the highest age of the first list
+     * @return A map with the keys "under" + age and "above" + age, e.g. "under25"
+     * and "above25".
+     */
+    public <E extends EmployeeData> Map<String, List<E>> separateEmployees(List<E> employees, int age) {
+        try (Instrumentation.Call call = instrumentation.start("separateEmployees(List)", employees.size())) {
+            String under = "under" + age;
+            String above = "above" + age;
+            return RangeReduction.reduce(employees, parallel(employees.size()),
+                    () -> newSeparatedEmployees(under, above),
+                    (mapOfEmployees, row, employee) -> mapOfEmployees.get(employee.age() <= age ? under : above)
+                            .add(employee),
+                    MainApp::mergeSeparatedEmployees);
+        }
+    }
+
+    /**
+     * One of the two lists of {@link #separateEmployees(List, int)}, delivered
+     * lazily: a page at a time with a cursor, or through a {@code Flow.Publisher}
+     * with backpressure.
+     *
+     * @param employees List of employees
+     * @param age       the highest age of the first list
+     * @param group     the key of the list in the map, "under" + age or "above" +
+     *                  age
+     * @return the employees of that list, as pages or as a publisher
+     * @throws IllegalArgumentException if the group is not one of the two keys
+     */
+    public <E extends EmployeeData> PagedRows<E> pagedSeparateEmployees(List<E> employees, int age, String group) {
+        try (Instrumentation.Call call = instrumentation.start("pagedSeparateEmployees(List)", employees.size())) {
+            boolean under = group.equals("under" + age);
+            if (!under && !group.equals("above" + age))
+                throw new IllegalArgumentException("the group should be under" + age + " or above" + age + " : "
+                        + group);
+            List<E> rows = randomAccess(employees);
+            return new PagedRows<>("separateEmployees:" + group, rows.size(),
+                    row -> (rows.get(row).age() <= age) == under, rows::get);
+        }
+    }
+
+    /**
+     * Separate the employees of the table into two lists based on their age.
+     *
+     * @param table a table of employees
+     * @return A map of employees.
+     */
+    public Map<String, List<Employee>> separateEmployees(EmployeeColumns table) {
+        return separateEmployees(table, 25);
+    }
+
+    /**
+     * Separate the employees of the table into those at most the given age and
+     * those older.
+     *
+     * @param table a table of employees
+     * @param age   the highest age of the first list
+     * @return A map shaped like {@link #separateEmployees(List, int)}.
+     */
+    public Map<String, List<Employee>> separateEmployees(EmployeeColumns table, int age) {
+        try (Instrumentation.Call call = instrumentation.start("separateEmployees(EmployeeColumns)", table.size())) {
+            String under = "under" + age;
+            String above = "above" + age;
+            if (table instanceof EmployeeTable columns && !parallel(table.size())) {
+                Map<String, List<Employee>> mapOfEmployees = new LinkedHashMap<>();
+                mapOfEmployees.put(under, rowsWhere(columns, columns.ageColumn(), Integer.MIN_VALUE, age));
+                mapOfEmployees.put(above, age == Integer.MAX_VALUE ? new ArrayList<>()
+                        : rowsWhere(columns, columns.ageColumn(), age + 1, Integer.MAX_VALUE));
+                return mapOfEmployees;
+            }
+            if (!parallel(table.size()))
+                return separate(table.size(), row -> table.age(row) <= age, table::get, under, above);
+            return RangeReduction.reduce(table.size(), true,
+                    () -> newSeparatedEmployees(under, above),
+                    (mapOfEmployees, row) -> mapOfEmployees.get(table.age(row) <= age ? under : above)
+                            .add(table.get(row)),
+                    MainApp::mergeSeparatedEmployees);
+        }
+    }
+
+    /**
+     * Separate the employees into two lists based on their age, with two range
+     * lookups on the age index.
+     *
+     * @param repository an indexed roster
+     * @return A map of employees.
+     */
+    public Map<String, List<Employee>> separateEmployees(IndexedEmployeeRepository repository) {
+        return separateEmployees(repository, 25);
+    }
+
+    /**
+     * Separate the employees into those at most the given age and those older,
+     * with two range lookups on the age index.
+     *
+     * @param repository an indexed roster
+     * @param age        the highest age of the first list
+     * @return A map shaped like {@link #separateEmployees(List, int)}.
+     */
+    public Map<String, List<Employee>> separateEmployees(IndexedEmployeeRepository repository, int age) {
+        try (Instrumentation.Call call = instrumentation.start("separateEmployees(IndexedEmployeeRepository)",
+                repository.size())) {
+            Map<String, List<Employee>> mapOfEmployees = new LinkedHashMap<>();
+            mapOfEmployees.put("under" + age,
+                    repository.get(repository.ageIndex().rowsBetween(Long.MIN_VALUE, age + 1L)));
+            mapOfEmployees.put("above" + age,
+                    repository.get(repository.ageIndex().rowsBetween(age + 1L, Long.MAX_VALUE)));
+            return mapOfEmployees;
+        }
+    }
+
+    /**
+     * Count the employees and sum their salaries in each salary band, over all
+     * the employees, each gender and each department, in a single pass. Unlike
+     * calling {@link #separateEmployees(List, int)} once per band, the cost does
+     * not grow with the number of bands but with its logarithm.
+     *
+     * @param employees  a list of employees
+     * @param boundaries the lowest salary of every band but the first, in
+     *                   ascending order, e.g. 30000, 60000 and 100000 for four
+     *                   bands
+     * @return the histograms of the salary
+     */
+    public HistogramResult salaryHistogram(List<? extends EmployeeData> employees, long... boundaries) {
+        try (Instrumentation.Call call = instrumentation.start("salaryHistogram(List)", employees.size())) {
+            return RangeReduction.reduce(employees, parallel(employees.size()),
+                    () -> new HistogramAggregator(boundaries),
+                    (histograms, row, employee) -> histograms.acceptSalary(employee),
+                    HistogramAggregator::merge).result();
+        }
+    }
+
+    /**
+     * Salary histograms of the table, see {@link #salaryHistogram(List, long...)}.
+     *
+     * @param table      a table of employees
+     * @param boundaries the lowest salary of every band but the first, in
+     *                   ascending order
+     * @return the histograms of the salary
+     */
+    public HistogramResult salaryHistogram(EmployeeColumns table, long... boundaries) {
+        try (Instrumentation.Call call = instrumentation.start("salaryHistogram(EmployeeColumns)", table.size())) {
+            int[] departmentIds = departmentIds(table);
+            return RangeReduction.reduce(table.size(), parallel(table.size()),
+                    () -> new HistogramAggregator(boundaries),
+                    (histograms, row) -> histograms.accept(departmentIds[table.departmentCode(row)],
+                            table.isMale(row), table.salary(row), table.salary(row)),
+                    HistogramAggregator::merge).result();
+        }
+    }
+
+    /**
+     * Count the employees and sum their salaries in each age band, over all the
+     * employees, each gender and each department, in a single pass.
+     *
+     * @param employees  a list of employees
+     * @param boundaries the lowest age of every band but the first, in ascending
+     *                   order, e.g. 26 to split like {@link #separateEmployees(List)}
+     * @return the histograms of the age
+     */
+    public HistogramResult ageHistogram(List<? extends EmployeeData> employees, long... boundaries) {
+        try (Instrumentation.Call call = instrumentation.start("ageHistogram(List)", employees.size())) {
+            return RangeReduction.reduce(employees, parallel(employees.size()),
+                    () -> new HistogramAggregator(boundaries),
+                    (histograms, row, employee) -> histograms.acceptAge(employee),
+                    HistogramAggregator::merge).result();
+        }
+    }
+
+    /**
+     * Age histograms of the table, see {@link #ageHistogram(List, long...)}.
+     *
+     * @param table      a table of employees
+     * @param boundaries the lowest age of every band but the first, in ascending
+     *                   order
+     * @return the histograms of the age
+     */
+    public HistogramResult ageHistogram(EmployeeColumns table, long... boundaries) {
+        try (Instrumentation.Call call = instrumentation.start("ageHistogram(EmployeeColumns)", table.size())) {
+            int[] departmentIds = departmentIds(table);
+            return RangeReduction.reduce(table.size(), parallel(table.size()),
+                    () -> new HistogramAggregator(boundaries),
+                    (histograms, row) -> histograms.accept(departmentIds[table.departmentCode(row)],
+                            table.isMale(row), table.age(row), table.salary(row)),
+                    HistogramAggregator::merge).result();
+        }
+    }
+
+    /**
+     * "Return the employee with the highest age from the list of employees."
+     * <p>
+     * The function takes a list of employees and returns the employee with the
+     * highest age
+     *
+     * @param employees The list of employees to be sorted.
+     * @return The oldest employee
+     */
+    public <E extends EmployeeData> E oldestEmployee(List<E> employees) {
+        try (Instrumentation.Call call = instrumentation.start("oldestEmployee(List)", employees.size())) {
+            return firstExtreme(employees, EmployeeData::age, true);
+        }
+    }
+
+    /**
+     * Return the employee with the highest age in the table.
+     *
+     * @param table a table of employees
+     * @return The oldest employee
+     */
+    public Employee oldestEmployee(EmployeeColumns table) {
+        try (Instrumentation.Call call = instrumentation.start("oldestEmployee(EmployeeColumns)", table.size())) {
+            return table.get(firstExtreme(table.size(), table::age, true));
+        }
+    }
+
+    /**
+     * Return the employee with the highest age, read from the age index.
+     *
+     * @param repository an indexed roster
+     * @return The oldest employee
+     */
+    public Employee oldestEmployee(IndexedEmployeeRepository repository) {
+        try (Instrumentation.Call call = instrumentation.start("oldestEmployee(IndexedEmployeeRepository)",
+                repository.size())) {
+            if (repository.size() == 0)
+                throw new NoSuchElementException();
+            return repository.get(repository.ageIndex().firstOfMax());
+        }
+    }
+
+    /**
+     * Return the n employees with the highest salaries, highest first. Employees
+     * with equal salaries come in list order.
+     *
+     * @param employees a list of employees
+     * @param n         the number of employees to return
+     * @return the top earners, at most n of them
+     */
+    public <E extends EmployeeData> List<E> getTopPayedEmployees(List<E> employees, int n) {
+        try (Instrumentation.Call call = instrumentation.start("getTopPayedEmployees(List)", employees.size())) {
+            return RangeReduction.reduce(employees, parallel(employees.size()),
+                    () -> TopK.<E>largest(n),
+                    (top, row, employee) -> top.offer(employee.salary(), row, employee),
+                    TopK::merge).result();
+        }
+    }
+
+    /**
+     * Return the n employees of the table with the highest salaries, highest first.
+     *
+     * @param table a table of employees
+     * @param n     the number of employees to return
+     * @return the top earners, at most n of them
+     */
+    public List<Employee> getTopPayedEmployees(EmployeeColumns table, int n) {
+        try (Instrumentation.Call call = instrumentation.start("getTopPayedEmployees(EmployeeColumns)", table.size())) {
+            List<Integer> rows = RangeReduction.reduce(table.size(), parallel(table.size()),
+                    () -> TopK.<Integer>largest(n),
+                    (top, row) -> top.offer(table.salary(row), row, row),
+                    TopK::merge).result();
+            List<Employee> result = new ArrayList<>(rows.size());
+            for (int row : rows)
+                result.add(table.get(row));
+            return result;
+        }
+    }
+
+    /**
+     * Return the n youngest employees of each department, youngest first.
+     * Employees of the same age come in list order.
+     *
+     * @param employees a list of employees
+     * @param n         the number of employees to return per department
+     * @return a map of department and its youngest employees, in order of first
+     * appearance of the departments
+     */
+    public <E extends EmployeeData> Map<String, List<E>> getYoungestEmployeesOfEachDepartment(List<E> employees,
+            int n) {
+        try (Instrumentation.Call call = instrumentation.start("getYoungestEmployeesOfEachDepartment(List)",
+                employees.size())) {
+            return RangeReduction.reduce(employees, parallel(employees.size()),
+                    DepartmentGroups<TopK<E>>::new,
+                    (departments, row, employee) -> departments
+                            .computeIfAbsent(employee.departmentId(), () -> TopK.smallest(n))
+                            .offer(employee.age(), row, employee),
+                    (left, right) -> left.merge(right, TopK::merge))
+                    .toMap(TopK::result);
+        }
+    }
+
+    /**
+     * Return the n youngest employees of each department of the table, youngest
+     * first.
+     *
+     * @param table a table of employees
+     * @param n     the number of employees to return per department
+     * @return a map of department and its youngest employees
+     */
+    public Map<String, List<Employee>> getYoungestEmployeesOfEachDepartment(EmployeeColumns table, int n) {
+        try (Instrumentation.Call call = instrumentation.start("getYoungestEmployeesOfEachDepartment(EmployeeColumns)",
+                table.size())) {
+            StringDictionary departments = table.departmentDictionary();
+            List<TopK<Integer>> youngest = RangeReduction.reduce(table.size(), parallel(table.size()),
+                    () -> newTopKs(departments.size(), n),
+                    (tops, row) -> tops.get(table.departmentCode(row)).offer(table.age(row), row, row),
+                    (left, right) -> {
+                        for (int code = 0; code < left.size(); code++)
+                            left.get(code).merge(right.get(code));
+                        return left;
+                    });
+            Map<String, List<Employee>> result = new LinkedHashMap<>();
+            for (int code = 0; code < youngest.size(); code++) {
+                if (youngest.get(code).size() == 0)
+                    continue;
+                List<Employee> employees = new ArrayList<>();
+                for (int row : youngest.get(code).result())
+                    employees.add(table.get(row));
+                result.put(departments.decode(code), employees);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Approximate salary percentiles over all employees, from a single pass with a
+     * {@link KllSketch}. The values are exact for rosters of a few hundred
+     * employees and off by about {@link KllSketch#rankError()} in rank beyond.
+     *
+     * @param employees   a list of employees
+     * @param percentiles fractions between 0 and 1, e.g. 0.5, 0.9 and 0.99
+     * @return the salary at each percentile, in the same order
+     */
+    public long[] salaryPercentiles(List<? extends EmployeeData> employees, double... percentiles) {
+        try (Instrumentation.Call call = instrumentation.start("salaryPercentiles(List)", employees.size())) {
+            return RangeReduction.reduce(employees, parallel(employees.size()),
+                    KllSketch::new,
+                    (sketch, row, employee) -> sketch.update(employee.salary()),
+                    KllSketch::merge).quantiles(percentiles);
+        }
+    }
+
+    /**
+     * Approximate salary percentiles of each department, from a single pass with
+     * one {@link KllSketch} per department.
+     *
+     * @param employees   a list of employees
+     * @param percentiles fractions between 0 and 1, e.g. 0.5, 0.9 and 0.99
+     * @return a map of department and the salary at each percentile, in order of
+     * first appearance of the departments
+     */
+    public Map<String, long[]> salaryPercentilesOfEachDepartment(List<? extends EmployeeData> employees,
+            double... percentiles) {
+        try (Instrumentation.Call call = instrumentation.start("salaryPercentilesOfEachDepartment(List)",
+                employees.size())) {
+            return RangeReduction.reduce(employees, parallel(employees.size()),
+                    DepartmentGroups<KllSketch>::new,
+                    (departments, row, employee) -> departments
+                            .computeIfAbsent(employee.departmentId(), KllSketch::new)
+                            .update(employee.salary()),
+                    (left, right) -> left.merge(right, KllSketch::merge))
+                    .toMap(sketch -> sketch.quantiles(percentiles));
+        }
+    }
+
+    /**
+     * Approximate salary percentiles of each department of the table.
+     *
+     * @param table       a table of employees
+     * @param percentiles fractions between 0 and 1, e.g. 0.5, 0.9 and 0.99
+     * @return a map of department and the salary at each percentile
+     */
+    public Map<String, long[]> salaryPercentilesOfEachDepartment(EmployeeColumns table, double... percentiles) {
+        try (Instrumentation.Call call = instrumentation.start("salaryPercentilesOfEachDepartment(EmployeeColumns)",
+                table.size())) {
+            StringDictionary departments = table.departmentDictionary();
+            KllSketch[] sketches = RangeReduction.reduce(table.size(), parallel(table.size()),
+                    () -> {
+                        KllSketch[] empty = new KllSketch[departments.size()];
+                        for (int code = 0; code < empty.length; code++)
+                            empty[code] = new KllSketch();
+                        return empty;
+                    },
+                    (departmentSketches, row) -> departmentSketches[table.departmentCode(row)]
+                            .update(table.salary(row)),
+                    (left, right) -> {
+                        for (int code = 0; code < left.length; code++)
+                            left[code].merge(right[code]);
+                        return left;
+                    });
+            Map<String, long[]> result = new LinkedHashMap<>();
+            for (int code = 0; code < sketches.length; code++)
+                if (sketches[code].count() > 0)
+                    result.put(departments.decode(code), sketches[code].quantiles(percentiles));
+            return result;
+        }
+    }
+
+    /**
+     * @return the list itself if it has fast random access, else a copy taken with
+     * its iterator, for the paged reports that resume at a row
+     */
+    private static <E> List<E> randomAccess(List<E> employees) {
+        return employees instanceof RandomAccess ? employees : new ArrayList<>(employees);
+    }
+
+    /**
+     * @return the first employee of the list holding the largest (or smallest) key
+     * @throws NoSuchElementException if the list is empty
+     */
+    private <E> E firstExtreme(List<E> employees, ToLongFunction<? super E> key, boolean largest) {
+        E best = firstExtreme(employees, employee -> true, key, largest);
+        if (best == null)
+            throw new NoSuchElementException("No value present");
+        return best;
+    }
+
+    /**
+     * @return the first of the included employees holding the largest (or
+     * smallest) key, or null if no employee is included
+     */
+    private <E> E firstExtreme(List<E> employees, Predicate<? super E> include, ToLongFunction<? super E> key,
+            boolean largest) {
+        return RangeReduction.reduce(employees, parallel(employees.size()),
+                () -> new Extreme<E>(largest),
+                (extreme, row, employee) -> {
+                    if (include.test(employee))
+                        extreme.offer(key.applyAsLong(employee), employee);
+                },
+                Extreme::merge).employee;
+    }
+
+    /**
+     * The first employee holding the largest (or smallest) key of a range of the
+     * list.
+     */
+    private static final class Extreme<E> {
+        private final boolean largest;
+        private long key;
+        private E employee;
+
+        Extreme(boolean largest) {
+            this.largest = largest;
+        }
+
+        void offer(long key, E employee) {
+            if (this.employee == null || (largest ? key > this.key : key < this.key)) {
+                this.key = key;
+                this.employee = employee;
+            }
+        }
+
+        Extreme<E> merge(Extreme<E> right) {
+            if (right.employee != null)
+                offer(right.key, right.employee);
+            return this;
+        }
+    }
+
+    /**
+     * @return the first row holding the largest (or smallest) key
+     * @throws NoSuchElementException if there are no rows
+     */
+    private int firstExtreme(int size, IntToLongFunction key, boolean largest) {
+        int best = firstExtreme(size, row -> true, key, largest);
+        if (best < 0)
+            throw new NoSuchElementException("No value present");
+        return best;
+    }
+
+    /**
+     * @return the first of the included rows holding the largest (or smallest)
+     * key, or -1 if no row is included
+     */
+    private int firstExtreme(int size, IntPredicate include, IntToLongFunction key, boolean largest) {
+        int[] best = RangeReduction.reduce(size, parallel(size),
+                () -> new int[]{-1},
+                (extreme, row) -> {
+                    if (include.test(row) && (extreme[0] < 0
+                            || (largest ? key.applyAsLong(row) > key.applyAsLong(extreme[0])
+                            : key.applyAsLong(row) < key.applyAsLong(extreme[0]))))
+                        extreme[0] = row;
+                },
+                (left, right) -> {
+                    if (left[0] < 0 || (right[0] >= 0 && (largest
+                            ? key.applyAsLong(right[0]) > key.applyAsLong(left[0])
+                            : key.applyAsLong(right[0]) < key.applyAsLong(left[0]))))
+                        return right;
+                    return left;
+                });
+        return best[0];
+    }
+
+    private static List<TopK<Integer>> newTopKs(int departments, int n) {
+        List<TopK<Integer>> tops = new ArrayList<>(departments);
+        for (int code = 0; code < departments; code++)
+            tops.add(TopK.smallest(n));
+        return tops;
+    }
+
+    /**
+     * @return the {@link Departments} id of every department code of the table
+     */
+    private static int[] departmentIds(EmployeeColumns table) {
+        StringDictionary departments = table.departmentDictionary();
+        int[] ids = new int[departments.size()];
+        for (int code = 0; code < ids.length; code++)
+            ids[code] = Departments.idOf(departments.decode(code));
+        return ids;
+    }
+
+    private static Map<String, Map<String, Integer>> newDepartmentGenders(String... departments) {
+        Map<String, Map<String, Integer>> maleAndFemales = new LinkedHashMap<>();
+        for (String department : departments)
+            maleAndFemales.put(department, new LinkedHashMap<>());
+        return maleAndFemales;
+    }
+
+    private static Map<String, Map<String, Integer>> mergeDepartmentGenders(Map<String, Map<String, Integer>> left,
+            Map<String, Map<String, Integer>> right) {
+        right.forEach((department, genders) -> genders
+                .forEach((gender, count) -> left.get(department).merge(gender, count, Integer::sum)));
+        return left;
+    }
+
+    /**
+     * Split the rows in two lists sized exactly, counting the rows of the first
+     * list before filling either.
+     */
+    private static <E> Map<String, List<E>> separate(int size, IntPredicate isUnder, IntFunction<E> employeeOf,
+            String under, String above) {
+        int underCount = 0;
+        for (int row = 0; row < size; row++)
+            underCount += isUnder.test(row) ? 1 : 0;
+        List<E> underEmployees = new ArrayList<>(underCount);
+        List<E> aboveEmployees = new ArrayList<>(size - underCount);
+        for (int row = 0; row < size; row++)
+            (isUnder.test(row) ? underEmployees : aboveEmployees).add(employeeOf.apply(row));
+        Map<String, List<E>> mapOfEmployees = new LinkedHashMap<>();
+        mapOfEmployees.put(under, underEmployees);
+        mapOfEmployees.put(above, aboveEmployees);
+        return mapOfEmployees;
+    }
+
+    private static <E> Map<String, List<E>> newSeparatedEmployees(String under, String above) {
+        Map<String, List<E>> mapOfEmployees = new LinkedHashMap<>();
+        mapOfEmployees.put(under, new ArrayList<>());
+        mapOfEmployees.put(above, new ArrayList<>());
+        return mapOfEmployees;
+    }
+
+    private static <E> Map<String, List<E>> mergeSeparatedEmployees(Map<String, List<E>> left,
+            Map<String, List<E>> right) {
+        right.forEach((key, employees) -> left.get(key).addAll(employees));
+        return left;
+    }
+
+    /**
+     * Load a list of employees from a CSV, TSV or binary file, see
+     * {@link EmployeeReader#open(Path)}. For large files prefer reading into an
+     * {@link EmployeeTable} or straight into {@link #aggregate(EmployeeReader, Report...)}.
+     *
+     * @param file the file to read
+     * @return the employees of the file, in file order
+     * @throws IOException if the file cannot be read
+     */
+    public List<Employee> getList(Path file) throws IOException {
+        try (EmployeeReader reader = EmployeeReader.open(file)) {
+            return reader.readList();
+        }
+    }
+
+    /**
+     * Read the employees interactively from the console, prompting for every field.
+     * Only meant for typing in a handful of employees, see {@link #getList(Path)}
+     * for loading files.
+     *
+     * @return the employees that were typed in
+     */
     public List<Employee> getList() {
         int noOfEmployees = sc.nextInt();
         List<Employee> employees = new ArrayList<>();
@@ -0,0 +1,152 @@
+package org.example.aggregation;
+
+import org.example.model.Departments;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * The combined outcome of one {@link EmployeeAggregator} pass. Each report is
+ * exposed in exactly the shape the matching {@code MainApp} method returns, and
+ * asking for a report that was not part of the pass is an error.
+ * <p>
+ * Averages are rounded to the nearest whole number, halves away from zero, and
+ * are exact even when the salary sums they come from do not fit in a long.
+ */
+public class AggregationResult {
+    private final Set<Report> reports;
+    private final long rows;
+    private final long maleCount;
+    private final long maleAge;
+    private final long femaleAge;
+    private final long maleSalary;
+    private final long femaleSalary;
+    private final long totalSalary;
+    private final long maleSalaryHigh;
+    private final long femaleSalaryHigh;
+    private final long totalSalaryHigh;
+    /**
+     * the number of employees and the high and low words of their total salary
+     */
+    private final Map<String, long[]> departments;
+
+    AggregationResult(EmployeeAggregator aggregator, Set<Report> reports) {
+        this.reports = reports;
+        this.rows = aggregator.rows;
+        this.maleCount = aggregator.maleCount;
+        this.maleAge = aggregator.maleAge;
+        this.femaleAge = aggregator.femaleAge;
+        this.maleSalary = aggregator.maleSalary;
+        this.femaleSalary = aggregator.femaleSalary;
+        this.totalSalary = aggregator.totalSalary;
+        this.maleSalaryHigh = aggregator.maleSalaryHigh;
+        this.femaleSalaryHigh = aggregator.femaleSalaryHigh;
+        this.totalSalaryHigh = aggregator.totalSalaryHigh;
+        this.departments = new LinkedHashMap<>();
+        for (int i = 0; i < aggregator.departmentCount; i++) {
+            int departmentId = aggregator.departmentOrder[i];
+            this.departments.put(Departments.nameOf(departmentId), new long[]{
+                    aggregator.departmentEmployees[departmentId], aggregator.departmentSalaryHighs[departmentId],
+                    aggregator.departmentSalaries[departmentId]});
+        }
+    }
+
+    /**
+     * @return the set of reports this result can answer
+     */
+    public Set<Report> reports() {
+        return Collections.unmodifiableSet(reports);
+    }
+
+    /**
+     * @return A map with the number of male and female employees.
+     */
+    public Map<String, Long> genderCount() {
+        require(Report.GENDER_COUNT);
+        Map<String, Long> genders = new HashMap<>();
+        genders.put("male", maleCount);
+        genders.put("female", rows - maleCount);
+        return genders;
+    }
+
+    /**
+     * @return A map with the average age of male and female employees. A gender
+     * without employees has no entry.
+     */
+    public Map<String, Integer> averageAge() {
+        require(Report.AVERAGE_AGE);
+        Map<String, Integer> ages = new HashMap<>();
+        if (maleCount > 0)
+            ages.put("male", (int) WideSum.average(maleAge, maleCount));
+        if (rows > maleCount)
+            ages.put("female", (int) WideSum.average(femaleAge, rows - maleCount));
+        return ages;
+    }
+
+    /**
+     * @return A map with the average salary of male and female employees. A
+     * gender without employees has no entry.
+     */
+    public Map<String, Long> averageGenderSalary() {
+        require(Report.AVERAGE_GENDER_SALARY);
+        Map<String, Long> avgSalary = new HashMap<>();
+        if (maleCount > 0)
+            avgSalary.put("male", WideSum.average(maleSalaryHigh, maleSalary, maleCount));
+        if (rows > maleCount)
+            avgSalary.put("female", WideSum.average(femaleSalaryHigh, femaleSalary, rows - maleCount));
+        return avgSalary;
+    }
+
+    /**
+     * @return A map with two keys, "total" and "average", and the corresponding
+     * values.
+     * @throws ArithmeticException if the total does not fit in a long, see
+     *                             {@link #exactTotalSalary()}
+     */
+    public Map<String, Long> salaryTotals() {
+        require(Report.SALARY_TOTALS);
+        if (rows == 0)
+            throw new NoSuchElementException("No value present");
+        Map<String, Long> salaries = new LinkedHashMap<>();
+        salaries.put("total", WideSum.longValueExact(totalSalaryHigh, totalSalary));
+        salaries.put("average", WideSum.average(totalSalaryHigh, totalSalary, rows));
+        return salaries;
+    }
+
+    /**
+     * @return the total salary of all the employees, exact even when it does not
+     * fit in a long
+     */
+    public BigInteger exactTotalSalary() {
+        require(Report.SALARY_TOTALS);
+        return WideSum.value(totalSalaryHigh, totalSalary);
+    }
+
+    /**
+     * @return A map of department names and the number of employees in each
+     * department.
+     */
+    public Map<String, Integer> departmentCount() {
+        require(Report.DEPARTMENT_COUNT);
+        Map<String, Integer> departmentEmployees = new LinkedHashMap<>();
+        departments.forEach((department, totals) -> departmentEmployees.put(department, (int) totals[0]));
+        return departmentEmployees;
+    }
+
+    /**
+     * @return A map of department and average salary of employees in that
+     * department.
+     */
+    public Map<String, Long> departmentAverageSalary() {
+        require(Report.DEPARTMENT_AVERAGE_SALARY);
+        Map<String, Long> departmentEmployees = new LinkedHashMap<>();
+        departments.forEach((department, totals) ->
+                departmentEmployees.put(department, WideSum.average(totals[1], totals[2], totals[0])));
+        return departmentEmployees;
+    }
+
+    private void require(Report report) {
+        if (!reports.contains(report))
+            throw new IllegalStateException(report + " was not part of this aggregation");
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.aggregation;
+
+import org.example.model.EmployeeData;
+import org.example.sketch.CountMinSketch;
+import org.example.sketch.HyperLogLog;
+import org.example.sketch.Reservoir;
+
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Accumulates approximate department and salary reports in memory that does not
+ * grow with the roster: a {@link HyperLogLog} of the departments, a
+ * {@link CountMinSketch} of the employees per department and a uniform
+ * {@link Reservoir} sample of the salaries.
+ * <p>
+ * Aggregators of disjoint parts of a roster can be {@link #merge(ApproximateAggregator)
+ * merged}, so the sketches of every partition of a large historical roster can be
+ * built once, kept, and combined in milliseconds whenever a dashboard asks.
+ * <p>
+ * A roster whose rows can be read in any order does not need a pass at all:
+ * {@link #sample(int, IntFunction, IntToLongFunction) sample} chooses the rows
+ * from their positions alone and reads only those.
+ */
+public class ApproximateAggregator {
+    public static final int DEFAULT_SAMPLE_SIZE = 10_000;
+    /**
+     * department counts are off by at most 0.1% of the roster, with 99% probability
+     */
+    private static final double COUNT_EPSILON = 0.001;
+    private static final double COUNT_DELTA = 0.01;
+    private static final long SAMPLE_SEED = 0;
+
+    long rows;
+    final HyperLogLog departments = new HyperLogLog();
+    final CountMinSketch departmentCounts = CountMinSketch.of(COUNT_EPSILON, COUNT_DELTA);
+    final Reservoir<SampledSalary> salaries;
+
+    public ApproximateAggregator() {
+        this(DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * @param sampleSize the number of salaries to sample
+     */
+    public ApproximateAggregator(int sampleSize) {
+        this.salaries = new Reservoir<>(sampleSize);
+    }
+
+    /**
+     * Adds an employee given by its position in the roster.
+     *
+     * @param row      the position of the employee in the roster
+     * @param employee the employee to add
+     * @see #accept(long, String, long)
+     */
+    public void accept(long row, EmployeeData employee) {
+        accept(row, employee.department(), employee.salary());
+    }
+
+    /**
+     * Adds a row given by its position in the roster. The position decides whether
+     * the row is sampled, so there is no overload that numbers the rows itself:
+     * aggregators that will be merged must be given the rows of the whole roster,
+     * not of their own part, for the merged sample to be the one a single pass
+     * would have drawn.
+     *
+     * @param row        the position of the row in the roster
+     * @param department the department of the row
+     * @param salary     the salary of the row
+     */
+    public void accept(long row, String department, long salary) {
+        rows++;
+        departments.add(department);
+        departmentCounts.add(department, 1);
+        if (salaries.admits(row))
+            salaries.offer(row, new SampledSalary(row, department, salary));
+        else
+            salaries.skip();
+    }
+
+    /**
+     * @param other an aggregator over other rows of the same roster
+     * @return this aggregator, now holding both
+     */
+    public ApproximateAggregator merge(ApproximateAggregator other) {
+        rows += other.rows;
+        departments.merge(other.departments);
+        departmentCounts.merge(other.departmentCounts);
+        salaries.merge(other.salaries);
+        return this;
+    }
+
+    public ApproximateResult result() {
+        return new ApproximateResult(this);
+    }
+
+    /**
+     * Estimates the reports of a roster with random access from a uniform sample
+     * of {@link #DEFAULT_SAMPLE_SIZE} rows drawn without replacement, reading only
+     * the sampled rows, so the cost does not grow with the roster. The department
+     * counts and the distinct departments are estimated from the sample instead of
+     * from sketches of every row.
+     *
+     * @param size            the number of rows of the roster
+     * @param departmentOfRow the department of a row
+     * @param salaryOfRow     the salary of a row
+     * @return the estimates, each with its bounds
+     */
+    public static ApproximateResult sample(int size, IntFunction<String> departmentOfRow,
+            IntToLongFunction salaryOfRow) {
+        int[] rows = sampleRows(size, DEFAULT_SAMPLE_SIZE, SAMPLE_SEED);
+        List<SampledSalary> sample = new ArrayList<>(rows.length);
+        for (int row : rows)
+            sample.add(new SampledSalary(row, departmentOfRow.apply(row), salaryOfRow.applyAsLong(row)));
+        return new ApproximateResult(size, sample);
+    }
+
+    /**
+     * Floyd's algorithm: a uniform choice of k distinct rows out of size in O(k),
+     * reproducible for a given seed.
+     *
+     * @return the chosen rows, in increasing order
+     */
+    static int[] sampleRows(int size, int k, long seed) {
+        if (size <= k) {
+            int[] rows = new int[size];
+            Arrays.setAll(rows, row -> row);
+            return rows;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        Set<Integer> chosen = new HashSet<>(2 * k);
+        for (int last = size - k; last < size; last++) {
+            int row = random.nextInt(last + 1);
+            chosen.add(chosen.contains(row) ? last : row);
+        }
+        int[] rows = new int[k];
+        int i = 0;
+        for (int row : chosen)
+            rows[i++] = row;
+        Arrays.sort(rows);
+        return rows;
+    }
+
+    /**
+     * One sampled row.
+     */
+    static final class SampledSalary {
+        final long row;
+        final String department;
+        final long salary;
+
+        SampledSalary(long row, String department, long salary) {
+            this.row = row;
+            this.department = department;
+            this.salary = salary;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.example.aggregation;
+
+import org.example.aggregation.ApproximateAggregator.SampledSalary;
+import org.example.sketch.CountMinSketch;
+import org.example.sketch.Estimate;
+
+import java.util.*;
+
+/**
+ * The outcome of one {@link ApproximateAggregator} pass. Every answer is an
+ * {@link Estimate} carrying its own bounds: 95% confidence intervals for the
+ * distinct departments and the averages, and the Count-Min guarantee for the
+ * department counts. When the sample holds every row the averages are exact.
+ * <p>
+ * A result {@link ApproximateAggregator#sample sampled} without a pass has no
+ * sketches: it scales the sampled department counts up to the roster, with
+ * Wilson score intervals, and estimates the distinct departments with the Chao1
+ * estimator, which adds the departments the sample likely missed from the number
+ * it saw once and twice. When the sample holds every row every answer is exact.
+ */
+public class ApproximateResult {
+    /**
+     * the number of standard errors either side of the mean, for 95% confidence
+     */
+    private static final double Z_95 = 1.96;
+
+    private final long rows;
+    private final Estimate distinctDepartments;
+    /**
+     * the sketch of every row, or null when only the sample was read
+     */
+    private final CountMinSketch departmentCounts;
+    private final List<SampledSalary> sample;
+    private final Map<String, Integer> sampledCounts = new HashMap<>();
+
+    ApproximateResult(ApproximateAggregator aggregator) {
+        this.rows = aggregator.rows;
+        this.distinctDepartments = aggregator.departments.estimate();
+        this.departmentCounts = aggregator.departmentCounts;
+        this.sample = sorted(aggregator.salaries.sample());
+    }
+
+    ApproximateResult(long rows, List<SampledSalary> sample) {
+        this.rows = rows;
+        this.departmentCounts = null;
+        this.sample = sorted(sample);
+        for (SampledSalary sampled : this.sample)
+            sampledCounts.merge(sampled.department, 1, Integer::sum);
+        this.distinctDepartments = chao1();
+    }
+
+    private static List<SampledSalary> sorted(List<SampledSalary> sample) {
+        List<SampledSalary> sorted = new ArrayList<>(sample);
+        sorted.sort(Comparator.comparingLong(sampled -> sampled.row));
+        return sorted;
+    }
+
+    private boolean exhaustive() {
+        return sample.size() >= rows;
+    }
+
+    /**
+     * The bias corrected Chao1 estimate, whose lower bound is the number of
+     * departments seen and whose upper bound cannot exceed one new department per
+     * row left out of the sample.
+     */
+    private Estimate chao1() {
+        int seen = sampledCounts.size();
+        if (exhaustive())
+            return Estimate.exact(seen);
+        double once = 0;
+        double twice = 0;
+        for (int count : sampledCounts.values()) {
+            if (count == 1)
+                once++;
+            else if (count == 2)
+                twice++;
+        }
+        double unseen = once * (once - 1) / (2 * (twice + 1));
+        double variance = unseen + once * (2 * once - 1) * (2 * once - 1) / (4 * (twice + 1) * (twice + 1))
+                + once * once * twice * (once - 1) * (once - 1) / (4 * Math.pow(twice + 1, 4));
+        double most = seen + (double) (rows - sample.size());
+        double value = Math.min(most, seen + unseen);
+        return new Estimate(value, seen, Math.min(most, value + Z_95 * Math.sqrt(variance)), 0.95);
+    }
+
+    /**
+     * @return the exact number of rows
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of sampled rows
+     */
+    public int sampleSize() {
+        return sample.size();
+    }
+
+    /**
+     * @return the estimated number of distinct departments
+     */
+    public Estimate distinctDepartments() {
+        return distinctDepartments;
+    }
+
+    /**
+     * @param department a department, exactly as written
+     * @return the estimated number of employees of the department
+     */
+    public Estimate departmentCount(String department) {
+        if (departmentCounts != null)
+            return departmentCounts.estimate(department);
+        int sampled = sampledCounts.getOrDefault(department, 0);
+        if (exhaustive())
+            return Estimate.exact(sampled);
+        return proportion(sampled);
+    }
+
+    /**
+     * The Wilson score interval of the share of the roster, narrowed by the
+     * finite population correction and scaled to rows; unlike the normal interval
+     * it stays sensible for departments sampled a few times or not at all.
+     */
+    private Estimate proportion(int sampled) {
+        int size = sample.size();
+        double share = (double) sampled / size;
+        double correction = 1 - (double) size / rows;
+        double z2 = Z_95 * Z_95 * correction;
+        double center = (share + z2 / (2 * size)) / (1 + z2 / size);
+        double half = Z_95 * Math.sqrt(correction * (share * (1 - share) / size + z2 / (4.0 * size * size)))
+                / (1 + z2 / size);
+        double least = sampled;
+        double most = rows - (size - sampled);
+        return new Estimate(share * rows, Math.max(least, (center - half) * rows),
+                Math.min(most, (center + half) * rows), 0.95);
+    }
+
+    /**
+     * @return the estimated number of employees of every department that has at
+     * least one sampled employee, in order of first sampled appearance; very small
+     * departments may be missing but can still be asked for with
+     * {@link #departmentCount(String)}
+     */
+    public Map<String, Estimate> departmentCounts() {
+        Map<String, Estimate> counts = new LinkedHashMap<>();
+        for (SampledSalary sampled : sample)
+            counts.computeIfAbsent(sampled.department, this::departmentCount);
+        return counts;
+    }
+
+    /**
+     * @return the estimated average salary of all employees
+     * @throws NoSuchElementException if there are no employees
+     */
+    public Estimate averageSalary() {
+        if (sample.isEmpty())
+            throw new NoSuchElementException("No value present");
+        return mean(sample, rows);
+    }
+
+    /**
+     * @return the estimated average salary of every department that has at least
+     * one sampled employee, in order of first sampled appearance
+     */
+    public Map<String, Estimate> departmentAverageSalary() {
+        Map<String, List<SampledSalary>> departments = new LinkedHashMap<>();
+        for (SampledSalary sampled : sample)
+            departments.computeIfAbsent(sampled.department, department -> new ArrayList<>()).add(sampled);
+
+        Map<String, Estimate> averages = new LinkedHashMap<>();
+        departments.forEach((department, sampled) -> {
+            long population = exhaustive() ? sampled.size()
+                    : Math.max(sampled.size(), departmentCounts != null ? departmentCounts.count(department)
+                            : Math.round(departmentCount(department).value()));
+            averages.put(department, mean(sampled, population));
+        });
+        return averages;
+    }
+
+    /**
+     * The sample mean with its normal confidence interval, narrowed by the finite
+     * population correction since the sample is drawn without replacement.
+     */
+    private static Estimate mean(List<SampledSalary> sampled, long population) {
+        int size = sampled.size();
+        double sum = 0;
+        for (SampledSalary salary : sampled)
+            sum += salary.salary;
+        double mean = sum / size;
+        if (size >= population)
+            return Estimate.exact(mean);
+        if (size < 2)
+            return new Estimate(mean, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 0.95);
+
+        double squares = 0;
+        for (SampledSalary salary : sampled)
+            squares += (salary.salary - mean) * (salary.salary - mean);
+        double standardError = Math.sqrt(squares / (size - 1) / size * (1 - (double) size / population));
+        return new Estimate(mean, mean - Z_95 * standardError, mean + Z_95 * standardError, 0.95);
+    }
+}
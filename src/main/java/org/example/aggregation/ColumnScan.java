@@ -0,0 +1,91 @@
+package org.example.aggregation;
+
+import org.example.kernel.ColumnKernels;
+import org.example.kernel.ColumnSummary;
+import org.example.model.EmployeeTable;
+import org.example.model.StringDictionary;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Computes the gender and salary reports of an {@link EmployeeTable} with
+ * {@link ColumnKernels} over its columns instead of one row at a time.
+ * <p>
+ * The male rows are summarized with one masked scan per gender code that means
+ * "male", usually just one, and the female sums are the totals minus the male
+ * sums. The result is the same as an {@link EmployeeAggregator} pass over the
+ * rows.
+ */
+public final class ColumnScan {
+    private static final Set<Report> SUPPORTED = EnumSet.of(Report.GENDER_COUNT, Report.AVERAGE_AGE,
+            Report.AVERAGE_GENDER_SALARY, Report.SALARY_TOTALS);
+
+    private ColumnScan() {
+    }
+
+    /**
+     * @return whether all the reports can be computed from the columns
+     */
+    public static boolean supports(Report... reports) {
+        for (Report report : reports)
+            if (!SUPPORTED.contains(report))
+                return false;
+        return true;
+    }
+
+    /**
+     * @param table   a table of employees
+     * @param kernels the kernels to scan the columns with
+     * @param reports reports that are all {@link #supports(Report...) supported}
+     * @return the combined result of the requested reports
+     */
+    public static AggregationResult aggregate(EmployeeTable table, ColumnKernels kernels, Report... reports) {
+        if (!supports(reports))
+            throw new IllegalArgumentException("only " + SUPPORTED + " can be computed from the columns");
+        EmployeeAggregator aggregator = new EmployeeAggregator(reports);
+        Set<Report> requested = reports.length == 0 ? Set.of() : EnumSet.of(reports[0], reports);
+        boolean ages = requested.contains(Report.AVERAGE_AGE);
+        boolean genderSalaries = requested.contains(Report.AVERAGE_GENDER_SALARY);
+        boolean genders = ages || genderSalaries || requested.contains(Report.GENDER_COUNT);
+        int size = table.size();
+        aggregator.rows = size;
+
+        if (genders) {
+            int[] genderColumn = table.genderColumn();
+            StringDictionary dictionary = table.genderDictionary();
+            for (int code = 0; code < dictionary.size(); code++) {
+                if (!table.isMaleCode(code))
+                    continue;
+                long count = -1;
+                if (ages) {
+                    ColumnSummary male = kernels.summarize(table.ageColumn(), genderColumn, 0, size, code, code);
+                    aggregator.maleAge += male.sumLow();
+                    count = male.count();
+                }
+                if (genderSalaries) {
+                    ColumnSummary male = kernels.summarize(table.salaryColumn(), genderColumn, 0, size, code, code);
+                    long low = aggregator.maleSalary + male.sumLow();
+                    aggregator.maleSalaryHigh += male.sumHigh()
+                            + WideSum.carry(aggregator.maleSalary, male.sumLow(), low);
+                    aggregator.maleSalary = low;
+                    count = male.count();
+                }
+                aggregator.maleCount += count >= 0 ? count : kernels.count(genderColumn, 0, size, code, code);
+            }
+            if (ages)
+                aggregator.femaleAge = kernels.summarize(table.ageColumn(), 0, size).sumLow() - aggregator.maleAge;
+        }
+        if (genderSalaries || requested.contains(Report.SALARY_TOTALS)) {
+            ColumnSummary total = kernels.summarize(table.salaryColumn(), 0, size);
+            aggregator.totalSalary = total.sumLow();
+            aggregator.totalSalaryHigh = total.sumHigh();
+            if (genderSalaries) {
+                aggregator.femaleSalary = total.sumLow() - aggregator.maleSalary;
+                aggregator.femaleSalaryHigh = total.sumHigh() - aggregator.maleSalaryHigh
+                        + WideSum.borrow(total.sumLow(), aggregator.maleSalary, aggregator.femaleSalary);
+            }
+        }
+        return aggregator.result();
+    }
+}
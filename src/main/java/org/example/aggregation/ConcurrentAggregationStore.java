@@ -0,0 +1,283 @@
+package org.example.aggregation;
+
+import org.example.model.Departments;
+import org.example.model.EmployeeData;
+import org.example.model.EmployeeRecord;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Aggregates employees pushed by any number of threads at once, while other
+ * threads read the reports.
+ * <p>
+ * Writers never lock: the gender and department counts and sums are striped
+ * {@link LongAdder}s, and the employees with the highest salary, the highest age
+ * and the lowest year of joining, and the youngest male employee of every
+ * department, are swapped in with compare-and-set. Among
+ * employees with equal keys the one that got there first wins.
+ * <p>
+ * A striped adder cannot test its adds for overflow, so every salary is added as
+ * its high and low 32-bit halves to two adders that cannot overflow before 2^31
+ * employees per epoch, and the epoch rebuilds the exact {@link WideSum} from the
+ * halves when it is folded.
+ * <p>
+ * {@link #snapshot()} returns a consistent view: every employee whose
+ * {@link #accept(EmployeeData)} returned before the call is counted, and no
+ * employee is counted in one report and missing from another. Writes go to the
+ * current epoch of counters; a snapshot swaps in a fresh epoch, waits for the
+ * writers still in the old one to leave, which only takes as long as a single
+ * {@code accept}, and folds the old epoch into the totals. Departments come out
+ * in the order they first appeared.
+ */
+public class ConcurrentAggregationStore {
+    private final AtomicLong order = new AtomicLong();
+    private final AtomicLong departmentSequence = new AtomicLong();
+    private volatile Epoch current = new Epoch();
+    /**
+     * everything folded from the past epochs, guarded by this store
+     */
+    private final PartialAggregate totals = new PartialAggregate();
+
+    /**
+     * Add an employee. Safe to call from any number of threads.
+     *
+     * @param employee the employee to add
+     */
+    public void accept(EmployeeData employee) {
+        Epoch epoch = enter();
+        try {
+            epoch.accept(employee);
+        } finally {
+            epoch.exited.increment();
+        }
+    }
+
+    /**
+     * Add an employee given by its raw fields, e.g. from an
+     * {@code EmployeeReader} running on one of several producer threads.
+     */
+    public void accept(int id, String name, int age, String gender, String department, int yearOfJoining,
+            long salary) {
+        accept(EmployeeRecord.of(id, name, age, gender, department, yearOfJoining, salary));
+    }
+
+    private Epoch enter() {
+        while (true) {
+            Epoch epoch = current;
+            epoch.entered.increment();
+            if (epoch == current)
+                return epoch;
+            // a snapshot swapped the epoch in between, leave and use the new one
+            epoch.exited.increment();
+        }
+    }
+
+    /**
+     * @return every report and the extreme employees over all the employees
+     * accepted so far, as a partial that later writes do not change
+     */
+    public synchronized PartialAggregate snapshot() {
+        Epoch old = current;
+        current = new Epoch();
+        // both counters only grow, so reading the exits first and then finding as
+        // many entries means every writer that entered has left
+        while (old.exited.sum() != old.entered.sum())
+            Thread.onSpinWait();
+        old.foldInto(totals);
+        return new PartialAggregate().merge(totals);
+    }
+
+    /**
+     * The counters written between two snapshots.
+     */
+    private final class Epoch {
+        final LongAdder entered = new LongAdder();
+        final LongAdder exited = new LongAdder();
+
+        final LongAdder maleCount = new LongAdder();
+        final LongAdder femaleCount = new LongAdder();
+        final LongAdder maleAge = new LongAdder();
+        final LongAdder femaleAge = new LongAdder();
+        final Halves maleSalary = new Halves();
+        final Halves femaleSalary = new Halves();
+        /**
+         * indexed by {@link Departments} id, replaced by a longer copy under the
+         * lock of the epoch when a department past its end shows up
+         */
+        volatile AtomicReferenceArray<Department> departments = new AtomicReferenceArray<>(Departments.size());
+
+        final AtomicReference<Candidate> maxPayed = new AtomicReference<>();
+        final AtomicReference<Candidate> oldest = new AtomicReference<>();
+        final AtomicReference<Candidate> maxExperienced = new AtomicReference<>();
+
+        void accept(EmployeeData employee) {
+            if (employee.isMale()) {
+                maleCount.increment();
+                maleAge.add(employee.age());
+                maleSalary.add(employee.salary());
+            } else {
+                femaleCount.increment();
+                femaleAge.add(employee.age());
+                femaleSalary.add(employee.salary());
+            }
+            Department department = department(employee.departmentId());
+            department.employees.increment();
+            department.salary.add(employee.salary());
+
+            Candidate candidate = null;
+            candidate = offer(maxPayed, EmployeeData::salary, true, employee, candidate);
+            candidate = offer(oldest, EmployeeData::age, true, employee, candidate);
+            candidate = offer(maxExperienced, EmployeeData::yearOfJoining, false, employee, candidate);
+            if (employee.isMale())
+                offer(department.youngestMale, EmployeeData::age, false, employee, candidate);
+        }
+
+        /**
+         * The counters of a department, looked up without a lock or a boxed key
+         * once the department has been seen in this epoch.
+         */
+        private Department department(int departmentId) {
+            AtomicReferenceArray<Department> departments = this.departments;
+            if (departmentId < departments.length()) {
+                Department department = departments.get(departmentId);
+                if (department != null)
+                    return department;
+            }
+            return addDepartment(departmentId);
+        }
+
+        private synchronized Department addDepartment(int departmentId) {
+            AtomicReferenceArray<Department> departments = this.departments;
+            if (departmentId >= departments.length()) {
+                AtomicReferenceArray<Department> grown = new AtomicReferenceArray<>(
+                        Math.max(departmentId + 1, Math.max(Departments.size(), 2 * departments.length())));
+                for (int id = 0; id < departments.length(); id++)
+                    grown.set(id, departments.get(id));
+                this.departments = departments = grown;
+            }
+            Department department = departments.get(departmentId);
+            if (department == null) {
+                department = new Department(departmentSequence.getAndIncrement());
+                departments.set(departmentId, department);
+            }
+            return department;
+        }
+
+        /**
+         * Swap the employee in if it beats the current one, retrying when another
+         * writer got there in between.
+         *
+         * @param candidate the employee already numbered for another report, or
+         *                  null
+         * @return the numbered employee if it was needed, else the given one
+         */
+        private Candidate offer(AtomicReference<Candidate> extreme, ToLongFunction<EmployeeData> keyOf,
+                boolean largest, EmployeeData employee, Candidate candidate) {
+            long key = keyOf.applyAsLong(employee);
+            Candidate best = extreme.get();
+            while (best == null || (largest ? key >= keyOf.applyAsLong(best.employee)
+                    : key <= keyOf.applyAsLong(best.employee))) {
+                // only a possible winner takes a number, so the order counter is
+                // rarely touched once the extremes have settled
+                if (candidate == null)
+                    candidate = new Candidate(order.getAndIncrement(), EmployeeRecord.of(employee));
+                if (best != null && key == keyOf.applyAsLong(best.employee) && best.order < candidate.order)
+                    break;
+                if (extreme.compareAndSet(best, candidate))
+                    break;
+                best = extreme.get();
+            }
+            return candidate;
+        }
+
+        void foldInto(PartialAggregate totals) {
+            EmployeeAggregator aggregator = new EmployeeAggregator(Report.values());
+            aggregator.maleCount = maleCount.sum();
+            aggregator.rows = aggregator.maleCount + femaleCount.sum();
+            aggregator.maleAge = maleAge.sum();
+            aggregator.femaleAge = femaleAge.sum();
+            aggregator.maleSalaryHigh = maleSalary.high();
+            aggregator.maleSalary = maleSalary.low();
+            aggregator.femaleSalaryHigh = femaleSalary.high();
+            aggregator.femaleSalary = femaleSalary.low();
+            aggregator.totalSalary = aggregator.maleSalary + aggregator.femaleSalary;
+            aggregator.totalSalaryHigh = aggregator.maleSalaryHigh + aggregator.femaleSalaryHigh;
+            if (WideSum.overflows(aggregator.maleSalary, aggregator.femaleSalary, aggregator.totalSalary))
+                aggregator.totalSalaryHigh += WideSum.carry(aggregator.maleSalary, aggregator.femaleSalary,
+                        aggregator.totalSalary);
+            List<Integer> ids = new ArrayList<>();
+            for (int id = 0; id < departments.length(); id++)
+                if (departments.get(id) != null)
+                    ids.add(id);
+            ids.sort(Comparator.comparingLong(id -> departments.get(id).sequence));
+            for (int id : ids) {
+                Department department = departments.get(id);
+                aggregator.addToDepartment(id, department.employees.sum(), department.salary.high(),
+                        department.salary.low());
+                totals.seen(id, department.sequence);
+                Candidate youngestMale = department.youngestMale.get();
+                if (youngestMale != null)
+                    totals.offerYoungestMale(youngestMale.order, youngestMale.employee);
+            }
+            totals.addTotals(aggregator);
+            for (AtomicReference<Candidate> extreme : List.of(maxPayed, oldest, maxExperienced)) {
+                Candidate candidate = extreme.get();
+                if (candidate != null)
+                    totals.offerExtremes(candidate.order, candidate.employee);
+            }
+        }
+    }
+
+    /**
+     * An employee numbered in the order the writers got to it.
+     */
+    private static final class Candidate {
+        final long order;
+        final EmployeeRecord employee;
+
+        Candidate(long order, EmployeeRecord employee) {
+            this.order = order;
+            this.employee = employee;
+        }
+    }
+
+    private static final class Department {
+        final long sequence;
+        final LongAdder employees = new LongAdder();
+        final Halves salary = new Halves();
+        final AtomicReference<Candidate> youngestMale = new AtomicReference<>();
+
+        Department(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * A sum of longs over two striped adders of their 32-bit halves, see
+     * {@link WideSum#highOfHalves(long, long)}.
+     */
+    private static final class Halves {
+        private final LongAdder highHalves = new LongAdder();
+        private final LongAdder lowHalves = new LongAdder();
+
+        void add(long value) {
+            highHalves.add(value >> 32);
+            lowHalves.add(value & 0xFFFFFFFFL);
+        }
+
+        long high() {
+            return WideSum.highOfHalves(highHalves.sum(), lowHalves.sum());
+        }
+
+        long low() {
+            return WideSum.lowOfHalves(highHalves.sum(), lowHalves.sum());
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package org.example.aggregation;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The rows of a roster grouped by department, in compressed sparse row form: one
+ * array holding the row indexes of the first department, then those of the
+ * second, and so on, each group in ascending row order, and one array of the
+ * offsets where each group starts. The departments keep the order in which they
+ * were first seen, like a {@code LinkedHashMap} would.
+ * <p>
+ * It is built in two passes over the department keys. The first reads the key of
+ * every row once and counts the rows of each key, the second writes every row
+ * straight into its slot, so nothing is resized or copied and the grouping keeps
+ * one int per row. The names or
+ * employees of a group are read from the rows only when they are needed, through
+ * {@link #asMap(IntFunction)}, or copied once into lists of the exact size by
+ * {@link #toMap(IntFunction)}.
+ */
+public final class DepartmentGrouping {
+    private final String[] departments;
+    private final int[] offsets;
+    private final int[] rows;
+
+    private DepartmentGrouping(String[] departments, int[] offsets, int[] rows) {
+        this.departments = departments;
+        this.offsets = offsets;
+        this.rows = rows;
+    }
+
+    /**
+     * Group the rows {@code [0, size)} by the department key of each row.
+     *
+     * @param size      the number of rows
+     * @param keys      a bound on the keys, every key is in {@code [0, keys)}
+     * @param keyOfRow  the department key of a row, e.g. its {@code Departments}
+     *                  id or its code in a department dictionary; called once
+     *                  for every row
+     * @param nameOfKey the department of a key
+     * @return the grouping
+     */
+    public static DepartmentGrouping of(int size, int keys, IntUnaryOperator keyOfRow, IntFunction<String> nameOfKey) {
+        int[] keyOfRows = new int[size];
+        int[] counts = new int[keys];
+        int[] order = new int[keys];
+        int groups = 0;
+        for (int row = 0; row < size; row++) {
+            int key = keyOfRow.applyAsInt(row);
+            keyOfRows[row] = key;
+            if (counts[key]++ == 0)
+                order[groups++] = key;
+        }
+
+        String[] departments = new String[groups];
+        int[] offsets = new int[groups + 1];
+        // counts becomes the next free slot of each key
+        for (int group = 0; group < groups; group++) {
+            int key = order[group];
+            departments[group] = nameOfKey.apply(key);
+            offsets[group + 1] = offsets[group] + counts[key];
+            counts[key] = offsets[group];
+        }
+        int[] rows = new int[size];
+        for (int row = 0; row < size; row++)
+            rows[counts[keyOfRows[row]]++] = row;
+        return new DepartmentGrouping(departments, offsets, rows);
+    }
+
+    /**
+     * Group the values of the rows {@code [0, size)} by the department key of each
+     * row into lists of exactly the size of each department, counting the rows of
+     * each key before filling the lists in row order. Unlike
+     * {@link #toMap(IntFunction)} on a grouping, the rows are read in order, which
+     * is faster when the rows are objects scattered on the heap.
+     *
+     * @param size       the number of rows
+     * @param keys       a bound on the keys, every key is in {@code [0, keys)}
+     * @param keyOfRow   the department key of a row, called twice for every row
+     * @param nameOfKey  the department of a key
+     * @param valueOfRow reads the value of a row, e.g. the name of the employee
+     * @return the departments, in order of first appearance, and the values of
+     * their rows, in new modifiable lists
+     */
+    public static <T> Map<String, List<T>> collect(int size, int keys, IntUnaryOperator keyOfRow,
+            IntFunction<String> nameOfKey, IntFunction<? extends T> valueOfRow) {
+        int[] counts = new int[keys];
+        int[] order = new int[keys];
+        int groups = 0;
+        for (int row = 0; row < size; row++) {
+            int key = keyOfRow.applyAsInt(row);
+            if (counts[key]++ == 0)
+                order[groups++] = key;
+        }
+
+        Map<String, List<T>> map = LinkedHashMap.newLinkedHashMap(groups);
+        List<List<T>> lists = new ArrayList<>(Collections.nCopies(keys, null));
+        for (int group = 0; group < groups; group++) {
+            List<T> values = new ArrayList<>(counts[order[group]]);
+            lists.set(order[group], values);
+            map.put(nameOfKey.apply(order[group]), values);
+        }
+        for (int row = 0; row < size; row++)
+            lists.get(keyOfRow.applyAsInt(row)).add(valueOfRow.apply(row));
+        return map;
+    }
+
+    /**
+     * @return the number of departments
+     */
+    public int groups() {
+        return departments.length;
+    }
+
+    /**
+     * @param group a group in {@code [0, groups())}
+     * @return the department of the group
+     */
+    public String department(int group) {
+        return departments[group];
+    }
+
+    /**
+     * @param group a group in {@code [0, groups())}
+     * @return the number of rows of the department
+     */
+    public int size(int group) {
+        return offsets[group + 1] - offsets[group];
+    }
+
+    /**
+     * @param group a group in {@code [0, groups())}
+     * @return the index in {@link #rows()} of the first row of the department
+     */
+    public int start(int group) {
+        return offsets[group];
+    }
+
+    /**
+     * @param group a group in {@code [0, groups())}
+     * @return the index in {@link #rows()} after the last row of the department
+     */
+    public int end(int group) {
+        return offsets[group + 1];
+    }
+
+    /**
+     * @return the rows of all the departments, department after department; the
+     * array itself, not a copy
+     */
+    public int[] rows() {
+        return rows;
+    }
+
+    /**
+     * @param group a group in {@code [0, groups())}
+     * @return a copy of the rows of the department, in ascending order
+     */
+    public int[] rows(int group) {
+        return Arrays.copyOfRange(rows, offsets[group], offsets[group + 1]);
+    }
+
+    /**
+     * @param group      a group in {@code [0, groups())}
+     * @param valueOfRow reads the value of a row, e.g. the name of the employee
+     * @return an unmodifiable view of the values of the rows of the department,
+     * each read when it is accessed
+     */
+    public <T> List<T> group(int group, IntFunction<? extends T> valueOfRow) {
+        return new GroupList<>(offsets[group], size(group), valueOfRow);
+    }
+
+    /**
+     * Look up a department in linear time, which is fine for the handful of
+     * departments of a roster.
+     *
+     * @param department a department, may be null
+     * @return its group, or -1 if no row has that department
+     */
+    public int groupOf(String department) {
+        for (int group = 0; group < departments.length; group++)
+            if (department == null ? departments[group] == null : department.equals(departments[group]))
+                return group;
+        return -1;
+    }
+
+    /**
+     * @param valueOfRow reads the value of a row, e.g. the name of the employee
+     * @return an unmodifiable view of the departments and the values of their
+     * rows, equal to the map {@link #toMap(IntFunction)} would build, but reading
+     * every value only when it is accessed
+     */
+    public <T> Map<String, List<T>> asMap(IntFunction<? extends T> valueOfRow) {
+        return new AbstractMap<>() {
+            @Override
+            public Set<Entry<String, List<T>>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, List<T>>> iterator() {
+                        return new Iterator<>() {
+                            private int next;
+
+                            @Override
+                            public boolean hasNext() {
+                                return next < departments.length;
+                            }
+
+                            @Override
+                            public Entry<String, List<T>> next() {
+                                if (!hasNext())
+                                    throw new NoSuchElementException();
+                                int group = next++;
+                                return new SimpleImmutableEntry<>(departments[group], group(group, valueOfRow));
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return departments.length;
+                    }
+                };
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return (key == null || key instanceof String) && groupOf((String) key) >= 0;
+            }
+
+            @Override
+            public List<T> get(Object key) {
+                int group = key == null || key instanceof String ? groupOf((String) key) : -1;
+                return group < 0 ? null : group(group, valueOfRow);
+            }
+        };
+    }
+
+    /**
+     * @param valueOfRow reads the value of a row, e.g. the name of the employee
+     * @return the departments and the values of their rows, in new modifiable
+     * lists of exactly the size of each department
+     */
+    public <T> Map<String, List<T>> toMap(IntFunction<? extends T> valueOfRow) {
+        Map<String, List<T>> map = LinkedHashMap.newLinkedHashMap(departments.length);
+        for (int group = 0; group < departments.length; group++) {
+            List<T> values = new ArrayList<>(size(group));
+            for (int index = offsets[group]; index < offsets[group + 1]; index++)
+                values.add(valueOfRow.apply(rows[index]));
+            map.put(departments[group], values);
+        }
+        return map;
+    }
+
+    private final class GroupList<T> extends AbstractList<T> implements RandomAccess {
+        private final int start;
+        private final int size;
+        private final IntFunction<? extends T> valueOfRow;
+
+        private GroupList(int start, int size, IntFunction<? extends T> valueOfRow) {
+            this.start = start;
+            this.size = size;
+            this.valueOfRow = valueOfRow;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + size);
+            return valueOfRow.apply(rows[start + index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package org.example.aggregation;
+
+import org.example.model.Departments;
+import org.example.model.EmployeeData;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Accumulates any chosen set of {@link Report}s in a single pass over the employees.
+ * <p>
+ * Only the state needed by the requested reports is maintained, so asking for the
+ * gender reports does not pay for the department map and vice versa.
+ * <p>
+ * Salary sums are exact: each one is a {@link WideSum}, a wrapping long plus a
+ * high word that counts its overflows, so a payroll past {@link Long#MAX_VALUE}
+ * still averages correctly. Every add and subtraction of a salary takes the same
+ * form: the wrapping long is updated and the high word is only touched behind a
+ * {@link WideSum#overflows} or {@link WideSum#underflows} test, a branch that is
+ * never taken until a sum actually overflows. Age sums stay plain longs, since ages
+ * are ints and their sum cannot overflow before billions of rows.
+ */
+public class EmployeeAggregator {
+    private final Set<Report> reports;
+    private final boolean trackGender;
+    private final boolean trackSalary;
+    private final boolean trackDepartments;
+
+    long rows;
+    long maleCount;
+    long maleAge;
+    long femaleAge;
+    long maleSalary;
+    long femaleSalary;
+    long totalSalary;
+    /**
+     * the high words of the salary sums, see {@link WideSum}
+     */
+    long maleSalaryHigh;
+    long femaleSalaryHigh;
+    long totalSalaryHigh;
+    /**
+     * number of employees and total salary, indexed by {@link Departments} id
+     */
+    long[] departmentEmployees = new long[0];
+    long[] departmentSalaries = new long[0];
+    long[] departmentSalaryHighs = new long[0];
+    /**
+     * the ids of the departments that have employees, in order of first appearance
+     */
+    int[] departmentOrder = new int[8];
+    int departmentCount;
+
+    public EmployeeAggregator(Set<Report> reports) {
+        this.reports = reports.isEmpty() ? EnumSet.noneOf(Report.class) : EnumSet.copyOf(reports);
+        this.trackGender = this.reports.contains(Report.GENDER_COUNT)
+                || this.reports.contains(Report.AVERAGE_AGE)
+                || this.reports.contains(Report.AVERAGE_GENDER_SALARY);
+        this.trackSalary = this.reports.contains(Report.SALARY_TOTALS);
+        this.trackDepartments = this.reports.contains(Report.DEPARTMENT_COUNT)
+                || this.reports.contains(Report.DEPARTMENT_AVERAGE_SALARY);
+    }
+
+    public EmployeeAggregator(Report... reports) {
+        this(reports.length == 0 ? EnumSet.noneOf(Report.class) : EnumSet.of(reports[0], reports));
+    }
+
+    /**
+     * Adds a single employee to every requested report.
+     *
+     * @param employee the employee to add
+     */
+    public void accept(EmployeeData employee) {
+        accept(employee.departmentId(), employee.isMale(), employee.age(), employee.salary());
+    }
+
+    /**
+     * Adds a single row given by its raw fields, for callers that do not hold
+     * {@link org.example.model.Employee} objects.
+     *
+     * @param department the department of the row
+     * @param male       whether the row is a male employee
+     * @param age        the age of the row
+     * @param salary     the salary of the row
+     */
+    public void accept(String department, boolean male, int age, long salary) {
+        accept(Departments.idOf(department), male, age, salary);
+    }
+
+    /**
+     * Adds a single row whose department is given by its {@link Departments} id.
+     *
+     * @param departmentId the department id of the row
+     * @param male         whether the row is a male employee
+     * @param age          the age of the row
+     * @param salary       the salary of the row
+     */
+    public void accept(int departmentId, boolean male, int age, long salary) {
+        rows++;
+        if (trackGender) {
+            if (male) {
+                maleCount++;
+                maleAge += age;
+                long sum = maleSalary + salary;
+                if (WideSum.overflows(maleSalary, salary, sum))
+                    maleSalaryHigh += WideSum.carry(maleSalary, salary, sum);
+                maleSalary = sum;
+            } else {
+                femaleAge += age;
+                long sum = femaleSalary + salary;
+                if (WideSum.overflows(femaleSalary, salary, sum))
+                    femaleSalaryHigh += WideSum.carry(femaleSalary, salary, sum);
+                femaleSalary = sum;
+            }
+        }
+        if (trackSalary) {
+            long sum = totalSalary + salary;
+            if (WideSum.overflows(totalSalary, salary, sum))
+                totalSalaryHigh += WideSum.carry(totalSalary, salary, sum);
+            totalSalary = sum;
+        }
+        if (trackDepartments)
+            addToDepartment(departmentId, 1, 0, salary);
+    }
+
+    /**
+     * Adds employees to a department, their salary given as the two words of a
+     * {@link WideSum}.
+     */
+    void addToDepartment(int departmentId, long employees, long salaryHigh, long salary) {
+        if (departmentId >= departmentEmployees.length) {
+            int capacity = Math.max(departmentId + 1, Departments.size());
+            departmentEmployees = Arrays.copyOf(departmentEmployees, capacity);
+            departmentSalaries = Arrays.copyOf(departmentSalaries, capacity);
+            departmentSalaryHighs = Arrays.copyOf(departmentSalaryHighs, capacity);
+        }
+        if (departmentEmployees[departmentId] == 0) {
+            if (departmentCount == departmentOrder.length)
+                departmentOrder = Arrays.copyOf(departmentOrder, departmentCount * 2);
+            departmentOrder[departmentCount++] = departmentId;
+        }
+        departmentEmployees[departmentId] += employees;
+        long low = departmentSalaries[departmentId];
+        long sum = low + salary;
+        departmentSalaryHighs[departmentId] += salaryHigh;
+        if (WideSum.overflows(low, salary, sum))
+            departmentSalaryHighs[departmentId] += WideSum.carry(low, salary, sum);
+        departmentSalaries[departmentId] = sum;
+    }
+
+    /**
+     * Takes back a row that was added before with the same fields. A department
+     * whose last employee is removed disappears from the department reports.
+     *
+     * @param department the department of the row
+     * @param male       whether the row is a male employee
+     * @param age        the age of the row
+     * @param salary     the salary of the row
+     * @throws IllegalStateException if no employee of the department was added,
+     *                               in which case nothing is removed
+     */
+    public void remove(String department, boolean male, int age, long salary) {
+        // a removed row was added before, so its department is known and find
+        // does not grow the dictionary for a wrong one
+        int departmentId = trackDepartments ? Departments.find(department) : -1;
+        if (trackDepartments && (departmentId < 0 || departmentId >= departmentEmployees.length
+                || departmentEmployees[departmentId] == 0))
+            throw new IllegalStateException("no employee was added to the department " + department);
+        rows--;
+        if (trackGender) {
+            if (male) {
+                maleCount--;
+                maleAge -= age;
+                long difference = maleSalary - salary;
+                if (WideSum.underflows(maleSalary, salary, difference))
+                    maleSalaryHigh += WideSum.borrow(maleSalary, salary, difference);
+                maleSalary = difference;
+            } else {
+                femaleAge -= age;
+                long difference = femaleSalary - salary;
+                if (WideSum.underflows(femaleSalary, salary, difference))
+                    femaleSalaryHigh += WideSum.borrow(femaleSalary, salary, difference);
+                femaleSalary = difference;
+            }
+        }
+        if (trackSalary) {
+            long difference = totalSalary - salary;
+            if (WideSum.underflows(totalSalary, salary, difference))
+                totalSalaryHigh += WideSum.borrow(totalSalary, salary, difference);
+            totalSalary = difference;
+        }
+        if (trackDepartments) {
+            long low = departmentSalaries[departmentId];
+            long difference = low - salary;
+            if (WideSum.underflows(low, salary, difference))
+                departmentSalaryHighs[departmentId] += WideSum.borrow(low, salary, difference);
+            departmentSalaries[departmentId] = difference;
+            if (--departmentEmployees[departmentId] == 0) {
+                departmentSalaries[departmentId] = 0;
+                departmentSalaryHighs[departmentId] = 0;
+                int position = 0;
+                while (departmentOrder[position] != departmentId)
+                    position++;
+                System.arraycopy(departmentOrder, position + 1, departmentOrder, position,
+                        departmentCount - position - 1);
+                departmentCount--;
+            }
+        }
+    }
+
+    /**
+     * Adds everything accumulated by the other aggregator to this one. The other
+     * aggregator is expected to have seen rows that come after the rows of this
+     * one, which keeps the department order the same as a sequential pass.
+     *
+     * @param other an aggregator for the same set of reports
+     * @return this aggregator
+     */
+    public EmployeeAggregator merge(EmployeeAggregator other) {
+        rows += other.rows;
+        maleCount += other.maleCount;
+        maleAge += other.maleAge;
+        femaleAge += other.femaleAge;
+        long sum = maleSalary + other.maleSalary;
+        maleSalaryHigh += other.maleSalaryHigh;
+        if (WideSum.overflows(maleSalary, other.maleSalary, sum))
+            maleSalaryHigh += WideSum.carry(maleSalary, other.maleSalary, sum);
+        maleSalary = sum;
+        sum = femaleSalary + other.femaleSalary;
+        femaleSalaryHigh += other.femaleSalaryHigh;
+        if (WideSum.overflows(femaleSalary, other.femaleSalary, sum))
+            femaleSalaryHigh += WideSum.carry(femaleSalary, other.femaleSalary, sum);
+        femaleSalary = sum;
+        sum = totalSalary + other.totalSalary;
+        totalSalaryHigh += other.totalSalaryHigh;
+        if (WideSum.overflows(totalSalary, other.totalSalary, sum))
+            totalSalaryHigh += WideSum.carry(totalSalary, other.totalSalary, sum);
+        totalSalary = sum;
+        for (int i = 0; i < other.departmentCount; i++) {
+            int departmentId = other.departmentOrder[i];
+            addToDepartment(departmentId, other.departmentEmployees[departmentId],
+                    other.departmentSalaryHighs[departmentId], other.departmentSalaries[departmentId]);
+        }
+        return this;
+    }
+
+    /**
+     * @return the reports computed from everything accepted so far
+     */
+    public AggregationResult result() {
+        return new AggregationResult(this, reports);
+    }
+}
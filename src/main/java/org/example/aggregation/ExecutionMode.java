@@ -0,0 +1,16 @@
+package org.example.aggregation;
+
+/**
+ * How a report walks the employees.
+ */
+public enum ExecutionMode {
+    /**
+     * one thread, one pass, in list order
+     */
+    SEQUENTIAL,
+    /**
+     * the rows are split into ranges that are accumulated on the common fork/join
+     * pool and merged back in order
+     */
+    PARALLEL
+}
@@ -0,0 +1,268 @@
+package org.example.aggregation;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * The number of employees and their total salary in each bucket of a value such
+ * as the salary or the age. The buckets are given by their boundaries in
+ * ascending order: boundaries {@code 25, 35} make the three buckets
+ * {@code < 25}, {@code 25 to 34} and {@code >= 35}.
+ * <p>
+ * Histograms of disjoint parts of a roster over the same boundaries can be
+ * {@link #merge(Histogram) merged}, which gives exactly the histogram of the
+ * whole roster. The salaries of a bucket are summed as a {@link WideSum}, so they
+ * stay exact past {@link Long#MAX_VALUE}.
+ * <p>
+ * The histograms of a {@link HistogramResult} are read-only: {@link #add(long, long)}
+ * and {@link #merge(Histogram)} throw on them, and {@link #copy()} gives a histogram
+ * that can be added to.
+ */
+public class Histogram {
+    private final long[] boundaries;
+    private final long[] counts;
+    private final long[] salaries;
+    /**
+     * the high words of {@link #salaries}
+     */
+    private final long[] salaryHighs;
+    private final boolean readOnly;
+
+    /**
+     * @param boundaries already checked boundaries, shared by the histograms of
+     *                   an aggregator
+     */
+    private Histogram(long[] boundaries) {
+        this.boundaries = boundaries;
+        this.counts = new long[boundaries.length + 1];
+        this.salaries = new long[boundaries.length + 1];
+        this.salaryHighs = new long[boundaries.length + 1];
+        this.readOnly = false;
+    }
+
+    private Histogram(Histogram source, boolean readOnly) {
+        this.boundaries = source.boundaries;
+        this.counts = source.counts.clone();
+        this.salaries = source.salaries.clone();
+        this.salaryHighs = source.salaryHighs.clone();
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * @param boundaries the lowest value of every bucket but the first, in
+     *                   strictly ascending order
+     * @return an empty histogram
+     * @throws IllegalArgumentException if the boundaries are not strictly
+     *                                  ascending
+     */
+    public static Histogram of(long... boundaries) {
+        return new Histogram(checked(boundaries.clone()));
+    }
+
+    static Histogram over(long[] checkedBoundaries) {
+        return new Histogram(checkedBoundaries);
+    }
+
+    static long[] checked(long[] boundaries) {
+        for (int i = 1; i < boundaries.length; i++)
+            if (boundaries[i] <= boundaries[i - 1])
+                throw new IllegalArgumentException("bucket boundaries not strictly ascending: "
+                        + Arrays.toString(boundaries));
+        return boundaries;
+    }
+
+    /**
+     * Find the bucket of a value with a binary search whose steps depend on the
+     * number of boundaries only, so that the comparisons compile to conditional
+     * moves instead of branches the processor would mispredict on random data.
+     *
+     * @return the number of boundaries that are at most the value
+     */
+    static int bucketOf(long[] boundaries, long value) {
+        int n = boundaries.length;
+        if (n == 0)
+            return 0;
+        int base = 0;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = boundaries[base + half] <= value ? base + half : base;
+            n -= half;
+        }
+        return base + (boundaries[base] <= value ? 1 : 0);
+    }
+
+    /**
+     * @return a histogram of the same employees that can be added to
+     */
+    public Histogram copy() {
+        return new Histogram(this, false);
+    }
+
+    /**
+     * @return a copy whose {@link #add(long, long)} and {@link #merge(Histogram)}
+     * throw
+     */
+    Histogram readOnlyCopy() {
+        return new Histogram(this, true);
+    }
+
+    /**
+     * Adds an employee.
+     *
+     * @param value  the value the buckets are over, e.g. the age
+     * @param salary the salary of the employee
+     * @throws UnsupportedOperationException if the histogram is read-only
+     */
+    public void add(long value, long salary) {
+        checkWritable();
+        add(bucketOf(boundaries, value), salary);
+    }
+
+    void add(int bucket, long salary) {
+        counts[bucket]++;
+        long low = salaries[bucket];
+        long sum = low + salary;
+        if (WideSum.overflows(low, salary, sum))
+            salaryHighs[bucket] += WideSum.carry(low, salary, sum);
+        salaries[bucket] = sum;
+    }
+
+    /**
+     * @param other a histogram of other employees over the same boundaries
+     * @return this histogram, now holding both
+     * @throws IllegalArgumentException      if the boundaries differ
+     * @throws UnsupportedOperationException if this histogram is read-only
+     */
+    public Histogram merge(Histogram other) {
+        checkWritable();
+        if (other.boundaries != boundaries && !Arrays.equals(other.boundaries, boundaries))
+            throw new IllegalArgumentException("cannot merge histograms over different boundaries: "
+                    + Arrays.toString(boundaries) + " and " + Arrays.toString(other.boundaries));
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            counts[bucket] += other.counts[bucket];
+            long low = salaries[bucket];
+            long salary = other.salaries[bucket];
+            long sum = low + salary;
+            salaryHighs[bucket] += other.salaryHighs[bucket];
+            if (WideSum.overflows(low, salary, sum))
+                salaryHighs[bucket] += WideSum.carry(low, salary, sum);
+            salaries[bucket] = sum;
+        }
+        return this;
+    }
+
+    private void checkWritable() {
+        if (readOnly)
+            throw new UnsupportedOperationException("histogram of a result is read-only, copy() it to add to it");
+    }
+
+    /**
+     * @return the number of buckets, one more than the number of boundaries
+     */
+    public int buckets() {
+        return counts.length;
+    }
+
+    /**
+     * @return the lowest value of the bucket, {@link Long#MIN_VALUE} for the first
+     */
+    public long lowerBound(int bucket) {
+        return bucket == 0 ? Long.MIN_VALUE : boundaries[bucket - 1];
+    }
+
+    /**
+     * @return the lowest value of the next bucket, {@link Long#MAX_VALUE} for the
+     * last
+     */
+    public long upperBound(int bucket) {
+        return bucket == boundaries.length ? Long.MAX_VALUE : boundaries[bucket];
+    }
+
+    /**
+     * @return the number of employees in the bucket
+     */
+    public long count(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * @return the total salary of the employees in the bucket
+     * @throws ArithmeticException if the total does not fit in a long, see
+     *                             {@link #exactSalary(int)}
+     */
+    public long salary(int bucket) {
+        return WideSum.longValueExact(salaryHighs[bucket], salaries[bucket]);
+    }
+
+    /**
+     * @return the total salary of the employees in the bucket, exact even when
+     * it does not fit in a long
+     */
+    public BigInteger exactSalary(int bucket) {
+        return WideSum.value(salaryHighs[bucket], salaries[bucket]);
+    }
+
+    /**
+     * @return the average salary of the employees in the bucket, rounded to the
+     * nearest whole number
+     * @throws ArithmeticException if the bucket is empty
+     */
+    public long averageSalary(int bucket) {
+        return WideSum.average(salaryHighs[bucket], salaries[bucket], counts[bucket]);
+    }
+
+    /**
+     * @return the number of employees in all the buckets
+     */
+    public long total() {
+        long total = 0;
+        for (long count : counts)
+            total += count;
+        return total;
+    }
+
+    /**
+     * @return the number of employees of every bucket, in bucket order
+     */
+    public long[] counts() {
+        return counts.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Histogram))
+            return false;
+        Histogram other = (Histogram) o;
+        return Arrays.equals(boundaries, other.boundaries) && Arrays.equals(counts, other.counts)
+                && Arrays.equals(salaries, other.salaries) && Arrays.equals(salaryHighs, other.salaryHighs);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 31 * Arrays.hashCode(boundaries) + Arrays.hashCode(counts);
+        return 31 * (31 * hash + Arrays.hashCode(salaries)) + Arrays.hashCode(salaryHighs);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("Histogram{");
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            if (bucket > 0)
+                text.append(", ");
+            text.append(label(bucket)).append('=').append(counts[bucket]);
+        }
+        return text.append('}').toString();
+    }
+
+    private String label(int bucket) {
+        if (boundaries.length == 0)
+            return "all";
+        if (bucket == 0)
+            return "<" + boundaries[0];
+        if (bucket == boundaries.length)
+            return ">=" + boundaries[bucket - 1];
+        return boundaries[bucket - 1] + ".." + (boundaries[bucket] - 1);
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.aggregation;
+
+import org.example.model.Departments;
+import org.example.model.EmployeeData;
+
+import java.util.Arrays;
+
+/**
+ * Fills the buckets of a {@link Histogram} over the whole roster, over each
+ * gender and over each department in a single pass: the bucket of a row is
+ * looked up once and counted in all three.
+ * <p>
+ * Aggregators of disjoint parts of a roster over the same boundaries can be
+ * {@link #merge(HistogramAggregator) merged}.
+ */
+public class HistogramAggregator {
+    private final long[] boundaries;
+    final Histogram all;
+    final Histogram male;
+    final Histogram female;
+    /**
+     * indexed by {@link Departments} id
+     */
+    Histogram[] departments = new Histogram[0];
+    /**
+     * the ids of the departments that have employees, in order of first appearance
+     */
+    int[] departmentOrder = new int[8];
+    int departmentCount;
+
+    /**
+     * @param boundaries the lowest value of every bucket but the first, in
+     *                   strictly ascending order
+     * @throws IllegalArgumentException if the boundaries are not strictly
+     *                                  ascending
+     */
+    public HistogramAggregator(long... boundaries) {
+        this.boundaries = Histogram.checked(boundaries.clone());
+        this.all = Histogram.over(this.boundaries);
+        this.male = Histogram.over(this.boundaries);
+        this.female = Histogram.over(this.boundaries);
+    }
+
+    /**
+     * Adds an employee to the buckets of its salary.
+     */
+    public void acceptSalary(EmployeeData employee) {
+        accept(employee.departmentId(), employee.isMale(), employee.salary(), employee.salary());
+    }
+
+    /**
+     * Adds an employee to the buckets of its age.
+     */
+    public void acceptAge(EmployeeData employee) {
+        accept(employee.departmentId(), employee.isMale(), employee.age(), employee.salary());
+    }
+
+    /**
+     * Adds a row given by its raw fields.
+     *
+     * @param departmentId the {@link Departments} id of the row
+     * @param male         whether the row is a male employee
+     * @param value        the value the buckets are over, e.g. the age
+     * @param salary       the salary of the row
+     */
+    public void accept(int departmentId, boolean male, long value, long salary) {
+        int bucket = Histogram.bucketOf(boundaries, value);
+        all.add(bucket, salary);
+        (male ? this.male : female).add(bucket, salary);
+        department(departmentId).add(bucket, salary);
+    }
+
+    private Histogram department(int departmentId) {
+        if (departmentId >= departments.length)
+            departments = Arrays.copyOf(departments, Math.max(departmentId + 1, Departments.size()));
+        Histogram histogram = departments[departmentId];
+        if (histogram == null) {
+            histogram = departments[departmentId] = Histogram.over(boundaries);
+            if (departmentCount == departmentOrder.length)
+                departmentOrder = Arrays.copyOf(departmentOrder, departmentCount * 2);
+            departmentOrder[departmentCount++] = departmentId;
+        }
+        return histogram;
+    }
+
+    /**
+     * Adds everything accumulated by the other aggregator to this one. The other
+     * aggregator is expected to have seen rows that come after the rows of this
+     * one, which keeps the department order the same as a sequential pass.
+     *
+     * @param other an aggregator over the same boundaries
+     * @return this aggregator
+     * @throws IllegalArgumentException if the boundaries differ
+     */
+    public HistogramAggregator merge(HistogramAggregator other) {
+        all.merge(other.all);
+        male.merge(other.male);
+        female.merge(other.female);
+        for (int i = 0; i < other.departmentCount; i++) {
+            int departmentId = other.departmentOrder[i];
+            department(departmentId).merge(other.departments[departmentId]);
+        }
+        return this;
+    }
+
+    /**
+     * @return read-only copies of the histograms of everything accepted so far,
+     * unaffected by what this aggregator accepts afterwards
+     */
+    public HistogramResult result() {
+        return new HistogramResult(this);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.aggregation;
+
+import org.example.model.Departments;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The outcome of one {@link HistogramAggregator} pass: the histogram of the whole
+ * roster, of each gender and of each department, all over the same buckets. The
+ * histograms are read-only copies taken when the result was made.
+ */
+public class HistogramResult {
+    private final Histogram all;
+    private final Map<String, Histogram> genders = new LinkedHashMap<>();
+    private final Map<String, Histogram> departments = new LinkedHashMap<>();
+
+    HistogramResult(HistogramAggregator aggregator) {
+        this.all = aggregator.all.readOnlyCopy();
+        genders.put("male", aggregator.male.readOnlyCopy());
+        genders.put("female", aggregator.female.readOnlyCopy());
+        for (int i = 0; i < aggregator.departmentCount; i++) {
+            int departmentId = aggregator.departmentOrder[i];
+            departments.put(Departments.nameOf(departmentId), aggregator.departments[departmentId].readOnlyCopy());
+        }
+    }
+
+    /**
+     * @return the histogram of all the employees
+     */
+    public Histogram all() {
+        return all;
+    }
+
+    /**
+     * @return the histograms of the keys "male" and "female", both present even
+     * when a gender has no employee
+     */
+    public Map<String, Histogram> byGender() {
+        return Collections.unmodifiableMap(genders);
+    }
+
+    /**
+     * @return the histogram of each department, in order of first appearance of
+     * the departments
+     */
+    public Map<String, Histogram> byDepartment() {
+        return Collections.unmodifiableMap(departments);
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramResult{all=" + all + ", byGender=" + genders + ", byDepartment=" + departments + "}";
+    }
+}
@@ -0,0 +1,202 @@
+package org.example.aggregation;
+
+import org.example.model.Employee;
+
+import java.util.*;
+
+/**
+ * Keeps the reports of a changing roster up to date as employees are inserted,
+ * updated and deleted, instead of rescanning the whole list after every change.
+ * <p>
+ * The counts and sums are maintained by an {@link EmployeeAggregator} in O(1) per
+ * event, and the employees with the highest salary, the highest age and the
+ * earliest year of joining are kept in sorted sets in O(log n) per event. Ties are
+ * broken in favour of the employee inserted first, just like the list reports
+ * return the first of several equal employees. An updated employee keeps its
+ * original place, and so does its department when it stays in it.
+ * <p>
+ * The fields of an employee are copied when it is inserted or updated, so later
+ * changes through the setters of the {@link Employee} are not seen until the
+ * employee is passed to {@link #update(Employee)}. This class is not thread safe.
+ */
+public class LiveAggregates {
+    private final EmployeeAggregator aggregator = new EmployeeAggregator(Report.values());
+    private final Map<Integer, Row> rows = new HashMap<>();
+    private final NavigableSet<Row> bySalary = new TreeSet<>(
+            Comparator.comparingLong((Row row) -> row.salary)
+                    .thenComparing(row -> row.sequence, Comparator.reverseOrder()));
+    private final NavigableSet<Row> byAge = new TreeSet<>(
+            Comparator.comparingInt((Row row) -> row.age)
+                    .thenComparing(row -> row.sequence, Comparator.reverseOrder()));
+    private final NavigableSet<Row> byYearOfJoining = new TreeSet<>(
+            Comparator.comparingInt((Row row) -> row.yearOfJoining).thenComparingLong(row -> row.sequence));
+    private long nextSequence;
+
+    /**
+     * The fields of an employee as they were when it was last inserted or updated.
+     */
+    private static class Row {
+        final Employee employee;
+        final long sequence;
+        final String department;
+        final boolean male;
+        final int age;
+        final int yearOfJoining;
+        final long salary;
+
+        Row(Employee employee, long sequence) {
+            this.employee = employee;
+            this.sequence = sequence;
+            this.department = employee.getDepartment();
+            this.male = employee.isMale();
+            this.age = employee.getAge();
+            this.yearOfJoining = employee.getYearOfJoining();
+            this.salary = employee.getSalary();
+        }
+    }
+
+    /**
+     * Build the aggregates of an existing list of employees, in list order.
+     *
+     * @param employees a list of employees with distinct ids
+     * @return the aggregates of the list
+     */
+    public static LiveAggregates of(List<Employee> employees) {
+        LiveAggregates aggregates = new LiveAggregates();
+        employees.forEach(aggregates::insert);
+        return aggregates;
+    }
+
+    /**
+     * Add a new employee to the roster.
+     *
+     * @param employee the employee to add
+     * @throws IllegalArgumentException if an employee with the same id is already
+     *                                  in the roster
+     */
+    public void insert(Employee employee) {
+        if (rows.containsKey(employee.getId()))
+            throw new IllegalArgumentException("there is already an employee with the id :" + employee.getId());
+        add(new Row(employee, nextSequence++));
+    }
+
+    /**
+     * Replace the employee with the same id by the given one.
+     *
+     * @param employee the new state of the employee
+     * @throws IllegalArgumentException if there is no employee with that id
+     */
+    public void update(Employee employee) {
+        Row old = rows.get(employee.getId());
+        if (old == null)
+            throw new IllegalArgumentException("there is no employee with the id :" + employee.getId());
+        Row row = new Row(employee, old.sequence);
+        // count the new fields before taking back the old ones, so that a
+        // department whose only employee is updated never empties and keeps its place
+        aggregator.accept(row.department, row.male, row.age, row.salary);
+        aggregator.remove(old.department, old.male, old.age, old.salary);
+        unindex(old);
+        index(row);
+    }
+
+    /**
+     * Remove the employee with the given id from the roster.
+     *
+     * @param id the id of the employee
+     * @return the removed employee, or null if there was no employee with that id
+     */
+    public Employee delete(int id) {
+        Row row = rows.get(id);
+        if (row == null)
+            return null;
+        remove(row);
+        return row.employee;
+    }
+
+    private void add(Row row) {
+        aggregator.accept(row.department, row.male, row.age, row.salary);
+        index(row);
+    }
+
+    private void remove(Row row) {
+        aggregator.remove(row.department, row.male, row.age, row.salary);
+        unindex(row);
+    }
+
+    private void index(Row row) {
+        rows.put(row.employee.getId(), row);
+        bySalary.add(row);
+        byAge.add(row);
+        byYearOfJoining.add(row);
+    }
+
+    private void unindex(Row row) {
+        rows.remove(row.employee.getId());
+        bySalary.remove(row);
+        byAge.remove(row);
+        byYearOfJoining.remove(row);
+    }
+
+    /**
+     * @return the number of employees in the roster
+     */
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * @return every report of the current roster, in the shapes of the
+     * {@code MainApp} reports
+     */
+    public AggregationResult result() {
+        return aggregator.result();
+    }
+
+    public Map<String, Integer> countNumberOfEmployeesInEachDepartment() {
+        return result().departmentCount();
+    }
+
+    public Map<String, Long> averageSalaryOfEachDepartment() {
+        return result().departmentAverageSalary();
+    }
+
+    public Map<String, Long> countMaleAndFemale() {
+        return result().genderCount();
+    }
+
+    public Map<String, Integer> averageAgeOfEmployees() {
+        return result().averageAge();
+    }
+
+    public Map<String, Long> avgMaleFemaleSalary() {
+        return result().averageGenderSalary();
+    }
+
+    public Map<String, Long> avgAndTotalSalary() {
+        return result().salaryTotals();
+    }
+
+    /**
+     * @return The employee with the highest salary.
+     * @throws NoSuchElementException if the roster is empty
+     */
+    public Employee getMaxPayedEmployee() {
+        return bySalary.last().employee;
+    }
+
+    /**
+     * @return The oldest employee
+     * @throws NoSuchElementException if the roster is empty
+     */
+    public Employee oldestEmployee() {
+        return byAge.last().employee;
+    }
+
+    /**
+     * @return employee with the max experience
+     * @throws NoSuchElementException if the roster is empty
+     */
+    public Employee getMaxExperiencedEmployee() {
+        return byYearOfJoining.first().employee;
+    }
+}
@@ -0,0 +1,394 @@
+package org.example.aggregation;
+
+import org.example.exceptions.EmployeeNotFound;
+import org.example.model.Departments;
+import org.example.model.EmployeeData;
+import org.example.model.EmployeeRecord;
+import org.example.model.Gender;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Every report of one partition of a roster, in a form that can be sent to
+ * another process and merged there.
+ * <p>
+ * Averages are carried as sums and counts and are only divided in
+ * {@link #result()}, so merging partitions gives exactly the averages of the
+ * whole roster. The employees with the highest salary, the highest age and the
+ * lowest year of joining, and the youngest male employee of every department,
+ * travel as {@link EmployeeRecord}s together with their order in the whole roster,
+ * which breaks ties the way a single pass would.
+ * <p>
+ * {@link #merge(PartialAggregate)} is associative, and nothing in the result
+ * depends on the order of the merges, not even the order of the departments:
+ * every department carries the order of its first employee in the whole roster,
+ * and {@link #result()} lists the departments by it, in order of first appearance
+ * as a single pass does, however the roster was partitioned.
+ * <p>
+ * {@link #writeTo(DataOutput)} writes a compact, versioned binary form: the
+ * counters, one entry per department with its first order, the three extreme
+ * employees and the youngest male employee of every department.
+ */
+public class PartialAggregate {
+    static final int MAGIC = 0x45504147;
+    static final int VERSION = 4;
+
+    private final EmployeeAggregator totals = new EmployeeAggregator(Report.values());
+    private final Extreme maxPayed = new Extreme(true);
+    private final Extreme oldest = new Extreme(true);
+    private final Extreme maxExperienced = new Extreme(false);
+    /**
+     * the youngest male employee of each department, indexed by {@link Departments}
+     * id, null for a department without male employees
+     */
+    private Extreme[] youngestMales = new Extreme[0];
+    /**
+     * the lowest order of an employee of each department, indexed by
+     * {@link Departments} id, {@link Long#MAX_VALUE} for a department not seen
+     */
+    private long[] firstOrders = new long[0];
+
+    /**
+     * Adds an employee.
+     *
+     * @param order    the position of the employee in the whole roster, unique
+     *                 across all partitions
+     * @param employee the employee
+     */
+    public void accept(long order, EmployeeData employee) {
+        totals.accept(employee);
+        seen(employee.departmentId(), order);
+        if (maxPayed.admits(employee.salary(), order) || oldest.admits(employee.age(), order)
+                || maxExperienced.admits(employee.yearOfJoining(), order)) {
+            offerExtremes(order, EmployeeRecord.of(employee));
+        }
+        if (employee.isMale() && youngestMale(employee.departmentId()).admits(employee.age(), order))
+            offerYoungestMale(order, EmployeeRecord.of(employee));
+    }
+
+    /**
+     * Adds an employee given by its raw fields, e.g. from an
+     * {@code EmployeeReader}.
+     */
+    public void accept(long order, int id, String name, int age, String gender, String department,
+            int yearOfJoining, long salary) {
+        boolean male = Gender.of(gender) == Gender.MALE;
+        int departmentId = Departments.idOf(department);
+        totals.accept(departmentId, male, age, salary);
+        seen(departmentId, order);
+        if (maxPayed.admits(salary, order) || oldest.admits(age, order) || maxExperienced.admits(yearOfJoining, order))
+            offerExtremes(order, new EmployeeRecord(id, name, age, male ? Gender.MALE : Gender.FEMALE, departmentId,
+                    yearOfJoining, salary));
+        if (male && youngestMale(departmentId).admits(age, order))
+            offerYoungestMale(order, new EmployeeRecord(id, name, age, Gender.MALE, departmentId, yearOfJoining,
+                    salary));
+    }
+
+    /**
+     * Offer an employee to the max salary, oldest and most experienced reports
+     * only, for counters gathered elsewhere and added with
+     * {@link #addTotals(EmployeeAggregator)}.
+     */
+    void offerExtremes(long order, EmployeeRecord record) {
+        maxPayed.offer(record.salary(), order, record);
+        oldest.offer(record.age(), order, record);
+        maxExperienced.offer(record.yearOfJoining(), order, record);
+    }
+
+    /**
+     * Offer a male employee to the youngest male report of its department, for
+     * employees gathered elsewhere like {@link #offerExtremes(long, EmployeeRecord)}.
+     */
+    void offerYoungestMale(long order, EmployeeRecord record) {
+        youngestMale(record.departmentId()).offer(record.age(), order, record);
+    }
+
+    private Extreme youngestMale(int departmentId) {
+        if (departmentId >= youngestMales.length)
+            youngestMales = Arrays.copyOf(youngestMales, Math.max(departmentId + 1, Departments.size()));
+        Extreme youngest = youngestMales[departmentId];
+        if (youngest == null)
+            youngest = youngestMales[departmentId] = new Extreme(false);
+        return youngest;
+    }
+
+    /**
+     * Records that the department has an employee of the given order, for
+     * departments of counters added with {@link #addTotals(EmployeeAggregator)}.
+     */
+    void seen(int departmentId, long order) {
+        if (departmentId >= firstOrders.length) {
+            int length = firstOrders.length;
+            firstOrders = Arrays.copyOf(firstOrders, Math.max(departmentId + 1, Departments.size()));
+            Arrays.fill(firstOrders, length, firstOrders.length, Long.MAX_VALUE);
+        }
+        firstOrders[departmentId] = Math.min(firstOrders[departmentId], order);
+    }
+
+    /**
+     * Add counters gathered elsewhere, whose employees are offered with
+     * {@link #offerExtremes(long, EmployeeRecord)} and whose departments are
+     * numbered with {@link #seen(int, long)}.
+     */
+    void addTotals(EmployeeAggregator totals) {
+        this.totals.merge(totals);
+    }
+
+    /**
+     * @param other the partial of another partition
+     * @return this partial, now covering both partitions
+     */
+    public PartialAggregate merge(PartialAggregate other) {
+        totals.merge(other.totals);
+        maxPayed.merge(other.maxPayed);
+        oldest.merge(other.oldest);
+        maxExperienced.merge(other.maxExperienced);
+        for (int departmentId = 0; departmentId < other.youngestMales.length; departmentId++)
+            if (other.youngestMales[departmentId] != null)
+                youngestMale(departmentId).merge(other.youngestMales[departmentId]);
+        for (int departmentId = 0; departmentId < other.firstOrders.length; departmentId++)
+            if (other.firstOrders[departmentId] != Long.MAX_VALUE)
+                seen(departmentId, other.firstOrders[departmentId]);
+        return this;
+    }
+
+    /**
+     * @return the number of employees of the partitions merged so far
+     */
+    public long rows() {
+        return totals.rows;
+    }
+
+    /**
+     * @return every report of {@link Report}, over the partitions merged so far
+     */
+    public AggregationResult result() {
+        orderDepartments();
+        return totals.result();
+    }
+
+    /**
+     * Sort the departments of the totals by their first order, with an insertion
+     * sort since there are few departments and they are mostly in order already.
+     */
+    private void orderDepartments() {
+        int[] order = totals.departmentOrder;
+        for (int i = 1; i < totals.departmentCount; i++) {
+            int departmentId = order[i];
+            long first = firstOrder(departmentId);
+            int j = i;
+            for (; j > 0 && firstOrder(order[j - 1]) > first; j--)
+                order[j] = order[j - 1];
+            order[j] = departmentId;
+        }
+    }
+
+    private long firstOrder(int departmentId) {
+        return departmentId < firstOrders.length ? firstOrders[departmentId] : Long.MAX_VALUE;
+    }
+
+    public EmployeeRecord maxPayedEmployee() {
+        return maxPayed.get();
+    }
+
+    public EmployeeRecord oldestEmployee() {
+        return oldest.get();
+    }
+
+    public EmployeeRecord maxExperiencedEmployee() {
+        return maxExperienced.get();
+    }
+
+    /**
+     * @param department the department, in any case
+     * @return the youngest male employee of the department, as
+     * {@code MainApp.getYoungestMaleEmployee} returns it
+     * @throws EmployeeNotFound if the department has no male employee
+     */
+    public EmployeeRecord youngestMaleEmployee(String department) {
+        Extreme youngest = new Extreme(false);
+        for (int departmentId = 0; departmentId < youngestMales.length; departmentId++) {
+            String name = Departments.nameOf(departmentId);
+            if (youngestMales[departmentId] != null && name != null && name.equalsIgnoreCase(department))
+                youngest.merge(youngestMales[departmentId]);
+        }
+        if (youngest.employee == null)
+            throw new EmployeeNotFound(department);
+        return youngest.employee;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(totals.rows);
+        out.writeLong(totals.maleCount);
+        out.writeLong(totals.maleAge);
+        out.writeLong(totals.femaleAge);
+        out.writeLong(totals.maleSalary);
+        out.writeLong(totals.femaleSalary);
+        out.writeLong(totals.totalSalary);
+        out.writeLong(totals.maleSalaryHigh);
+        out.writeLong(totals.femaleSalaryHigh);
+        out.writeLong(totals.totalSalaryHigh);
+        out.writeInt(totals.departmentCount);
+        for (int i = 0; i < totals.departmentCount; i++) {
+            int departmentId = totals.departmentOrder[i];
+            writeString(out, Departments.nameOf(departmentId));
+            out.writeLong(totals.departmentEmployees[departmentId]);
+            out.writeLong(totals.departmentSalaryHighs[departmentId]);
+            out.writeLong(totals.departmentSalaries[departmentId]);
+            out.writeLong(firstOrder(departmentId));
+        }
+        maxPayed.writeTo(out);
+        oldest.writeTo(out);
+        maxExperienced.writeTo(out);
+        int departments = 0;
+        for (Extreme youngest : youngestMales)
+            if (youngest != null && youngest.employee != null)
+                departments++;
+        out.writeInt(departments);
+        for (Extreme youngest : youngestMales)
+            if (youngest != null && youngest.employee != null)
+                youngest.writeTo(out);
+    }
+
+    /**
+     * Read a partial written by {@link #writeTo(DataOutput)}.
+     *
+     * @throws IOException if the input is not a partial of a supported version
+     */
+    public static PartialAggregate readFrom(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new IOException("not a partial aggregate");
+        int version = in.readInt();
+        if (version != VERSION)
+            throw new IOException("unsupported partial aggregate version " + version);
+
+        PartialAggregate partial = new PartialAggregate();
+        EmployeeAggregator totals = partial.totals;
+        totals.rows = in.readLong();
+        totals.maleCount = in.readLong();
+        totals.maleAge = in.readLong();
+        totals.femaleAge = in.readLong();
+        totals.maleSalary = in.readLong();
+        totals.femaleSalary = in.readLong();
+        totals.totalSalary = in.readLong();
+        totals.maleSalaryHigh = in.readLong();
+        totals.femaleSalaryHigh = in.readLong();
+        totals.totalSalaryHigh = in.readLong();
+        int departments = in.readInt();
+        for (int i = 0; i < departments; i++) {
+            int departmentId = Departments.idOf(readString(in));
+            long employees = in.readLong();
+            long salaryHigh = in.readLong();
+            long salary = in.readLong();
+            totals.addToDepartment(departmentId, employees, salaryHigh, salary);
+            long firstOrder = in.readLong();
+            if (firstOrder != Long.MAX_VALUE)
+                partial.seen(departmentId, firstOrder);
+        }
+        partial.maxPayed.readFrom(in);
+        partial.oldest.readFrom(in);
+        partial.maxExperienced.readFrom(in);
+        departments = in.readInt();
+        for (int i = 0; i < departments; i++) {
+            Extreme youngest = new Extreme(false);
+            youngest.readFrom(in);
+            if (youngest.employee == null || !youngest.employee.isMale())
+                throw new IOException("corrupt youngest male employee");
+            partial.youngestMale(youngest.employee.departmentId()).merge(youngest);
+        }
+        return partial;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static PartialAggregate fromBytes(byte[] bytes) throws IOException {
+        return readFrom(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null)
+            out.writeUTF(value);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * The employee with the largest (or smallest) key, the one of lowest order
+     * among equal keys.
+     */
+    private static final class Extreme {
+        private final boolean largest;
+        private long key;
+        private long order = -1;
+        private EmployeeRecord employee;
+
+        Extreme(boolean largest) {
+            this.largest = largest;
+        }
+
+        boolean admits(long key, long order) {
+            if (employee == null || key != this.key)
+                return employee == null || (largest ? key > this.key : key < this.key);
+            return order < this.order;
+        }
+
+        void offer(long key, long order, EmployeeRecord employee) {
+            if (admits(key, order)) {
+                this.key = key;
+                this.order = order;
+                this.employee = employee;
+            }
+        }
+
+        void merge(Extreme other) {
+            if (other.employee != null)
+                offer(other.key, other.order, other.employee);
+        }
+
+        EmployeeRecord get() {
+            if (employee == null)
+                throw new NoSuchElementException("No value present");
+            return employee;
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.writeBoolean(employee != null);
+            if (employee == null)
+                return;
+            out.writeLong(key);
+            out.writeLong(order);
+            out.writeInt(employee.id());
+            writeString(out, employee.name());
+            out.writeInt(employee.age());
+            out.writeBoolean(employee.isMale());
+            writeString(out, employee.department());
+            out.writeInt(employee.yearOfJoining());
+            out.writeLong(employee.salary());
+        }
+
+        void readFrom(DataInput in) throws IOException {
+            if (!in.readBoolean())
+                return;
+            key = in.readLong();
+            order = in.readLong();
+            employee = new EmployeeRecord(in.readInt(), readString(in), in.readInt(),
+                    in.readBoolean() ? Gender.MALE : Gender.FEMALE, Departments.idOf(readString(in)), in.readInt(),
+                    in.readLong());
+        }
+    }
+}
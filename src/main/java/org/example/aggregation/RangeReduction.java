@@ -0,0 +1,120 @@
+package org.example.aggregation;
+
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Split-and-merge reduction over the row indexes {@code [0, size)}.
+ * <p>
+ * Every leaf range gets its own accumulator from the supplier, so accumulators are
+ * never shared between threads. The combiner is always called as
+ * {@code combine(left, right)} with the left range coming first in row order,
+ * which lets ordered results (lists, {@code LinkedHashMap}s) come out exactly as
+ * a sequential pass would produce them.
+ *
+ * @param <A> the type of the accumulator
+ */
+public class RangeReduction<A> extends RecursiveTask<A> {
+    private static final int MIN_LEAF_SIZE = 1 << 12;
+
+    private final int from;
+    private final int to;
+    private final int leafSize;
+    private final Supplier<A> supplier;
+    private final ObjIntConsumer<A> accumulator;
+    private final BinaryOperator<A> combiner;
+
+    private RangeReduction(int from, int to, int leafSize, Supplier<A> supplier, ObjIntConsumer<A> accumulator,
+            BinaryOperator<A> combiner) {
+        this.from = from;
+        this.to = to;
+        this.leafSize = leafSize;
+        this.supplier = supplier;
+        this.accumulator = accumulator;
+        this.combiner = combiner;
+    }
+
+    /**
+     * Reduce the rows {@code [0, size)}, either in one sequential pass or split
+     * across the common fork/join pool.
+     *
+     * @param size        the number of rows
+     * @param parallel    whether to split the rows across threads
+     * @param supplier    creates an empty accumulator
+     * @param accumulator adds one row to an accumulator
+     * @param combiner    merges the accumulator of a right range into the one of the
+     *                    left range
+     * @param <A>         the type of the accumulator
+     * @return the accumulator holding every row
+     */
+    public static <A> A reduce(int size, boolean parallel, Supplier<A> supplier, ObjIntConsumer<A> accumulator,
+            BinaryOperator<A> combiner) {
+        if (!parallel) {
+            A result = supplier.get();
+            for (int row = 0; row < size; row++)
+                accumulator.accept(result, row);
+            return result;
+        }
+        int leafSize = Math.max(MIN_LEAF_SIZE, size / (ForkJoinPool.getCommonPoolParallelism() * 8));
+        return ForkJoinPool.commonPool()
+                .invoke(new RangeReduction<>(0, size, leafSize, supplier, accumulator, combiner));
+    }
+
+    /**
+     * Reduce the elements of a list, each with its row. A list with fast random
+     * access is reduced like {@link #reduce(int, boolean, Supplier, ObjIntConsumer,
+     * BinaryOperator)}; any other list, e.g. a {@link java.util.LinkedList} whose
+     * {@code get} walks the nodes, is reduced in one sequential pass of its
+     * iterator, since it cannot be split without walking it anyway.
+     *
+     * @param rows        the list
+     * @param parallel    whether to split the rows across threads
+     * @param supplier    creates an empty accumulator
+     * @param accumulator adds one element and its row to an accumulator
+     * @param combiner    merges the accumulator of a right range into the one of the
+     *                    left range
+     * @param <E>         the type of the elements
+     * @param <A>         the type of the accumulator
+     * @return the accumulator holding every element
+     */
+    public static <E, A> A reduce(List<? extends E> rows, boolean parallel, Supplier<A> supplier,
+            ElementAccumulator<A, E> accumulator, BinaryOperator<A> combiner) {
+        if (rows instanceof RandomAccess)
+            return reduce(rows.size(), parallel, supplier,
+                    (result, row) -> accumulator.accept(result, row, rows.get(row)), combiner);
+        A result = supplier.get();
+        int row = 0;
+        for (E element : rows)
+            accumulator.accept(result, row++, element);
+        return result;
+    }
+
+    /**
+     * Adds one element of a list, given with its row, to an accumulator.
+     */
+    @FunctionalInterface
+    public interface ElementAccumulator<A, E> {
+        void accept(A accumulator, int row, E element);
+    }
+
+    @Override
+    protected A compute() {
+        if (to - from <= leafSize) {
+            A result = supplier.get();
+            for (int row = from; row < to; row++)
+                accumulator.accept(result, row);
+            return result;
+        }
+        int middle = (from + to) >>> 1;
+        RangeReduction<A> left = new RangeReduction<>(from, middle, leafSize, supplier, accumulator, combiner);
+        RangeReduction<A> right = new RangeReduction<>(middle, to, leafSize, supplier, accumulator, combiner);
+        left.fork();
+        A rightResult = right.compute();
+        return combiner.apply(left.join(), rightResult);
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.aggregation;
+
+/**
+ * The reports that can be computed by a single pass of the {@link EmployeeAggregator}.
+ */
+public enum Report {
+    /**
+     * number of male and female employees
+     */
+    GENDER_COUNT,
+    /**
+     * average age of male and female employees
+     */
+    AVERAGE_AGE,
+    /**
+     * average salary of male and female employees
+     */
+    AVERAGE_GENDER_SALARY,
+    /**
+     * total and average salary of all employees
+     */
+    SALARY_TOTALS,
+    /**
+     * number of employees in each department
+     */
+    DEPARTMENT_COUNT,
+    /**
+     * average salary of each department
+     */
+    DEPARTMENT_AVERAGE_SALARY
+}
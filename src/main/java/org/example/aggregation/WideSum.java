@@ -0,0 +1,153 @@
+package org.example.aggregation;
+
+import java.math.BigInteger;
+
+/**
+ * Exact sums of longs kept as two primitive longs instead of a {@link BigInteger}.
+ * <p>
+ * The value of a sum is {@code high * 2^64 + low}: {@code low} is the ordinary
+ * wrapping long sum, and {@code high} counts how many times it wrapped around,
+ * positive for overflows past {@link Long#MAX_VALUE} and negative for overflows
+ * past {@link Long#MIN_VALUE}. As long as nothing overflows {@code high} stays 0
+ * and {@code low} is the sum itself, so the common path costs one add and an
+ * overflow test per value, and a {@link BigInteger} is only built when a sum
+ * actually went past a long.
+ */
+public final class WideSum {
+    private WideSum() {
+    }
+
+    /**
+     * Whether {@code sum = low + value} wrapped around. Hot loops test this before
+     * touching the high word: the branch is never taken on the common path, so it
+     * costs next to nothing once predicted.
+     *
+     * @param low   the low word before the add
+     * @param value the value added
+     * @param sum   {@code low + value}
+     */
+    public static boolean overflows(long low, long value, long sum) {
+        return ((low ^ sum) & (value ^ sum)) < 0;
+    }
+
+    /**
+     * The carry of {@code sum = low + value} into the high word, without a branch:
+     * the add overflowed when both operands have a sign different from the sum,
+     * and then it wrapped in the direction of the sign of {@code value}.
+     *
+     * @param low   the low word before the add
+     * @param value the value added
+     * @param sum   {@code low + value}
+     * @return 1, -1 or 0, to be added to the high word
+     */
+    public static long carry(long low, long value, long sum) {
+        return ((low ^ sum) & (value ^ sum)) >> 63 & ((value >> 63) | 1);
+    }
+
+    /**
+     * The carry of {@code difference = low - value} into the high word.
+     *
+     * @param low        the low word before the subtraction
+     * @param value      the value subtracted
+     * @param difference {@code low - value}
+     * @return 1, -1 or 0, to be added to the high word
+     */
+    public static long borrow(long low, long value, long difference) {
+        return ((low ^ value) & (low ^ difference)) >> 63 & -((value >> 63) | 1);
+    }
+
+    /**
+     * Whether {@code difference = low - value} wrapped around, the test that goes
+     * before {@link #borrow(long, long, long)} as {@link #overflows(long, long, long)}
+     * goes before {@link #carry(long, long, long)}.
+     *
+     * @param low        the low word before the subtraction
+     * @param value      the value subtracted
+     * @param difference {@code low - value}
+     */
+    public static boolean underflows(long low, long value, long difference) {
+        return ((low ^ value) & (low ^ difference)) < 0;
+    }
+
+    /**
+     * The high word of a sum taken in two halves that cannot overflow: the sum of
+     * the high 32 bits of the values, each signed, and the sum of the low 32 bits,
+     * each unsigned. The sum of the values is {@code highHalves * 2^32 + lowHalves},
+     * and both half sums fit in a long for up to 2^31 values, which lets striped or
+     * vector accumulators that cannot test every add stay exact.
+     *
+     * @param highHalves the sum of {@code value >> 32}
+     * @param lowHalves  the sum of {@code value & 0xFFFFFFFFL}
+     */
+    public static long highOfHalves(long highHalves, long lowHalves) {
+        long shifted = highHalves << 32;
+        return (highHalves >> 32) + (shifted < 0 ? 1 : 0) + carry(shifted, lowHalves, shifted + lowHalves);
+    }
+
+    /**
+     * The low word of a sum taken in two halves, see
+     * {@link #highOfHalves(long, long)}.
+     */
+    public static long lowOfHalves(long highHalves, long lowHalves) {
+        return (highHalves << 32) + lowHalves;
+    }
+
+    /**
+     * @return the exact value of the sum
+     */
+    public static BigInteger value(long high, long low) {
+        if (high == 0)
+            return BigInteger.valueOf(low);
+        return BigInteger.valueOf(high).shiftLeft(Long.SIZE).add(BigInteger.valueOf(low));
+    }
+
+    /**
+     * @return the value of the sum
+     * @throws ArithmeticException if the sum does not fit in a long
+     */
+    public static long longValueExact(long high, long low) {
+        if (high != 0)
+            throw new ArithmeticException("sum " + value(high, low) + " does not fit in a long");
+        return low;
+    }
+
+    /**
+     * The average of {@code count} values whose sum fits in a long, rounded to the
+     * nearest long with halves rounded away from zero.
+     *
+     * @param sum   the sum of the values
+     * @param count the number of values
+     * @throws ArithmeticException if the count is 0
+     */
+    public static long average(long sum, long count) {
+        long quotient = sum / count;
+        long remainder = Math.abs(sum % count);
+        if (remainder >= Math.abs(count) - remainder)
+            quotient += (sum ^ count) < 0 ? -1 : 1;
+        return quotient;
+    }
+
+    /**
+     * The average of {@code count} values, rounded to the nearest long with halves
+     * rounded away from zero. The average of longs always fits in a long, even
+     * when their sum does not.
+     *
+     * @param high  the high word of the sum of the values
+     * @param low   the low word of the sum of the values
+     * @param count the number of values
+     * @throws ArithmeticException if the count is 0
+     */
+    public static long average(long high, long low, long count) {
+        if (high == 0)
+            return average(low, count);
+        if (count == 0)
+            throw new ArithmeticException("/ by zero");
+        BigInteger divisor = BigInteger.valueOf(count);
+        BigInteger[] division = value(high, low).divideAndRemainder(divisor);
+        BigInteger quotient = division[0];
+        BigInteger remainder = division[1].abs();
+        if (remainder.compareTo(divisor.abs().subtract(remainder)) >= 0)
+            quotient = quotient.add(BigInteger.valueOf(division[1].signum() * divisor.signum()));
+        return quotient.longValueExact();
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.cache;
+
+/**
+ * A snapshot of the counters of a {@link ReportCache}.
+ */
+public final class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+
+    CacheStats(long hits, long misses, long evictions, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of entries dropped to stay within the maximum size
+     */
+    public long evictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of entries in the cache
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the fraction of lookups that were hits, 0 if there were none
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", size=" + size + "}";
+    }
+}
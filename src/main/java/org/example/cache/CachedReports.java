@@ -0,0 +1,168 @@
+package org.example.cache;
+
+import org.example.MainApp;
+import org.example.exceptions.EmployeeNotFound;
+import org.example.model.Employee;
+import org.example.model.EmployeeRecord;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The {@link MainApp} reports over one roster, cached in a {@link ReportCache}
+ * until the roster changes.
+ * <p>
+ * The roster has a version that is part of every cache key. Replacing the roster
+ * with {@link #update(List)}, or calling {@link #invalidate()} after changing it in
+ * place, bumps the version, so no later call can see a result of the old roster,
+ * even one that was still being computed. Every result is unmodifiable, and the
+ * employees in them are immutable {@link EmployeeRecord}s: each version of the
+ * roster is copied into records once, and the reports run on the copy.
+ */
+public class CachedReports {
+    public static final int DEFAULT_MAXIMUM_SIZE = 256;
+
+    private final MainApp app;
+    private final ReportCache cache;
+    private volatile Snapshot snapshot;
+
+    public CachedReports(MainApp app, List<Employee> employees) {
+        this(app, employees, new ReportCache(DEFAULT_MAXIMUM_SIZE));
+    }
+
+    /**
+     * @param app       computes the reports on a miss
+     * @param employees the roster
+     * @param cache     the cache to keep the results in
+     */
+    public CachedReports(MainApp app, List<Employee> employees, ReportCache cache) {
+        this.app = app;
+        this.cache = cache;
+        this.snapshot = new Snapshot(0, employees);
+    }
+
+    /**
+     * @return the version of the roster, bumped on every change
+     */
+    public long version() {
+        return snapshot.version;
+    }
+
+    /**
+     * Replace the roster, dropping every cached result.
+     *
+     * @param employees the new roster, kept to be copied again by
+     *                  {@link #invalidate()}
+     */
+    public synchronized void update(List<Employee> employees) {
+        snapshot = new Snapshot(snapshot.version + 1, employees);
+        cache.invalidateBefore(snapshot.version);
+    }
+
+    /**
+     * Drop every cached result, after the roster was changed in place.
+     */
+    public synchronized void invalidate() {
+        update(snapshot.source);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private <T> T get(String report, Function<List<EmployeeRecord>, T> compute, Object... parameters) {
+        Snapshot current = snapshot;
+        return cache.get(new ReportKey(current.version, report, parameters), () -> compute.apply(current.employees));
+    }
+
+    public Map<String, Long> countMaleAndFemale() {
+        return get("countMaleAndFemale", app::countMaleAndFemale);
+    }
+
+    public List<String> allDepartments() {
+        return get("allDepartments", app::allDepartments);
+    }
+
+    public Map<String, Integer> averageAgeOfEmployees() {
+        return get("averageAgeOfEmployees", app::averageAgeOfEmployees);
+    }
+
+    public EmployeeRecord getMaxPayedEmployee() {
+        return get("getMaxPayedEmployee", app::getMaxPayedEmployee);
+    }
+
+    public List<EmployeeRecord> getEmployeesJoinedAfter(int year) {
+        return get("getEmployeesJoinedAfter", employees -> app.getEmployeesJoinedAfter(employees, year), year);
+    }
+
+    public Map<String, Integer> countNumberOfEmployeesInEachDepartment() {
+        return get("countNumberOfEmployeesInEachDepartment", app::countNumberOfEmployeesInEachDepartment);
+    }
+
+    public Map<String, Long> averageSalaryOfEachDepartment() {
+        return get("averageSalaryOfEachDepartment", app::averageSalaryOfEachDepartment);
+    }
+
+    /**
+     * @throws EmployeeNotFound if the department has no male employee, which is
+     *                          not cached
+     */
+    public EmployeeRecord getYoungestMaleEmployee(String department) throws EmployeeNotFound {
+        return get("getYoungestMaleEmployee", employees -> app.getYoungestMaleEmployee(employees, department),
+                department);
+    }
+
+    public EmployeeRecord getMaxExperiencedEmployee() {
+        return get("getMaxExperiencedEmployee", app::getMaxExperiencedEmployee);
+    }
+
+    public Map<String, Map<String, Integer>> employeesInDepartments(String... departments) {
+        return get("employeesInDepartments", employees -> app.employeesInDepartments(employees, departments),
+                (Object[]) departments.clone());
+    }
+
+    public Map<String, Long> avgMaleFemaleSalary() {
+        return get("avgMaleFemaleSalary", app::avgMaleFemaleSalary);
+    }
+
+    public Map<String, List<String>> employeesInEachDepartment() {
+        return get("employeesInEachDepartment", app::employeesInEachDepartment);
+    }
+
+    public Map<String, Long> avgAndTotalSalary() {
+        return get("avgAndTotalSalary", app::avgAndTotalSalary);
+    }
+
+    public Map<String, List<EmployeeRecord>> separateEmployees(int age) {
+        return get("separateEmployees", employees -> app.separateEmployees(employees, age), age);
+    }
+
+    public EmployeeRecord oldestEmployee() {
+        return get("oldestEmployee", app::oldestEmployee);
+    }
+
+    public List<EmployeeRecord> getTopPayedEmployees(int n) {
+        return get("getTopPayedEmployees", employees -> app.getTopPayedEmployees(employees, n), n);
+    }
+
+    public Map<String, List<EmployeeRecord>> getYoungestEmployeesOfEachDepartment(int n) {
+        return get("getYoungestEmployeesOfEachDepartment",
+                employees -> app.getYoungestEmployeesOfEachDepartment(employees, n), n);
+    }
+
+    /**
+     * A roster and its version, read together.
+     */
+    private static final class Snapshot {
+        final long version;
+        final List<Employee> source;
+        final List<EmployeeRecord> employees;
+
+        Snapshot(long version, List<Employee> source) {
+            this.version = version;
+            this.source = source;
+            this.employees = EmployeeRecord.of(source);
+        }
+    }
+}
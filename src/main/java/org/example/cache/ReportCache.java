@@ -0,0 +1,137 @@
+package org.example.cache;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A size bounded, least recently used cache of report results, safe to use from
+ * several threads.
+ * <p>
+ * Results are computed outside the lock, so a slow report never blocks lookups
+ * of other reports; two threads missing on the same key at once may both compute
+ * it and the first one stored wins. A result whose key was invalidated while it
+ * was being computed is returned to its caller but not stored. Every result is
+ * stored as a deep unmodifiable copy of its maps, lists and sets, so no caller can
+ * change what another caller gets; the elements are kept as they are, so results
+ * should hold immutable values such as {@code EmployeeRecord}s rather than
+ * {@code Employee} beans.
+ */
+public class ReportCache {
+    private final int maximumSize;
+    private final Map<ReportKey, Object> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    /**
+     * results of older versions are not stored, guarded by the entries
+     */
+    private long oldestVersion = Long.MIN_VALUE;
+    /**
+     * bumped by {@link #invalidateAll()}, guarded by the entries
+     */
+    private long generation;
+
+    /**
+     * @param maximumSize the number of results to keep before evicting the least
+     *                    recently used one
+     */
+    public ReportCache(int maximumSize) {
+        if (maximumSize < 1)
+            throw new IllegalArgumentException("the maximum size should be positive : " + maximumSize);
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ReportKey, Object> eldest) {
+                if (size() <= ReportCache.this.maximumSize)
+                    return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Return the cached result of the key, computing and caching it on a miss.
+     *
+     * @param key     the version, report and parameters
+     * @param compute computes the result on a miss; exceptions are passed through
+     *                and nothing is cached
+     * @param <T>     the type of the result
+     * @return the unmodifiable result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ReportKey key, Supplier<T> compute) {
+        long computedIn;
+        synchronized (entries) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return (T) cached;
+            }
+            computedIn = generation;
+        }
+        misses.increment();
+        T result = unmodifiable(compute.get());
+        synchronized (entries) {
+            if (key.version() < oldestVersion || computedIn != generation)
+                return result;
+            Object raced = entries.putIfAbsent(key, result);
+            return raced == null ? result : (T) raced;
+        }
+    }
+
+    /**
+     * Drop every result computed over a version older than the given one.
+     *
+     * @param version the current version of the roster
+     */
+    public void invalidateBefore(long version) {
+        synchronized (entries) {
+            oldestVersion = Math.max(oldestVersion, version);
+            entries.keySet().removeIf(key -> key.version() < version);
+        }
+    }
+
+    /**
+     * Drop every result, including those still being computed.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+        }
+    }
+
+    /**
+     * @return a deep copy of the maps, lists and sets of the value, unmodifiable
+     * at every level and keeping their iteration order
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T unmodifiable(T value) {
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((key, element) -> copy.put(key, unmodifiable(element)));
+            return (T) Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>(((List<?>) value).size());
+            for (Object element : (List<?>) value)
+                copy.add(unmodifiable(element));
+            return (T) Collections.unmodifiableList(copy);
+        }
+        if (value instanceof Set) {
+            Set<Object> copy = new LinkedHashSet<>();
+            for (Object element : (Set<?>) value)
+                copy.add(unmodifiable(element));
+            return (T) Collections.unmodifiableSet(copy);
+        }
+        return value;
+    }
+}
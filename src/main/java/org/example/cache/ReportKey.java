@@ -0,0 +1,54 @@
+package org.example.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Identifies one cached report: the version of the roster it was computed over,
+ * the report and its parameters, any of which may be null.
+ */
+public final class ReportKey {
+    private final long version;
+    private final String report;
+    private final List<Object> parameters;
+
+    public ReportKey(long version, String report, Object... parameters) {
+        this.version = version;
+        this.report = Objects.requireNonNull(report);
+        this.parameters = Collections.unmodifiableList(Arrays.asList(parameters.clone()));
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public String report() {
+        return report;
+    }
+
+    public List<Object> parameters() {
+        return parameters;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ReportKey))
+            return false;
+        ReportKey other = (ReportKey) o;
+        return version == other.version && report.equals(other.report) && parameters.equals(other.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, report, parameters);
+    }
+
+    @Override
+    public String toString() {
+        return report + parameters + "@" + version;
+    }
+}
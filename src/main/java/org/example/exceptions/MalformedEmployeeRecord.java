@@ -0,0 +1,7 @@
+package org.example.exceptions;
+
+public class MalformedEmployeeRecord extends RuntimeException {
+    public MalformedEmployeeRecord(long record, String reason) {
+        super("record " + record + " is not a valid employee :" + reason);
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.io;
+
+import org.example.exceptions.MalformedEmployeeRecord;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the binary stream format written by {@link BinaryEmployeeWriter}.
+ */
+public class BinaryEmployeeReader implements EmployeeReader {
+    private final DataInputStream in;
+    private final List<String> genders = new ArrayList<>();
+    private final List<String> departments = new ArrayList<>();
+    private long record;
+
+    public BinaryEmployeeReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (this.in.readInt() != BinaryEmployeeWriter.MAGIC)
+            throw new MalformedEmployeeRecord(0, "not a binary employee stream");
+        int version = this.in.readUnsignedByte();
+        if (version != BinaryEmployeeWriter.VERSION)
+            throw new MalformedEmployeeRecord(0, "unsupported version " + version);
+    }
+
+    public static BinaryEmployeeReader open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            return new BinaryEmployeeReader(in);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long read(EmployeeSink sink) throws IOException {
+        long records = 0;
+        try {
+            while (in.readUnsignedByte() == 1) {
+                record++;
+                int id = in.readInt();
+                int age = in.readInt();
+                int yearOfJoining = in.readInt();
+                long salary = in.readLong();
+                String name = in.readUTF();
+                String gender = readDictionary(genders);
+                String department = readDictionary(departments);
+                sink.accept(id, name, age, gender, department, yearOfJoining, salary);
+                records++;
+            }
+        } catch (EOFException e) {
+            throw new MalformedEmployeeRecord(record, "the stream ends in the middle of a record");
+        }
+        return records;
+    }
+
+    private String readDictionary(List<String> dictionary) throws IOException {
+        int code = readVarInt();
+        if (code < dictionary.size())
+            return dictionary.get(code);
+        if (code != dictionary.size())
+            throw new MalformedEmployeeRecord(record, "unknown dictionary code " + code);
+        String value = in.readUTF();
+        dictionary.add(value);
+        return value;
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new MalformedEmployeeRecord(record, "invalid varint");
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
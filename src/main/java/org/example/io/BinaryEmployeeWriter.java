@@ -0,0 +1,101 @@
+package org.example.io;
+
+import org.example.model.Employee;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes employees in the compact binary stream format read by
+ * {@link BinaryEmployeeReader}.
+ * <p>
+ * The stream starts with {@link #MAGIC} and {@link #VERSION}. Every record is a
+ * {@code 1} byte followed by the id, age, year of joining (ints), the salary (long)
+ * and the name (modified UTF-8). Gender and department are written as a varint
+ * code; a code that was not used before is followed by its string. A {@code 0}
+ * byte ends the stream. It is a sink, so a reader of another format can convert
+ * straight into it.
+ */
+public class BinaryEmployeeWriter implements EmployeeSink, Closeable {
+    public static final int MAGIC = 0x454d5053;
+    public static final int VERSION = 1;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> genders = new HashMap<>();
+    private final Map<String, Integer> departments = new HashMap<>();
+
+    public BinaryEmployeeWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+    }
+
+    public static BinaryEmployeeWriter create(Path file) throws IOException {
+        return new BinaryEmployeeWriter(Files.newOutputStream(file));
+    }
+
+    /**
+     * Write a whole list of employees to a file.
+     *
+     * @param file      the file to create or overwrite
+     * @param employees the employees to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, List<Employee> employees) throws IOException {
+        try (BinaryEmployeeWriter writer = create(file)) {
+            for (Employee employee : employees)
+                writer.accept(employee.getId(), employee.getName(), employee.getAge(), employee.getGender(),
+                        employee.getDepartment(), employee.getYearOfJoining(), employee.getSalary());
+        }
+    }
+
+    @Override
+    public void accept(int id, String name, int age, String gender, String department, int yearOfJoining,
+            long salary) {
+        try {
+            out.writeByte(1);
+            out.writeInt(id);
+            out.writeInt(age);
+            out.writeInt(yearOfJoining);
+            out.writeLong(salary);
+            out.writeUTF(name);
+            writeDictionary(genders, gender);
+            writeDictionary(departments, department);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeDictionary(Map<String, Integer> dictionary, String value) throws IOException {
+        Integer code = dictionary.get(value);
+        if (code != null) {
+            writeVarInt(code);
+            return;
+        }
+        code = dictionary.size();
+        dictionary.put(value, code);
+        writeVarInt(code);
+        out.writeUTF(value);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Writes the end of the stream and closes it.
+     */
+    @Override
+    public void close() throws IOException {
+        out.writeByte(0);
+        out.close();
+    }
+}
@@ -0,0 +1,214 @@
+package org.example.io;
+
+import org.example.exceptions.MalformedEmployeeRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads comma or tab separated employees, one per line, with the fields in the
+ * order id, name, age, gender, department, year of joining, salary.
+ * <p>
+ * The input is read in large blocks from a channel and the fields are parsed
+ * straight from the bytes: numbers never go through a {@code String}, and the
+ * gender and department of consecutive rows share the same {@code String}
+ * instances. Fields are not quoted, so they cannot contain the delimiter or a
+ * line break. Lines may end with {@code \n} or {@code \r\n}, and blank lines are
+ * skipped.
+ */
+public class DelimitedEmployeeReader implements EmployeeReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int FIELDS = 7;
+
+    private final ReadableByteChannel channel;
+    private final byte delimiter;
+    private boolean skipHeader;
+
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private final int[] fieldStarts = new int[FIELDS + 1];
+    private final StringCache genders = new StringCache();
+    private final StringCache departments = new StringCache();
+    private long line;
+
+    /**
+     * @param channel    the input
+     * @param delimiter  the field separator, usually ',' or '\t'
+     * @param skipHeader whether the first line holds column names
+     */
+    public DelimitedEmployeeReader(ReadableByteChannel channel, char delimiter, boolean skipHeader) {
+        if (delimiter > 0x7f || delimiter == '\n' || delimiter == '\r')
+            throw new IllegalArgumentException("the delimiter should be a single ASCII character : " + delimiter);
+        this.channel = channel;
+        this.delimiter = (byte) delimiter;
+        this.skipHeader = skipHeader;
+    }
+
+    public static DelimitedEmployeeReader open(Path file, char delimiter, boolean skipHeader) throws IOException {
+        return new DelimitedEmployeeReader(FileChannel.open(file, StandardOpenOption.READ), delimiter, skipHeader);
+    }
+
+    /**
+     * @param in        the input, e.g. {@code System.in}
+     * @param delimiter the field separator
+     * @return a reader over the stream, which is not expected to start with a header
+     */
+    public static DelimitedEmployeeReader of(InputStream in, char delimiter) {
+        return new DelimitedEmployeeReader(Channels.newChannel(in), delimiter, false);
+    }
+
+    @Override
+    public long read(EmployeeSink sink) throws IOException {
+        long records = 0;
+        int start = 0;
+        int end = 0;
+        int scan = 0;
+        boolean eof = false;
+        while (true) {
+            int newline = indexOf((byte) '\n', scan, end);
+            if (newline >= 0) {
+                records += parseLine(start, newline, sink);
+                start = newline + 1;
+                scan = start;
+                continue;
+            }
+            if (eof) {
+                if (start < end)
+                    records += parseLine(start, end, sink);
+                return records;
+            }
+
+            // keep the partial line, growing the buffer only for lines longer than it
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+            } else if (end == buffer.length)
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            scan = end;
+            int read = channel.read(ByteBuffer.wrap(buffer, end, buffer.length - end));
+            if (read < 0)
+                eof = true;
+            else
+                end += read;
+        }
+    }
+
+    private int indexOf(byte value, int from, int to) {
+        for (int i = from; i < to; i++)
+            if (buffer[i] == value)
+                return i;
+        return -1;
+    }
+
+    /**
+     * @return 1 if the line held a record, 0 if it was blank or the header
+     */
+    private int parseLine(int from, int to, EmployeeSink sink) {
+        line++;
+        if (to > from && buffer[to - 1] == '\r')
+            to--;
+        if (from == to)
+            return 0;
+        if (skipHeader) {
+            skipHeader = false;
+            return 0;
+        }
+
+        int fields = 0;
+        fieldStarts[fields++] = from;
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == delimiter) {
+                if (fields == FIELDS)
+                    throw new MalformedEmployeeRecord(line, "more than " + FIELDS + " fields");
+                fieldStarts[fields++] = i + 1;
+            }
+        }
+        if (fields != FIELDS)
+            throw new MalformedEmployeeRecord(line, "expected " + FIELDS + " fields but found " + fields);
+        fieldStarts[FIELDS] = to + 1;
+
+        sink.accept((int) parseNumber(0, Integer.MIN_VALUE, Integer.MAX_VALUE),
+                new String(buffer, fieldStarts[1], fieldEnd(1) - fieldStarts[1], StandardCharsets.UTF_8),
+                (int) parseNumber(2, Integer.MIN_VALUE, Integer.MAX_VALUE),
+                genders.get(buffer, fieldStarts[3], fieldEnd(3)),
+                departments.get(buffer, fieldStarts[4], fieldEnd(4)),
+                (int) parseNumber(5, Integer.MIN_VALUE, Integer.MAX_VALUE),
+                parseNumber(6, Long.MIN_VALUE, Long.MAX_VALUE));
+        return 1;
+    }
+
+    private int fieldEnd(int field) {
+        return fieldStarts[field + 1] - 1;
+    }
+
+    private long parseNumber(int field, long min, long max) {
+        int from = fieldStarts[field];
+        int to = fieldEnd(field);
+        while (from < to && buffer[from] == ' ')
+            from++;
+        while (to > from && buffer[to - 1] == ' ')
+            to--;
+        boolean negative = from < to && buffer[from] == '-';
+        if (negative)
+            from++;
+        if (from == to)
+            throw new MalformedEmployeeRecord(line, "field " + (field + 1) + " is not a number");
+
+        // accumulate negatively so that Long.MIN_VALUE can be parsed
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw new MalformedEmployeeRecord(line, "field " + (field + 1) + " is not a number");
+            if (value < (Long.MIN_VALUE + digit) / 10)
+                throw new MalformedEmployeeRecord(line, "field " + (field + 1) + " is out of range");
+            value = value * 10 - digit;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE)
+                throw new MalformedEmployeeRecord(line, "field " + (field + 1) + " is out of range");
+            value = -value;
+        }
+        if (value < min || value > max)
+            throw new MalformedEmployeeRecord(line, "field " + (field + 1) + " is out of range");
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * A small direct mapped cache from bytes to the string decoded from them, for
+     * columns with few distinct values.
+     */
+    private static class StringCache {
+        private static final int SLOTS = 256;
+
+        private final byte[][] keys = new byte[SLOTS][];
+        private final String[] values = new String[SLOTS];
+
+        String get(byte[] bytes, int from, int to) {
+            int hash = 1;
+            for (int i = from; i < to; i++)
+                hash = 31 * hash + bytes[i];
+            int slot = (hash ^ (hash >>> 16)) & (SLOTS - 1);
+
+            byte[] key = keys[slot];
+            if (key != null && Arrays.equals(key, 0, key.length, bytes, from, to))
+                return values[slot];
+            keys[slot] = Arrays.copyOfRange(bytes, from, to);
+            values[slot] = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+            return values[slot];
+        }
+    }
+}
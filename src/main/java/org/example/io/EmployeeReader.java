@@ -0,0 +1,65 @@
+package org.example.io;
+
+import org.example.model.Employee;
+import org.example.model.EmployeeTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A source of employee records that pushes every record into an
+ * {@link EmployeeSink} as soon as it is parsed, so nothing but the sink decides
+ * how much of the input is kept in memory.
+ */
+public interface EmployeeReader extends Closeable {
+
+    /**
+     * Read every remaining record into the sink.
+     *
+     * @param sink receives the records in input order
+     * @return the number of records read
+     * @throws IOException if the input cannot be read
+     */
+    long read(EmployeeSink sink) throws IOException;
+
+    /**
+     * @return every remaining record as a list of employees
+     * @throws IOException if the input cannot be read
+     */
+    default List<Employee> readList() throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        read(EmployeeSink.toList(employees));
+        return employees;
+    }
+
+    /**
+     * @return every remaining record as a columnar table
+     * @throws IOException if the input cannot be read
+     */
+    default EmployeeTable readTable() throws IOException {
+        EmployeeTable table = new EmployeeTable();
+        read(EmployeeSink.toTable(table));
+        return table;
+    }
+
+    /**
+     * Open a file, choosing the format from its extension: {@code .tsv} is tab
+     * separated, {@code .emp} is the {@link BinaryEmployeeReader binary format} and
+     * anything else is comma separated with a header line.
+     *
+     * @param file the file to read
+     * @return a reader over the file
+     * @throws IOException if the file cannot be opened
+     */
+    static EmployeeReader open(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".emp"))
+            return BinaryEmployeeReader.open(file);
+        if (name.endsWith(".tsv"))
+            return DelimitedEmployeeReader.open(file, '\t', true);
+        return DelimitedEmployeeReader.open(file, ',', true);
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.io;
+
+import org.example.aggregation.EmployeeAggregator;
+import org.example.model.Employee;
+import org.example.model.EmployeeRecord;
+import org.example.model.EmployeeTable;
+import org.example.model.Gender;
+
+import java.util.List;
+
+/**
+ * Receives the employees read by an {@link EmployeeReader} one at a time, as raw
+ * fields, so a reader can feed a list, a table or an aggregator without building
+ * anything in between.
+ */
+@FunctionalInterface
+public interface EmployeeSink {
+
+    void accept(int id, String name, int age, String gender, String department, int yearOfJoining, long salary);
+
+    /**
+     * @param next the sink to feed after this one
+     * @return a sink passing every record to this sink and then to the next one,
+     * e.g. to build a table and aggregate it while it is loading
+     */
+    default EmployeeSink andThen(EmployeeSink next) {
+        return (id, name, age, gender, department, yearOfJoining, salary) -> {
+            accept(id, name, age, gender, department, yearOfJoining, salary);
+            next.accept(id, name, age, gender, department, yearOfJoining, salary);
+        };
+    }
+
+    /**
+     * @param employees the list to append to
+     * @return a sink appending a new {@link Employee} to the list for every record
+     */
+    static EmployeeSink toList(List<Employee> employees) {
+        return (id, name, age, gender, department, yearOfJoining, salary) -> employees
+                .add(new Employee(id, name, age, gender, department, yearOfJoining, salary));
+    }
+
+    /**
+     * @param records the list to append to
+     * @return a sink appending a new immutable {@link EmployeeRecord} to the list
+     * for every record
+     */
+    static EmployeeSink toRecords(List<EmployeeRecord> records) {
+        return (id, name, age, gender, department, yearOfJoining, salary) -> records
+                .add(EmployeeRecord.of(id, name, age, gender, department, yearOfJoining, salary));
+    }
+
+    /**
+     * @param table the table to append to
+     * @return a sink appending a row to the table for every record
+     */
+    static EmployeeSink toTable(EmployeeTable table) {
+        return table::add;
+    }
+
+    /**
+     * @param aggregator the aggregator to feed
+     * @return a sink adding every record to the aggregator without keeping it
+     */
+    static EmployeeSink toAggregator(EmployeeAggregator aggregator) {
+        return (id, name, age, gender, department, yearOfJoining, salary) -> aggregator
+                .accept(department, Gender.of(gender) == Gender.MALE, age, salary);
+    }
+}
@@ -0,0 +1,278 @@
+package org.example.io;
+
+import org.example.exceptions.MalformedEmployeeRecord;
+import org.example.model.EmployeeColumns;
+import org.example.model.StringDictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A memory mapped, fixed width employee file, written by
+ * {@link MappedEmployeeFileWriter}.
+ * <p>
+ * The file is a {@value #HEADER_SIZE} byte header, one {@value #ROW_SIZE} byte row
+ * per employee, the UTF-8 bytes of all the names, and the department and gender
+ * dictionaries. A row holds id, age, year of joining, department code, gender
+ * code and name length (ints), then salary and the offset of the name (longs).
+ * <p>
+ * Opening the file only reads the header and the dictionaries; the rows are read
+ * by the OS on demand as they are scanned, so the data never has to fit on the
+ * heap. It implements {@link EmployeeColumns}, so every {@code MainApp} report
+ * runs on it directly, and {@link #record()} gives a reusable flyweight view of a
+ * row. Reads are safe from several threads. The mappings are released by the
+ * garbage collector once the file is closed and no longer referenced.
+ */
+public class MappedEmployeeFile implements EmployeeColumns, Closeable {
+    static final int MAGIC = 0x454d504d;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int ROW_SIZE = 40;
+
+    private static final int ID = 0;
+    private static final int AGE = 4;
+    private static final int YEAR_OF_JOINING = 8;
+    private static final int DEPARTMENT = 12;
+    private static final int GENDER = 16;
+    private static final int NAME_LENGTH = 20;
+    private static final int SALARY = 24;
+    private static final int NAME_OFFSET = 32;
+
+    /**
+     * rows per mapping, keeping every mapping well below the 2GB limit of a buffer
+     */
+    private static final int ROW_CHUNK_SHIFT = 24;
+    private static final int NAME_CHUNK_SHIFT = 30;
+
+    private final FileChannel channel;
+    private final int size;
+    private final MappedByteBuffer[] rowChunks;
+    private final MappedByteBuffer[] nameChunks;
+    private final StringDictionary departmentDictionary = new StringDictionary();
+    private final StringDictionary genderDictionary = new StringDictionary();
+    private final boolean[] maleGenders;
+
+    private MappedEmployeeFile(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        if (header.getInt() != MAGIC)
+            throw new MalformedEmployeeRecord(0, "not a mapped employee file");
+        int version = header.getInt();
+        if (version != VERSION)
+            throw new MalformedEmployeeRecord(0, "unsupported version " + version);
+        long rows = header.getLong();
+        long namesOffset = header.getLong();
+        long dictionaryOffset = header.getLong();
+        if (rows > Integer.MAX_VALUE || HEADER_SIZE + rows * ROW_SIZE != namesOffset)
+            throw new MalformedEmployeeRecord(0, "corrupt header");
+        this.size = (int) rows;
+
+        this.rowChunks = map(HEADER_SIZE, rows * ROW_SIZE, ((long) ROW_SIZE) << ROW_CHUNK_SHIFT);
+        this.nameChunks = map(namesOffset, dictionaryOffset - namesOffset, 1L << NAME_CHUNK_SHIFT);
+
+        ByteBuffer dictionaries = channel.map(FileChannel.MapMode.READ_ONLY, dictionaryOffset,
+                channel.size() - dictionaryOffset);
+        readDictionary(dictionaries, departmentDictionary);
+        readDictionary(dictionaries, genderDictionary);
+        this.maleGenders = new boolean[genderDictionary.size()];
+        for (int code = 0; code < maleGenders.length; code++)
+            maleGenders[code] = genderDictionary.decode(code).equalsIgnoreCase("male");
+    }
+
+    /**
+     * Map a file for reading.
+     *
+     * @param file a file written by {@link MappedEmployeeFileWriter}
+     * @return the mapped file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static MappedEmployeeFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new MappedEmployeeFile(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private MappedByteBuffer[] map(long offset, long length, long chunkSize) throws IOException {
+        MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((length + chunkSize - 1) / chunkSize)];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            long start = chunk * chunkSize;
+            chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY, offset + start,
+                    Math.min(chunkSize, length - start));
+        }
+        return chunks;
+    }
+
+    private static void readDictionary(ByteBuffer buffer, StringDictionary dictionary) {
+        int values = buffer.getInt();
+        for (int i = 0; i < values; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            dictionary.encode(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private int intAt(int row, int field) {
+        return rowChunks[row >>> ROW_CHUNK_SHIFT].getInt((row & ((1 << ROW_CHUNK_SHIFT) - 1)) * ROW_SIZE + field);
+    }
+
+    private long longAt(int row, int field) {
+        return rowChunks[row >>> ROW_CHUNK_SHIFT].getLong((row & ((1 << ROW_CHUNK_SHIFT) - 1)) * ROW_SIZE + field);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int id(int row) {
+        return intAt(row, ID);
+    }
+
+    @Override
+    public String name(int row) {
+        long offset = longAt(row, NAME_OFFSET);
+        byte[] bytes = new byte[intAt(row, NAME_LENGTH)];
+        for (int copied = 0; copied < bytes.length; ) {
+            long position = offset + copied;
+            MappedByteBuffer chunk = nameChunks[(int) (position >>> NAME_CHUNK_SHIFT)];
+            int index = (int) (position & ((1L << NAME_CHUNK_SHIFT) - 1));
+            int length = Math.min(bytes.length - copied, chunk.capacity() - index);
+            chunk.get(index, bytes, copied, length);
+            copied += length;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int age(int row) {
+        return intAt(row, AGE);
+    }
+
+    @Override
+    public int genderCode(int row) {
+        return intAt(row, GENDER);
+    }
+
+    @Override
+    public String gender(int row) {
+        return genderDictionary.decode(genderCode(row));
+    }
+
+    @Override
+    public boolean isMale(int row) {
+        return maleGenders[genderCode(row)];
+    }
+
+    @Override
+    public int departmentCode(int row) {
+        return intAt(row, DEPARTMENT);
+    }
+
+    @Override
+    public String department(int row) {
+        return departmentDictionary.decode(departmentCode(row));
+    }
+
+    @Override
+    public int yearOfJoining(int row) {
+        return intAt(row, YEAR_OF_JOINING);
+    }
+
+    @Override
+    public long salary(int row) {
+        return longAt(row, SALARY);
+    }
+
+    @Override
+    public StringDictionary departmentDictionary() {
+        return departmentDictionary;
+    }
+
+    @Override
+    public StringDictionary genderDictionary() {
+        return genderDictionary;
+    }
+
+    /**
+     * @return a new flyweight view, positioned on the first row
+     */
+    public Record record() {
+        return new Record();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * A movable view of one row of the file. The same view can be moved over every
+     * row, reading fields straight from the mapping without creating any objects
+     * except for the name. A view should not be shared between threads.
+     */
+    public class Record {
+        private int row;
+
+        /**
+         * @param row the row to move to
+         * @return this view
+         */
+        public Record at(int row) {
+            if (row < 0 || row >= size)
+                throw new IndexOutOfBoundsException("row " + row + " out of bounds for size " + size);
+            this.row = row;
+            return this;
+        }
+
+        public int row() {
+            return row;
+        }
+
+        public int id() {
+            return MappedEmployeeFile.this.id(row);
+        }
+
+        public String name() {
+            return MappedEmployeeFile.this.name(row);
+        }
+
+        public int age() {
+            return MappedEmployeeFile.this.age(row);
+        }
+
+        public boolean isMale() {
+            return MappedEmployeeFile.this.isMale(row);
+        }
+
+        public String gender() {
+            return MappedEmployeeFile.this.gender(row);
+        }
+
+        public int departmentCode() {
+            return MappedEmployeeFile.this.departmentCode(row);
+        }
+
+        public String department() {
+            return MappedEmployeeFile.this.department(row);
+        }
+
+        public int yearOfJoining() {
+            return MappedEmployeeFile.this.yearOfJoining(row);
+        }
+
+        public long salary() {
+            return MappedEmployeeFile.this.salary(row);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.io;
+
+import org.example.model.Employee;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.example.io.MappedEmployeeFile.*;
+
+/**
+ * Writes the fixed width file format read by {@link MappedEmployeeFile}.
+ * <p>
+ * Rows are streamed to the file as they arrive and the names go to a temporary
+ * file next to it, so converting a large extract needs no more heap than the two
+ * dictionaries. The names, the dictionaries and the header are written on
+ * {@link #close()}; the file is not readable before that.
+ */
+public class MappedEmployeeFileWriter implements EmployeeSink, Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path file;
+    private final Path namesFile;
+    private final FileChannel rows;
+    private final FileChannel names;
+    private final ByteBuffer rowBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer nameBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final Map<String, Integer> departments = new LinkedHashMap<>();
+    private final Map<String, Integer> genders = new LinkedHashMap<>();
+    private long rowCount;
+    private long namesLength;
+
+    public MappedEmployeeFileWriter(Path file) throws IOException {
+        this.file = file;
+        this.namesFile = file.resolveSibling(file.getFileName() + ".names.tmp");
+        FileChannel rows = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING);
+        FileChannel names = null;
+        try {
+            names = FileChannel.open(namesFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING);
+            rows.position(HEADER_SIZE);
+        } catch (IOException | RuntimeException e) {
+            try {
+                rows.close();
+                if (names != null) {
+                    names.close();
+                    Files.deleteIfExists(namesFile);
+                }
+            } catch (IOException closing) {
+                e.addSuppressed(closing);
+            }
+            throw e;
+        }
+        this.rows = rows;
+        this.names = names;
+    }
+
+    /**
+     * Write a whole list of employees to a file.
+     *
+     * @param file      the file to create or overwrite
+     * @param employees the employees to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, List<Employee> employees) throws IOException {
+        try (MappedEmployeeFileWriter writer = new MappedEmployeeFileWriter(file)) {
+            for (Employee employee : employees)
+                writer.accept(employee.getId(), employee.getName(), employee.getAge(), employee.getGender(),
+                        employee.getDepartment(), employee.getYearOfJoining(), employee.getSalary());
+        }
+    }
+
+    /**
+     * Convert everything a reader returns to a file, e.g. a CSV extract.
+     *
+     * @param file   the file to create or overwrite
+     * @param reader the records to write
+     * @return the number of records written
+     * @throws IOException if the input cannot be read or the file written
+     */
+    public static long write(Path file, EmployeeReader reader) throws IOException {
+        try (MappedEmployeeFileWriter writer = new MappedEmployeeFileWriter(file)) {
+            return reader.read(writer);
+        }
+    }
+
+    @Override
+    public void accept(int id, String name, int age, String gender, String department, int yearOfJoining,
+            long salary) {
+        if (rowCount == Integer.MAX_VALUE)
+            throw new IllegalStateException("a file cannot hold more than " + Integer.MAX_VALUE + " rows");
+        try {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            if (rowBuffer.remaining() < ROW_SIZE)
+                flush(rowBuffer, rows);
+            rowBuffer.putInt(id)
+                    .putInt(age)
+                    .putInt(yearOfJoining)
+                    .putInt(departments.computeIfAbsent(department, key -> departments.size()))
+                    .putInt(genders.computeIfAbsent(gender, key -> genders.size()))
+                    .putInt(nameBytes.length)
+                    .putLong(salary)
+                    .putLong(namesLength);
+            writeName(nameBytes);
+            rowCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeName(byte[] bytes) throws IOException {
+        namesLength += bytes.length;
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!nameBuffer.hasRemaining())
+                flush(nameBuffer, names);
+            int length = Math.min(nameBuffer.remaining(), bytes.length - offset);
+            nameBuffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (rows; names) {
+            flush(rowBuffer, rows);
+            flush(nameBuffer, names);
+
+            long namesOffset = HEADER_SIZE + rowCount * ROW_SIZE;
+            for (long copied = 0; copied < namesLength; )
+                copied += names.transferTo(copied, namesLength - copied, rows.position(namesOffset + copied));
+
+            long dictionaryOffset = namesOffset + namesLength;
+            rows.position(dictionaryOffset);
+            writeDictionary(departments);
+            writeDictionary(genders);
+            flush(rowBuffer, rows);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(rowCount)
+                    .putLong(namesOffset)
+                    .putLong(dictionaryOffset);
+            header.clear();
+            rows.write(header, 0);
+        } finally {
+            Files.deleteIfExists(namesFile);
+        }
+    }
+
+    private void writeDictionary(Map<String, Integer> dictionary) throws IOException {
+        if (rowBuffer.remaining() < Integer.BYTES)
+            flush(rowBuffer, rows);
+        rowBuffer.putInt(dictionary.size());
+        for (String value : dictionary.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (rowBuffer.remaining() < Integer.BYTES + bytes.length) {
+                flush(rowBuffer, rows);
+                if (rowBuffer.remaining() < Integer.BYTES + bytes.length)
+                    throw new IllegalStateException("dictionary value too long : " + bytes.length + " bytes");
+            }
+            rowBuffer.putInt(bytes.length).put(bytes);
+        }
+    }
+}
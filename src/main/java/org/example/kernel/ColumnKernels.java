@@ -0,0 +1,78 @@
+package org.example.kernel;
+
+/**
+ * Scans over whole primitive columns, such as the columns of an
+ * {@code EmployeeTable}: counting, selecting and summarizing the rows whose key
+ * lies in a range.
+ * <p>
+ * Every scan covers the rows {@code [from, to)}. A masked scan only looks at the
+ * rows whose key is in {@code [min, max]}, both bounds included, so
+ * {@code min == max} selects one value, e.g. one gender code, and
+ * {@link Integer#MIN_VALUE} or {@link Integer#MAX_VALUE} leave a side open.
+ * <p>
+ * {@link #preferred()} picks the implementation once, when it is first used: the
+ * SIMD kernels of the {@code jdk.incubator.vector} module when the JVM was
+ * started with {@code --add-modules jdk.incubator.vector} and the processor has
+ * vector registers, and plain loops otherwise. Setting the system property
+ * {@value #PROPERTY} to {@code scalar} forces the plain loops. Both give exactly
+ * the same results.
+ */
+public interface ColumnKernels {
+    String PROPERTY = "org.example.kernels";
+
+    /**
+     * @return the fastest kernels this JVM can run
+     */
+    static ColumnKernels preferred() {
+        return KernelSelection.PREFERRED;
+    }
+
+    /**
+     * @return the kernels made of plain loops, which run everywhere
+     */
+    static ColumnKernels scalar() {
+        return ScalarColumnKernels.INSTANCE;
+    }
+
+    /**
+     * @return a short name of the implementation, e.g. for benchmark reports
+     */
+    String name();
+
+    /**
+     * @return the number of rows whose key is in {@code [min, max]}
+     */
+    int count(int[] keys, int from, int to, int min, int max);
+
+    /**
+     * Writes the indexes of the rows whose key is in {@code [min, max]} to the
+     * start of {@code rows}, in ascending order.
+     *
+     * @param rows an array with room for every selected row, e.g. sized with
+     *             {@link #count(int[], int, int, int, int)}
+     * @return the number of rows written
+     */
+    int select(int[] keys, int from, int to, int min, int max, int[] rows);
+
+    /**
+     * @return the summary of every row of the column
+     */
+    ColumnSummary summarize(long[] values, int from, int to);
+
+    /**
+     * @return the summary of the values of the rows whose key is in
+     * {@code [min, max]}
+     */
+    ColumnSummary summarize(long[] values, int[] keys, int from, int to, int min, int max);
+
+    /**
+     * @return the summary of every row of the column
+     */
+    ColumnSummary summarize(int[] values, int from, int to);
+
+    /**
+     * @return the summary of the values of the rows whose key is in
+     * {@code [min, max]}
+     */
+    ColumnSummary summarize(int[] values, int[] keys, int from, int to, int min, int max);
+}
@@ -0,0 +1,123 @@
+package org.example.kernel;
+
+import org.example.aggregation.WideSum;
+
+import java.math.BigInteger;
+import java.util.NoSuchElementException;
+
+/**
+ * The count, exact sum, minimum and maximum of the rows a {@link ColumnKernels}
+ * scan selected. The sum is kept as the two words of a {@link WideSum}, so it is
+ * exact even past {@link Long#MAX_VALUE}.
+ */
+public final class ColumnSummary {
+    private final long count;
+    private final long sumHigh;
+    private final long sumLow;
+    private final long min;
+    private final long max;
+
+    private ColumnSummary(long count, long sumHigh, long sumLow, long min, long max) {
+        this.count = count;
+        this.sumHigh = sumHigh;
+        this.sumLow = sumLow;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * A summary whose sum fits in a long, as the sums of int columns always do.
+     */
+    static ColumnSummary of(long count, long sum, long min, long max) {
+        return new ColumnSummary(count, 0, sum, min, max);
+    }
+
+    /**
+     * A summary of long values whose sum was taken in two halves that cannot
+     * overflow: the sum of the low 32 bits of the values, each unsigned, and the
+     * sum of the high 32 bits, each signed. The sum of the values is
+     * {@code highHalves * 2^32 + lowHalves}. Both half sums fit in a long for up
+     * to 2^31 values.
+     */
+    static ColumnSummary ofHalves(long count, long highHalves, long lowHalves, long min, long max) {
+        return new ColumnSummary(count, WideSum.highOfHalves(highHalves, lowHalves),
+                WideSum.lowOfHalves(highHalves, lowHalves), min, max);
+    }
+
+    /**
+     * @return the number of rows selected
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return the high word of the sum, 0 unless the sum does not fit in a long
+     */
+    public long sumHigh() {
+        return sumHigh;
+    }
+
+    /**
+     * @return the low word of the sum, the sum itself when {@link #sumHigh()} is 0
+     */
+    public long sumLow() {
+        return sumLow;
+    }
+
+    /**
+     * @return the exact sum of the rows selected
+     */
+    public BigInteger sum() {
+        return WideSum.value(sumHigh, sumLow);
+    }
+
+    /**
+     * @return the average of the rows selected, rounded to the nearest whole
+     * number
+     * @throws ArithmeticException if no row was selected
+     */
+    public long average() {
+        return WideSum.average(sumHigh, sumLow, count);
+    }
+
+    /**
+     * @throws NoSuchElementException if no row was selected
+     */
+    public long min() {
+        if (count == 0)
+            throw new NoSuchElementException("No value present");
+        return min;
+    }
+
+    /**
+     * @throws NoSuchElementException if no row was selected
+     */
+    public long max() {
+        if (count == 0)
+            throw new NoSuchElementException("No value present");
+        return max;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ColumnSummary))
+            return false;
+        ColumnSummary other = (ColumnSummary) o;
+        return count == other.count && sumHigh == other.sumHigh && sumLow == other.sumLow
+                && (count == 0 || min == other.min && max == other.max);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(31 * (31 * (31 * count + sumHigh) + sumLow) + (count == 0 ? 0 : 31 * min + max));
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnSummary{count=" + count + ", sum=" + sum() + (count == 0 ? "" : ", min=" + min + ", max=" + max)
+                + "}";
+    }
+}
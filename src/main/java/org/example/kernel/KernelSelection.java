@@ -0,0 +1,25 @@
+package org.example.kernel;
+
+/**
+ * Decides once which {@link ColumnKernels} {@link ColumnKernels#preferred()}
+ * returns.
+ */
+final class KernelSelection {
+    static final ColumnKernels PREFERRED = select();
+
+    private KernelSelection() {
+    }
+
+    private static ColumnKernels select() {
+        if ("scalar".equalsIgnoreCase(System.getProperty(ColumnKernels.PROPERTY)))
+            return ColumnKernels.scalar();
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+            return ColumnKernels.scalar();
+        try {
+            return VectorColumnKernels.isAccelerated() ? new VectorColumnKernels() : ColumnKernels.scalar();
+        } catch (LinkageError e) {
+            // the module is there but its classes cannot be used, e.g. a JVM without vector support
+            return ColumnKernels.scalar();
+        }
+    }
+}
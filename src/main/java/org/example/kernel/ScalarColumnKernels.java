@@ -0,0 +1,113 @@
+package org.example.kernel;
+
+import java.util.Objects;
+
+/**
+ * {@link ColumnKernels} made of plain loops. The long sums are taken in two
+ * halves, like {@link VectorColumnKernels} does, so that no add can overflow and
+ * the loops need no overflow checks.
+ */
+final class ScalarColumnKernels implements ColumnKernels {
+    static final ScalarColumnKernels INSTANCE = new ScalarColumnKernels();
+
+    private ScalarColumnKernels() {
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public int count(int[] keys, int from, int to, int min, int max) {
+        Objects.checkFromToIndex(from, to, keys.length);
+        int count = 0;
+        for (int row = from; row < to; row++)
+            count += keys[row] >= min && keys[row] <= max ? 1 : 0;
+        return count;
+    }
+
+    @Override
+    public int select(int[] keys, int from, int to, int min, int max, int[] rows) {
+        Objects.checkFromToIndex(from, to, keys.length);
+        int selected = 0;
+        for (int row = from; row < to; row++)
+            if (keys[row] >= min && keys[row] <= max)
+                rows[selected++] = row;
+        return selected;
+    }
+
+    @Override
+    public ColumnSummary summarize(long[] values, int from, int to) {
+        Objects.checkFromToIndex(from, to, values.length);
+        long high = 0;
+        long low = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int row = from; row < to; row++) {
+            long value = values[row];
+            high += value >> 32;
+            low += value & 0xFFFFFFFFL;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return ColumnSummary.ofHalves(to - from, high, low, min, max);
+    }
+
+    @Override
+    public ColumnSummary summarize(long[] values, int[] keys, int from, int to, int min, int max) {
+        Objects.checkFromToIndex(from, to, values.length);
+        Objects.checkFromToIndex(from, to, keys.length);
+        long count = 0;
+        long high = 0;
+        long low = 0;
+        long smallest = Long.MAX_VALUE;
+        long largest = Long.MIN_VALUE;
+        for (int row = from; row < to; row++) {
+            if (keys[row] < min || keys[row] > max)
+                continue;
+            long value = values[row];
+            count++;
+            high += value >> 32;
+            low += value & 0xFFFFFFFFL;
+            smallest = Math.min(smallest, value);
+            largest = Math.max(largest, value);
+        }
+        return ColumnSummary.ofHalves(count, high, low, smallest, largest);
+    }
+
+    @Override
+    public ColumnSummary summarize(int[] values, int from, int to) {
+        Objects.checkFromToIndex(from, to, values.length);
+        long sum = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int row = from; row < to; row++) {
+            int value = values[row];
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return ColumnSummary.of(to - from, sum, min, max);
+    }
+
+    @Override
+    public ColumnSummary summarize(int[] values, int[] keys, int from, int to, int min, int max) {
+        Objects.checkFromToIndex(from, to, values.length);
+        Objects.checkFromToIndex(from, to, keys.length);
+        long count = 0;
+        long sum = 0;
+        int smallest = Integer.MAX_VALUE;
+        int largest = Integer.MIN_VALUE;
+        for (int row = from; row < to; row++) {
+            if (keys[row] < min || keys[row] > max)
+                continue;
+            int value = values[row];
+            count++;
+            sum += value;
+            smallest = Math.min(smallest, value);
+            largest = Math.max(largest, value);
+        }
+        return ColumnSummary.of(count, sum, smallest, largest);
+    }
+}
@@ -0,0 +1,205 @@
+package org.example.kernel;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Objects;
+
+/**
+ * {@link ColumnKernels} built on the incubating Vector API, which the JIT compiles
+ * to SIMD instructions: a key range becomes a lane mask with two compares, and
+ * masked adds, mins and maxes accumulate a whole vector of rows per step. The
+ * rows left over after the last full vector go through plain loops.
+ * <p>
+ * Long values are summed in two halves, the low 32 bits and the high 32 bits of
+ * each value, which keeps every lane from overflowing, see
+ * {@link ColumnSummary}. Long values masked by int keys use int vectors of half
+ * the width, so that both have the same number of lanes and the key mask applies
+ * to the values as is.
+ */
+final class VectorColumnKernels implements ColumnKernels {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    /**
+     * ints with as many lanes as {@link #LONGS}
+     */
+    private static final VectorSpecies<Integer> HALF_INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+    private static final long LOW_HALF = 0xFFFFFFFFL;
+
+    /**
+     * @return whether the preferred vectors hold more than one long, i.e. whether
+     * the processor has vector registers the JIT can use
+     */
+    static boolean isAccelerated() {
+        return LONGS.length() > 1;
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + LONGS.vectorBitSize() + " bits)";
+    }
+
+    private static VectorMask<Integer> inRange(IntVector keys, int min, int max) {
+        return keys.compare(VectorOperators.GE, min).and(keys.compare(VectorOperators.LE, max));
+    }
+
+    @Override
+    public int count(int[] keys, int from, int to, int min, int max) {
+        Objects.checkFromToIndex(from, to, keys.length);
+        IntVector counts = IntVector.zero(INTS);
+        int row = from;
+        for (int bound = from + INTS.loopBound(to - from); row < bound; row += INTS.length())
+            counts = counts.add(1, inRange(IntVector.fromArray(INTS, keys, row), min, max));
+        int count = counts.reduceLanes(VectorOperators.ADD);
+        for (; row < to; row++)
+            count += keys[row] >= min && keys[row] <= max ? 1 : 0;
+        return count;
+    }
+
+    @Override
+    public int select(int[] keys, int from, int to, int min, int max, int[] rows) {
+        Objects.checkFromToIndex(from, to, keys.length);
+        int selected = 0;
+        int row = from;
+        for (int bound = from + INTS.loopBound(to - from); row < bound; row += INTS.length()) {
+            long lanes = inRange(IntVector.fromArray(INTS, keys, row), min, max).toLong();
+            while (lanes != 0) {
+                rows[selected++] = row + Long.numberOfTrailingZeros(lanes);
+                lanes &= lanes - 1;
+            }
+        }
+        for (; row < to; row++)
+            if (keys[row] >= min && keys[row] <= max)
+                rows[selected++] = row;
+        return selected;
+    }
+
+    @Override
+    public ColumnSummary summarize(long[] values, int from, int to) {
+        Objects.checkFromToIndex(from, to, values.length);
+        LongVector highs = LongVector.zero(LONGS);
+        LongVector lows = LongVector.zero(LONGS);
+        LongVector mins = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        LongVector maxes = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        int row = from;
+        for (int bound = from + LONGS.loopBound(to - from); row < bound; row += LONGS.length()) {
+            LongVector value = LongVector.fromArray(LONGS, values, row);
+            highs = highs.add(value.lanewise(VectorOperators.ASHR, 32));
+            lows = lows.add(value.and(LOW_HALF));
+            mins = mins.min(value);
+            maxes = maxes.max(value);
+        }
+        long high = highs.reduceLanes(VectorOperators.ADD);
+        long low = lows.reduceLanes(VectorOperators.ADD);
+        long min = mins.reduceLanes(VectorOperators.MIN);
+        long max = maxes.reduceLanes(VectorOperators.MAX);
+        for (; row < to; row++) {
+            long value = values[row];
+            high += value >> 32;
+            low += value & LOW_HALF;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return ColumnSummary.ofHalves(to - from, high, low, min, max);
+    }
+
+    @Override
+    public ColumnSummary summarize(long[] values, int[] keys, int from, int to, int min, int max) {
+        Objects.checkFromToIndex(from, to, values.length);
+        Objects.checkFromToIndex(from, to, keys.length);
+        LongVector counts = LongVector.zero(LONGS);
+        LongVector highs = LongVector.zero(LONGS);
+        LongVector lows = LongVector.zero(LONGS);
+        LongVector mins = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        LongVector maxes = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        int row = from;
+        for (int bound = from + LONGS.loopBound(to - from); row < bound; row += LONGS.length()) {
+            VectorMask<Long> selected = inRange(IntVector.fromArray(HALF_INTS, keys, row), min, max).cast(LONGS);
+            LongVector value = LongVector.fromArray(LONGS, values, row);
+            counts = counts.add(1, selected);
+            highs = highs.add(value.lanewise(VectorOperators.ASHR, 32), selected);
+            lows = lows.add(value.and(LOW_HALF), selected);
+            mins = mins.lanewise(VectorOperators.MIN, value, selected);
+            maxes = maxes.lanewise(VectorOperators.MAX, value, selected);
+        }
+        long count = counts.reduceLanes(VectorOperators.ADD);
+        long high = highs.reduceLanes(VectorOperators.ADD);
+        long low = lows.reduceLanes(VectorOperators.ADD);
+        long smallest = mins.reduceLanes(VectorOperators.MIN);
+        long largest = maxes.reduceLanes(VectorOperators.MAX);
+        for (; row < to; row++) {
+            if (keys[row] < min || keys[row] > max)
+                continue;
+            long value = values[row];
+            count++;
+            high += value >> 32;
+            low += value & LOW_HALF;
+            smallest = Math.min(smallest, value);
+            largest = Math.max(largest, value);
+        }
+        return ColumnSummary.ofHalves(count, high, low, smallest, largest);
+    }
+
+    @Override
+    public ColumnSummary summarize(int[] values, int from, int to) {
+        Objects.checkFromToIndex(from, to, values.length);
+        LongVector sums = LongVector.zero(LONGS);
+        IntVector mins = IntVector.broadcast(HALF_INTS, Integer.MAX_VALUE);
+        IntVector maxes = IntVector.broadcast(HALF_INTS, Integer.MIN_VALUE);
+        int row = from;
+        for (int bound = from + HALF_INTS.loopBound(to - from); row < bound; row += HALF_INTS.length()) {
+            IntVector value = IntVector.fromArray(HALF_INTS, values, row);
+            sums = sums.add(value.convertShape(VectorOperators.I2L, LONGS, 0));
+            mins = mins.min(value);
+            maxes = maxes.max(value);
+        }
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        int min = mins.reduceLanes(VectorOperators.MIN);
+        int max = maxes.reduceLanes(VectorOperators.MAX);
+        for (; row < to; row++) {
+            int value = values[row];
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return ColumnSummary.of(to - from, sum, min, max);
+    }
+
+    @Override
+    public ColumnSummary summarize(int[] values, int[] keys, int from, int to, int min, int max) {
+        Objects.checkFromToIndex(from, to, values.length);
+        Objects.checkFromToIndex(from, to, keys.length);
+        IntVector counts = IntVector.zero(HALF_INTS);
+        LongVector sums = LongVector.zero(LONGS);
+        IntVector mins = IntVector.broadcast(HALF_INTS, Integer.MAX_VALUE);
+        IntVector maxes = IntVector.broadcast(HALF_INTS, Integer.MIN_VALUE);
+        int row = from;
+        for (int bound = from + HALF_INTS.loopBound(to - from); row < bound; row += HALF_INTS.length()) {
+            VectorMask<Integer> selected = inRange(IntVector.fromArray(HALF_INTS, keys, row), min, max);
+            IntVector value = IntVector.fromArray(HALF_INTS, values, row);
+            counts = counts.add(1, selected);
+            sums = sums.add(value.convertShape(VectorOperators.I2L, LONGS, 0), selected.cast(LONGS));
+            mins = mins.lanewise(VectorOperators.MIN, value, selected);
+            maxes = maxes.lanewise(VectorOperators.MAX, value, selected);
+        }
+        long count = counts.reduceLanes(VectorOperators.ADD);
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        int smallest = mins.reduceLanes(VectorOperators.MIN);
+        int largest = maxes.reduceLanes(VectorOperators.MAX);
+        for (; row < to; row++) {
+            if (keys[row] < min || keys[row] > max)
+                continue;
+            int value = values[row];
+            count++;
+            sum += value;
+            smallest = Math.min(smallest, value);
+            largest = Math.max(largest, value);
+        }
+        return ColumnSummary.of(count, sum, smallest, largest);
+    }
+}
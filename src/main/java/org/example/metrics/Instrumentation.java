@@ -0,0 +1,172 @@
+package org.example.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records, for every report method it is given to, the number of calls, a
+ * {@link LatencyHistogram} of their latency, the size of the rosters they reported
+ * on (see {@link MethodStats#rows()}) and the bytes they allocated, and emits a
+ * JFR {@code org.example.ReportCall} event per call while a flight recording asks
+ * for it.
+ * <p>
+ * Instrumentation is opt-in: a {@code MainApp} uses {@link #DISABLED} unless
+ * given another one, whose {@link #start(String, long)} only reads a field and
+ * returns a shared {@link Call} that records nothing, so a disabled call
+ * allocates nothing and costs a branch. The
+ * bytes allocated are those of the calling thread, read from the
+ * {@code com.sun.management.ThreadMXBean}, and are 0 on JVMs without it.
+ * <p>
+ * Safe to use from any number of threads. A call that is still running during
+ * {@link #reset()} may be counted in neither the old nor the new numbers.
+ */
+public class Instrumentation {
+    /**
+     * records nothing
+     */
+    public static final Instrumentation DISABLED = new Instrumentation(false);
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private final boolean enabled;
+    private final ConcurrentHashMap<String, Counters> methods = new ConcurrentHashMap<>();
+
+    public Instrumentation() {
+        this(true);
+    }
+
+    private Instrumentation(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start recording a call of a report method, to be closed when the call
+     * returns or throws, usually by a try-with-resources around its body.
+     *
+     * @param method the method and the kind of roster, e.g.
+     *               {@code countMaleAndFemale(List)}
+     * @param rows   the number of employees of the roster the call reports on,
+     *               which calls answered from indexes or delivered in pages need
+     *               not all read
+     * @return the call, which records nothing if this instrumentation is disabled
+     */
+    public Call start(String method, long rows) {
+        if (!enabled)
+            return Call.UNRECORDED;
+        Counters counters = methods.get(method);
+        if (counters == null)
+            counters = methods.computeIfAbsent(method, name -> new Counters());
+        return new Call(method, rows, counters);
+    }
+
+    /**
+     * @return the numbers of every method called so far, by method name, that
+     * later calls do not change
+     */
+    public Map<String, MethodStats> snapshot() {
+        Map<String, MethodStats> stats = new TreeMap<>();
+        methods.forEach((method, counters) -> stats.put(method, counters.snapshot(method)));
+        return stats;
+    }
+
+    /**
+     * @return the numbers of one method, all 0 if it was not called
+     */
+    public MethodStats snapshot(String method) {
+        Counters counters = methods.get(method);
+        return counters == null ? new Counters().snapshot(method) : counters.snapshot(method);
+    }
+
+    /**
+     * Forget every call recorded so far.
+     */
+    public void reset() {
+        methods.clear();
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled())
+            return threads;
+        return null;
+    }
+
+    /**
+     * One call of a report method, recorded when it is closed.
+     */
+    public static final class Call implements AutoCloseable {
+        static final Call UNRECORDED = new Call(null, 0, null);
+
+        private final String method;
+        private final Counters counters;
+        private final ReportEvent event;
+        private final long allocatedBefore;
+        private final long start;
+        private long rows;
+
+        private Call(String method, long rows, Counters counters) {
+            this.method = method;
+            this.rows = rows;
+            this.counters = counters;
+            if (counters == null) {
+                this.event = null;
+                this.allocatedBefore = 0;
+                this.start = 0;
+            } else {
+                this.event = new ReportEvent();
+                event.begin();
+                this.allocatedBefore = allocatedBytes();
+                this.start = System.nanoTime();
+            }
+        }
+
+        /**
+         * @param rows the number of employees the call read, for calls that only
+         *             know it once they are done, like those over a reader
+         */
+        public void rows(long rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public void close() {
+            if (counters == null)
+                return;
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedBytes() - allocatedBefore;
+            counters.calls.increment();
+            counters.rows.add(rows);
+            counters.allocatedBytes.add(allocated);
+            counters.latencies.record(elapsed);
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = method;
+                event.rows = rows;
+                event.allocatedBytes = allocated;
+                event.commit();
+            }
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+        final LatencyHistogram latencies = new LatencyHistogram();
+
+        MethodStats snapshot(String method) {
+            return new MethodStats(method, calls.sum(), rows.sum(), allocatedBytes.sum(), latencies.copy());
+        }
+    }
+}
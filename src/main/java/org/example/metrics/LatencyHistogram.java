@@ -0,0 +1,146 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values, e.g. latencies in nanoseconds, in the
+ * layout of an HdrHistogram: values below 128 get a bucket each, and above that
+ * every power of two is split into 64 buckets of equal width. Any value from 0 to
+ * {@link Long#MAX_VALUE} is recorded in constant time and memory, and is reported
+ * back within 1/64 (about 1.6%) of its true value.
+ * <p>
+ * Recording is safe from any number of threads and never locks. The count, the
+ * sum and the buckets are separate counters, so while others record they can
+ * disagree by the values in flight; the count of a {@link #copy()} is that of its
+ * buckets.
+ */
+public class LatencyHistogram {
+    private static final int LINEAR = 128;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = LINEAR + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param value the value to record, negative values are recorded as 0
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR)
+            return (int) value;
+        // keep the top bit and the SUB_BUCKET_BITS bits below it
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * @return the largest value that is recorded in the given bucket
+     */
+    static long highestValueOf(int index) {
+        if (index < LINEAR)
+            return index;
+        int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        long lowest = (long) ((index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sum() {
+        return sum.sum();
+    }
+
+    /**
+     * @return the largest value recorded, exactly, or 0 if there is none
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of the recorded values, 0 if there are none
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) sum() / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100, e.g. 50, 99 or 99.9
+     * @return the smallest value that at least the given percentage of the
+     * recorded values are equal to or below, up to the precision of the buckets,
+     * or 0 if there are none
+     */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("percentile not between 0 and 100: " + percentile);
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int index = 0; index < BUCKETS; index++)
+            total += snapshot[index] = counts.get(index);
+        if (total == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            seen += snapshot[index];
+            if (seen >= rank)
+                return Math.min(highestValueOf(index), max());
+        }
+        return max();
+    }
+
+    /**
+     * @return a histogram holding the values recorded so far, that later
+     * recordings do not change
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        long count = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            long inBucket = counts.get(index);
+            if (inBucket != 0) {
+                copy.counts.set(index, inBucket);
+                count += inBucket;
+            }
+        }
+        // the count is that of the buckets copied, the sum and max can include a
+        // few values recorded during the copy
+        copy.count.add(count);
+        copy.sum.add(sum());
+        copy.max.accumulate(max());
+        return copy;
+    }
+
+    /**
+     * Forget every value recorded so far.
+     */
+    public void reset() {
+        for (int index = 0; index < BUCKETS; index++)
+            counts.set(index, 0);
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{count=" + count() + ", mean=" + Math.round(mean()) + ", p50="
+                + valueAtPercentile(50) + ", p99=" + valueAtPercentile(99) + ", max=" + max() + "}";
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.metrics;
+
+/**
+ * A snapshot of what an {@link Instrumentation} recorded for one report method.
+ */
+public final class MethodStats {
+    private final String method;
+    private final long calls;
+    private final long rows;
+    private final long allocatedBytes;
+    private final LatencyHistogram latencies;
+
+    MethodStats(String method, long calls, long rows, long allocatedBytes, LatencyHistogram latencies) {
+        this.method = method;
+        this.calls = calls;
+        this.rows = rows;
+        this.allocatedBytes = allocatedBytes;
+        this.latencies = latencies;
+    }
+
+    /**
+     * @return the method and the kind of roster it ran on, e.g.
+     * {@code countMaleAndFemale(List)}
+     */
+    public String method() {
+        return method;
+    }
+
+    public long calls() {
+        return calls;
+    }
+
+    /**
+     * @return the number of employees of the rosters the calls reported on, summed
+     * over all the calls, and of the records read for calls over a reader; calls
+     * answered from indexes or delivered in pages count the whole roster even
+     * though they need not read all of it
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * @return the bytes allocated by the calling threads over all the calls, not
+     * counting what worker threads allocated in the parallel mode
+     */
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return the bytes allocated per call, 0 if there were no calls
+     */
+    public double allocatedBytesPerCall() {
+        return calls == 0 ? 0 : (double) allocatedBytes / calls;
+    }
+
+    /**
+     * @return the latency of every call in nanoseconds
+     */
+    public LatencyHistogram latencies() {
+        return latencies;
+    }
+
+    @Override
+    public String toString() {
+        return "MethodStats{method=" + method + ", calls=" + calls + ", rows=" + rows + ", allocatedBytes="
+                + allocatedBytes + ", latencies=" + latencies + "}";
+    }
+}
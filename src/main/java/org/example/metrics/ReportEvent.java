@@ -0,0 +1,31 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event of one instrumented report call, recorded only while a flight
+ * recording with {@value #NAME} enabled is running.
+ */
+@Name(ReportEvent.NAME)
+@Label("Report Call")
+@Category({"Training", "Reports"})
+@Description("A call of an instrumented MainApp report")
+@StackTrace(false)
+final class ReportEvent extends jdk.jfr.Event {
+    static final String NAME = "org.example.ReportCall";
+
+    @Label("Method")
+    String method;
+
+    @Label("Roster Rows")
+    long rows;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,106 @@
+package org.example.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The dictionary of every department name seen by any {@link Employee}, shared by
+ * the whole JVM. Each distinct name, as written, gets a dense int id once, when
+ * the first employee of that department is created, so the reports can group and
+ * compare departments through arrays indexed by id instead of hashing and
+ * comparing strings for every employee.
+ * <p>
+ * Ids are never reused and the dictionary only grows: names are never reclaimed,
+ * even when no employee is left in the department, since arrays indexed by id
+ * may still refer to them. That is fine for a column with as few distinct values
+ * as department, as long as only rows add names: {@link #idOf(String)} is for
+ * employees being created or aggregated, and paths that only read, such as a
+ * query for a department or taking a row back out of an aggregate, look names
+ * up with {@link #find(String)}, so that a name no employee has cannot grow the
+ * dictionary. Lookups of known names are lock free; only a new name takes a
+ * lock.
+ */
+public final class Departments {
+    /**
+     * stands for the null department, which ConcurrentHashMap cannot hold
+     */
+    private static final String NULL = new String("<null>");
+
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[16];
+    private static volatile int size;
+
+    private Departments() {
+    }
+
+    /**
+     * @param department a department as written, may be null
+     * @return the id of the department, assigning the next free id to a new one
+     */
+    public static int idOf(String department) {
+        String key = department == null ? NULL : department;
+        Integer id = IDS.get(key);
+        return id != null ? id : add(key);
+    }
+
+    /**
+     * Looks a department up without adding it, for callers that only read, e.g.
+     * a query naming a department that may not exist.
+     *
+     * @param department a department as written, may be null
+     * @return the id of the department, or -1 if no employee was ever in it
+     */
+    public static int find(String department) {
+        Integer id = IDS.get(department == null ? NULL : department);
+        return id != null ? id : -1;
+    }
+
+    private static synchronized int add(String key) {
+        Integer id = IDS.get(key);
+        if (id != null)
+            return id;
+        int next = size;
+        String[] current = names;
+        if (next == current.length)
+            current = Arrays.copyOf(current, next * 2);
+        current[next] = key == NULL ? null : key;
+        names = current;
+        // publish the name before the id can be seen
+        size = next + 1;
+        IDS.put(key, next);
+        return next;
+    }
+
+    /**
+     * @param id an id returned by {@link #idOf(String)}
+     * @return the department with that id, the same instance for every employee
+     */
+    public static String nameOf(int id) {
+        if (id < 0 || id >= size)
+            throw new IndexOutOfBoundsException("unknown department id " + id);
+        return names[id];
+    }
+
+    /**
+     * @return the number of ids given so far; every id is below it
+     */
+    public static int size() {
+        return size;
+    }
+
+    /**
+     * @param departments departments in any case
+     * @return for every id given so far, whether its department equals one of the
+     * given departments ignoring case
+     */
+    public static boolean[] matchingIgnoreCase(String... departments) {
+        int count = size;
+        String[] current = names;
+        boolean[] matching = new boolean[count];
+        for (int id = 0; id < count; id++)
+            for (String department : departments)
+                if (current[id] != null && current[id].equalsIgnoreCase(department))
+                    matching[id] = true;
+        return matching;
+    }
+}
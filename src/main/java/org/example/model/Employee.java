@@ -1,6 +1,12 @@
 package org.example.model;
 
-public class Employee {
+/**
+ * A mutable employee bean. For large rosters, or to share employees between
+ * threads, prefer the immutable {@link EmployeeRecord}; {@link EmployeeRecord#of(Employee)}
+ * converts a bean. The {@link EmployeeData} accessors unbox the fields, so they
+ * throw a {@code NullPointerException} on a bean whose numbers are not set.
+ */
+public class Employee implements EmployeeData {
     private Integer id;
     private String name;
     private Integer age;
@@ -8,6 +14,13 @@ public class Employee {
     private String department;
     private Integer yearOfJoining;
     private Long salary;
+    /**
+     * the canonical gender and the shared department id, worked out once when the
+     * fields are set so the reports do not compare or hash strings for every
+     * employee
+     */
+    private Gender canonicalGender = Gender.FEMALE;
+    private int departmentId = Departments.idOf(null);
 
     public Employee() {
     }
@@ -17,8 +30,8 @@ public class Employee {
         this.id = id;
         this.name = name;
         this.age = age;
-        this.gender = gender;
-        this.department = department;
+        setGender(gender);
+        setDepartment(department);
         this.yearOfJoining = yearOfJoining;
         this.salary = salary;
     }
@@ -37,10 +50,16 @@ public class Employee {
 
     public void setGender(String gender) {
         this.gender = gender;
+        this.canonicalGender = Gender.of(gender);
     }
 
+    /**
+     * Set the department, replacing the string with the shared instance of
+     * {@link Departments} that has the same value.
+     */
     public void setDepartment(String department) {
-        this.department = department;
+        this.departmentId = Departments.idOf(department);
+        this.department = Departments.nameOf(departmentId);
     }
 
     public void setYearOfJoining(Integer yearOfJoining) {
@@ -67,10 +86,26 @@ public class Employee {
         return gender;
     }
 
+    public Gender getCanonicalGender() {
+        return canonicalGender;
+    }
+
+    @Override
+    public boolean isMale() {
+        return canonicalGender == Gender.MALE;
+    }
+
     public String getDepartment() {
         return department;
     }
 
+    /**
+     * @return the id of the department in {@link Departments}
+     */
+    public int getDepartmentId() {
+        return departmentId;
+    }
+
     public Integer getYearOfJoining() {
         return yearOfJoining;
     }
@@ -78,4 +113,44 @@ public class Employee {
     public Long getSalary() {
         return salary;
     }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public int age() {
+        return age;
+    }
+
+    @Override
+    public Gender gender() {
+        return canonicalGender;
+    }
+
+    @Override
+    public int departmentId() {
+        return departmentId;
+    }
+
+    @Override
+    public String department() {
+        return department;
+    }
+
+    @Override
+    public int yearOfJoining() {
+        return yearOfJoining;
+    }
+
+    @Override
+    public long salary() {
+        return salary;
+    }
 }
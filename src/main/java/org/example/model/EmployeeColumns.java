@@ -0,0 +1,63 @@
+package org.example.model;
+
+/**
+ * Row indexed, column oriented read access to a set of employees. Each field of a
+ * row is read on its own, so a scan only touches the columns it needs and no
+ * {@link Employee} is created unless {@link #get(int)} is called.
+ * <p>
+ * Department and gender are dictionary encoded, with codes assigned in order of
+ * first appearance.
+ */
+public interface EmployeeColumns {
+
+    /**
+     * @return the number of rows
+     */
+    int size();
+
+    int id(int row);
+
+    String name(int row);
+
+    int age(int row);
+
+    int genderCode(int row);
+
+    String gender(int row);
+
+    /**
+     * @return whether the gender of the row is "male" ignoring case
+     */
+    boolean isMale(int row);
+
+    int departmentCode(int row);
+
+    String department(int row);
+
+    int yearOfJoining(int row);
+
+    long salary(int row);
+
+    /**
+     * @return the dictionary of the department column
+     */
+    StringDictionary departmentDictionary();
+
+    /**
+     * @return the dictionary of the gender column
+     */
+    StringDictionary genderDictionary();
+
+    /**
+     * Materialize a row as an {@link Employee}.
+     *
+     * @param row the index of the row
+     * @return a new employee with the fields of that row
+     */
+    default Employee get(int row) {
+        if (row < 0 || row >= size())
+            throw new IndexOutOfBoundsException("row " + row + " out of bounds for size " + size());
+        return new Employee(id(row), name(row), age(row), gender(row), department(row), yearOfJoining(row),
+                salary(row));
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.model;
+
+/**
+ * The fields of one employee as primitives, implemented by the immutable
+ * {@link EmployeeRecord} and by the {@link Employee} bean, so the {@code MainApp}
+ * reports read either without boxing.
+ */
+public interface EmployeeData {
+
+    int id();
+
+    String name();
+
+    int age();
+
+    Gender gender();
+
+    default boolean isMale() {
+        return gender() == Gender.MALE;
+    }
+
+    /**
+     * @return the id of the department in {@link Departments}
+     */
+    int departmentId();
+
+    /**
+     * @return the department, exactly as written
+     */
+    default String department() {
+        return Departments.nameOf(departmentId());
+    }
+
+    int yearOfJoining();
+
+    long salary();
+}
@@ -0,0 +1,75 @@
+package org.example.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An immutable, compact employee: every number is a primitive, the gender is
+ * canonical and the department is its {@link Departments} id. Being immutable it
+ * can be shared between threads without copying.
+ * <p>
+ * On a 64 bit JVM with compressed references an instance takes 48 bytes besides
+ * its name, against 48 bytes for an {@link Employee} bean plus 16 bytes for each
+ * {@code Integer} box and 24 for the {@code Long} salary: 120 bytes in all, or 104
+ * when the age is a shared cached box (measured with JOL in
+ * {@code EmployeeFootprintTest}).
+ *
+ * @param id            the id of the employee
+ * @param name          the name of the employee
+ * @param age           the age of the employee
+ * @param gender        the canonical gender of the employee
+ * @param departmentId  the id of the department in {@link Departments}
+ * @param yearOfJoining the year the employee joined
+ * @param salary        the salary of the employee
+ */
+public record EmployeeRecord(int id, String name, int age, Gender gender, int departmentId, int yearOfJoining,
+        long salary) implements EmployeeData {
+
+    public EmployeeRecord {
+        Objects.requireNonNull(gender, "gender");
+        if (departmentId < 0 || departmentId >= Departments.size())
+            throw new IllegalArgumentException("unknown department id " + departmentId);
+    }
+
+    /**
+     * Build a record from the fields as written, canonicalizing the gender and
+     * interning the department.
+     */
+    public static EmployeeRecord of(int id, String name, int age, String gender, String department,
+            int yearOfJoining, long salary) {
+        return new EmployeeRecord(id, name, age, Gender.of(gender), Departments.idOf(department), yearOfJoining,
+                salary);
+    }
+
+    /**
+     * @param employee a record, or a bean whose numeric fields are all set
+     * @return the record itself, or a record with the same fields as the bean
+     * @throws NullPointerException if a numeric field of the bean is null
+     */
+    public static EmployeeRecord of(EmployeeData employee) {
+        if (employee instanceof EmployeeRecord record)
+            return record;
+        return new EmployeeRecord(employee.id(), employee.name(), employee.age(), employee.gender(),
+                employee.departmentId(), employee.yearOfJoining(), employee.salary());
+    }
+
+    /**
+     * @param employees a list of beans or records
+     * @return a record for every employee, in the same order
+     */
+    public static List<EmployeeRecord> of(List<? extends EmployeeData> employees) {
+        List<EmployeeRecord> records = new ArrayList<>(employees.size());
+        for (EmployeeData employee : employees)
+            records.add(of(employee));
+        return records;
+    }
+
+    /**
+     * @return a new mutable bean with the same fields; the gender is written as
+     * "male" or "female"
+     */
+    public Employee toEmployee() {
+        return new Employee(id, name, age, gender.label(), department(), yearOfJoining, salary);
+    }
+}
@@ -0,0 +1,210 @@
+package org.example.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A column oriented alternative to {@code List<Employee>}. Every numeric field is
+ * kept in its own primitive array and department and gender are dictionary
+ * encoded, so a scan over one or two fields touches only those arrays and no
+ * per row objects.
+ */
+public class EmployeeTable implements EmployeeColumns {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final StringDictionary departmentDictionary = new StringDictionary();
+    private final StringDictionary genderDictionary = new StringDictionary();
+    /**
+     * for each gender code, whether it is "male" ignoring case
+     */
+    private boolean[] maleGenders = new boolean[4];
+
+    private int size;
+    private int[] ids;
+    private String[] names;
+    private int[] ages;
+    private int[] genders;
+    private int[] departments;
+    private int[] yearsOfJoining;
+    private long[] salaries;
+
+    public EmployeeTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EmployeeTable(int capacity) {
+        capacity = Math.max(capacity, 1);
+        ids = new int[capacity];
+        names = new String[capacity];
+        ages = new int[capacity];
+        genders = new int[capacity];
+        departments = new int[capacity];
+        yearsOfJoining = new int[capacity];
+        salaries = new long[capacity];
+    }
+
+    /**
+     * Build a table holding the same rows as the list, in the same order.
+     *
+     * @param employees a list of employees
+     * @return a new table
+     */
+    public static EmployeeTable of(List<Employee> employees) {
+        EmployeeTable table = new EmployeeTable(employees.size());
+        for (Employee employee : employees)
+            table.add(employee);
+        return table;
+    }
+
+    /**
+     * Append an employee as the last row of the table.
+     *
+     * @param employee the employee to add
+     */
+    public void add(Employee employee) {
+        add(employee.getId(), employee.getName(), employee.getAge(), employee.getGender(), employee.getDepartment(),
+                employee.getYearOfJoining(), employee.getSalary());
+    }
+
+    /**
+     * Append a row given by its fields as the last row of the table.
+     */
+    public void add(int id, String name, int age, String gender, String department, int yearOfJoining,
+            long salary) {
+        if (size == ids.length)
+            grow();
+        ids[size] = id;
+        names[size] = name;
+        ages[size] = age;
+        genders[size] = encodeGender(gender);
+        departments[size] = departmentDictionary.encode(department);
+        yearsOfJoining[size] = yearOfJoining;
+        salaries[size] = salary;
+        size++;
+    }
+
+    private int encodeGender(String gender) {
+        int code = genderDictionary.encode(gender);
+        if (code == maleGenders.length)
+            maleGenders = Arrays.copyOf(maleGenders, code * 2);
+        maleGenders[code] = gender.equalsIgnoreCase("male");
+        return code;
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1) + 1;
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        genders = Arrays.copyOf(genders, capacity);
+        departments = Arrays.copyOf(departments, capacity);
+        yearsOfJoining = Arrays.copyOf(yearsOfJoining, capacity);
+        salaries = Arrays.copyOf(salaries, capacity);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int id(int row) {
+        return ids[row];
+    }
+
+    @Override
+    public String name(int row) {
+        return names[row];
+    }
+
+    @Override
+    public int age(int row) {
+        return ages[row];
+    }
+
+    @Override
+    public int genderCode(int row) {
+        return genders[row];
+    }
+
+    @Override
+    public String gender(int row) {
+        return genderDictionary.decode(genders[row]);
+    }
+
+    @Override
+    public boolean isMale(int row) {
+        return maleGenders[genders[row]];
+    }
+
+    @Override
+    public int departmentCode(int row) {
+        return departments[row];
+    }
+
+    @Override
+    public String department(int row) {
+        return departmentDictionary.decode(departments[row]);
+    }
+
+    @Override
+    public int yearOfJoining(int row) {
+        return yearsOfJoining[row];
+    }
+
+    @Override
+    public long salary(int row) {
+        return salaries[row];
+    }
+
+    /**
+     * Whether a gender code is "male" ignoring case, like {@link #isMale(int)} for
+     * every row with that code.
+     */
+    public boolean isMaleCode(int genderCode) {
+        return maleGenders[genderCode];
+    }
+
+    /**
+     * The backing array of the age column, for scans that work on whole columns
+     * at once. Only the first {@link #size()} entries are rows. The array is
+     * shared with the table, so it must not be modified, and it is replaced by a
+     * new one when the table grows. The other column methods work the same way.
+     *
+     * @return the ages of the rows
+     */
+    public int[] ageColumn() {
+        return ages;
+    }
+
+    /**
+     * @return the gender codes of the rows, see {@link #ageColumn()}
+     */
+    public int[] genderColumn() {
+        return genders;
+    }
+
+    /**
+     * @return the years of joining of the rows, see {@link #ageColumn()}
+     */
+    public int[] yearOfJoiningColumn() {
+        return yearsOfJoining;
+    }
+
+    /**
+     * @return the salaries of the rows, see {@link #ageColumn()}
+     */
+    public long[] salaryColumn() {
+        return salaries;
+    }
+
+    @Override
+    public StringDictionary departmentDictionary() {
+        return departmentDictionary;
+    }
+
+    @Override
+    public StringDictionary genderDictionary() {
+        return genderDictionary;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.model;
+
+/**
+ * The canonical gender of an employee, worked out once from the gender string.
+ * As in every report, "male" in any case is {@link #MALE} and anything else is
+ * counted as {@link #FEMALE}.
+ */
+public enum Gender {
+    MALE("male"),
+    FEMALE("female");
+
+    private final String label;
+
+    Gender(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @param gender a gender as written, may be null
+     * @return the canonical gender
+     */
+    public static Gender of(String gender) {
+        return "male".equalsIgnoreCase(gender) ? MALE : FEMALE;
+    }
+
+    /**
+     * @return the name used as a key by the reports, "male" or "female"
+     */
+    public String label() {
+        return label;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps each distinct string to a dense int code, in the order the strings were
+ * first seen, so a column of repeated strings can be stored as an {@code int[]}.
+ */
+public class StringDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Return the code of the value, assigning the next free code if the value was
+     * not seen before.
+     *
+     * @param value the string to encode
+     * @return the code of the value
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * @param value the string to look up
+     * @return the code of the value, or -1 if it was never encoded
+     */
+    public int find(String value) {
+        return codes.getOrDefault(value, -1);
+    }
+
+    /**
+     * @param code a code returned by {@link #encode(String)}
+     * @return the string with that code
+     */
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * @return the number of distinct values
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * @return all the values, in code order
+     */
+    public List<String> values() {
+        return Collections.unmodifiableList(values);
+    }
+}
@@ -0,0 +1,333 @@
+package org.example.offheap;
+
+import org.example.model.Employee;
+import org.example.model.EmployeeColumns;
+import org.example.model.StringDictionary;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Employees kept in native memory instead of on the heap, so that a roster of
+ * tens of millions of rows is not traced or copied by the garbage collector.
+ * <p>
+ * Every employee is a fixed size record of {@link #ROW}, found by its row index,
+ * and the names are UTF-8 bytes in an off-heap string pool. Both are allocated in
+ * chunks, so the store grows without copying what it holds. Only the department
+ * and gender dictionaries, a few strings each, stay on the heap. It implements
+ * {@link EmployeeColumns}, so every {@code MainApp} report runs on it directly,
+ * and scanning numeric fields creates no objects; {@link #record()} gives a
+ * reusable flyweight view of a row.
+ * <p>
+ * The memory belongs to a shared {@link Arena} and is freed as soon as
+ * {@link #close()} is called, not when the garbage collector gets to it. Reading
+ * a row after that throws an {@link IllegalStateException}. Appending is not
+ * thread safe, reading from several threads is, e.g. in a parallel report.
+ * <p>
+ * The Foreign Function &amp; Memory API is a preview API in Java 21, so the JVM
+ * using this class needs {@code --enable-preview}, and its class files only run
+ * on the JDK release that compiled them, Java 21. The build enables preview
+ * features for this package alone, so the rest of the project does not depend on
+ * them and runs on any JDK from 21 on, without the flag, as long as it does not
+ * load this package.
+ * <p>
+ * A null name, gender or department is kept as null, and a null gender is not
+ * male, like {@link org.example.model.Gender#of(String)}.
+ */
+public final class OffHeapEmployeeStore implements EmployeeColumns, AutoCloseable {
+    /**
+     * the layout of one record in native memory
+     */
+    public static final StructLayout ROW = MemoryLayout.structLayout(
+            ValueLayout.JAVA_INT.withName("id"),
+            ValueLayout.JAVA_INT.withName("age"),
+            ValueLayout.JAVA_INT.withName("yearOfJoining"),
+            ValueLayout.JAVA_INT.withName("department"),
+            ValueLayout.JAVA_INT.withName("gender"),
+            ValueLayout.JAVA_INT.withName("nameLength"),
+            ValueLayout.JAVA_LONG.withName("name"),
+            ValueLayout.JAVA_LONG.withName("salary"));
+
+    private static final long ROW_SIZE = ROW.byteSize();
+    private static final long ID = offset("id");
+    private static final long AGE = offset("age");
+    private static final long YEAR_OF_JOINING = offset("yearOfJoining");
+    private static final long DEPARTMENT = offset("department");
+    private static final long GENDER = offset("gender");
+    private static final long NAME_LENGTH = offset("nameLength");
+    private static final long NAME = offset("name");
+    private static final long SALARY = offset("salary");
+    /**
+     * the name length of a row without a name
+     */
+    private static final int NO_NAME = -1;
+
+    /**
+     * rows per chunk of records
+     */
+    private static final int ROW_CHUNK_SHIFT = 16;
+    private static final int ROW_CHUNK_MASK = (1 << ROW_CHUNK_SHIFT) - 1;
+
+    private final Arena arena = Arena.ofShared();
+    private final OffHeapStringPool names = new OffHeapStringPool(arena);
+    private final StringDictionary departmentDictionary = new StringDictionary();
+    private final StringDictionary genderDictionary = new StringDictionary();
+    /**
+     * for each gender code, whether it is "male" ignoring case
+     */
+    private boolean[] maleGenders = new boolean[4];
+
+    private MemorySegment[] rowChunks = new MemorySegment[4];
+    private int size;
+
+    private static long offset(String field) {
+        return ROW.byteOffset(MemoryLayout.PathElement.groupElement(field));
+    }
+
+    /**
+     * Copy a list of employees into a new store, in the same order.
+     *
+     * @param employees a list of employees
+     * @return a new store, to be closed by the caller
+     */
+    public static OffHeapEmployeeStore of(List<Employee> employees) {
+        OffHeapEmployeeStore store = new OffHeapEmployeeStore();
+        try {
+            for (Employee employee : employees)
+                store.add(employee);
+        } catch (RuntimeException | Error e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * Append an employee as the last row of the store.
+     *
+     * @param employee the employee to add
+     */
+    public void add(Employee employee) {
+        add(employee.getId(), employee.getName(), employee.getAge(), employee.getGender(), employee.getDepartment(),
+                employee.getYearOfJoining(), employee.getSalary());
+    }
+
+    /**
+     * Append a row given by its fields as the last row of the store. The
+     * parameters are those of an {@code EmployeeSink}, so {@code store::add} can
+     * load the store straight from an {@code EmployeeReader}.
+     *
+     * @throws IllegalStateException if the store is closed
+     */
+    public void add(int id, String name, int age, String gender, String department, int yearOfJoining,
+            long salary) {
+        if (!isOpen())
+            throw new IllegalStateException("the store is closed");
+        if (size == Integer.MAX_VALUE)
+            throw new IllegalStateException("a store cannot hold more than " + Integer.MAX_VALUE + " rows");
+        int chunk = size >>> ROW_CHUNK_SHIFT;
+        if (chunk == rowChunks.length)
+            rowChunks = Arrays.copyOf(rowChunks, chunk * 2);
+        if (rowChunks[chunk] == null)
+            rowChunks[chunk] = arena.allocate(ROW_SIZE << ROW_CHUNK_SHIFT, ROW.byteAlignment());
+        byte[] bytes = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+
+        MemorySegment records = rowChunks[chunk];
+        long row = (size & ROW_CHUNK_MASK) * ROW_SIZE;
+        records.set(ValueLayout.JAVA_INT, row + ID, id);
+        records.set(ValueLayout.JAVA_INT, row + AGE, age);
+        records.set(ValueLayout.JAVA_INT, row + YEAR_OF_JOINING, yearOfJoining);
+        records.set(ValueLayout.JAVA_INT, row + DEPARTMENT, departmentDictionary.encode(department));
+        records.set(ValueLayout.JAVA_INT, row + GENDER, encodeGender(gender));
+        records.set(ValueLayout.JAVA_INT, row + NAME_LENGTH, bytes == null ? NO_NAME : bytes.length);
+        records.set(ValueLayout.JAVA_LONG, row + NAME, bytes == null ? 0 : names.add(bytes));
+        records.set(ValueLayout.JAVA_LONG, row + SALARY, salary);
+        size++;
+    }
+
+    private int encodeGender(String gender) {
+        int code = genderDictionary.encode(gender);
+        if (code == maleGenders.length)
+            maleGenders = Arrays.copyOf(maleGenders, code * 2);
+        // like Gender.of, a missing gender is not male
+        maleGenders[code] = "male".equalsIgnoreCase(gender);
+        return code;
+    }
+
+    private int intAt(int row, long field) {
+        return rowChunks[row >>> ROW_CHUNK_SHIFT].get(ValueLayout.JAVA_INT,
+                (row & ROW_CHUNK_MASK) * ROW_SIZE + field);
+    }
+
+    private long longAt(int row, long field) {
+        return rowChunks[row >>> ROW_CHUNK_SHIFT].get(ValueLayout.JAVA_LONG,
+                (row & ROW_CHUNK_MASK) * ROW_SIZE + field);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int id(int row) {
+        return intAt(row, ID);
+    }
+
+    @Override
+    public String name(int row) {
+        int length = intAt(row, NAME_LENGTH);
+        return length == NO_NAME ? null : names.get(longAt(row, NAME), length);
+    }
+
+    @Override
+    public int age(int row) {
+        return intAt(row, AGE);
+    }
+
+    @Override
+    public int genderCode(int row) {
+        return intAt(row, GENDER);
+    }
+
+    @Override
+    public String gender(int row) {
+        return genderDictionary.decode(genderCode(row));
+    }
+
+    @Override
+    public boolean isMale(int row) {
+        return maleGenders[genderCode(row)];
+    }
+
+    @Override
+    public int departmentCode(int row) {
+        return intAt(row, DEPARTMENT);
+    }
+
+    @Override
+    public String department(int row) {
+        return departmentDictionary.decode(departmentCode(row));
+    }
+
+    @Override
+    public int yearOfJoining(int row) {
+        return intAt(row, YEAR_OF_JOINING);
+    }
+
+    @Override
+    public long salary(int row) {
+        return longAt(row, SALARY);
+    }
+
+    @Override
+    public StringDictionary departmentDictionary() {
+        return departmentDictionary;
+    }
+
+    @Override
+    public StringDictionary genderDictionary() {
+        return genderDictionary;
+    }
+
+    /**
+     * @return the native memory held by the store, records and names, including
+     * the unused tail of the last chunks
+     */
+    public long byteSize() {
+        long chunks = 0;
+        for (MemorySegment chunk : rowChunks)
+            chunks += chunk == null ? 0 : 1;
+        return chunks * (ROW_SIZE << ROW_CHUNK_SHIFT) + names.byteSize();
+    }
+
+    /**
+     * @return whether the memory of the store is still allocated
+     */
+    public boolean isOpen() {
+        return arena.scope().isAlive();
+    }
+
+    /**
+     * @return a new flyweight view, positioned on the first row
+     */
+    public Record record() {
+        return new Record();
+    }
+
+    /**
+     * Free all the native memory of the store at once. Closing a closed store does
+     * nothing.
+     */
+    @Override
+    public synchronized void close() {
+        if (isOpen())
+            arena.close();
+    }
+
+    /**
+     * A movable view of one record of the store. The same view can be moved over
+     * every row, reading fields straight from native memory without creating any
+     * objects except for the name. A view should not be shared between threads.
+     */
+    public class Record {
+        private int row;
+
+        /**
+         * @param row the row to move to
+         * @return this view
+         */
+        public Record at(int row) {
+            if (row < 0 || row >= size)
+                throw new IndexOutOfBoundsException("row " + row + " out of bounds for size " + size);
+            this.row = row;
+            return this;
+        }
+
+        public int row() {
+            return row;
+        }
+
+        public int id() {
+            return OffHeapEmployeeStore.this.id(row);
+        }
+
+        public String name() {
+            return OffHeapEmployeeStore.this.name(row);
+        }
+
+        public int age() {
+            return OffHeapEmployeeStore.this.age(row);
+        }
+
+        public boolean isMale() {
+            return OffHeapEmployeeStore.this.isMale(row);
+        }
+
+        public String gender() {
+            return OffHeapEmployeeStore.this.gender(row);
+        }
+
+        public int departmentCode() {
+            return OffHeapEmployeeStore.this.departmentCode(row);
+        }
+
+        public String department() {
+            return OffHeapEmployeeStore.this.department(row);
+        }
+
+        public int yearOfJoining() {
+            return OffHeapEmployeeStore.this.yearOfJoining(row);
+        }
+
+        public long salary() {
+            return OffHeapEmployeeStore.this.salary(row);
+        }
+    }
+}
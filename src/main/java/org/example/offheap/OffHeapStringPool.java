@@ -0,0 +1,71 @@
+package org.example.offheap;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An append only pool of strings kept as UTF-8 bytes in native memory, allocated
+ * from the arena of its {@link OffHeapEmployeeStore}.
+ * <p>
+ * The bytes are packed into chunks of {@value #CHUNK_SIZE} bytes, a string never
+ * spans two chunks, and a string larger than a chunk gets a chunk of its own. A
+ * string is found again by its position, the chunk in the high 32 bits and the
+ * offset in that chunk in the low 32 bits, and its length in bytes. Adding is not
+ * thread safe, reading is.
+ */
+final class OffHeapStringPool {
+    static final int CHUNK_SIZE = 1 << 20;
+
+    private final Arena arena;
+    private MemorySegment[] chunks = new MemorySegment[4];
+    private int chunkCount;
+    /**
+     * bytes used in the last chunk
+     */
+    private int used;
+    private long byteSize;
+
+    OffHeapStringPool(Arena arena) {
+        this.arena = arena;
+    }
+
+    /**
+     * @param bytes the UTF-8 bytes of a string
+     * @return the position of the copied bytes in the pool
+     */
+    long add(byte[] bytes) {
+        if (chunkCount == 0 || chunks[chunkCount - 1].byteSize() - used < bytes.length) {
+            if (chunkCount == chunks.length)
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            long size = Math.max(CHUNK_SIZE, bytes.length);
+            chunks[chunkCount++] = arena.allocate(size, 1);
+            byteSize += size;
+            used = 0;
+        }
+        MemorySegment.copy(bytes, 0, chunks[chunkCount - 1], ValueLayout.JAVA_BYTE, used, bytes.length);
+        long position = (long) (chunkCount - 1) << 32 | used;
+        used += bytes.length;
+        return position;
+    }
+
+    /**
+     * @param position the position returned by {@link #add(byte[])}
+     * @param length   the number of bytes added
+     * @return the string at that position
+     */
+    String get(long position, int length) {
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(chunks[(int) (position >>> 32)], ValueLayout.JAVA_BYTE, (int) position, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the native memory held by the chunks, used or not
+     */
+    long byteSize() {
+        return byteSize;
+    }
+}
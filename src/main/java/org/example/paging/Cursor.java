@@ -0,0 +1,58 @@
+package org.example.paging;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Encodes where a paged scan stopped as an opaque, URL safe token: the version
+ * and the number of rows of the roster, the next row to scan and the query
+ * itself. Decoding checks all but the row, so a token is rejected by another
+ * query, or once the roster has changed, instead of silently skipping or
+ * repeating rows.
+ */
+final class Cursor {
+    private static final int HEADER = Long.BYTES + 2 * Integer.BYTES;
+
+    private Cursor() {
+    }
+
+    static String encode(String query, long version, int size, int row) {
+        byte[] text = query.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + text.length).putLong(version).putInt(size).putInt(row)
+                .put(text);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @param token a token from {@link #encode(String, long, int, int)}, or null
+     *              or empty for the first page
+     * @return the next row to scan
+     * @throws IllegalArgumentException if the token is malformed, belongs to
+     *                                  another query or to another version of the
+     *                                  roster
+     */
+    static int decode(String token, String query, long version, int size) {
+        if (token == null || token.isEmpty())
+            return 0;
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("malformed cursor " + token, e);
+        }
+        if (bytes.length < HEADER)
+            throw new IllegalArgumentException("malformed cursor " + token);
+        byte[] text = query.getBytes(StandardCharsets.UTF_8);
+        if (!Arrays.equals(bytes, HEADER, bytes.length, text, 0, text.length))
+            throw new IllegalArgumentException("the cursor " + token + " belongs to another query");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getLong() != version || buffer.getInt() != size)
+            throw new IllegalArgumentException("the roster changed since the cursor " + token + " was given");
+        int row = buffer.getInt();
+        if (row < 0 || row > size)
+            throw new IllegalArgumentException("malformed cursor " + token);
+        return row;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.paging;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of the result of a report.
+ *
+ * @param items      the results of this page, in the order of the full report
+ * @param nextCursor the token to pass back for the next page, or null if this
+ *                   is the last page
+ * @param <T>        the type of the results
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    public Page {
+        items = Collections.unmodifiableList(items);
+    }
+
+    /**
+     * @return whether there is a page after this one
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
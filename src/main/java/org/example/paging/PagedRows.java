@@ -0,0 +1,119 @@
+package org.example.paging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * The rows of a roster that match a predicate, delivered lazily instead of
+ * collected into one list: a page at a time with a cursor to resume from, or as
+ * a {@link Flow.Publisher} that scans only as far as its subscriber asks.
+ * <p>
+ * Nothing is computed up front. A page scans from where the cursor stopped until
+ * it holds the asked number of results, so the time to the first result and the
+ * memory held depend on the page size, not on how many rows match. The cursor is
+ * the position of the next match, found while filling the page, so the last page
+ * has no cursor. Results come in row order, like the list the report would
+ * return.
+ * <p>
+ * A cursor only resumes the query it was given for, over the same version of the
+ * rows. Rows that can change between pages should be bound to their version with
+ * {@link #atVersion(long)}; otherwise only a change in the number of rows is
+ * detected.
+ *
+ * @param <T> the type of the results
+ */
+public final class PagedRows<T> {
+    private final String query;
+    private final long version;
+    private final int size;
+    private final IntPredicate matches;
+    private final IntFunction<? extends T> valueOfRow;
+
+    /**
+     * @param query      identifies the report and its parameters, so that a cursor
+     *                   of another query is rejected, e.g. "joinedAfter:2015"
+     * @param size       the number of rows
+     * @param matches    whether a row is part of the result
+     * @param valueOfRow the result of a matching row
+     */
+    public PagedRows(String query, int size, IntPredicate matches, IntFunction<? extends T> valueOfRow) {
+        this(query, 0, size, matches, valueOfRow);
+    }
+
+    private PagedRows(String query, long version, int size, IntPredicate matches,
+            IntFunction<? extends T> valueOfRow) {
+        this.query = query;
+        this.version = version;
+        this.size = size;
+        this.matches = matches;
+        this.valueOfRow = valueOfRow;
+    }
+
+    /**
+     * @param version the version of the rows, e.g. of the roster they come from
+     * @return the same rows, whose cursors are only accepted for that version
+     */
+    public PagedRows<T> atVersion(long version) {
+        return new PagedRows<>(query, version, size, matches, valueOfRow);
+    }
+
+    /**
+     * @param cursor   the cursor of the previous page, or null for the first page
+     * @param pageSize the largest number of results of the page
+     * @return the page
+     * @throws IllegalArgumentException if the page size is not positive or the
+     *                                  cursor is not a cursor of this query and roster
+     */
+    public Page<T> page(String cursor, int pageSize) {
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("the page size should be positive : " + pageSize);
+        int row = next(Cursor.decode(cursor, query, version, size));
+        List<T> items = new ArrayList<>(Math.min(pageSize, size - row));
+        for (; row < size && items.size() < pageSize; row = next(row + 1))
+            items.add(valueOfRow.apply(row));
+        return new Page<>(items, row < size ? Cursor.encode(query, version, size, row) : null);
+    }
+
+    /**
+     * @return the first matching row from the given one, or the size if none
+     */
+    private int next(int row) {
+        while (row < size && !matches.test(row))
+            row++;
+        return row;
+    }
+
+    /**
+     * @return a publisher delivering the results on the common fork/join pool
+     * @see #publisher(String, Executor)
+     */
+    public Flow.Publisher<T> publisher() {
+        return publisher(null, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * A cold publisher: every subscriber gets its own scan, starting at the
+     * cursor. The scan only goes as far as needed to deliver what was requested,
+     * then waits for more demand, so a slow subscriber holds back the scan rather
+     * than letting results pile up. The results are delivered one at a time on
+     * the executor.
+     *
+     * @param cursor   the cursor of a page to start from, or null to start from the
+     *                 first result
+     * @param executor runs the scan and the calls to the subscriber
+     * @return the publisher
+     * @throws IllegalArgumentException if the cursor is not a cursor of this query
+     *                                  and roster
+     */
+    public Flow.Publisher<T> publisher(String cursor, Executor executor) {
+        int from = Cursor.decode(cursor, query, version, size);
+        return subscriber -> Objects.requireNonNull(subscriber, "subscriber")
+                .onSubscribe(new RowSubscription<>(subscriber, executor, from, size, matches, valueOfRow));
+    }
+}
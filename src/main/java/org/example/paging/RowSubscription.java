@@ -0,0 +1,106 @@
+package org.example.paging;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * The subscription of one subscriber to a {@link PagedRows} publisher. Requests
+ * add to the demand and schedule a drain on the executor; only one drain runs at
+ * a time, and it scans rows and calls {@code onNext} until the demand is met,
+ * the rows run out or the subscription is cancelled. Once the demand is met it
+ * scans on to the next match, as a page does for its cursor, and completes if
+ * there is none. A request made while a
+ * drain runs, e.g. from {@code onNext}, is picked up by that drain instead of
+ * recursing.
+ */
+final class RowSubscription<T> implements Flow.Subscription {
+    private final Flow.Subscriber<? super T> subscriber;
+    private final Executor executor;
+    private final int size;
+    private final IntPredicate matches;
+    private final IntFunction<? extends T> valueOfRow;
+
+    private final AtomicLong demand = new AtomicLong();
+    /**
+     * the number of times a drain was asked for and not yet done
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+    /**
+     * the next row to scan, only used by the drain
+     */
+    private int row;
+
+    RowSubscription(Flow.Subscriber<? super T> subscriber, Executor executor, int from, int size,
+            IntPredicate matches, IntFunction<? extends T> valueOfRow) {
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.row = from;
+        this.size = size;
+        this.matches = matches;
+        this.valueOfRow = valueOfRow;
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0)
+            invalidRequest = new IllegalArgumentException("the demand should be positive : " + n);
+        else
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+        schedule();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void schedule() {
+        if (pending.getAndIncrement() == 0)
+            executor.execute(this::drain);
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            if (cancelled)
+                return;
+            if (invalidRequest != null) {
+                cancelled = true;
+                subscriber.onError(invalidRequest);
+                return;
+            }
+            long requested = demand.get();
+            long emitted = 0;
+            try {
+                for (; row < size && emitted < requested && !cancelled; row++) {
+                    if (matches.test(row)) {
+                        subscriber.onNext(valueOfRow.apply(row));
+                        emitted++;
+                    }
+                }
+                // look for the next match even without demand, so that a
+                // subscriber asking for exactly the results still completes
+                while (row < size && !cancelled && !matches.test(row))
+                    row++;
+            } catch (RuntimeException | Error e) {
+                cancelled = true;
+                subscriber.onError(e);
+                return;
+            }
+            if (row == size && !cancelled) {
+                cancelled = true;
+                subscriber.onComplete();
+                return;
+            }
+            if (emitted > 0 && requested != Long.MAX_VALUE)
+                demand.addAndGet(-emitted);
+            missed = pending.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
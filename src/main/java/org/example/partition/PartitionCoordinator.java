@@ -0,0 +1,262 @@
+package org.example.partition;
+
+import org.example.aggregation.PartialAggregate;
+import org.example.io.BinaryEmployeeWriter;
+import org.example.io.EmployeeReader;
+import org.example.io.MappedEmployeeFile;
+import org.example.model.Departments;
+import org.example.model.EmployeeData;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Splits a roster into partitions and aggregates them in separate JVMs.
+ * <p>
+ * A roster in a {@link MappedEmployeeFile} is split without copying anything:
+ * {@link #runRowRanges(Path, int)} gives every worker a range of rows of the same
+ * file, which each worker maps on its own. Any other source is split while it is
+ * read, e.g. {@link #partitionByDepartment(EmployeeReader, int)}, so the roster
+ * never has to be held in memory; a roster already in a list can be split too.
+ * Each such partition is a {@code .emp} file in the {@link BinaryEmployeeWriter
+ * binary format}, with a {@code .rows} file next to it holding the row of each of
+ * its employees in the whole roster, and {@link #run(List)} starts one
+ * {@link PartitionWorker} process per partition, all at once, and merges the
+ * {@link PartialAggregate}s they write back. Since ties are broken by the row in
+ * the whole roster, the merged partial holds the same reports and employees as a
+ * single pass over the roster, whatever the partitioning.
+ */
+public class PartitionCoordinator {
+    static final String ROWS_SUFFIX = ".rows";
+
+    private final Path directory;
+
+    /**
+     * @param directory where the partition files and the outputs of the workers
+     *                  are written
+     */
+    public PartitionCoordinator(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Split the roster into partitions of consecutive ids, each covering about the
+     * same range of ids.
+     *
+     * @param employees  the roster
+     * @param partitions the number of partitions
+     * @return the partition files, some of which may be empty
+     * @throws IOException if a partition cannot be written
+     */
+    public List<Path> partitionByIdRange(List<? extends EmployeeData> employees, int partitions)
+            throws IOException {
+        if (partitions < 1)
+            throw new IllegalArgumentException("partitions should be at least 1 : " + partitions);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (EmployeeData employee : employees) {
+            min = Math.min(min, employee.id());
+            max = Math.max(max, employee.id());
+        }
+        long from = min;
+        long width = employees.isEmpty() ? 1 : (max - min) / partitions + 1;
+        return write(employees, partitions, employee -> (int) ((employee.id() - from) / width));
+    }
+
+    /**
+     * Split the roster by department, every department going to a single
+     * partition.
+     *
+     * @param employees  the roster
+     * @param partitions the number of partitions
+     * @return the partition files, some of which may be empty
+     * @throws IOException if a partition cannot be written
+     */
+    public List<Path> partitionByDepartment(List<? extends EmployeeData> employees, int partitions)
+            throws IOException {
+        if (partitions < 1)
+            throw new IllegalArgumentException("partitions should be at least 1 : " + partitions);
+        return write(employees, partitions, employee -> employee.departmentId() % partitions);
+    }
+
+    /**
+     * Split the records of a source by department while reading them, every
+     * department going to a single partition, without holding the roster in
+     * memory.
+     *
+     * @param source     the roster, read to its end
+     * @param partitions the number of partitions
+     * @return the partition files, some of which may be empty
+     * @throws IOException if the source cannot be read or a partition cannot be
+     *                     written
+     */
+    public List<Path> partitionByDepartment(EmployeeReader source, int partitions) throws IOException {
+        if (partitions < 1)
+            throw new IllegalArgumentException("partitions should be at least 1 : " + partitions);
+        try (PartitionFiles files = new PartitionFiles(partitions)) {
+            source.read((id, name, age, gender, department, yearOfJoining, salary) -> files.accept(
+                    Departments.idOf(department) % partitions, id, name, age, gender, department, yearOfJoining,
+                    salary));
+            return files.files;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private List<Path> write(List<? extends EmployeeData> employees, int partitions,
+            ToIntFunction<EmployeeData> partitionOf) throws IOException {
+        try (PartitionFiles files = new PartitionFiles(partitions)) {
+            for (EmployeeData employee : employees)
+                files.accept(partitionOf.applyAsInt(employee), employee.id(), employee.name(), employee.age(),
+                        employee.gender().label(), employee.department(), employee.yearOfJoining(),
+                        employee.salary());
+            return files.files;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The partition files being written, numbering the records in the order they
+     * are given.
+     */
+    private final class PartitionFiles implements Closeable {
+        final List<Path> files;
+        private final BinaryEmployeeWriter[] writers;
+        private final DataOutputStream[] rows;
+        private int row;
+
+        PartitionFiles(int partitions) throws IOException {
+            Files.createDirectories(directory);
+            files = new ArrayList<>(partitions);
+            writers = new BinaryEmployeeWriter[partitions];
+            rows = new DataOutputStream[partitions];
+            try {
+                for (int i = 0; i < partitions; i++) {
+                    Path file = directory.resolve("partition-" + i + ".emp");
+                    files.add(file);
+                    writers[i] = BinaryEmployeeWriter.create(file);
+                    rows[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(rowsFile(file))));
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        void accept(int partition, int id, String name, int age, String gender, String department,
+                int yearOfJoining, long salary) {
+            writers[partition].accept(id, name, age, gender, department, yearOfJoining, salary);
+            try {
+                rows[partition].writeInt(row++);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (int i = 0; i < writers.length; i++) {
+                if (writers[i] != null)
+                    writers[i].close();
+                if (rows[i] != null)
+                    rows[i].close();
+            }
+        }
+    }
+
+    static Path rowsFile(Path partition) {
+        return partition.resolveSibling(partition.getFileName() + ROWS_SUFFIX);
+    }
+
+    /**
+     * Aggregate every partition in its own JVM, started with the classpath of
+     * this one, and merge the results.
+     *
+     * @param partitions the partition files, e.g. from {@link #partitionByIdRange}
+     * @return the merge of the partials of every partition
+     * @throws IOException if a worker cannot be started, fails or writes
+     *                     something that is not a partial
+     */
+    public PartialAggregate run(List<Path> partitions) throws IOException {
+        List<List<String>> arguments = new ArrayList<>(partitions.size());
+        for (Path partition : partitions)
+            arguments.add(List.of(partition.toString()));
+        return runWorkers(arguments);
+    }
+
+    /**
+     * Aggregate a mapped employee file in the given number of JVMs, each mapping
+     * the file and reading its own range of consecutive rows, and merge the
+     * results. Nothing is copied: the file itself is the partitioning.
+     *
+     * @param file       a file written by {@code MappedEmployeeFileWriter}
+     * @param partitions the number of workers
+     * @return the merge of the partials of every range, in row order
+     * @throws IOException if the file cannot be read, or a worker cannot be
+     *                     started, fails or writes something that is not a partial
+     */
+    public PartialAggregate runRowRanges(Path file, int partitions) throws IOException {
+        if (partitions < 1)
+            throw new IllegalArgumentException("partitions should be at least 1 : " + partitions);
+        int size;
+        try (MappedEmployeeFile mapped = MappedEmployeeFile.open(file)) {
+            size = mapped.size();
+        }
+        List<List<String>> arguments = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++)
+            arguments.add(List.of(file.toString(), String.valueOf((int) ((long) size * i / partitions)),
+                    String.valueOf((int) ((long) size * (i + 1) / partitions))));
+        return runWorkers(arguments);
+    }
+
+    /**
+     * Start a worker for each list of arguments, all at once, and merge their
+     * partials in the order of the arguments.
+     */
+    private PartialAggregate runWorkers(List<List<String>> arguments) throws IOException {
+        Files.createDirectories(directory);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+        List<Process> processes = new ArrayList<>(arguments.size());
+        List<Path> outputs = new ArrayList<>(arguments.size());
+        try {
+            // workers write to files rather than pipes, so none of them blocks on
+            // a full pipe while the coordinator waits for another one
+            for (int i = 0; i < arguments.size(); i++) {
+                Path output = directory.resolve("worker-" + i + ".partial");
+                outputs.add(output);
+                List<String> command = new ArrayList<>(List.of(java, "-cp", classPath,
+                        PartitionWorker.class.getName()));
+                command.addAll(arguments.get(i));
+                processes.add(new ProcessBuilder(command)
+                        .redirectOutput(output.toFile())
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start());
+            }
+            PartialAggregate merged = new PartialAggregate();
+            for (int i = 0; i < processes.size(); i++) {
+                int exitCode = processes.get(i).waitFor();
+                if (exitCode != 0)
+                    throw new IOException("the worker of " + String.join(" ", arguments.get(i)) + " exited with "
+                            + exitCode);
+                merged.merge(PartialAggregate.fromBytes(Files.readAllBytes(outputs.get(i))));
+            }
+            return merged;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for the workers", e);
+        } finally {
+            for (Process process : processes)
+                process.destroy();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.partition;
+
+import org.example.aggregation.PartialAggregate;
+import org.example.io.EmployeeReader;
+import org.example.io.MappedEmployeeFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The process started by {@link PartitionCoordinator} for one partition. It reads
+ * the partition, aggregates it into a {@link PartialAggregate} and writes the
+ * serialized partial to its standard output.
+ * <p>
+ * Usage: {@code PartitionWorker <partition file>}. When the partition has a rows
+ * file next to it, each employee is ordered by its row in the whole roster,
+ * otherwise by its row in the partition.
+ * <p>
+ * Usage: {@code PartitionWorker <mapped employee file> <from> <to>} aggregates the
+ * rows {@code [from, to)} of a {@link MappedEmployeeFile}, each ordered by its row
+ * in the file.
+ */
+public class PartitionWorker {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && args.length != 3) {
+            System.err.println("usage: PartitionWorker <partition file> | <mapped employee file> <from> <to>");
+            System.exit(2);
+        }
+        PartialAggregate partial = args.length == 1 ? aggregate(Path.of(args[0]))
+                : aggregate(Path.of(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        System.out.write(partial.toBytes());
+        System.out.flush();
+    }
+
+    /**
+     * @param file a partition written by {@link PartitionCoordinator}
+     * @return the partial of the partition
+     * @throws IOException if the partition cannot be read
+     */
+    public static PartialAggregate aggregate(Path file) throws IOException {
+        Path rowsFile = PartitionCoordinator.rowsFile(file);
+        int[] rows = Files.exists(rowsFile) ? readRows(rowsFile) : null;
+        PartialAggregate partial = new PartialAggregate();
+        long[] row = {0};
+        try (EmployeeReader reader = EmployeeReader.open(file)) {
+            reader.read((id, name, age, gender, department, yearOfJoining, salary) -> {
+                long order = rows == null ? row[0] : rows[(int) row[0]];
+                row[0]++;
+                partial.accept(order, id, name, age, gender, department, yearOfJoining, salary);
+            });
+        }
+        return partial;
+    }
+
+    /**
+     * @param file a file written by {@code MappedEmployeeFileWriter}
+     * @param from the first row of the range
+     * @param to   the row after the last one of the range
+     * @return the partial of the rows of the range
+     * @throws IOException if the file cannot be read
+     */
+    public static PartialAggregate aggregate(Path file, int from, int to) throws IOException {
+        PartialAggregate partial = new PartialAggregate();
+        try (MappedEmployeeFile mapped = MappedEmployeeFile.open(file)) {
+            if (from < 0 || from > to || to > mapped.size())
+                throw new IllegalArgumentException("rows [" + from + ", " + to + ") are not in a file of "
+                        + mapped.size() + " rows");
+            MappedEmployeeFile.Record record = mapped.record();
+            for (int row = from; row < to; row++) {
+                record.at(row);
+                partial.accept(row, record.id(), record.name(), record.age(), record.gender(), record.department(),
+                        record.yearOfJoining(), record.salary());
+            }
+        }
+        return partial;
+    }
+
+    private static int[] readRows(Path rowsFile) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(rowsFile));
+        int[] rows = new int[bytes.remaining() / Integer.BYTES];
+        bytes.asIntBuffer().get(rows);
+        return rows;
+    }
+}
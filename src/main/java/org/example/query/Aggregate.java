@@ -0,0 +1,73 @@
+package org.example.query;
+
+/**
+ * An aggregate function over a numeric field, computed for every group of a
+ * {@link Query}.
+ */
+public final class Aggregate {
+
+    public enum Function {
+        COUNT, SUM, AVG, MIN, MAX
+    }
+
+    private final Function function;
+    private final Field field;
+
+    private Aggregate(Function function, Field field) {
+        if (field != null && !field.isNumeric())
+            throw new IllegalArgumentException(field + " is not a numeric field");
+        this.function = function;
+        this.field = field;
+    }
+
+    public static Aggregate count() {
+        return new Aggregate(Function.COUNT, null);
+    }
+
+    public static Aggregate sum(Field field) {
+        return new Aggregate(Function.SUM, field);
+    }
+
+    /**
+     * The average, divided like the {@code MainApp} reports, i.e. rounded to the
+     * nearest long with halves rounded away from zero, see
+     * {@link org.example.aggregation.WideSum#average(long, long, long)}.
+     */
+    public static Aggregate avg(Field field) {
+        return new Aggregate(Function.AVG, field);
+    }
+
+    public static Aggregate min(Field field) {
+        return new Aggregate(Function.MIN, field);
+    }
+
+    public static Aggregate max(Field field) {
+        return new Aggregate(Function.MAX, field);
+    }
+
+    public Function function() {
+        return function;
+    }
+
+    /**
+     * @return the field aggregated, or null for {@link Function#COUNT}
+     */
+    public Field field() {
+        return field;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Aggregate && ((Aggregate) o).function == function && ((Aggregate) o).field == field;
+    }
+
+    @Override
+    public int hashCode() {
+        return function.hashCode() * 31 + (field == null ? 0 : field.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return function == Function.COUNT ? "count" : function.name().toLowerCase() + "(" + field + ")";
+    }
+}
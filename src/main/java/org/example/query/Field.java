@@ -0,0 +1,63 @@
+package org.example.query;
+
+import org.example.model.Employee;
+
+/**
+ * The fields of an employee that queries can filter, group and aggregate on.
+ */
+public enum Field {
+    ID(true),
+    AGE(true),
+    YEAR_OF_JOINING(true),
+    SALARY(true),
+    DEPARTMENT(false),
+    /**
+     * "male" for male employees and "female" for all the others, as in the
+     * {@code MainApp} reports
+     */
+    GENDER(false);
+
+    private final boolean numeric;
+
+    Field(boolean numeric) {
+        this.numeric = numeric;
+    }
+
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    /**
+     * @param employee an employee
+     * @return the value of this numeric field
+     */
+    public long numeric(Employee employee) {
+        switch (this) {
+            case ID:
+                return employee.getId();
+            case AGE:
+                return employee.getAge();
+            case YEAR_OF_JOINING:
+                return employee.getYearOfJoining();
+            case SALARY:
+                return employee.getSalary();
+            default:
+                throw new IllegalArgumentException(this + " is not a numeric field");
+        }
+    }
+
+    /**
+     * @param employee an employee
+     * @return the value of this field as text, numbers in decimal
+     */
+    public String text(Employee employee) {
+        switch (this) {
+            case DEPARTMENT:
+                return employee.getDepartment();
+            case GENDER:
+                return employee.isMale() ? "male" : "female";
+            default:
+                return String.valueOf(numeric(employee));
+        }
+    }
+}
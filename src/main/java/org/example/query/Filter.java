@@ -0,0 +1,263 @@
+package org.example.query;
+
+import org.example.model.Employee;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A condition on the fields of an employee. Filters are immutable and are built
+ * with the static factories and combined with {@link #and(Filter)},
+ * {@link #or(Filter...)} and {@link #not(Filter)}. Text comparisons ignore case,
+ * like the {@code MainApp} reports do.
+ * <p>
+ * Range and equality filters are kept as data rather than as lambdas, so the
+ * {@link QueryPlanner} can recognise the ones an index can answer.
+ */
+public abstract class Filter {
+
+    Filter() {
+    }
+
+    /**
+     * @param employee an employee
+     * @return whether the employee matches
+     */
+    public abstract boolean test(Employee employee);
+
+    /**
+     * @return the filters that must all match for this one to match, i.e. the
+     * operands of a top level and, or this filter alone
+     */
+    List<Filter> conjuncts() {
+        return List.of(this);
+    }
+
+    /**
+     * @return a filter matching every employee
+     */
+    public static Filter all() {
+        return All.INSTANCE;
+    }
+
+    /**
+     * @return a filter matching the numeric field in {@code [from, to)}
+     */
+    public static Filter between(Field field, long from, long to) {
+        if (!field.isNumeric())
+            throw new IllegalArgumentException(field + " is not a numeric field");
+        return new Between(field, from, to);
+    }
+
+    public static Filter greaterThan(Field field, long value) {
+        return value == Long.MAX_VALUE ? not(all()) : between(field, value + 1, Long.MAX_VALUE);
+    }
+
+    public static Filter atLeast(Field field, long value) {
+        return between(field, value, Long.MAX_VALUE);
+    }
+
+    public static Filter lessThan(Field field, long value) {
+        return between(field, Long.MIN_VALUE, value);
+    }
+
+    public static Filter atMost(Field field, long value) {
+        return value == Long.MAX_VALUE ? atLeast(field, Long.MIN_VALUE) : between(field, Long.MIN_VALUE, value + 1);
+    }
+
+    public static Filter equalTo(Field field, long value) {
+        return value == Long.MAX_VALUE ? atLeast(field, value) : between(field, value, value + 1);
+    }
+
+    /**
+     * @return a filter matching the field equal to the value ignoring case
+     */
+    public static Filter equalTo(Field field, String value) {
+        return new TextEquals(field, value);
+    }
+
+    /**
+     * @return a filter matching the male employees
+     */
+    public static Filter male() {
+        return Male.MALE;
+    }
+
+    /**
+     * @return a filter matching every employee that is not male
+     */
+    public static Filter female() {
+        return Male.FEMALE;
+    }
+
+    public static Filter not(Filter filter) {
+        return new Not(filter);
+    }
+
+    public static Filter or(Filter... filters) {
+        return new Or(List.of(filters));
+    }
+
+    /**
+     * @return a filter matching when both this and the other filter match
+     */
+    public Filter and(Filter other) {
+        List<Filter> filters = new ArrayList<>(conjuncts());
+        filters.addAll(other.conjuncts());
+        return new And(Collections.unmodifiableList(filters));
+    }
+
+    public static Filter and(Filter... filters) {
+        return Arrays.stream(filters).reduce(all(), (left, right) -> left.and(right));
+    }
+
+    static final class All extends Filter {
+        static final All INSTANCE = new All();
+
+        @Override
+        public boolean test(Employee employee) {
+            return true;
+        }
+
+        @Override
+        List<Filter> conjuncts() {
+            return List.of();
+        }
+
+        @Override
+        public String toString() {
+            return "all";
+        }
+    }
+
+    static final class Between extends Filter {
+        final Field field;
+        final long from;
+        final long to;
+
+        Between(Field field, long from, long to) {
+            this.field = field;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            long value = field.numeric(employee);
+            return value >= from && value < to;
+        }
+
+        @Override
+        public String toString() {
+            return field + " in [" + from + ", " + to + ")";
+        }
+    }
+
+    static final class TextEquals extends Filter {
+        final Field field;
+        final String value;
+
+        TextEquals(Field field, String value) {
+            this.field = field;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            return field.text(employee).equalsIgnoreCase(value);
+        }
+
+        @Override
+        public String toString() {
+            return field + " = " + value;
+        }
+    }
+
+    static final class Male extends Filter {
+        static final Male MALE = new Male(true);
+        static final Male FEMALE = new Male(false);
+
+        final boolean male;
+
+        private Male(boolean male) {
+            this.male = male;
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            return employee.isMale() == male;
+        }
+
+        @Override
+        public String toString() {
+            return male ? "male" : "female";
+        }
+    }
+
+    static final class Not extends Filter {
+        final Filter filter;
+
+        Not(Filter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            return !filter.test(employee);
+        }
+
+        @Override
+        public String toString() {
+            return "not (" + filter + ")";
+        }
+    }
+
+    static final class And extends Filter {
+        final List<Filter> filters;
+
+        And(List<Filter> filters) {
+            this.filters = filters;
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            for (Filter filter : filters)
+                if (!filter.test(employee))
+                    return false;
+            return true;
+        }
+
+        @Override
+        List<Filter> conjuncts() {
+            return filters;
+        }
+
+        @Override
+        public String toString() {
+            return filters.toString().replace(", ", " and ");
+        }
+    }
+
+    static final class Or extends Filter {
+        final List<Filter> filters;
+
+        Or(List<Filter> filters) {
+            this.filters = filters;
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            for (Filter filter : filters)
+                if (filter.test(employee))
+                    return true;
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return filters.toString().replace(", ", " or ");
+        }
+    }
+}
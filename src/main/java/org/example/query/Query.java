@@ -0,0 +1,86 @@
+package org.example.query;
+
+import java.util.List;
+
+/**
+ * A query over a roster: a filter, optionally a field to group by, and the
+ * aggregates to compute for every group. A query without aggregates returns the
+ * matching employees themselves.
+ * <p>
+ * Queries are immutable, every method returns a new query:
+ * <pre>{@code
+ * Query.where(Filter.greaterThan(Field.YEAR_OF_JOINING, 2015))
+ *         .groupBy(Field.DEPARTMENT)
+ *         .aggregate(Aggregate.count(), Aggregate.avg(Field.SALARY));
+ * }</pre>
+ */
+public final class Query {
+    private final Filter filter;
+    private final Field groupBy;
+    private final List<Aggregate> aggregates;
+
+    private Query(Filter filter, Field groupBy, List<Aggregate> aggregates) {
+        this.filter = filter;
+        this.groupBy = groupBy;
+        this.aggregates = aggregates;
+    }
+
+    /**
+     * @param filter the employees to look at
+     * @return a query returning the employees matching the filter
+     */
+    public static Query where(Filter filter) {
+        return new Query(filter, null, List.of());
+    }
+
+    /**
+     * @return a query over every employee
+     */
+    public static Query all() {
+        return where(Filter.all());
+    }
+
+    /**
+     * @param field the field whose values make the groups
+     * @return this query, grouped by the field
+     */
+    public Query groupBy(Field field) {
+        return new Query(filter, field, aggregates);
+    }
+
+    /**
+     * @param aggregates the aggregates to compute for every group
+     * @return this query, computing the aggregates instead of returning employees
+     */
+    public Query aggregate(Aggregate... aggregates) {
+        return new Query(filter, groupBy, List.of(aggregates));
+    }
+
+    public Filter filter() {
+        return filter;
+    }
+
+    /**
+     * @return the field to group by, or null if there is a single group
+     */
+    public Field groupBy() {
+        return groupBy;
+    }
+
+    public List<Aggregate> aggregates() {
+        return aggregates;
+    }
+
+    /**
+     * @return whether this query returns employees rather than aggregates
+     */
+    public boolean selectsRows() {
+        return aggregates.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "where " + filter + (groupBy == null ? "" : " group by " + groupBy)
+                + (aggregates.isEmpty() ? "" : " aggregate " + aggregates);
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.query;
+
+import org.example.aggregation.WideSum;
+import org.example.model.Employee;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The running state of one query: the matching employees, or the aggregates of
+ * every group seen so far.
+ */
+class QueryExecution {
+    private final Query query;
+    private final Filter filter;
+    private final Field groupBy;
+    private final Aggregate[] aggregates;
+    private final List<Employee> rows = new ArrayList<>();
+    /**
+     * group -> {count, value of every aggregate, high word of every aggregate}.
+     * Sums are {@link WideSum}s whose high words follow the values, so SUM and AVG
+     * stay exact past {@link Long#MAX_VALUE}.
+     */
+    private final Map<String, long[]> groups = new LinkedHashMap<>();
+
+    QueryExecution(Query query) {
+        this.query = query;
+        this.filter = query.filter();
+        this.groupBy = query.groupBy();
+        this.aggregates = query.aggregates().toArray(new Aggregate[0]);
+    }
+
+    void accept(Employee employee) {
+        if (!filter.test(employee))
+            return;
+        if (aggregates.length == 0) {
+            rows.add(employee);
+            return;
+        }
+
+        String group = groupBy == null ? QueryResult.ALL : groupBy.text(employee);
+        long[] values = groups.get(group);
+        if (values == null) {
+            values = newValues();
+            groups.put(group, values);
+        }
+        values[0]++;
+        for (int i = 0; i < aggregates.length; i++) {
+            Aggregate aggregate = aggregates[i];
+            switch (aggregate.function()) {
+                case SUM:
+                case AVG:
+                    add(values, i, aggregate.field().numeric(employee), 0);
+                    break;
+                case MIN:
+                    values[i + 1] = Math.min(values[i + 1], aggregate.field().numeric(employee));
+                    break;
+                case MAX:
+                    values[i + 1] = Math.max(values[i + 1], aggregate.field().numeric(employee));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private long[] newValues() {
+        long[] values = new long[2 * aggregates.length + 1];
+        for (int i = 0; i < aggregates.length; i++) {
+            if (aggregates[i].function() == Aggregate.Function.MIN)
+                values[i + 1] = Long.MAX_VALUE;
+            else if (aggregates[i].function() == Aggregate.Function.MAX)
+                values[i + 1] = Long.MIN_VALUE;
+        }
+        return values;
+    }
+
+    /**
+     * Adds the two words of a {@link WideSum} to the sum of the i-th aggregate.
+     */
+    private void add(long[] values, int i, long value, long high) {
+        long low = values[i + 1];
+        long sum = low + value;
+        values[i + 1 + aggregates.length] += high;
+        if (WideSum.overflows(low, value, sum))
+            values[i + 1 + aggregates.length] += WideSum.carry(low, value, sum);
+        values[i + 1] = sum;
+    }
+
+    /**
+     * Adds the state of an execution of the same query over later rows.
+     */
+    QueryExecution merge(QueryExecution other) {
+        rows.addAll(other.rows);
+        other.groups.forEach((group, otherValues) -> {
+            long[] values = groups.get(group);
+            if (values == null) {
+                groups.put(group, otherValues);
+                return;
+            }
+            values[0] += otherValues[0];
+            for (int i = 0; i < aggregates.length; i++) {
+                switch (aggregates[i].function()) {
+                    case MIN:
+                        values[i + 1] = Math.min(values[i + 1], otherValues[i + 1]);
+                        break;
+                    case MAX:
+                        values[i + 1] = Math.max(values[i + 1], otherValues[i + 1]);
+                        break;
+                    default:
+                        add(values, i, otherValues[i + 1], otherValues[i + 1 + aggregates.length]);
+                }
+            }
+        });
+        return this;
+    }
+
+    QueryResult result() {
+        return new QueryResult(query, rows, groups);
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.query;
+
+import org.example.aggregation.RangeReduction;
+import org.example.model.Employee;
+import org.example.repository.IndexedEmployeeRepository;
+import org.example.repository.SortedIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a batch of {@link Query queries} together.
+ * <p>
+ * Every query that has to look at the whole roster shares a single scan, so ten
+ * queries with different constants cost one pass instead of ten. Over an
+ * {@link IndexedEmployeeRepository}, a query whose filter requires a department,
+ * a gender or a range of year of joining, age or salary is instead answered from
+ * the rows of the most selective such index, as long as that index narrows the
+ * roster down to less than a {@value #INDEX_SELECTIVITY}th of it. The rest of
+ * the filter is still checked on those rows.
+ */
+public class QueryPlanner {
+    /**
+     * an index is used when it leaves fewer than size / INDEX_SELECTIVITY rows;
+     * above that a shared sequential scan is cheaper than the random lookups
+     */
+    static final int INDEX_SELECTIVITY = 4;
+
+    private QueryPlanner() {
+    }
+
+    /**
+     * Run the queries in one scan over the list.
+     *
+     * @param employees the roster
+     * @param queries   the queries to run
+     * @param parallel  whether to split the scan across threads
+     * @return the result of every query, in query order
+     */
+    public static List<QueryResult> execute(List<Employee> employees, List<Query> queries, boolean parallel) {
+        QueryExecution[] executions = RangeReduction.reduce(employees, parallel,
+                () -> newExecutions(queries),
+                (running, row, employee) -> {
+                    for (QueryExecution execution : running)
+                        execution.accept(employee);
+                },
+                (left, right) -> {
+                    for (int i = 0; i < left.length; i++)
+                        left[i].merge(right[i]);
+                    return left;
+                });
+        List<QueryResult> results = new ArrayList<>(queries.size());
+        for (QueryExecution execution : executions)
+            results.add(execution.result());
+        return results;
+    }
+
+    private static QueryExecution[] newExecutions(List<Query> queries) {
+        QueryExecution[] executions = new QueryExecution[queries.size()];
+        for (int i = 0; i < executions.length; i++)
+            executions[i] = new QueryExecution(queries.get(i));
+        return executions;
+    }
+
+    /**
+     * Run the queries over an indexed roster, answering the selective ones from
+     * the indexes and the others in one shared scan.
+     *
+     * @param repository the indexed roster
+     * @param queries    the queries to run
+     * @param parallel   whether to split the shared scan across threads
+     * @return the result of every query, in query order
+     */
+    public static List<QueryResult> execute(IndexedEmployeeRepository repository, List<Query> queries,
+            boolean parallel) {
+        QueryResult[] results = new QueryResult[queries.size()];
+        List<Query> scanned = new ArrayList<>();
+        List<Integer> scannedPositions = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            IndexLookup lookup = bestIndex(repository, queries.get(i).filter());
+            if (lookup == null) {
+                scanned.add(queries.get(i));
+                scannedPositions.add(i);
+                continue;
+            }
+            QueryExecution execution = new QueryExecution(queries.get(i));
+            for (int row : lookup.rows(repository))
+                execution.accept(repository.get(row));
+            results[i] = execution.result();
+        }
+
+        List<QueryResult> scanResults = execute(repository.employees(), scanned, parallel);
+        for (int i = 0; i < scanResults.size(); i++)
+            results[scannedPositions.get(i)] = scanResults.get(i);
+        return List.of(results);
+    }
+
+    /**
+     * Describe how each query would be run over the repository, e.g.
+     * {@code "index DEPARTMENT = sales"} or {@code "scan"}.
+     *
+     * @param repository the indexed roster
+     * @param queries    the queries to plan
+     * @return one description per query, in query order
+     */
+    public static List<String> explain(IndexedEmployeeRepository repository, List<Query> queries) {
+        List<String> plans = new ArrayList<>(queries.size());
+        for (Query query : queries) {
+            IndexLookup lookup = bestIndex(repository, query.filter());
+            plans.add(lookup == null ? "scan" : "index " + lookup.filter);
+        }
+        return plans;
+    }
+
+    /**
+     * @return the index lookup leaving the fewest candidate rows, or null if no
+     * index is selective enough
+     */
+    private static IndexLookup bestIndex(IndexedEmployeeRepository repository, Filter filter) {
+        IndexLookup best = null;
+        for (Filter conjunct : filter.conjuncts()) {
+            IndexLookup lookup = IndexLookup.of(repository, conjunct);
+            if (lookup != null && (best == null || lookup.candidates < best.candidates))
+                best = lookup;
+        }
+        if (best == null || (long) best.candidates * INDEX_SELECTIVITY >= repository.size())
+            return null;
+        return best;
+    }
+
+    /**
+     * A filter that one of the indexes of the repository can answer, and the
+     * number of rows it leaves.
+     */
+    private static class IndexLookup {
+        final Filter filter;
+        final int candidates;
+
+        private IndexLookup(Filter filter, int candidates) {
+            this.filter = filter;
+            this.candidates = candidates;
+        }
+
+        static IndexLookup of(IndexedEmployeeRepository repository, Filter filter) {
+            if (filter instanceof Filter.TextEquals && ((Filter.TextEquals) filter).field == Field.DEPARTMENT)
+                return new IndexLookup(filter,
+                        repository.countOfDepartmentIgnoreCase(((Filter.TextEquals) filter).value));
+            if (filter instanceof Filter.Male) {
+                int males = repository.maleCount();
+                return new IndexLookup(filter, ((Filter.Male) filter).male ? males : repository.size() - males);
+            }
+            if (filter instanceof Filter.Between) {
+                Filter.Between between = (Filter.Between) filter;
+                SortedIndex index = index(repository, between.field);
+                if (index != null)
+                    return new IndexLookup(filter, index.count(between.from, between.to));
+            }
+            return null;
+        }
+
+        private static SortedIndex index(IndexedEmployeeRepository repository, Field field) {
+            switch (field) {
+                case YEAR_OF_JOINING:
+                    return repository.yearOfJoiningIndex();
+                case AGE:
+                    return repository.ageIndex();
+                case SALARY:
+                    return repository.salaryIndex();
+                default:
+                    return null;
+            }
+        }
+
+        int[] rows(IndexedEmployeeRepository repository) {
+            if (filter instanceof Filter.TextEquals)
+                return repository.rowsOfDepartmentIgnoreCase(((Filter.TextEquals) filter).value);
+            if (filter instanceof Filter.Male)
+                return repository.rowsOfGender(((Filter.Male) filter).male);
+            Filter.Between between = (Filter.Between) filter;
+            return index(repository, between.field).rowsBetween(between.from, between.to);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.query;
+
+import org.example.aggregation.WideSum;
+import org.example.model.Employee;
+
+import java.util.*;
+
+/**
+ * The outcome of one {@link Query}: the matching employees for a query without
+ * aggregates, otherwise the aggregates of every group in order of first
+ * appearance. An ungrouped query has a single group named {@link #ALL}.
+ */
+public class QueryResult {
+    public static final String ALL = "all";
+
+    private final Query query;
+    private final List<Employee> rows;
+    private final Map<String, long[]> groups;
+
+    QueryResult(Query query, List<Employee> rows, Map<String, long[]> groups) {
+        this.query = query;
+        this.rows = rows;
+        this.groups = groups;
+    }
+
+    public Query query() {
+        return query;
+    }
+
+    /**
+     * @return the matching employees, in roster order
+     * @throws IllegalStateException if the query computes aggregates
+     */
+    public List<Employee> rows() {
+        if (!query.selectsRows())
+            throw new IllegalStateException("the query computes aggregates : " + query);
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * @return the groups that have at least one employee, in order of first
+     * appearance
+     */
+    public Set<String> groups() {
+        return Collections.unmodifiableSet(groups.keySet());
+    }
+
+    /**
+     * @param group     a group, {@link #ALL} for an ungrouped query
+     * @param aggregate one of the aggregates of the query
+     * @return the value of the aggregate for that group
+     * @throws NoSuchElementException if no employee fell in the group, except for
+     *                                count and sum which are then 0
+     * @throws ArithmeticException    if a sum does not fit in a long
+     */
+    public long value(String group, Aggregate aggregate) {
+        int index = query.aggregates().indexOf(aggregate);
+        if (index < 0)
+            throw new IllegalArgumentException(aggregate + " is not part of the query : " + query);
+        long[] values = groups.get(group);
+        if (values == null) {
+            if (aggregate.function() == Aggregate.Function.COUNT || aggregate.function() == Aggregate.Function.SUM)
+                return 0;
+            throw new NoSuchElementException("no employee in the group " + group);
+        }
+        switch (aggregate.function()) {
+            case COUNT:
+                return values[0];
+            case SUM:
+                return WideSum.longValueExact(values[index + 1 + query.aggregates().size()], values[index + 1]);
+            case AVG:
+                return WideSum.average(values[index + 1 + query.aggregates().size()], values[index + 1], values[0]);
+            default:
+                return values[index + 1];
+        }
+    }
+
+    /**
+     * @param aggregate one of the aggregates of an ungrouped query
+     * @return the value of the aggregate over all the matching employees
+     */
+    public long value(Aggregate aggregate) {
+        return value(ALL, aggregate);
+    }
+
+    /**
+     * @param aggregate one of the aggregates of the query
+     * @return the value of the aggregate for every group
+     */
+    public Map<String, Long> values(Aggregate aggregate) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (String group : groups.keySet())
+            values.put(group, value(group, aggregate));
+        return values;
+    }
+}
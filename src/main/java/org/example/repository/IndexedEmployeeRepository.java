@@ -0,0 +1,202 @@
+package org.example.repository;
+
+import org.example.model.Employee;
+
+import java.util.*;
+
+/**
+ * An immutable snapshot of a roster with secondary indexes, for answering the
+ * same selective queries many times.
+ * <p>
+ * Departments and genders have hash indexes from the value to the rows holding it.
+ * Department lookups ignore case, like the {@code MainApp} reports do, while
+ * {@link #departments()} keeps the departments as they were written. Year of
+ * joining, age and salary have {@link SortedIndex sorted indexes} for range and
+ * min/max lookups. All row lists are in roster order.
+ * <p>
+ * The indexes are built from the field values at construction, so an employee
+ * changed afterwards through its setters is not re-indexed; build a new repository
+ * when the roster changes.
+ */
+public class IndexedEmployeeRepository {
+    private static final int[] NO_ROWS = new int[0];
+
+    private final List<Employee> employees;
+    private final Map<String, int[]> byDepartment;
+    private final Map<String, int[]> byDepartmentIgnoreCase;
+    private final int[] maleRows;
+    private final int[] femaleRows;
+    private final SortedIndex byYearOfJoining;
+    private final SortedIndex byAge;
+    private final SortedIndex bySalary;
+
+    private IndexedEmployeeRepository(List<Employee> employees) {
+        this.employees = List.copyOf(employees);
+        int size = this.employees.size();
+
+        Map<String, RowList> departments = new LinkedHashMap<>();
+        Map<String, RowList> departmentsIgnoreCase = new HashMap<>();
+        RowList males = new RowList();
+        RowList females = new RowList();
+        long[] years = new long[size];
+        long[] ages = new long[size];
+        long[] salaries = new long[size];
+        for (int row = 0; row < size; row++) {
+            Employee employee = this.employees.get(row);
+            departments.computeIfAbsent(employee.getDepartment(), department -> new RowList()).add(row);
+            departmentsIgnoreCase.computeIfAbsent(lowerCase(employee.getDepartment()), department -> new RowList())
+                    .add(row);
+            (employee.isMale() ? males : females).add(row);
+            years[row] = employee.getYearOfJoining();
+            ages[row] = employee.getAge();
+            salaries[row] = employee.getSalary();
+        }
+
+        this.byDepartment = toArrays(departments, new LinkedHashMap<>());
+        this.byDepartmentIgnoreCase = toArrays(departmentsIgnoreCase, new HashMap<>());
+        this.maleRows = males.toArray();
+        this.femaleRows = females.toArray();
+        this.byYearOfJoining = SortedIndex.of(years);
+        this.byAge = SortedIndex.of(ages);
+        this.bySalary = SortedIndex.of(salaries);
+    }
+
+    /**
+     * Index a roster. The list is copied, so later changes to it are not seen.
+     *
+     * @param employees a list of employees
+     * @return the indexed repository
+     */
+    public static IndexedEmployeeRepository of(List<Employee> employees) {
+        return new IndexedEmployeeRepository(employees);
+    }
+
+    /**
+     * @return the key of the department in the case-insensitive index, null for
+     * the null department as in {@code Departments}
+     */
+    private static String lowerCase(String department) {
+        return department == null ? null : department.toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, RowList> lists, Map<String, int[]> arrays) {
+        lists.forEach((key, rows) -> arrays.put(key, rows.toArray()));
+        return arrays;
+    }
+
+    /**
+     * @return the number of employees
+     */
+    public int size() {
+        return employees.size();
+    }
+
+    /**
+     * @return every employee, in roster order
+     */
+    public List<Employee> employees() {
+        return employees;
+    }
+
+    public Employee get(int row) {
+        return employees.get(row);
+    }
+
+    /**
+     * @param rows rows of this repository
+     * @return the employees of those rows
+     */
+    public List<Employee> get(int[] rows) {
+        List<Employee> result = new ArrayList<>(rows.length);
+        for (int row : rows)
+            result.add(employees.get(row));
+        return result;
+    }
+
+    /**
+     * @return every department as written, in order of first appearance
+     */
+    public Set<String> departments() {
+        return Collections.unmodifiableSet(byDepartment.keySet());
+    }
+
+    /**
+     * @param department a department, exactly as written
+     * @return the rows of that department
+     */
+    public int[] rowsOfDepartment(String department) {
+        return byDepartment.getOrDefault(department, NO_ROWS).clone();
+    }
+
+    /**
+     * @param department a department, in any case, or null for the employees
+     *                   without a department
+     * @return the rows of every department equal to it ignoring case
+     */
+    public int[] rowsOfDepartmentIgnoreCase(String department) {
+        return byDepartmentIgnoreCase.getOrDefault(lowerCase(department), NO_ROWS).clone();
+    }
+
+    /**
+     * @param department a department, exactly as written
+     * @return the number of rows of that department, without copying them
+     */
+    public int countOfDepartment(String department) {
+        return byDepartment.getOrDefault(department, NO_ROWS).length;
+    }
+
+    /**
+     * @param department a department, in any case, or null for the employees
+     *                   without a department
+     * @return the number of rows of every department equal to it ignoring case,
+     * without copying them
+     */
+    public int countOfDepartmentIgnoreCase(String department) {
+        return byDepartmentIgnoreCase.getOrDefault(lowerCase(department), NO_ROWS).length;
+    }
+
+    /**
+     * @param male true for the male employees, false for all the others
+     * @return the rows of that gender
+     */
+    public int[] rowsOfGender(boolean male) {
+        return (male ? maleRows : femaleRows).clone();
+    }
+
+    /**
+     * @return the number of male employees
+     */
+    public int maleCount() {
+        return maleRows.length;
+    }
+
+    public SortedIndex yearOfJoiningIndex() {
+        return byYearOfJoining;
+    }
+
+    public SortedIndex ageIndex() {
+        return byAge;
+    }
+
+    public SortedIndex salaryIndex() {
+        return bySalary;
+    }
+
+    /**
+     * A growable list of rows, used while building the indexes.
+     */
+    private static class RowList {
+        private int[] rows = new int[8];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length)
+                rows = Arrays.copyOf(rows, size * 2);
+            rows[size++] = row;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.repository;
+
+import java.util.Arrays;
+
+/**
+ * The rows of a table ordered by one numeric column. Rows with equal keys keep
+ * their table order, so the first row of a run of equal keys is also the first of
+ * them in the table.
+ */
+public class SortedIndex {
+    private final long[] keys;
+    private final int[] rows;
+
+    private SortedIndex(long[] keys, int[] rows) {
+        this.keys = keys;
+        this.rows = rows;
+    }
+
+    /**
+     * Build the index of a column.
+     *
+     * @param column the value of every row, in row order
+     * @return the index of the column
+     */
+    public static SortedIndex of(long[] column) {
+        int[] rows = new int[column.length];
+        for (int row = 0; row < rows.length; row++)
+            rows[row] = row;
+        int[] sorted = mergeSort(column, rows, new int[rows.length]);
+        long[] keys = new long[column.length];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = column[sorted[i]];
+        return new SortedIndex(keys, sorted);
+    }
+
+    /**
+     * Bottom up, stable merge sort of the rows by their key, on primitive arrays.
+     *
+     * @return whichever of the two arrays ends up holding the sorted rows
+     */
+    private static int[] mergeSort(long[] column, int[] rows, int[] buffer) {
+        int[] from = rows;
+        int[] to = buffer;
+        for (int width = 1; width < rows.length; width <<= 1) {
+            for (int left = 0; left < rows.length; left += width << 1) {
+                int middle = Math.min(left + width, rows.length);
+                int right = Math.min(left + (width << 1), rows.length);
+                int i = left, j = middle, k = left;
+                while (i < middle && j < right)
+                    to[k++] = column[from[j]] < column[from[i]] ? from[j++] : from[i++];
+                while (i < middle)
+                    to[k++] = from[i++];
+                while (j < right)
+                    to[k++] = from[j++];
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        return from;
+    }
+
+    /**
+     * @return the number of rows in the index
+     */
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * @param key a key
+     * @return the position of the first row whose key is not less than the key
+     */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Count the rows with a key in {@code [from, to)} in O(log n).
+     */
+    public int count(long from, long to) {
+        return from >= to ? 0 : lowerBound(to) - lowerBound(from);
+    }
+
+    /**
+     * The rows with a key in {@code [from, to)}, in table order. Costs
+     * O(log n + k log k) for k matching rows.
+     *
+     * @param from the smallest key, inclusive
+     * @param to   the largest key, exclusive
+     * @return the matching rows in ascending row order
+     */
+    public int[] rowsBetween(long from, long to) {
+        if (from >= to)
+            return new int[0];
+        int[] matching = Arrays.copyOfRange(rows, lowerBound(from), lowerBound(to));
+        Arrays.sort(matching);
+        return matching;
+    }
+
+    /**
+     * @return the first row, in table order, of the rows with the smallest key, or
+     * -1 if the index is empty
+     */
+    public int firstOfMin() {
+        return rows.length == 0 ? -1 : rows[0];
+    }
+
+    /**
+     * @return the first row, in table order, of the rows with the largest key, or
+     * -1 if the index is empty
+     */
+    public int firstOfMax() {
+        return rows.length == 0 ? -1 : rows[lowerBound(keys[keys.length - 1])];
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.server;
+
+import org.example.model.EmployeeData;
+import org.example.paging.Page;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Writes the results of the reports as JSON: maps and pages become objects,
+ * collections and arrays become arrays and employees become objects of their
+ * fields.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    static String write(Object value) {
+        StringBuilder out = new StringBuilder();
+        write(value, out);
+        return out.toString();
+    }
+
+    private static void write(Object value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof CharSequence text) {
+            string(text, out);
+        } else if (value instanceof EmployeeData employee) {
+            out.append("{\"id\":").append(employee.id()).append(",\"name\":");
+            string(employee.name(), out);
+            out.append(",\"age\":").append(employee.age()).append(",\"gender\":");
+            string(employee.gender().label(), out);
+            out.append(",\"department\":");
+            string(employee.department(), out);
+            out.append(",\"yearOfJoining\":").append(employee.yearOfJoining())
+                    .append(",\"salary\":").append(employee.salary()).append('}');
+        } else if (value instanceof Page<?> page) {
+            out.append("{\"items\":");
+            write(page.items(), out);
+            out.append(",\"nextCursor\":");
+            string(page.nextCursor(), out);
+            out.append('}');
+        } else if (value instanceof Map<?, ?> map) {
+            out.append('{');
+            Iterator<? extends Map.Entry<?, ?>> entries = map.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<?, ?> entry = entries.next();
+                string(String.valueOf(entry.getKey()), out);
+                out.append(':');
+                write(entry.getValue(), out);
+                if (entries.hasNext())
+                    out.append(',');
+            }
+            out.append('}');
+        } else if (value instanceof Collection<?> collection) {
+            out.append('[');
+            Iterator<?> elements = collection.iterator();
+            while (elements.hasNext()) {
+                write(elements.next(), out);
+                if (elements.hasNext())
+                    out.append(',');
+            }
+            out.append(']');
+        } else if (value instanceof long[] longs) {
+            out.append('[');
+            for (int i = 0; i < longs.length; i++)
+                out.append(i == 0 ? "" : ",").append(longs[i]);
+            out.append(']');
+        } else {
+            string(value.toString(), out);
+        }
+    }
+
+    private static void string(CharSequence text, StringBuilder out) {
+        if (text == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20)
+                        out.append(String.format("\\u%04x", (int) c));
+                    else
+                        out.append(c);
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,357 @@
+package org.example.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.MainApp;
+import org.example.exceptions.EmployeeNotFound;
+import org.example.exceptions.MalformedEmployeeRecord;
+import org.example.io.DelimitedEmployeeReader;
+import org.example.io.EmployeeSink;
+import org.example.model.EmployeeData;
+import org.example.model.EmployeeRecord;
+import org.example.paging.Page;
+import org.example.paging.PagedRows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Serves the {@link MainApp} reports over HTTP, one virtual thread per request.
+ * <p>
+ * The roster is held as an immutable {@link RosterSnapshot} in an
+ * {@link AtomicReference}. A request reads the reference once and answers from
+ * that snapshot, so readers never lock and never see a half applied change.
+ * Changes are copy-on-write: a new snapshot is built aside and swapped in, and
+ * requests already running finish on the old one. Changes take a lock among
+ * themselves, so each one builds its snapshot once, from the one before. Every response carries the
+ * version of the snapshot it was computed from in the {@value #VERSION_HEADER}
+ * header.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *     <li>{@code GET /reports/<report>?<parameters>}, the report as JSON, e.g.
+ *     {@code /reports/getTopPayedEmployees?n=10}; {@code GET /reports} lists the
+ *     report names</li>
+ *     <li>with a {@code pageSize} parameter, {@code getEmployeesJoinedAfter},
+ *     {@code separateEmployees} (with the {@code group} of the list) and
+ *     {@code employeesInEachDepartment} (with one {@code department}) answer
+ *     one page as {@code {"items": [...], "nextCursor": ...}}; the next page is
+ *     asked for with the same parameters and {@code cursor=<nextCursor>}</li>
+ *     <li>{@code GET /roster}, the version and size of the roster</li>
+ *     <li>{@code PUT /roster} replaces the roster and {@code POST /roster} appends
+ *     to it, with comma separated records after a header line as the body</li>
+ * </ul>
+ */
+public class ReportServer {
+    public static final String VERSION_HEADER = "X-Roster-Version";
+    /**
+     * connections waiting to be accepted, large enough for bursts of thousands of
+     * clients
+     */
+    private static final int BACKLOG = 4096;
+
+    private final MainApp app;
+    private final AtomicReference<RosterSnapshot> snapshot;
+    /**
+     * held by changes to the roster, never by requests reading it
+     */
+    private final Object updates = new Object();
+    private final Map<String, ReportFunction> reports = new LinkedHashMap<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * A report computed from a snapshot and the query parameters of a request.
+     */
+    @FunctionalInterface
+    private interface ReportFunction {
+        Object apply(RosterSnapshot snapshot, Map<String, String> parameters) throws EmployeeNotFound;
+    }
+
+    /**
+     * @param app       computes the reports that are not part of the snapshot
+     * @param employees the initial roster, copied into the first snapshot
+     */
+    public ReportServer(MainApp app, List<? extends EmployeeData> employees) {
+        this.app = app;
+        this.snapshot = new AtomicReference<>(RosterSnapshot.copyOf(app, 0, employees));
+
+        reports.put("countMaleAndFemale", (roster, parameters) -> roster.reports().genderCount());
+        reports.put("averageAgeOfEmployees", (roster, parameters) -> roster.reports().averageAge());
+        reports.put("avgMaleFemaleSalary", (roster, parameters) -> roster.reports().averageGenderSalary());
+        reports.put("avgAndTotalSalary", (roster, parameters) -> roster.reports().salaryTotals());
+        reports.put("countNumberOfEmployeesInEachDepartment",
+                (roster, parameters) -> roster.reports().departmentCount());
+        reports.put("averageSalaryOfEachDepartment",
+                (roster, parameters) -> roster.reports().departmentAverageSalary());
+        reports.put("getMaxPayedEmployee", (roster, parameters) -> roster.partial().maxPayedEmployee());
+        reports.put("oldestEmployee", (roster, parameters) -> roster.partial().oldestEmployee());
+        reports.put("getMaxExperiencedEmployee", (roster, parameters) -> roster.partial().maxExperiencedEmployee());
+        reports.put("allDepartments", (roster, parameters) -> app.allDepartments(roster.employees()));
+        reports.put("employeesInEachDepartment", (roster, parameters) -> paged(parameters)
+                ? page(roster, app.pagedEmployeesInDepartment(roster.employees(),
+                        parameter(parameters, "department")), parameters)
+                : app.employeesInEachDepartment(roster.employees()));
+        reports.put("getEmployeesJoinedAfter", (roster, parameters) -> paged(parameters)
+                ? page(roster, app.pagedEmployeesJoinedAfter(roster.employees(), intParameter(parameters, "year")),
+                        parameters)
+                : app.getEmployeesJoinedAfter(roster.employees(), intParameter(parameters, "year")));
+        reports.put("getYoungestMaleEmployee", (roster, parameters) -> roster.partial()
+                .youngestMaleEmployee(parameter(parameters, "department")));
+        reports.put("separateEmployees", (roster, parameters) -> paged(parameters)
+                ? page(roster, app.pagedSeparateEmployees(roster.employees(), intParameter(parameters, "age"),
+                        parameter(parameters, "group")), parameters)
+                : app.separateEmployees(roster.employees(), intParameter(parameters, "age")));
+        reports.put("getTopPayedEmployees", (roster, parameters) -> app.getTopPayedEmployees(roster.employees(),
+                intParameter(parameters, "n")));
+        reports.put("getYoungestEmployeesOfEachDepartment", (roster, parameters) -> app
+                .getYoungestEmployeesOfEachDepartment(roster.employees(), intParameter(parameters, "n")));
+        reports.put("salaryPercentiles", (roster, parameters) -> app.salaryPercentiles(roster.employees(),
+                percentiles(parameters)));
+    }
+
+    /**
+     * Start serving on the given port of every interface.
+     *
+     * @param port the port, or 0 for any free port
+     * @return the port the server listens on
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized int start(int port) throws IOException {
+        if (server != null)
+            throw new IllegalStateException("the server is already started");
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/reports", this::handleReport);
+        server.createContext("/roster", this::handleRoster);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop accepting requests and wait for the running ones to finish.
+     */
+    public synchronized void stop() {
+        if (server == null)
+            return;
+        server.stop(0);
+        executor.close();
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * @return the snapshot requests are answered from right now
+     */
+    public RosterSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Replace the roster.
+     *
+     * @param employees the new roster, copied into a new snapshot
+     * @return the new snapshot
+     */
+    public RosterSnapshot update(List<? extends EmployeeData> employees) {
+        List<EmployeeRecord> records = EmployeeRecord.of(employees);
+        return change(current -> records);
+    }
+
+    /**
+     * Change the roster by building a new one from the current one. Changes are
+     * applied one at a time, so the change runs exactly once, on the roster the
+     * previous change left.
+     *
+     * @param change builds the new roster from the unmodifiable current one
+     * @return the new snapshot
+     */
+    public RosterSnapshot update(UnaryOperator<List<EmployeeRecord>> change) {
+        return change(current -> new ArrayList<>(change.apply(current)));
+    }
+
+    /**
+     * Add employees after the current roster.
+     *
+     * @param employees the employees to add, copied into the new snapshot
+     * @return the new snapshot
+     */
+    public RosterSnapshot append(List<? extends EmployeeData> employees) {
+        return change(current -> {
+            List<EmployeeRecord> records = new ArrayList<>(current.size() + employees.size());
+            records.addAll(current);
+            for (EmployeeData employee : employees)
+                records.add(EmployeeRecord.of(employee));
+            return records;
+        });
+    }
+
+    /**
+     * @param records builds a new list of records, which the snapshot keeps, from
+     *                the current roster
+     */
+    private RosterSnapshot change(UnaryOperator<List<EmployeeRecord>> records) {
+        synchronized (updates) {
+            RosterSnapshot current = snapshot.get();
+            RosterSnapshot next = new RosterSnapshot(app, current.version() + 1, records.apply(current.employees()));
+            snapshot.set(next);
+            return next;
+        }
+    }
+
+    private void handleReport(HttpExchange exchange) throws IOException {
+        RosterSnapshot roster = snapshot.get();
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                send(exchange, roster, 405, Map.of("error", "only GET is supported"));
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            String name = path.length() > "/reports/".length() ? path.substring("/reports/".length()) : "";
+            if (name.isEmpty()) {
+                send(exchange, roster, 200, reports.keySet());
+                return;
+            }
+            ReportFunction report = reports.get(name);
+            if (report == null) {
+                send(exchange, roster, 404, Map.of("error", "no report named " + name));
+                return;
+            }
+            Object result;
+            try {
+                result = report.apply(roster, parameters(exchange.getRequestURI().getRawQuery()));
+            } catch (IllegalArgumentException e) {
+                send(exchange, roster, 400, Map.of("error", String.valueOf(e.getMessage())));
+                return;
+            } catch (EmployeeNotFound | NoSuchElementException e) {
+                send(exchange, roster, 404, Map.of("error", String.valueOf(e.getMessage())));
+                return;
+            } catch (ArithmeticException e) {
+                send(exchange, roster, 422, Map.of("error", String.valueOf(e.getMessage())));
+                return;
+            } catch (RuntimeException e) {
+                send(exchange, roster, 500, Map.of("error", String.valueOf(e.getMessage())));
+                return;
+            }
+            send(exchange, roster, 200, result);
+        }
+    }
+
+    private void handleRoster(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            try {
+                if (method.equals("PUT") || method.equals("POST")) {
+                    List<EmployeeRecord> received = new ArrayList<>();
+                    try {
+                        new DelimitedEmployeeReader(Channels.newChannel(exchange.getRequestBody()), ',', true)
+                                .read(EmployeeSink.toRecords(received));
+                    } catch (MalformedEmployeeRecord e) {
+                        send(exchange, snapshot.get(), 400, Map.of("error", String.valueOf(e.getMessage())));
+                        return;
+                    }
+                    RosterSnapshot updated = method.equals("PUT") ? update(received) : append(received);
+                    send(exchange, updated, 200, describe(updated));
+                } else if (method.equals("GET")) {
+                    RosterSnapshot roster = snapshot.get();
+                    send(exchange, roster, 200, describe(roster));
+                } else {
+                    send(exchange, snapshot.get(), 405, Map.of("error", "only GET, PUT and POST are supported"));
+                }
+            } catch (RuntimeException e) {
+                send(exchange, snapshot.get(), 500, Map.of("error", String.valueOf(e.getMessage())));
+            }
+        }
+    }
+
+    private static Map<String, Object> describe(RosterSnapshot roster) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("version", roster.version());
+        description.put("employees", roster.employees().size());
+        return description;
+    }
+
+    /**
+     * Sends the body as JSON. The body is written out before the headers are sent,
+     * so a body that cannot be written is answered with a 500 instead.
+     */
+    private static void send(HttpExchange exchange, RosterSnapshot roster, int status, Object body)
+            throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        } catch (RuntimeException e) {
+            status = 500;
+            bytes = Json.write(Map.of("error", String.valueOf(e.getMessage()))).getBytes(StandardCharsets.UTF_8);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.getResponseHeaders().set(VERSION_HEADER, Long.toString(roster.version()));
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parameters(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty())
+            return parameters;
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static String parameter(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null)
+            throw new IllegalArgumentException("missing parameter " + name);
+        return value;
+    }
+
+    private static int intParameter(Map<String, String> parameters, String name) {
+        try {
+            return Integer.parseInt(parameter(parameters, name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("parameter " + name + " should be a number", e);
+        }
+    }
+
+    private static boolean paged(Map<String, String> parameters) {
+        return parameters.containsKey("pageSize");
+    }
+
+    /**
+     * @return the page after the {@code cursor} parameter, if any, of at most
+     * {@code pageSize} results; a cursor of another version of the roster is
+     * rejected
+     */
+    private static Page<?> page(RosterSnapshot roster, PagedRows<?> rows, Map<String, String> parameters) {
+        return rows.atVersion(roster.version()).page(parameters.get("cursor"), intParameter(parameters, "pageSize"));
+    }
+
+    /**
+     * @return the comma separated fractions of the {@code p} parameter
+     */
+    private static double[] percentiles(Map<String, String> parameters) {
+        try {
+            return Arrays.stream(parameter(parameters, "p").split(",")).mapToDouble(Double::parseDouble).toArray();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("parameter p should be comma separated fractions", e);
+        }
+    }
+}
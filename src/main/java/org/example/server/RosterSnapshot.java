@@ -0,0 +1,73 @@
+package org.example.server;
+
+import org.example.MainApp;
+import org.example.aggregation.AggregationResult;
+import org.example.aggregation.PartialAggregate;
+import org.example.model.EmployeeData;
+import org.example.model.EmployeeRecord;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One immutable version of the roster served by {@link ReportServer}, together
+ * with the reports every request can share.
+ * <p>
+ * The employees are immutable {@link EmployeeRecord}s in an unmodifiable list, and
+ * the counts, averages and extreme employees are computed once when the snapshot
+ * is built, so any number of threads can read a snapshot without locking. A
+ * change to the roster builds a new snapshot rather than touching this one.
+ */
+public final class RosterSnapshot {
+    private final long version;
+    private final List<EmployeeRecord> employees;
+    private final PartialAggregate partial;
+    private final AggregationResult reports;
+
+    /**
+     * @param records a new list of records that nothing else holds or changes,
+     *                kept without copying
+     */
+    RosterSnapshot(MainApp app, long version, List<EmployeeRecord> records) {
+        this.version = version;
+        this.employees = Collections.unmodifiableList(records);
+        this.partial = app.partial(this.employees);
+        this.reports = partial.result();
+    }
+
+    /**
+     * @param employees a roster, copied once into records
+     * @return a snapshot of the roster
+     */
+    static RosterSnapshot copyOf(MainApp app, long version, List<? extends EmployeeData> employees) {
+        return new RosterSnapshot(app, version, EmployeeRecord.of(employees));
+    }
+
+    /**
+     * @return the version of the roster, bumped on every change
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return the unmodifiable list of employees
+     */
+    public List<EmployeeRecord> employees() {
+        return employees;
+    }
+
+    /**
+     * @return the counts and averages of every {@code Report}
+     */
+    public AggregationResult reports() {
+        return reports;
+    }
+
+    /**
+     * @return the employees with the highest salary, age and experience
+     */
+    public PartialAggregate partial() {
+        return partial;
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.sketch;
+
+/**
+ * A Count-Min sketch (Cormode and Muthukrishnan, 2005) estimating how many times
+ * each key was added, in a fixed depth x width table of counters.
+ * <p>
+ * An estimate is never below the exact count and exceeds it by more than
+ * e / width times the total count with a probability of at most e^-depth.
+ * Sketches of the same shape can be {@link #merge(CountMinSketch) merged}.
+ */
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+    private long total;
+
+    /**
+     * @param width the counters per row, setting the error
+     * @param depth the rows, setting the probability of exceeding the error
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1)
+            throw new IllegalArgumentException("the width and depth should be positive : " + width + "x" + depth);
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[Math.multiplyExact(width, depth)];
+    }
+
+    /**
+     * @param epsilon the error as a fraction of the total count, e.g. 0.001
+     * @param delta   the probability of exceeding that error, e.g. 0.01
+     * @return a sketch sized for those bounds
+     */
+    public static CountMinSketch of(double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1))
+            throw new IllegalArgumentException("epsilon and delta should be between 0 and 1 : " + epsilon + ", "
+                    + delta);
+        return new CountMinSketch((int) Math.ceil(Math.E / epsilon), (int) Math.ceil(Math.log(1 / delta)));
+    }
+
+    /**
+     * @return the total of all the counts added
+     */
+    public long total() {
+        return total;
+    }
+
+    public void add(String key, long count) {
+        addHash(Hashing.hash(key), count);
+    }
+
+    /**
+     * @param hash  a well mixed 64 bit hash of the key
+     * @param count a non negative count
+     */
+    public void addHash(long hash, long count) {
+        if (count < 0)
+            throw new IllegalArgumentException("a count cannot be negative : " + count);
+        // double hashing: row i uses h1 + i * h2
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++)
+            counters[row * width + Math.floorMod(h1 + row * h2, width)] += count;
+        total += count;
+    }
+
+    /**
+     * @return an upper bound of the number of times the key was added
+     */
+    public long count(String key) {
+        return countHash(Hashing.hash(key));
+    }
+
+    public long countHash(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long count = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++)
+            count = Math.min(count, counters[row * width + Math.floorMod(h1 + row * h2, width)]);
+        return count;
+    }
+
+    /**
+     * @return the estimated count of the key, with the interval that holds the
+     * exact count with probability 1 - e^-depth
+     */
+    public Estimate estimate(String key) {
+        long count = count(key);
+        double error = Math.E / width * total;
+        return new Estimate(count, Math.max(0, count - error), count, 1 - Math.exp(-depth));
+    }
+
+    /**
+     * @param other a sketch with the same width and depth
+     * @return this sketch, now counting both
+     */
+    public CountMinSketch merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth)
+            throw new IllegalArgumentException("cannot merge a " + other.depth + "x" + other.width + " sketch into a "
+                    + depth + "x" + width + " one");
+        for (int i = 0; i < counters.length; i++)
+            counters[i] += other.counters[i];
+        total += other.total;
+        return this;
+    }
+}
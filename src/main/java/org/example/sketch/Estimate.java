@@ -0,0 +1,65 @@
+package org.example.sketch;
+
+/**
+ * An approximate answer with the interval that holds the exact answer with the
+ * given confidence.
+ */
+public final class Estimate {
+    private final double value;
+    private final double lowerBound;
+    private final double upperBound;
+    private final double confidence;
+
+    public Estimate(double value, double lowerBound, double upperBound, double confidence) {
+        this.value = value;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.confidence = confidence;
+    }
+
+    /**
+     * @return an exact answer, i.e. one with an empty interval around it
+     */
+    public static Estimate exact(double value) {
+        return new Estimate(value, value, value, 1);
+    }
+
+    public double value() {
+        return value;
+    }
+
+    public double lowerBound() {
+        return lowerBound;
+    }
+
+    public double upperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return the probability that the exact answer is within the bounds
+     */
+    public double confidence() {
+        return confidence;
+    }
+
+    /**
+     * @return the largest distance from the estimate to one of the bounds
+     */
+    public double error() {
+        return Math.max(value - lowerBound, upperBound - value);
+    }
+
+    /**
+     * @param exact an exact answer
+     * @return whether the answer is within the bounds
+     */
+    public boolean contains(double exact) {
+        return exact >= lowerBound && exact <= upperBound;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.2f [%.2f, %.2f] (%.0f%%)", value, lowerBound, upperBound, confidence * 100);
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.sketch;
+
+/**
+ * The 64 bit hash functions shared by the sketches.
+ */
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * The finalizer of MurmurHash3: spreads every input bit over the whole result.
+     */
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * Hash a string from its cached {@code hashCode}, so hashing the same instance
+     * again costs a multiplication or two. Only 2^32 distinct hashes are possible,
+     * which is plenty for the cardinalities of a column like department.
+     */
+    static long hash(String value) {
+        return mix(value.hashCode());
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.sketch;
+
+/**
+ * A HyperLogLog distinct counter (Flajolet et al., 2007) with the linear counting
+ * correction for small cardinalities.
+ * <p>
+ * It keeps 2^precision one byte registers whatever the number of values, and its
+ * relative standard error is 1.04 / sqrt(2^precision), 0.8% at the default
+ * precision of {@value #DEFAULT_PRECISION}. Counters with the same precision can
+ * be {@link #merge(HyperLogLog) merged}, giving the distinct count of the union.
+ */
+public class HyperLogLog {
+    public static final int DEFAULT_PRECISION = 14;
+    /**
+     * the number of standard errors either side of the estimate, for 95% confidence
+     */
+    private static final double Z_95 = 1.96;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18)
+            throw new IllegalArgumentException("the precision should be between 4 and 18 : " + precision);
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public void add(String value) {
+        addHash(Hashing.hash(value));
+    }
+
+    public void add(long value) {
+        addHash(Hashing.mix(value));
+    }
+
+    /**
+     * @param hash a well mixed 64 bit hash of the value
+     */
+    public void addHash(long hash) {
+        int register = (int) (hash >>> (64 - precision));
+        // the position of the first one bit in the remaining bits, 1 based
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[register])
+            registers[register] = (byte) rank;
+    }
+
+    /**
+     * @param other a counter with the same precision
+     * @return this counter, now counting the union of both
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision)
+            throw new IllegalArgumentException("cannot merge precision " + other.precision + " into " + precision);
+        for (int i = 0; i < registers.length; i++)
+            registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+        return this;
+    }
+
+    /**
+     * @return the estimated number of distinct values
+     */
+    public double cardinality() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0)
+                zeros++;
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0)
+            return m * Math.log((double) m / zeros);
+        return estimate;
+    }
+
+    /**
+     * @return the relative standard error of the estimate
+     */
+    public double relativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * @return the estimated number of distinct values, within 1.96 standard errors
+     */
+    public Estimate estimate() {
+        double cardinality = cardinality();
+        double error = Z_95 * relativeError() * cardinality;
+        return new Estimate(cardinality, Math.max(0, cardinality - error), cardinality + error, 0.95);
+    }
+}
@@ -0,0 +1,246 @@
+package org.example.sketch;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * A KLL quantile sketch over long values (Karnin, Lang and Liberty, "Optimal
+ * Quantile Approximation in Streams", 2016).
+ * <p>
+ * Values are kept in a stack of compactors. A value stored at level h stands for
+ * 2^h values of the stream; when the sketch is over capacity the lowest full
+ * level is sorted and every other value, starting at a random one, is promoted to
+ * the next level. Level capacities shrink geometrically going down from the top
+ * one, which holds k values, so the sketch keeps O(k) values whatever the length
+ * of the stream and a quantile is off by about {@link #rankError()} of the
+ * stream in rank. Until the first compaction the answers are exact.
+ * <p>
+ * Sketches with the same k can be {@link #merge(KllSketch) merged}, so a sketch
+ * can be built per partition or per thread and combined afterwards. The random
+ * choices come from a fixed seed, so the same input always gives the same sketch.
+ */
+public class KllSketch {
+    public static final int DEFAULT_K = 200;
+    private static final double CAPACITY_DECAY = 2.0 / 3;
+    private static final int MIN_CAPACITY = 8;
+    private static final long SEED = 0x4b4c4cL;
+
+    private final int k;
+    private final SplittableRandom random = new SplittableRandom(SEED);
+    private long[][] levels = new long[1][MIN_CAPACITY];
+    private int[] sizes = new int[1];
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * @param k the capacity of the top level, trading memory for accuracy
+     */
+    public KllSketch(int k) {
+        if (k < MIN_CAPACITY)
+            throw new IllegalArgumentException("k should be at least " + MIN_CAPACITY + " : " + k);
+        this.k = k;
+    }
+
+    public int k() {
+        return k;
+    }
+
+    /**
+     * @return the number of values added to the sketch
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return the number of values the sketch holds to represent them
+     */
+    public int retained() {
+        int retained = 0;
+        for (int size : sizes)
+            retained += size;
+        return retained;
+    }
+
+    /**
+     * @return the fraction of the stream a quantile can be off by in rank, with
+     * high probability, using the empirical fit of the reference implementation
+     */
+    public double rankError() {
+        return 2.296 / Math.pow(k, 0.9723);
+    }
+
+    public void update(long value) {
+        add(0, value);
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        compress();
+    }
+
+    /**
+     * Add every value of another sketch to this one.
+     *
+     * @param other a sketch with the same k
+     * @return this sketch
+     */
+    public KllSketch merge(KllSketch other) {
+        if (other.k != k)
+            throw new IllegalArgumentException("cannot merge a sketch with k " + other.k + " into one with k " + k);
+        for (int level = 0; level < other.sizes.length; level++)
+            for (int i = 0; i < other.sizes[level]; i++)
+                add(level, other.levels[level][i]);
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        compress();
+        return this;
+    }
+
+    private void add(int level, long value) {
+        if (level == levels.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            levels[level] = new long[MIN_CAPACITY];
+        }
+        if (sizes[level] == levels[level].length)
+            levels[level] = Arrays.copyOf(levels[level], sizes[level] * 2);
+        levels[level][sizes[level]++] = value;
+    }
+
+    private int capacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void compress() {
+        while (true) {
+            int total = 0;
+            int capacity = 0;
+            for (int level = 0; level < levels.length; level++) {
+                total += sizes[level];
+                capacity += capacity(level);
+            }
+            if (total <= capacity)
+                return;
+            for (int level = 0; level < levels.length; level++) {
+                if (sizes[level] >= capacity(level)) {
+                    compact(level);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Promote every other value of the level, sorted, to the next level, keeping
+     * the largest one back when the level holds an odd number of values.
+     */
+    private void compact(int level) {
+        long[] values = levels[level];
+        int size = sizes[level];
+        Arrays.sort(values, 0, size);
+        int pairs = size / 2;
+        int offset = random.nextBoolean() ? 1 : 0;
+        for (int i = 0; i < pairs; i++)
+            add(level + 1, values[2 * i + offset]);
+        values = levels[level];
+        if (size % 2 == 1) {
+            values[0] = values[size - 1];
+            sizes[level] = 1;
+        } else {
+            sizes[level] = 0;
+        }
+    }
+
+    /**
+     * @param quantile a fraction between 0 and 1, e.g. 0.9 for the 90th percentile
+     * @return the value of that rank, the smallest value for 0 and the largest for 1
+     * @throws NoSuchElementException if the sketch is empty
+     */
+    public long quantile(double quantile) {
+        return quantiles(quantile)[0];
+    }
+
+    /**
+     * @param quantiles fractions between 0 and 1
+     * @return the value of each rank, in the same order
+     * @throws NoSuchElementException if the sketch is empty
+     */
+    public long[] quantiles(double... quantiles) {
+        if (count == 0)
+            throw new NoSuchElementException("No value present");
+        for (double quantile : quantiles)
+            if (!(quantile >= 0 && quantile <= 1))
+                throw new IllegalArgumentException("a quantile should be between 0 and 1 : " + quantile);
+
+        long[][] sorted = sortedValuesAndWeights();
+        long[] values = sorted[0];
+        long[] cumulativeWeights = sorted[1];
+        long[] result = new long[quantiles.length];
+        for (int q = 0; q < quantiles.length; q++) {
+            if (quantiles[q] == 0) {
+                result[q] = min;
+            } else if (quantiles[q] == 1) {
+                result[q] = max;
+            } else {
+                long rank = Math.max(1, (long) Math.ceil(quantiles[q] * count));
+                int index = Arrays.binarySearch(cumulativeWeights, rank);
+                result[q] = values[index >= 0 ? index : Math.min(-index - 1, values.length - 1)];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param value a value
+     * @return the estimated fraction of the values that are less than or equal to it
+     */
+    public double rank(long value) {
+        if (count == 0)
+            throw new NoSuchElementException("No value present");
+        long weight = 0;
+        for (int level = 0; level < levels.length; level++)
+            for (int i = 0; i < sizes[level]; i++)
+                if (levels[level][i] <= value)
+                    weight += 1L << level;
+        return (double) weight / count;
+    }
+
+    /**
+     * @return the retained values in increasing order, and the total weight of the
+     * values up to each of them
+     */
+    private long[][] sortedValuesAndWeights() {
+        int retained = retained();
+        long[] values = new long[retained];
+        long[] weights = new long[retained];
+        int filled = 0;
+        for (int level = 0; level < levels.length; level++) {
+            long[] sortedLevel = Arrays.copyOf(levels[level], sizes[level]);
+            Arrays.sort(sortedLevel);
+            // merge the sorted level into the values sorted so far, from the end
+            int i = filled - 1;
+            int j = sortedLevel.length - 1;
+            for (int out = filled + sortedLevel.length - 1; j >= 0; out--) {
+                if (i >= 0 && values[i] > sortedLevel[j]) {
+                    values[out] = values[i];
+                    weights[out] = weights[i--];
+                } else {
+                    values[out] = sortedLevel[j--];
+                    weights[out] = 1L << level;
+                }
+            }
+            filled += sortedLevel.length;
+        }
+        for (int i = 1; i < retained; i++)
+            weights[i] += weights[i - 1];
+        return new long[][]{values, weights};
+    }
+}
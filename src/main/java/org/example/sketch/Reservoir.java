@@ -0,0 +1,90 @@
+package org.example.sketch;
+
+import java.util.List;
+
+/**
+ * A uniform random sample without replacement of at most k items from a stream.
+ * <p>
+ * Every item gets a pseudo random priority derived from its order, and the
+ * sample is the k items of lowest priority (bottom-k sampling), which is a
+ * uniform sample like a classic reservoir. Deriving the priority from the order
+ * rather than from a random generator makes the sample reproducible and lets
+ * samples of disjoint parts of a stream be {@link #merge(Reservoir) merged}: the
+ * merged sample is exactly the one a single pass would have drawn, as long as
+ * the orders are unique across the parts, e.g. rows of the same roster.
+ *
+ * @param <T> the type of the items
+ */
+public class Reservoir<T> {
+    private final long seed;
+    private final TopK<T> sample;
+    private long seen;
+
+    public Reservoir(int k) {
+        this(k, 0);
+    }
+
+    /**
+     * @param k    the size of the sample
+     * @param seed the seed of the priorities; reservoirs to merge need the same one
+     */
+    public Reservoir(int k, long seed) {
+        this.seed = seed;
+        this.sample = TopK.smallest(k);
+    }
+
+    private long priority(long order) {
+        return Hashing.mix(order ^ seed);
+    }
+
+    /**
+     * @param order the unique position of an item
+     * @return whether the item would be part of the sample, so that callers can
+     * skip building items that would be dropped at once
+     */
+    public boolean admits(long order) {
+        return sample.admits(priority(order), order);
+    }
+
+    /**
+     * @param order the unique position of the item in the stream
+     * @param item  the item
+     */
+    public void offer(long order, T item) {
+        seen++;
+        sample.offer(priority(order), order, item);
+    }
+
+    /**
+     * Count an item that {@link #admits(long)} rejected, without offering it.
+     */
+    public void skip() {
+        seen++;
+    }
+
+    /**
+     * @return the number of items offered or skipped
+     */
+    public long seen() {
+        return seen;
+    }
+
+    /**
+     * @return the sampled items, in no particular order
+     */
+    public List<T> sample() {
+        return sample.result();
+    }
+
+    /**
+     * @param other a reservoir over other items, with the same size and seed
+     * @return this reservoir, now sampling both
+     */
+    public Reservoir<T> merge(Reservoir<T> other) {
+        if (other.seed != seed)
+            throw new IllegalArgumentException("cannot merge reservoirs with different seeds");
+        sample.merge(other.sample);
+        seen += other.seen;
+        return this;
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.sketch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the k items with the largest (or smallest) key seen so far, in a bounded
+ * binary heap whose root is the worst item kept. Offering n items costs
+ * O(n log k) in the worst case and a single comparison for every item that is
+ * not better than the root, and the memory never grows beyond k items.
+ * <p>
+ * Every item comes with an order, usually its row, and among equal keys the item
+ * of the lowest order wins, so ties are broken like {@code Collections.max} or
+ * {@code Stream.min} would break them on a list. Two instances built over
+ * consecutive ranges can be {@link #merge(TopK) merged}.
+ *
+ * @param <T> the type of the items
+ */
+public class TopK<T> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private final boolean largest;
+    private long[] keys;
+    private long[] orders;
+    private Object[] items;
+    private int size;
+
+    private TopK(int k, boolean largest) {
+        if (k < 0)
+            throw new IllegalArgumentException("k should not be negative : " + k);
+        this.k = k;
+        this.largest = largest;
+        int capacity = Math.min(k, INITIAL_CAPACITY);
+        this.keys = new long[capacity];
+        this.orders = new long[capacity];
+        this.items = new Object[capacity];
+    }
+
+    /**
+     * @param k the number of items to keep
+     * @return an empty top-k keeping the items with the largest keys
+     */
+    public static <T> TopK<T> largest(int k) {
+        return new TopK<>(k, true);
+    }
+
+    /**
+     * @param k the number of items to keep
+     * @return an empty top-k keeping the items with the smallest keys
+     */
+    public static <T> TopK<T> smallest(int k) {
+        return new TopK<>(k, false);
+    }
+
+    public int k() {
+        return k;
+    }
+
+    /**
+     * @return the number of items kept, at most k
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key   the key of an item
+     * @param order the position of the item
+     * @return whether {@link #offer(long, long, Object)} would keep the item
+     */
+    public boolean admits(long key, long order) {
+        return size < k || (k > 0 && worse(keys[0], orders[0], key, order));
+    }
+
+    /**
+     * Offer an item, which is kept if it is among the k best seen so far.
+     *
+     * @param key   the key of the item
+     * @param order the position of the item, breaking ties between equal keys
+     * @param item  the item
+     */
+    public void offer(long key, long order, T item) {
+        if (size < k) {
+            if (size == keys.length)
+                grow();
+            int i = size++;
+            // sift up, moving better parents down
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(key, order, keys[parent], orders[parent]))
+                    break;
+                set(i, keys[parent], orders[parent], items[parent]);
+                i = parent;
+            }
+            set(i, key, order, item);
+        } else if (k > 0 && worse(keys[0], orders[0], key, order)) {
+            siftDown(key, order, item);
+        }
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(k, 2L * keys.length);
+        keys = Arrays.copyOf(keys, capacity);
+        orders = Arrays.copyOf(orders, capacity);
+        items = Arrays.copyOf(items, capacity);
+    }
+
+    /**
+     * @return whether the first item is worse than the other one
+     */
+    private boolean worse(long key, long order, long otherKey, long otherOrder) {
+        if (key != otherKey)
+            return largest ? key < otherKey : key > otherKey;
+        return order > otherOrder;
+    }
+
+    /**
+     * Replace the root with the item and restore the heap.
+     */
+    private void siftDown(long key, long order, Object item) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && worse(keys[child + 1], orders[child + 1], keys[child], orders[child]))
+                child++;
+            if (!worse(keys[child], orders[child], key, order))
+                break;
+            set(i, keys[child], orders[child], items[child]);
+            i = child;
+        }
+        set(i, key, order, item);
+    }
+
+    private void set(int i, long key, long order, Object item) {
+        keys[i] = key;
+        orders[i] = order;
+        items[i] = item;
+    }
+
+    /**
+     * Add every item kept by another top-k of the same kind.
+     *
+     * @param other a top-k over other items
+     * @return this top-k
+     */
+    @SuppressWarnings("unchecked")
+    public TopK<T> merge(TopK<T> other) {
+        if (other.k != k || other.largest != largest)
+            throw new IllegalArgumentException("cannot merge a top " + other.k + " into a top " + k);
+        for (int i = 0; i < other.size; i++)
+            offer(other.keys[i], other.orders[i], (T) other.items[i]);
+        return this;
+    }
+
+    /**
+     * @return the items kept, best first, ties in increasing order
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> result() {
+        Integer[] positions = new Integer[size];
+        for (int i = 0; i < size; i++)
+            positions[i] = i;
+        Arrays.sort(positions, (a, b) -> {
+            if (keys[a] != keys[b])
+                return largest ? Long.compare(keys[b], keys[a]) : Long.compare(keys[a], keys[b]);
+            return Long.compare(orders[a], orders[b]);
+        });
+        List<T> result = new ArrayList<>(size);
+        for (int position : positions)
+            result.add((T) items[position]);
+        return Collections.unmodifiableList(result);
+    }
+}
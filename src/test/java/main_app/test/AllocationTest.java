@@ -0,0 +1,75 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class AllocationTest {
+
+    private static final int ROWS = 1_000_000;
+
+    private final List<Employee> employees = getList();
+    private final MainApp app = new MainApp();
+
+    private List<Employee> getList() {
+        List<Employee> employees = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + i % 40, i % 3 == 0 ? "female" : "Male",
+                    "development", 2000 + i % 24, 10000L + i));
+        return employees;
+    }
+
+    /**
+     * Bytes allocated by the current thread while running the report, after a few
+     * warm up runs
+     */
+    private long allocatedBytes(Consumer<List<Employee>> report) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 5; i++)
+            report.accept(employees);
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+        report.accept(employees);
+        return threads.getThreadAllocatedBytes(Thread.currentThread().threadId()) - before;
+    }
+
+    /**
+     * The gender split of the age should allocate a constant amount, not a few
+     * bytes for every employee
+     */
+    @Test
+    public void averageAgeAllocatesNothingPerRowTest() {
+        long bytes = allocatedBytes(app::averageAgeOfEmployees);
+        assertTrue(bytes < ROWS / 100, "allocated " + bytes + " bytes for " + ROWS + " employees");
+    }
+
+    /**
+     * Same for the gender split of the salary
+     */
+    @Test
+    public void avgMaleFemaleSalaryAllocatesNothingPerRowTest() {
+        long bytes = allocatedBytes(app::avgMaleFemaleSalary);
+        assertTrue(bytes < ROWS / 100, "allocated " + bytes + " bytes for " + ROWS + " employees");
+    }
+
+    /**
+     * The gender is worked out once, and again whenever it is changed
+     */
+    @Test
+    public void genderCodeFollowsSetterTest() {
+        Employee employee = new Employee(1, "rakshith", 23, "MALE", "development", 2016, 3500000L);
+        assertTrue(employee.isMale());
+        employee.setGender("female");
+        assertFalse(employee.isMale());
+        assertFalse(new Employee().isMale());
+    }
+}
@@ -0,0 +1,173 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.ApproximateAggregator;
+import org.example.aggregation.ApproximateResult;
+import org.example.aggregation.ExecutionMode;
+import org.example.io.DelimitedEmployeeReader;
+import org.example.model.Employee;
+import org.example.model.EmployeeTable;
+import org.example.sketch.CountMinSketch;
+import org.example.sketch.Estimate;
+import org.example.sketch.HyperLogLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class ApproximateTest {
+
+    private final List<Employee> employees = getList();
+    private final MainApp app = new MainApp();
+
+    /**
+     * 200000 employees over 40 departments of very different sizes
+     */
+    private List<Employee> getList() {
+        Random random = new Random(19);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            int department = (int) Math.min(39, Math.abs(random.nextGaussian()) * 12);
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(40),
+                    random.nextBoolean() ? "male" : "female", "department" + department, 2000 + random.nextInt(20),
+                    20_000L + 1000L * department + random.nextInt(30_000)));
+        }
+        return employees;
+    }
+
+    /**
+     * The exact answers should be within the bounds of the estimates
+     */
+    @Test
+    public void boundsHoldExactAnswersTest() {
+        ApproximateResult result = app.approximate(employees);
+        assertEquals(employees.size(), result.rows());
+        assertEquals(ApproximateAggregator.DEFAULT_SAMPLE_SIZE, result.sampleSize());
+
+        List<String> departments = app.allDepartments(employees);
+        assertTrue(result.distinctDepartments().contains(departments.size()), result.distinctDepartments()
+                .toString());
+
+        // the counts are scaled from the sample, so with 95% intervals a few may miss too
+        Map<String, Integer> counts = app.countNumberOfEmployeesInEachDepartment(employees);
+        long missedCounts = counts.entrySet().stream()
+                .filter(entry -> !result.departmentCount(entry.getKey()).contains(entry.getValue())).count();
+        assertTrue(missedCounts <= 4, missedCounts + " department counts outside their interval");
+        assertEquals(counts.keySet(), result.departmentCounts().keySet());
+        assertTrue(result.departmentCount("no such department").contains(0));
+
+        double average = employees.stream().mapToLong(Employee::getSalary).average().orElseThrow();
+        assertTrue(result.averageSalary().contains(average), average + " " + result.averageSalary());
+
+        // with 95% intervals a few of the 40 departments may miss
+        int missed = 0;
+        for (Map.Entry<String, Estimate> entry : result.departmentAverageSalary().entrySet()) {
+            double exact = employees.stream().filter(employee -> employee.getDepartment().equals(entry.getKey()))
+                    .mapToLong(Employee::getSalary).average().orElseThrow();
+            if (!entry.getValue().contains(exact))
+                missed++;
+        }
+        assertTrue(missed <= 4, missed + " departments outside their interval");
+    }
+
+    /**
+     * The sample should not depend on how the roster is held or split, so the
+     * parallel sample and the table agree with the sequential one, and merged
+     * partitions agree with a single scan
+     */
+    @Test
+    public void mergeableTest() throws IOException {
+        ApproximateResult sequential = app.approximate(employees);
+        ApproximateResult parallel = new MainApp(ExecutionMode.PARALLEL, 1).approximate(employees);
+        ApproximateResult table = app.approximate(EmployeeTable.of(employees));
+
+        ApproximateAggregator merged = new ApproximateAggregator();
+        for (int from = 0; from < employees.size(); from += 30_000) {
+            ApproximateAggregator partition = new ApproximateAggregator();
+            for (int row = from; row < Math.min(from + 30_000, employees.size()); row++)
+                partition.accept(row, employees.get(row).getDepartment(), employees.get(row).getSalary());
+            merged.merge(partition);
+        }
+
+        for (ApproximateResult result : List.of(parallel, table)) {
+            assertEquals(sequential.distinctDepartments().toString(), result.distinctDepartments().toString());
+            assertEquals(sequential.departmentCounts().toString(), result.departmentCounts().toString());
+            assertEquals(sequential.averageSalary().toString(), result.averageSalary().toString());
+            assertEquals(sequential.departmentAverageSalary().toString(),
+                    result.departmentAverageSalary().toString());
+        }
+
+        // a list without random access is scanned, like the partitions
+        ApproximateResult scanned = merged.result();
+        ApproximateResult linked = app.approximate(new LinkedList<>(employees));
+        assertEquals(ApproximateAggregator.DEFAULT_SAMPLE_SIZE, linked.sampleSize());
+        assertEquals(linked.distinctDepartments().value(), scanned.distinctDepartments().value());
+        assertEquals(linked.departmentCounts().toString(), scanned.departmentCounts().toString());
+        assertEquals(linked.averageSalary().toString(), scanned.averageSalary().toString());
+        assertEquals(linked.departmentAverageSalary().toString(), scanned.departmentAverageSalary().toString());
+
+        // a reader numbers its records in the order they are read, like a scan
+        StringBuilder csv = new StringBuilder();
+        for (Employee employee : employees)
+            csv.append(employee.getId()).append(",e,30,male,").append(employee.getDepartment()).append(",2015,")
+                    .append(employee.getSalary()).append('\n');
+        ApproximateResult read = app.approximate(DelimitedEmployeeReader.of(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), ','));
+        assertEquals(scanned.averageSalary().toString(), read.averageSalary().toString());
+        assertEquals(scanned.departmentAverageSalary().toString(), read.departmentAverageSalary().toString());
+    }
+
+    /**
+     * A roster smaller than the sample gives exact answers
+     */
+    @Test
+    public void smallRosterIsExactTest() {
+        List<Employee> few = employees.subList(0, 1000);
+        ApproximateResult result = app.approximate(few);
+        double average = few.stream().mapToLong(Employee::getSalary).average().orElseThrow();
+        assertEquals(average, result.averageSalary().value(), 1e-6);
+        assertEquals(0, result.averageSalary().error());
+        result.departmentAverageSalary().forEach((department, estimate) -> assertEquals(0, estimate.error()));
+        assertEquals(Estimate.exact(app.allDepartments(few).size()).toString(),
+                result.distinctDepartments().toString());
+        app.countNumberOfEmployeesInEachDepartment(few).forEach((department, count) -> assertEquals(
+                Estimate.exact(count).toString(), result.departmentCount(department).toString()));
+        assertThrows(NoSuchElementException.class, () -> app.approximate(List.of()).averageSalary());
+    }
+
+    @Test
+    public void hyperLogLogTest() {
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        for (long i = 0; i < 300_000; i++)
+            (i % 2 == 0 ? left : right).add(i);
+        for (long i = 0; i < 100_000; i++)
+            right.add(i);
+        Estimate estimate = left.merge(right).estimate();
+        assertTrue(estimate.contains(300_000), estimate.toString());
+        assertTrue(estimate.error() < 300_000 * 0.02);
+    }
+
+    @Test
+    public void countMinNeverUnderestimatesTest() {
+        CountMinSketch sketch = CountMinSketch.of(0.01, 0.01);
+        Map<String, Integer> exact = new HashMap<>();
+        Random random = new Random(23);
+        for (int i = 0; i < 50_000; i++) {
+            String key = "key" + (int) Math.abs(random.nextGaussian() * 200);
+            sketch.add(key, 1);
+            exact.merge(key, 1, Integer::sum);
+        }
+        exact.forEach((key, count) -> {
+            assertTrue(sketch.count(key) >= count);
+            assertTrue(sketch.estimate(key).contains(count));
+        });
+    }
+}
@@ -0,0 +1,167 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.ColumnScan;
+import org.example.aggregation.ExecutionMode;
+import org.example.aggregation.Report;
+import org.example.kernel.ColumnKernels;
+import org.example.kernel.ColumnSummary;
+import org.example.model.Employee;
+import org.example.model.EmployeeTable;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnKernelsTest {
+
+    private final ColumnKernels vector = ColumnKernels.preferred();
+    private final ColumnKernels scalar = ColumnKernels.scalar();
+    private final MainApp app = new MainApp();
+
+    /**
+     * The summary of the rows of [from, to) whose key is in [min, max], one row
+     * at a time with BigIntegers
+     */
+    private static String bruteForce(long[] values, int[] keys, int from, int to, int min, int max) {
+        long count = 0;
+        BigInteger sum = BigInteger.ZERO;
+        long smallest = Long.MAX_VALUE;
+        long largest = Long.MIN_VALUE;
+        for (int row = from; row < to; row++) {
+            if (keys[row] < min || keys[row] > max)
+                continue;
+            count++;
+            sum = sum.add(BigInteger.valueOf(values[row]));
+            smallest = Math.min(smallest, values[row]);
+            largest = Math.max(largest, values[row]);
+        }
+        return "ColumnSummary{count=" + count + ", sum=" + sum
+                + (count == 0 ? "" : ", min=" + smallest + ", max=" + largest) + "}";
+    }
+
+    private static List<Integer> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).toList();
+    }
+
+    private static Map<String, List<Integer>> ids(Map<String, List<Employee>> employees) {
+        Map<String, List<Integer>> ids = new LinkedHashMap<>();
+        employees.forEach((key, list) -> ids.put(key, ids(list)));
+        return ids;
+    }
+
+    /**
+     * The JVM of the tests has the vector module, so the SIMD kernels are picked
+     */
+    @Test
+    public void selectionTest() {
+        assertEquals("scalar", scalar.name());
+        assertTrue(vector.name().startsWith("vector"), vector.name());
+    }
+
+    /**
+     * Both kernels agree with a brute force pass over random columns, random
+     * ranges of rows that are not multiples of the vector length, extreme values
+     * and empty selections
+     */
+    @Test
+    public void kernelsMatchBruteForceTest() {
+        Random random = new Random(11);
+        long[] extremes = {Long.MAX_VALUE, Long.MIN_VALUE, -1, 0, 0xFFFFFFFFL, 1L << 32};
+        for (int round = 0; round < 300; round++) {
+            int size = random.nextInt(200);
+            long[] longs = new long[size];
+            int[] ints = new int[size];
+            int[] keys = new int[size];
+            for (int row = 0; row < size; row++) {
+                longs[row] = random.nextInt(4) == 0 ? extremes[random.nextInt(extremes.length)] : random.nextLong();
+                ints[row] = random.nextInt(3) == 0 ? (random.nextBoolean() ? Integer.MIN_VALUE : Integer.MAX_VALUE)
+                        : random.nextInt();
+                keys[row] = random.nextInt(10) - 5;
+            }
+            int from = size == 0 ? 0 : random.nextInt(size);
+            int to = from + (size == from ? 0 : random.nextInt(size - from + 1));
+            int min = random.nextInt(12) - 6;
+            int max = random.nextBoolean() ? min + random.nextInt(5) : Integer.MAX_VALUE;
+            long[] widened = Arrays.stream(ints).asLongStream().toArray();
+            int[] everything = new int[size];
+
+            for (ColumnKernels kernels : List.of(scalar, vector)) {
+                String name = kernels.name() + " round " + round;
+                assertEquals(bruteForce(longs, keys, from, to, min, max),
+                        kernels.summarize(longs, keys, from, to, min, max).toString(), name);
+                assertEquals(bruteForce(longs, everything, from, to, 0, 0),
+                        kernels.summarize(longs, from, to).toString(), name);
+                assertEquals(bruteForce(widened, keys, from, to, min, max),
+                        kernels.summarize(ints, keys, from, to, min, max).toString(), name);
+                assertEquals(bruteForce(widened, everything, from, to, 0, 0),
+                        kernels.summarize(ints, from, to).toString(), name);
+
+                int[] expected = IntStream.range(from, to).filter(row -> keys[row] >= min && keys[row] <= max)
+                        .toArray();
+                assertEquals(expected.length, kernels.count(keys, from, to, min, max), name);
+                int[] rows = new int[expected.length];
+                assertEquals(expected.length, kernels.select(keys, from, to, min, max, rows), name);
+                assertArrayEquals(expected, rows, name);
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.count(new int[4], 0, 5, 0, 0));
+    }
+
+    /**
+     * Sums of long columns past Long.MAX_VALUE are exact
+     */
+    @Test
+    public void overflowingSumTest() {
+        long[] values = new long[1000];
+        Arrays.fill(values, Long.MAX_VALUE);
+        BigInteger expected = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(values.length));
+        for (ColumnKernels kernels : List.of(scalar, vector)) {
+            ColumnSummary summary = kernels.summarize(values, 0, values.length);
+            assertEquals(expected, summary.sum());
+            assertEquals(Long.MAX_VALUE, summary.average());
+        }
+    }
+
+    /**
+     * The table reports that go through the kernels give the reports of the list,
+     * with several spellings of "male" and with salaries that overflow a long
+     */
+    @Test
+    public void tableReportsMatchListTest() {
+        Random random = new Random(5);
+        String[] genders = {"male", "female", "Male", "MALE", "other"};
+        for (long base : new long[]{0, Long.MAX_VALUE / 16}) {
+            List<Employee> employees = new ArrayList<>();
+            for (int i = 0; i < 5_000; i++)
+                employees.add(new Employee(i, "employee" + i, 18 + random.nextInt(50), genders[random.nextInt(5)],
+                        "department" + random.nextInt(5), 2000 + random.nextInt(24), base + random.nextInt(100_000)));
+            EmployeeTable table = EmployeeTable.of(employees);
+
+            assertEquals(app.countMaleAndFemale(employees), app.countMaleAndFemale(table));
+            assertEquals(app.averageAgeOfEmployees(employees), app.averageAgeOfEmployees(table));
+            assertEquals(app.avgMaleFemaleSalary(employees), app.avgMaleFemaleSalary(table));
+            assertEquals(app.aggregate(employees, Report.SALARY_TOTALS).exactTotalSalary(),
+                    ColumnScan.aggregate(table, vector, Report.SALARY_TOTALS).exactTotalSalary());
+            assertEquals(ids(app.getEmployeesJoinedAfter2015(employees)), ids(app.getEmployeesJoinedAfter2015(table)));
+            assertEquals(ids(app.separateEmployees(employees)), ids(app.separateEmployees(table)));
+            assertEquals(ids(app.separateEmployees(employees, Integer.MAX_VALUE)),
+                    ids(app.separateEmployees(table, Integer.MAX_VALUE)));
+            assertEquals(List.of(), app.getEmployeesJoinedAfter(table, Integer.MAX_VALUE));
+            assertEquals(ids(new MainApp(ExecutionMode.PARALLEL, 1).separateEmployees(table)),
+                    ids(app.separateEmployees(table)));
+        }
+        assertEquals(app.avgAndTotalSalary(List.of(new Employee(1, "a", 30, "male", "sales", 2020, 3L),
+                        new Employee(2, "b", 30, "female", "sales", 2020, 4L))),
+                app.avgAndTotalSalary(EmployeeTable.of(List.of(new Employee(1, "a", 30, "male", "sales", 2020, 3L),
+                        new Employee(2, "b", 30, "female", "sales", 2020, 4L)))));
+    }
+}
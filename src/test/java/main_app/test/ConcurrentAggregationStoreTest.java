@@ -0,0 +1,220 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.AggregationResult;
+import org.example.aggregation.ConcurrentAggregationStore;
+import org.example.aggregation.PartialAggregate;
+import org.example.aggregation.Report;
+import org.example.model.EmployeeRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class ConcurrentAggregationStoreTest {
+
+    private static final int WRITERS = 16;
+
+    private final List<EmployeeRecord> employees = getList(400_000);
+    private final MainApp app = new MainApp();
+
+    /**
+     * employees over 10 departments, with few distinct salaries, ages and years so
+     * that many writers race on equal extremes
+     */
+    private List<EmployeeRecord> getList(int size) {
+        Random random = new Random(18);
+        List<EmployeeRecord> employees = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+            employees.add(EmployeeRecord.of(i, "employee" + i, 20 + random.nextInt(40),
+                    random.nextBoolean() ? "Male" : "Female", "department" + random.nextInt(10),
+                    2000 + random.nextInt(20), 1000L * random.nextInt(100)));
+        return employees;
+    }
+
+    /**
+     * Push the employees from the given number of writer threads, each taking
+     * every n-th employee, while a reader keeps taking snapshots.
+     *
+     * @return the snapshots the reader took while the writers ran
+     */
+    private List<PartialAggregate> ingest(ConcurrentAggregationStore store, int writers) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int writer = 0; writer < writers; writer++) {
+            int first = writer;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                for (int row = first; row < employees.size(); row += writers)
+                    store.accept(employees.get(row));
+            }));
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        List<PartialAggregate> snapshots = new ArrayList<>();
+        Thread reader = Thread.ofPlatform().start(() -> {
+            while (!done.get())
+                snapshots.add(store.snapshot());
+        });
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        done.set(true);
+        reader.join();
+        return snapshots;
+    }
+
+    /**
+     * Within a snapshot the row count and the department counts cover the same
+     * employees
+     */
+    private void assertConsistent(PartialAggregate snapshot) {
+        long departments = snapshot.result().departmentCount().values().stream().mapToLong(Integer::longValue).sum();
+        assertEquals(snapshot.rows(), departments);
+    }
+
+    /**
+     * Sixteen writers and a reader: every snapshot is consistent, later writes do
+     * not change it, and the last one answers like a single pass over all the
+     * employees
+     */
+    @Test
+    public void concurrentWritersMatchMainAppTest() throws InterruptedException {
+        ConcurrentAggregationStore store = new ConcurrentAggregationStore();
+        PartialAggregate empty = store.snapshot();
+        List<PartialAggregate> snapshots = ingest(store, WRITERS);
+        assertEquals(0, empty.rows());
+
+        long previous = 0;
+        for (PartialAggregate snapshot : snapshots) {
+            assertConsistent(snapshot);
+            assertTrue(snapshot.rows() >= previous);
+            previous = snapshot.rows();
+        }
+        assertFalse(snapshots.isEmpty());
+
+        PartialAggregate last = store.snapshot();
+        AggregationResult result = last.result();
+        assertEquals(employees.size(), last.rows());
+        assertEquals(app.countMaleAndFemale(employees), result.genderCount());
+        assertEquals(app.averageAgeOfEmployees(employees), result.averageAge());
+        assertEquals(app.avgMaleFemaleSalary(employees), result.averageGenderSalary());
+        assertEquals(app.avgAndTotalSalary(employees), result.salaryTotals());
+        assertEquals(Map.copyOf(app.countNumberOfEmployeesInEachDepartment(employees)),
+                Map.copyOf(result.departmentCount()));
+        assertEquals(Map.copyOf(app.averageSalaryOfEachDepartment(employees)),
+                Map.copyOf(result.departmentAverageSalary()));
+        // which of several equal employees wins depends on the writers' timing
+        assertEquals(app.getMaxPayedEmployee(employees).salary(), last.maxPayedEmployee().salary());
+        assertEquals(app.oldestEmployee(employees).age(), last.oldestEmployee().age());
+        assertEquals(app.getMaxExperiencedEmployee(employees).yearOfJoining(),
+                last.maxExperiencedEmployee().yearOfJoining());
+    }
+
+    /**
+     * A single writer is deterministic, so the store gives exactly the employees
+     * a single pass returns, including among equal ones
+     */
+    @Test
+    public void singleWriterMatchesMainAppTest() throws InterruptedException {
+        ConcurrentAggregationStore store = new ConcurrentAggregationStore();
+        ingest(store, 1);
+        PartialAggregate snapshot = store.snapshot();
+        assertEquals(app.countNumberOfEmployeesInEachDepartment(employees), snapshot.result().departmentCount());
+        assertEquals(app.getMaxPayedEmployee(employees), snapshot.maxPayedEmployee());
+        assertEquals(app.oldestEmployee(employees), snapshot.oldestEmployee());
+        assertEquals(app.getMaxExperiencedEmployee(employees), snapshot.maxExperiencedEmployee());
+        assertEquals(app.getYoungestMaleEmployee(employees, "department4"),
+                snapshot.youngestMaleEmployee("department4"));
+    }
+
+    /**
+     * Salaries summing far past Long.MAX_VALUE, and back below Long.MIN_VALUE,
+     * average exactly in the store as they do in a single pass
+     */
+    @Test
+    public void overflowingSalariesTest() throws InterruptedException {
+        List<EmployeeRecord> huge = new ArrayList<>();
+        for (int i = 0; i < 4000; i++)
+            huge.add(EmployeeRecord.of(i, "employee" + i, 30, i % 3 == 0 ? "Female" : "Male", "department" + i % 4,
+                    2010, i % 5 == 4 ? Long.MIN_VALUE + i : Long.MAX_VALUE - i));
+        ConcurrentAggregationStore store = new ConcurrentAggregationStore();
+        List<Thread> threads = new ArrayList<>();
+        for (int writer = 0; writer < 4; writer++) {
+            int first = writer;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int row = first; row < huge.size(); row += 4)
+                    store.accept(huge.get(row));
+            }));
+        }
+        for (Thread thread : threads)
+            thread.join();
+        PartialAggregate first = store.snapshot();
+        store.accept(huge.get(0));
+        AggregationResult result = store.snapshot().result();
+
+        AggregationResult expected = app.aggregate(huge, Report.values());
+        assertEquals(expected.exactTotalSalary(), first.result().exactTotalSalary());
+        assertEquals(app.avgMaleFemaleSalary(huge), first.result().averageGenderSalary());
+        assertEquals(app.averageSalaryOfEachDepartment(huge), first.result().departmentAverageSalary());
+        assertEquals(expected.exactTotalSalary().add(BigInteger.valueOf(huge.get(0).salary())),
+                result.exactTotalSalary());
+    }
+
+    /**
+     * Any number of writers count every employee exactly once; how fast they go
+     * is measured by {@code ConcurrentAggregationStoreBenchmark}
+     */
+    @Test
+    public void anyNumberOfWritersTest() throws InterruptedException {
+        for (int writers = 1; writers <= WRITERS; writers *= 2) {
+            ConcurrentAggregationStore store = new ConcurrentAggregationStore();
+            ingest(store, writers);
+            PartialAggregate snapshot = store.snapshot();
+            assertEquals(employees.size(), snapshot.rows());
+            assertConsistent(snapshot);
+        }
+    }
+
+    /**
+     * Accepting employees that beat no extreme allocates nothing, even in
+     * departments whose ids are past the range of cached Integer boxes
+     */
+    @Test
+    public void acceptAllocatesNothingPerRowTest() {
+        ConcurrentAggregationStore store = new ConcurrentAggregationStore();
+        List<EmployeeRecord> rows = new ArrayList<>();
+        for (int department = 0; department < 300; department++) {
+            String name = "store department " + department;
+            store.accept(EmployeeRecord.of(-1, "youngest", 18, "male", name, 2010, 500L));
+            store.accept(EmployeeRecord.of(-2, "extreme", 99, "female", name, 1990, 1_000_000L));
+            rows.add(EmployeeRecord.of(department, "employee", 40, "male", name, 2010, 500L));
+        }
+        assertTrue(rows.get(rows.size() - 1).departmentId() > 127);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int warmUp = 0; warmUp < 100; warmUp++)
+            rows.forEach(store::accept);
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+        for (int pass = 0; pass < 1000; pass++)
+            for (int row = 0; row < rows.size(); row++)
+                store.accept(rows.get(row));
+        long bytes = threads.getThreadAllocatedBytes(Thread.currentThread().threadId()) - before;
+        assertTrue(bytes < 3000, "allocated " + bytes + " bytes for " + 1000 * rows.size() + " employees");
+        assertEquals(1000 + 100 + 2, store.snapshot().result().departmentCount().get("store department 299"));
+    }
+}
@@ -0,0 +1,124 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.DepartmentGrouping;
+import org.example.aggregation.ExecutionMode;
+import org.example.model.Employee;
+import org.example.model.EmployeeTable;
+import org.example.offheap.OffHeapEmployeeStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DepartmentGroupingTest {
+
+    private final MainApp app = new MainApp();
+
+    private List<Employee> getList() {
+        String[] departments = {"sales", "development", null, "design", "Sales"};
+        Random random = new Random(17);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(40),
+                    random.nextBoolean() ? "male" : "female", departments[random.nextInt(departments.length)],
+                    2000 + random.nextInt(24), 10000L + i));
+        return employees;
+    }
+
+    private static Map<String, List<String>> expected(List<Employee> employees) {
+        Map<String, List<String>> names = new LinkedHashMap<>();
+        for (Employee employee : employees)
+            names.computeIfAbsent(employee.getDepartment(), department -> new ArrayList<>()).add(employee.getName());
+        return names;
+    }
+
+    /**
+     * The groups hold every row once, in ascending order, with the departments
+     * in order of first appearance, for the list and for the table
+     */
+    @Test
+    public void groupsMatchRowsTest() {
+        List<Employee> employees = getList();
+        for (DepartmentGrouping grouping : List.of(app.groupByDepartment(employees),
+                app.groupByDepartment(EmployeeTable.of(employees)))) {
+            assertEquals(new ArrayList<>(expected(employees).keySet()),
+                    IntStream.range(0, grouping.groups()).mapToObj(grouping::department).toList());
+            assertEquals(employees.size(), grouping.rows().length);
+            for (int group = 0; group < grouping.groups(); group++) {
+                int[] rows = grouping.rows(group);
+                assertEquals(grouping.size(group), rows.length);
+                assertEquals(grouping.end(group) - grouping.start(group), rows.length);
+                for (int index = 0; index < rows.length; index++) {
+                    assertEquals(grouping.department(group), employees.get(rows[index]).getDepartment());
+                    if (index > 0)
+                        assertTrue(rows[index - 1] < rows[index]);
+                }
+            }
+            assertEquals(-1, grouping.groupOf("marketing"));
+        }
+    }
+
+    /**
+     * The lazy view equals the copied map and the report, reads values only when
+     * asked, and cannot be modified
+     */
+    @Test
+    public void viewsMatchReportTest() {
+        List<Employee> employees = getList();
+        Map<String, List<String>> expected = expected(employees);
+        DepartmentGrouping grouping = app.groupByDepartment(employees);
+        int[] reads = new int[1];
+        Map<String, List<String>> view = grouping.asMap(row -> {
+            reads[0]++;
+            return employees.get(row).getName();
+        });
+
+        assertEquals(expected.keySet(), view.keySet());
+        assertEquals(0, reads[0]);
+        assertEquals(expected.get("design").get(3), view.get("design").get(3));
+        assertEquals(1, reads[0]);
+        assertEquals(expected.get(null), view.get(null));
+        assertNull(view.get("marketing"));
+        assertTrue(view.containsKey(null));
+        assertFalse(view.containsKey(42));
+        assertEquals(expected, view);
+        assertEquals(expected, grouping.toMap(row -> employees.get(row).getName()));
+        assertThrows(UnsupportedOperationException.class, () -> view.get("sales").add("someone"));
+        assertThrows(UnsupportedOperationException.class, () -> view.remove("sales"));
+
+        assertEquals(expected, app.employeesInEachDepartment(employees));
+        assertEquals(expected, app.employeesInEachDepartment(EmployeeTable.of(employees)));
+        assertEquals(expected, new MainApp(ExecutionMode.PARALLEL, 1).employeesInEachDepartment(employees));
+        assertEquals(Map.of(), app.employeesInEachDepartment(List.of()));
+        assertEquals(0, app.groupByDepartment(List.of()).groups());
+    }
+
+    /**
+     * The pre-sized split of the columns gives the lists of the parallel split
+     */
+    @Test
+    public void separateEmployeesTest() {
+        List<Employee> employees = getList();
+        MainApp parallel = new MainApp(ExecutionMode.PARALLEL, 1);
+        try (OffHeapEmployeeStore store = OffHeapEmployeeStore.of(employees)) {
+            for (int age : new int[]{25, 40, Integer.MAX_VALUE}) {
+                Map<String, List<Employee>> separated = app.separateEmployees(store, age);
+                assertEquals(ids(parallel.separateEmployees(store, age)), ids(separated));
+                assertEquals(ids(app.separateEmployees(employees, age)), ids(separated));
+            }
+        }
+    }
+
+    private static Map<String, List<Integer>> ids(Map<String, List<Employee>> employees) {
+        Map<String, List<Integer>> ids = new LinkedHashMap<>();
+        employees.forEach((key, list) -> ids.put(key, list.stream().map(Employee::getId).toList()));
+        return ids;
+    }
+}
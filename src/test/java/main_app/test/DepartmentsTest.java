@@ -0,0 +1,103 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.EmployeeAggregator;
+import org.example.aggregation.ExecutionMode;
+import org.example.aggregation.Report;
+import org.example.model.Departments;
+import org.example.model.Employee;
+import org.example.model.Gender;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DepartmentsTest {
+
+    private final MainApp app = new MainApp();
+
+    @Test
+    public void internedDepartmentsTest() {
+        Employee first = new Employee(1, "a", 30, "male", new String("interned"), 2015, 100L);
+        Employee second = new Employee(2, "b", 30, "Female", new String("interned"), 2015, 100L);
+        Employee other = new Employee(3, "c", 30, "MALE", "Interned", 2015, 100L);
+
+        assertSame(first.getDepartment(), second.getDepartment());
+        assertEquals(first.getDepartmentId(), second.getDepartmentId());
+        assertNotEquals(first.getDepartmentId(), other.getDepartmentId());
+        assertEquals("interned", Departments.nameOf(first.getDepartmentId()));
+
+        boolean[] matching = Departments.matchingIgnoreCase("INTERNED");
+        assertTrue(matching[first.getDepartmentId()]);
+        assertTrue(matching[other.getDepartmentId()]);
+
+        second.setDepartment("moved");
+        assertEquals(Departments.idOf("moved"), second.getDepartmentId());
+    }
+
+    /**
+     * Lookups that only read do not add the departments they are asked about
+     */
+    @Test
+    public void findDoesNotAddTest() {
+        int size = Departments.size();
+        assertEquals(-1, Departments.find("never employed anywhere"));
+        assertEquals(size, Departments.size());
+
+        EmployeeAggregator aggregator = new EmployeeAggregator(Report.DEPARTMENT_COUNT, Report.SALARY_TOTALS);
+        aggregator.accept("sales", true, 30, 100L);
+        String before = aggregator.result().departmentCount().toString();
+        assertThrows(IllegalStateException.class, () -> aggregator.remove("never hired in", true, 30, 100L));
+        assertEquals(-1, Departments.find("never hired in"));
+        assertEquals(before, aggregator.result().departmentCount().toString());
+        assertEquals(100L, aggregator.result().salaryTotals().get("total"));
+        assertEquals(Departments.idOf("sales"), Departments.find("sales"));
+    }
+
+    @Test
+    public void canonicalGenderTest() {
+        assertEquals(Gender.MALE, Gender.of("Male"));
+        assertEquals(Gender.FEMALE, Gender.of("female"));
+        assertEquals(Gender.FEMALE, Gender.of("other"));
+        assertEquals(Gender.FEMALE, Gender.of(null));
+        Employee employee = new Employee(1, "a", 30, "female", "sales", 2015, 100L);
+        employee.setGender("MALE");
+        assertTrue(employee.isMale());
+        assertEquals("MALE", employee.getGender());
+        assertEquals(Gender.FEMALE, new Employee().getCanonicalGender());
+    }
+
+    /**
+     * Grouping by department id should keep the exact department strings, their
+     * order of first appearance and a null department, like grouping by string
+     */
+    @Test
+    public void groupingByIdTest() {
+        List<Employee> employees = new ArrayList<>();
+        String[] departments = {"Sales", "sales", "marketing", null, "SALES", "productDevelopment"};
+        Random random = new Random(29);
+        for (int i = 0; i < 20_000; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(30),
+                    random.nextBoolean() ? "male" : "female", departments[random.nextInt(departments.length)],
+                    2010 + random.nextInt(10), 1000L * random.nextInt(50)));
+
+        Map<String, List<String>> expected = new LinkedHashMap<>();
+        for (Employee employee : employees)
+            expected.computeIfAbsent(employee.getDepartment(), department -> new ArrayList<>())
+                    .add(employee.getName());
+
+        for (MainApp app : List.of(this.app, new MainApp(ExecutionMode.PARALLEL, 1))) {
+            assertEquals(expected, app.employeesInEachDepartment(employees));
+            assertEquals(new ArrayList<>(expected.keySet()), app.allDepartments(employees));
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            expected.forEach((department, names) -> counts.put(department, names.size()));
+            assertEquals(counts.toString(), app.countNumberOfEmployeesInEachDepartment(employees).toString());
+
+            Map<String, Integer> sales = app.employeesInDepartments(employees, "sales").get("sales");
+            long salesCount = employees.stream()
+                    .filter(employee -> "sales".equalsIgnoreCase(employee.getDepartment())).count();
+            assertEquals(salesCount, sales.values().stream().mapToLong(Integer::longValue).sum());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.AggregationResult;
+import org.example.aggregation.EmployeeAggregator;
+import org.example.aggregation.Report;
+import org.example.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmployeeAggregatorTest {
+
+    private final List<Employee> employees = List.of(
+            new Employee(1, "rakshith", 23, "male", "development", 2016, 3500000L),
+            new Employee(2, "ramya", 25, "female", "design", 2023, 34000L),
+            new Employee(3, "ranjini", 23, "female", "development", 2022, 350000L),
+            new Employee(4, "kichha", 24, "male", "sales", 2022, 130000L),
+            new Employee(5, "Dilip", 20, "male", "marketing", 2022, 300000L));
+
+    private final MainApp app = new MainApp();
+
+    /**
+     * All the reports computed together should match the reports computed one by
+     * one
+     */
+    @Test
+    public void singlePassMatchesIndividualReportsTest() {
+        AggregationResult result = app.aggregate(employees, Report.values());
+
+        assertEquals(Map.of("male", 3L, "female", 2L), result.genderCount());
+        assertEquals(Map.of("male", 22, "female", 24), result.averageAge());
+        assertEquals(Map.of("male", 1310000L, "female", 192000L), result.averageGenderSalary());
+        assertEquals(Map.of("total", 4314000L, "average", 862800L), result.salaryTotals());
+        assertEquals(List.of("development", "design", "sales", "marketing"),
+                List.copyOf(result.departmentCount().keySet()), "departments in order of appearance");
+        assertEquals(app.averageSalaryOfEachDepartment(employees), result.departmentAverageSalary());
+    }
+
+    /**
+     * Merging two halves should give the same result as a single pass
+     */
+    @Test
+    public void mergeKeepsDepartmentOrderTest() {
+        EmployeeAggregator left = new EmployeeAggregator(Report.DEPARTMENT_COUNT);
+        EmployeeAggregator right = new EmployeeAggregator(Report.DEPARTMENT_COUNT);
+        employees.subList(0, 2).forEach(left::accept);
+        employees.subList(2, 5).forEach(right::accept);
+
+        assertEquals(app.countNumberOfEmployeesInEachDepartment(employees).toString(),
+                left.merge(right).result().departmentCount().toString());
+    }
+
+    /**
+     * Asking for a report that was not computed is an error
+     */
+    @Test
+    public void missingReportTest() {
+        AggregationResult result = app.aggregate(employees, Report.GENDER_COUNT);
+        assertThrows(IllegalStateException.class, result::salaryTotals);
+    }
+}
@@ -0,0 +1,98 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.ExecutionMode;
+import org.example.model.Employee;
+import org.example.model.EmployeeRecord;
+import org.example.model.Gender;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class EmployeeFootprintTest {
+
+    private final MainApp app = new MainApp();
+
+    /**
+     * Measures the footprint of one employee of each type, excluding the name and
+     * department strings they share, and checks the sizes EmployeeRecord documents
+     */
+    @Test
+    public void footprintTest() {
+        Employee bean = new Employee(100_000, "employee", 35, "male", "development", 2015, 123_456L);
+        EmployeeRecord record = EmployeeRecord.of(bean);
+
+        long beanSize = GraphLayout.parseInstance(bean).totalSize()
+                - GraphLayout.parseInstance(bean.getName(), bean.getGender(), bean.getDepartment(),
+                Gender.MALE).totalSize();
+        long recordSize = ClassLayout.parseInstance(record).instanceSize();
+        assertTrue(recordSize * 2 <= beanSize, beanSize + " vs " + recordSize);
+
+        // the sizes documented on EmployeeRecord hold with compressed references
+        // and 12 byte headers, the default of a 64 bit JVM on a heap below 32 GB
+        assumeTrue(VM.current().sizeOfField("oop") == 4 && VM.current().objectHeaderSize() == 12,
+                VM.current().details());
+        assertEquals(48, recordSize);
+        assertEquals(120, beanSize);
+    }
+
+    @Test
+    public void conversionTest() {
+        Employee bean = new Employee(1, "rahul", 23, "Male", "development", 2012, 20000L);
+        EmployeeRecord record = EmployeeRecord.of(bean);
+        assertEquals(new EmployeeRecord(1, "rahul", 23, Gender.MALE, bean.getDepartmentId(), 2012, 20000L), record);
+        assertEquals("development", record.department());
+        assertSame(bean.getDepartment(), record.department());
+
+        Employee back = record.toEmployee();
+        assertEquals("male", back.getGender());
+        assertEquals(record, EmployeeRecord.of(back));
+        assertThrows(NullPointerException.class, () -> EmployeeRecord.of(new Employee()));
+    }
+
+    /**
+     * Every report should answer the same over records as over the beans they were
+     * converted from
+     */
+    @Test
+    public void reportsOverRecordsTest() {
+        Random random = new Random(31);
+        String[] departments = {"development", "sales", "marketing", "productDevelopment"};
+        List<Employee> beans = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++)
+            beans.add(new Employee(i, "employee" + i, 20 + random.nextInt(30),
+                    random.nextBoolean() ? "male" : "female", departments[random.nextInt(departments.length)],
+                    2010 + random.nextInt(10), 1000L * random.nextInt(50)));
+        List<EmployeeRecord> records = EmployeeRecord.of(beans);
+
+        for (MainApp app : List.of(this.app, new MainApp(ExecutionMode.PARALLEL, 1))) {
+            assertEquals(app.countMaleAndFemale(beans), app.countMaleAndFemale(records));
+            assertEquals(app.allDepartments(beans), app.allDepartments(records));
+            assertEquals(app.averageAgeOfEmployees(beans), app.averageAgeOfEmployees(records));
+            assertEquals(app.getMaxPayedEmployee(beans).getId(), app.getMaxPayedEmployee(records).id());
+            assertEquals(app.getEmployeesJoinedAfter2015(beans).size(),
+                    app.getEmployeesJoinedAfter2015(records).size());
+            assertEquals(app.countNumberOfEmployeesInEachDepartment(beans),
+                    app.countNumberOfEmployeesInEachDepartment(records));
+            assertEquals(app.averageSalaryOfEachDepartment(beans), app.averageSalaryOfEachDepartment(records));
+            assertEquals(app.getYoungestMaleEmployee(beans).getId(), app.getYoungestMaleEmployee(records).id());
+            assertEquals(app.getMaxExperiencedEmployee(beans).getId(),
+                    app.getMaxExperiencedEmployee(records).id());
+            assertEquals(app.employeesInSaleAndMarketing(beans), app.employeesInSaleAndMarketing(records));
+            assertEquals(app.avgMaleFemaleSalary(beans), app.avgMaleFemaleSalary(records));
+            assertEquals(app.employeesInEachDepartment(beans), app.employeesInEachDepartment(records));
+            assertEquals(app.avgAndTotalSalary(beans), app.avgAndTotalSalary(records));
+            assertEquals(app.separateEmployees(beans).get("under25").size(),
+                    app.separateEmployees(records).get("under25").size());
+            assertEquals(app.oldestEmployee(beans).getId(), app.oldestEmployee(records).id());
+        }
+    }
+}
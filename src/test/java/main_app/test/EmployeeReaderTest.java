@@ -0,0 +1,147 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.AggregationResult;
+import org.example.aggregation.Report;
+import org.example.exceptions.MalformedEmployeeRecord;
+import org.example.io.BinaryEmployeeReader;
+import org.example.io.BinaryEmployeeWriter;
+import org.example.io.DelimitedEmployeeReader;
+import org.example.io.EmployeeReader;
+import org.example.model.Employee;
+import org.example.model.EmployeeTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmployeeReaderTest {
+
+    private static final String CSV = "id,name,age,gender,department,yearOfJoining,salary\n"
+            + "1,rakshith,23,male,development,2016,3500000\n"
+            + "2,ramya,25,female,design,2023,34000\r\n"
+            + "\n"
+            + "3,ranjini,23,female,development,2022,350000\n"
+            + "4,kichha,24,male,sales,2022,130000\n"
+            + "5,Dilip,20,male,marketing,2022,300000";
+
+    private final MainApp app = new MainApp();
+
+    private List<Employee> expected() {
+        return List.of(new Employee(1, "rakshith", 23, "male", "development", 2016, 3500000L),
+                new Employee(2, "ramya", 25, "female", "design", 2023, 34000L),
+                new Employee(3, "ranjini", 23, "female", "development", 2022, 350000L),
+                new Employee(4, "kichha", 24, "male", "sales", 2022, 130000L),
+                new Employee(5, "Dilip", 20, "male", "marketing", 2022, 300000L));
+    }
+
+    private void assertSameEmployees(List<Employee> expected, List<Employee> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getAge(), actual.get(i).getAge());
+            assertEquals(expected.get(i).getGender(), actual.get(i).getGender());
+            assertEquals(expected.get(i).getDepartment(), actual.get(i).getDepartment());
+            assertEquals(expected.get(i).getYearOfJoining(), actual.get(i).getYearOfJoining());
+            assertEquals(expected.get(i).getSalary(), actual.get(i).getSalary());
+        }
+    }
+
+    /**
+     * The header, a CRLF line end, a blank line and a missing final line end
+     * should all be handled
+     */
+    @Test
+    public void readsCsvFileTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("employees.csv");
+        Files.writeString(file, CSV);
+        assertSameEmployees(expected(), app.getList(file));
+    }
+
+    /**
+     * Records much longer than the read buffer, and many records spanning buffer
+     * boundaries
+     */
+    @Test
+    public void readsAcrossBufferBoundariesTest() throws IOException {
+        StringBuilder tsv = new StringBuilder();
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String name = i == 7 ? "x".repeat(200_000) : "employee" + i;
+            employees.add(new Employee(i, name, 20 + i % 30, i % 2 == 0 ? "male" : "female", "department" + i % 5,
+                    2000 + i % 20, -5L + i * 1000L));
+            tsv.append(i).append('\t').append(name).append('\t').append(20 + i % 30).append('\t')
+                    .append(i % 2 == 0 ? "male" : "female").append('\t').append("department").append(i % 5)
+                    .append('\t').append(2000 + i % 20).append('\t').append(-5L + i * 1000L).append('\n');
+        }
+        try (EmployeeReader reader = DelimitedEmployeeReader
+                .of(new ByteArrayInputStream(tsv.toString().getBytes(StandardCharsets.UTF_8)), '\t')) {
+            assertSameEmployees(employees, reader.readList());
+        }
+    }
+
+    /**
+     * Rows with the wrong number of fields or bad numbers are reported with their
+     * line
+     */
+    @Test
+    public void malformedRecordTest() {
+        String csv = "1,rakshith,23,male,development,2016,3500000\n2,ramya,twenty,female,design,2023,34000\n";
+        MalformedEmployeeRecord error = assertThrows(MalformedEmployeeRecord.class, () -> DelimitedEmployeeReader
+                .of(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ',').readList());
+        assertTrue(error.getMessage().contains("record 2"), error.getMessage());
+        assertThrows(MalformedEmployeeRecord.class, () -> DelimitedEmployeeReader
+                .of(new ByteArrayInputStream("1,a,2,male,b,3,99999999999999999999\n".getBytes()), ',').readList());
+        assertThrows(MalformedEmployeeRecord.class, () -> DelimitedEmployeeReader
+                .of(new ByteArrayInputStream("1,a,2,male,b,3\n".getBytes()), ',').readList());
+    }
+
+    /**
+     * The binary format should round trip, and aggregating while reading should
+     * give the same reports as loading the list first
+     */
+    @Test
+    public void binaryRoundTripTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("employees.emp");
+        BinaryEmployeeWriter.write(file, expected());
+        assertSameEmployees(expected(), app.getList(file));
+
+        EmployeeTable table;
+        try (EmployeeReader reader = BinaryEmployeeReader.open(file)) {
+            table = reader.readTable();
+        }
+        assertEquals(5, table.size());
+
+        AggregationResult streamed;
+        try (EmployeeReader reader = EmployeeReader.open(file)) {
+            streamed = app.aggregate(reader, Report.values());
+        }
+        assertEquals(app.averageSalaryOfEachDepartment(expected()), streamed.departmentAverageSalary());
+        assertEquals(app.avgAndTotalSalary(expected()), streamed.salaryTotals());
+    }
+
+    /**
+     * A file that is not in the binary format, or ends inside the header, is
+     * refused when it is opened
+     */
+    @Test
+    public void invalidBinaryHeaderTest(@TempDir Path directory) throws IOException {
+        Path csv = directory.resolve("employees.emp");
+        Files.writeString(csv, CSV);
+        assertThrows(MalformedEmployeeRecord.class, () -> BinaryEmployeeReader.open(csv));
+        Path truncated = directory.resolve("truncated.emp");
+        Files.write(truncated, new byte[]{1, 2});
+        assertThrows(IOException.class, () -> BinaryEmployeeReader.open(truncated));
+        Files.delete(csv);
+        Files.delete(truncated);
+    }
+}
@@ -0,0 +1,82 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.Report;
+import org.example.model.Employee;
+import org.example.model.EmployeeTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class EmployeeTableTest {
+
+    private final List<Employee> employees = getList();
+    private final EmployeeTable table = EmployeeTable.of(employees);
+    private final MainApp app = new MainApp();
+
+    /**
+     * A few hundred random employees, enough to exercise the growth of the table
+     */
+    private List<Employee> getList() {
+        String[] departments = {"development", "design", "sales", "marketing", "productDevelopment"};
+        String[] genders = {"male", "female", "Male"};
+        Random random = new Random(42);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(40), genders[random.nextInt(3)],
+                    departments[random.nextInt(departments.length)], 2000 + random.nextInt(24),
+                    10000L + random.nextInt(1000000)));
+        return employees;
+    }
+
+    /**
+     * Every row of the table should read back as the employee it was built from
+     */
+    @Test
+    public void rowsRoundTripTest() {
+        assertEquals(employees.size(), table.size());
+        for (int row = 0; row < table.size(); row++) {
+            Employee employee = table.get(row);
+            assertEquals(employees.get(row).getName(), employee.getName());
+            assertEquals(employees.get(row).getGender(), employee.getGender());
+            assertEquals(employees.get(row).getDepartment(), employee.getDepartment());
+            assertEquals(employees.get(row).getSalary(), employee.getSalary());
+        }
+    }
+
+    /**
+     * The table overloads should give the same reports as the list versions
+     */
+    @Test
+    public void reportsMatchListTest() {
+        assertEquals(app.countMaleAndFemale(employees), app.countMaleAndFemale(table));
+        assertEquals(app.allDepartments(employees), app.allDepartments(table));
+        assertEquals(app.averageAgeOfEmployees(employees), app.averageAgeOfEmployees(table));
+        assertEquals(app.getMaxPayedEmployee(employees).getId(), app.getMaxPayedEmployee(table).getId());
+        assertEquals(app.getEmployeesJoinedAfter2015(employees).size(), app.getEmployeesJoinedAfter2015(table).size());
+        assertEquals(app.countNumberOfEmployeesInEachDepartment(employees).toString(),
+                app.countNumberOfEmployeesInEachDepartment(table).toString());
+        assertEquals(app.averageSalaryOfEachDepartment(employees).toString(),
+                app.averageSalaryOfEachDepartment(table).toString());
+        assertEquals(app.getYoungestMaleEmployee(employees).getId(), app.getYoungestMaleEmployee(table).getId());
+        assertEquals(app.getMaxExperiencedEmployee(employees).getId(), app.getMaxExperiencedEmployee(table).getId());
+        assertEquals(app.employeesInSaleAndMarketing(employees).toString(),
+                app.employeesInSaleAndMarketing(table).toString());
+        assertEquals(app.avgMaleFemaleSalary(employees), app.avgMaleFemaleSalary(table));
+        assertEquals(app.employeesInEachDepartment(employees).toString(),
+                app.employeesInEachDepartment(table).toString());
+        assertEquals(app.avgAndTotalSalary(employees), app.avgAndTotalSalary(table));
+        assertEquals(app.separateEmployees(employees).get("under25").size(),
+                app.separateEmployees(table).get("under25").size());
+        assertEquals(app.oldestEmployee(employees).getId(), app.oldestEmployee(table).getId());
+        assertEquals(app.aggregate(employees, Report.values()).departmentCount(),
+                app.aggregate(table, Report.values()).departmentCount());
+    }
+}
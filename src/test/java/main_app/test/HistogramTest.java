@@ -0,0 +1,189 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.ExecutionMode;
+import org.example.aggregation.Histogram;
+import org.example.aggregation.HistogramAggregator;
+import org.example.aggregation.HistogramResult;
+import org.example.model.Employee;
+import org.example.model.EmployeeTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class HistogramTest {
+
+    private static final long[] SALARY_BANDS = {20_000, 40_000, 60_000, 80_000};
+
+    private final List<Employee> employees = getList();
+    private final MainApp app = new MainApp();
+
+    private List<Employee> getList() {
+        Random random = new Random(20);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(40),
+                    random.nextBoolean() ? "male" : "female", "department" + random.nextInt(6),
+                    2000 + random.nextInt(24), 1000L * random.nextInt(100)));
+        return employees;
+    }
+
+    /**
+     * The histogram of the given employees, one employee at a time
+     */
+    private Histogram bruteForce(List<Employee> employees) {
+        Histogram histogram = Histogram.of(SALARY_BANDS);
+        for (Employee employee : employees)
+            histogram.add(employee.getSalary(), employee.getSalary());
+        return histogram;
+    }
+
+    private void assertSameHistograms(HistogramResult expected, HistogramResult actual) {
+        assertEquals(expected.all(), actual.all());
+        assertEquals(expected.byGender(), actual.byGender());
+        assertEquals(new ArrayList<>(expected.byDepartment().entrySet()),
+                new ArrayList<>(actual.byDepartment().entrySet()));
+    }
+
+    /**
+     * The bucket of every value, including the boundaries themselves, is the
+     * number of boundaries at or below it
+     */
+    @Test
+    public void bucketLookupTest() {
+        Random random = new Random(1);
+        for (int boundaries = 0; boundaries < 20; boundaries++) {
+            long[] bounds = new long[boundaries];
+            long next = -50;
+            for (int i = 0; i < boundaries; i++)
+                bounds[i] = next += 1 + random.nextInt(10);
+            Histogram histogram = Histogram.of(bounds);
+            for (long value = -60; value <= next + 10; value++) {
+                int expected = 0;
+                while (expected < bounds.length && bounds[expected] <= value)
+                    expected++;
+                Histogram one = Histogram.of(bounds);
+                one.add(value, value);
+                assertEquals(1, one.count(expected), "value " + value + " over " + boundaries + " boundaries");
+                assertTrue(histogram.lowerBound(expected) <= value && value < histogram.upperBound(expected));
+            }
+        }
+    }
+
+    @Test
+    public void salaryHistogramMatchesBruteForceTest() {
+        HistogramResult result = app.salaryHistogram(employees, SALARY_BANDS);
+        assertEquals(bruteForce(employees), result.all());
+        assertEquals(employees.size(), result.all().total());
+        assertEquals(5, result.all().buckets());
+
+        for (Map.Entry<String, Histogram> gender : result.byGender().entrySet())
+            assertEquals(bruteForce(employees.stream().filter(employee -> employee.isMale() == gender.getKey()
+                    .equals("male")).toList()), gender.getValue());
+        assertEquals(app.allDepartments(employees), new ArrayList<>(result.byDepartment().keySet()));
+        for (Map.Entry<String, Histogram> department : result.byDepartment().entrySet())
+            assertEquals(bruteForce(employees.stream()
+                    .filter(employee -> employee.getDepartment().equals(department.getKey())).toList()),
+                    department.getValue());
+    }
+
+    /**
+     * One boundary at 26 splits the ages like separateEmployees, and the other
+     * ways of computing the histograms agree with a sequential pass
+     */
+    @Test
+    public void ageHistogramTest() {
+        HistogramResult result = app.ageHistogram(employees, 26);
+        Map<String, List<Employee>> separated = app.separateEmployees(employees);
+        assertEquals(separated.get("under25").size(), result.all().count(0));
+        assertEquals(separated.get("above25").size(), result.all().count(1));
+        assertEquals(separated.get("under25").stream().mapToLong(Employee::getSalary).sum(),
+                result.all().salary(0));
+
+        assertSameHistograms(result, new MainApp(ExecutionMode.PARALLEL, 1).ageHistogram(employees, 26));
+        assertSameHistograms(result, app.ageHistogram(EmployeeTable.of(employees), 26));
+        assertSameHistograms(app.salaryHistogram(employees, SALARY_BANDS),
+                app.salaryHistogram(EmployeeTable.of(employees), SALARY_BANDS));
+    }
+
+    /**
+     * The histograms of partitions merge into the histogram of the whole list
+     */
+    @Test
+    public void mergeTest() {
+        int half = employees.size() / 2;
+        HistogramAggregator first = new HistogramAggregator(SALARY_BANDS);
+        HistogramAggregator second = new HistogramAggregator(SALARY_BANDS);
+        employees.subList(0, half).forEach(first::acceptSalary);
+        employees.subList(half, employees.size()).forEach(second::acceptSalary);
+        assertSameHistograms(app.salaryHistogram(employees, SALARY_BANDS), first.merge(second).result());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Histogram.of(1, 2).merge(Histogram.of(1, 3)));
+        assertThrows(IllegalArgumentException.class, () -> Histogram.of(5, 5));
+        assertThrows(IllegalArgumentException.class, () -> app.salaryHistogram(employees, 3, 2, 1));
+    }
+
+    /**
+     * The histograms of a result cannot be changed, neither through the result
+     * nor by the aggregator accepting more rows, but their copies can
+     */
+    @Test
+    public void readOnlyResultTest() {
+        HistogramAggregator aggregator = new HistogramAggregator(SALARY_BANDS);
+        employees.forEach(aggregator::acceptSalary);
+        HistogramResult result = aggregator.result();
+        Histogram all = result.all();
+        assertThrows(UnsupportedOperationException.class, () -> all.add(1, 1));
+        assertThrows(UnsupportedOperationException.class, () -> all.merge(Histogram.of(SALARY_BANDS)));
+        assertThrows(UnsupportedOperationException.class,
+                () -> result.byDepartment().values().iterator().next().add(1, 1));
+
+        aggregator.acceptSalary(employees.get(0));
+        assertEquals(employees.size(), result.all().total());
+        assertEquals(employees.size() + 1, aggregator.result().all().total());
+
+        Histogram copy = all.copy();
+        copy.merge(all);
+        assertEquals(2L * employees.size(), copy.total());
+        assertEquals(employees.size(), all.total());
+    }
+
+    /**
+     * Salaries past Long.MAX_VALUE stay exact, in a bucket and when merged
+     */
+    @Test
+    public void salaryOverflowTest() {
+        Histogram histogram = Histogram.of(0);
+        histogram.add(1, Long.MAX_VALUE);
+        histogram.add(1, Long.MAX_VALUE);
+        histogram.add(-1, Long.MIN_VALUE);
+        histogram.add(-1, Long.MIN_VALUE);
+        BigInteger max = BigInteger.valueOf(Long.MAX_VALUE);
+        BigInteger min = BigInteger.valueOf(Long.MIN_VALUE);
+        assertEquals(max.add(max), histogram.exactSalary(1));
+        assertEquals(min.add(min), histogram.exactSalary(0));
+        assertThrows(ArithmeticException.class, () -> histogram.salary(1));
+        assertEquals(Long.MAX_VALUE, histogram.averageSalary(1));
+        assertEquals(Long.MIN_VALUE, histogram.averageSalary(0));
+
+        Histogram merged = histogram.copy().merge(histogram);
+        assertEquals(max.multiply(BigInteger.valueOf(4)), merged.exactSalary(1));
+        assertEquals(Long.MAX_VALUE, merged.averageSalary(1));
+        assertNotEquals(histogram, merged);
+
+        HistogramAggregator aggregator = new HistogramAggregator(0);
+        aggregator.accept(0, true, 1, Long.MAX_VALUE);
+        aggregator.accept(0, false, 1, Long.MAX_VALUE);
+        assertEquals(max.add(max), aggregator.result().all().exactSalary(1));
+    }
+}
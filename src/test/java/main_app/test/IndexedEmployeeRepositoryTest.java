@@ -0,0 +1,112 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.model.Employee;
+import org.example.repository.IndexedEmployeeRepository;
+import org.example.repository.SortedIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class IndexedEmployeeRepositoryTest {
+
+    private final List<Employee> employees = getList();
+    private final IndexedEmployeeRepository repository = IndexedEmployeeRepository.of(employees);
+    private final MainApp app = new MainApp();
+
+    /**
+     * Random employees with departments in mixed case and many equal salaries,
+     * ages and years of joining
+     */
+    private List<Employee> getList() {
+        String[] departments = {"development", "Sales", "sales", "marketing", "productDevelopment",
+                "PRODUCTDEVELOPMENT"};
+        Random random = new Random(5);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 5000; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(20),
+                    random.nextBoolean() ? "male" : "female", departments[random.nextInt(departments.length)],
+                    2010 + random.nextInt(10), 1000L * random.nextInt(50)));
+        return employees;
+    }
+
+    /**
+     * The indexed queries should return exactly what the scans return
+     */
+    @Test
+    public void indexedQueriesMatchScansTest() {
+        assertEquals(app.countMaleAndFemale(employees), app.countMaleAndFemale(repository));
+        assertEquals(app.allDepartments(employees), app.allDepartments(repository));
+        assertSame(app.getMaxPayedEmployee(employees), app.getMaxPayedEmployee(repository));
+        assertEquals(app.getEmployeesJoinedAfter2015(employees), app.getEmployeesJoinedAfter2015(repository));
+        assertEquals(app.countNumberOfEmployeesInEachDepartment(employees).toString(),
+                app.countNumberOfEmployeesInEachDepartment(repository).toString());
+        assertSame(app.getYoungestMaleEmployee(employees), app.getYoungestMaleEmployee(repository));
+        assertSame(app.getMaxExperiencedEmployee(employees), app.getMaxExperiencedEmployee(repository));
+        assertEquals(app.employeesInSaleAndMarketing(employees).toString(),
+                app.employeesInSaleAndMarketing(repository).toString());
+        assertEquals(app.employeesInEachDepartment(employees).toString(),
+                app.employeesInEachDepartment(repository).toString());
+        assertEquals(app.separateEmployees(employees), app.separateEmployees(repository));
+        assertSame(app.oldestEmployee(employees), app.oldestEmployee(repository));
+    }
+
+    /**
+     * The counts of a department agree with its rows, exactly or ignoring case
+     */
+    @Test
+    public void departmentCountsTest() {
+        for (String department : List.of("sales", "SALES", "productDevelopment", "none")) {
+            assertEquals(repository.rowsOfDepartment(department).length, repository.countOfDepartment(department));
+            assertEquals(repository.rowsOfDepartmentIgnoreCase(department).length,
+                    repository.countOfDepartmentIgnoreCase(department));
+        }
+        assertEquals(0, repository.countOfDepartment("none"));
+        assertTrue(repository.countOfDepartmentIgnoreCase("SALES") > repository.countOfDepartment("sales"));
+    }
+
+    /**
+     * Employees without a department are indexed under null, like the list
+     * reports group them
+     */
+    @Test
+    public void nullDepartmentTest() {
+        List<Employee> roster = new ArrayList<>(employees.subList(0, 100));
+        roster.add(new Employee(9000, "nowhere", 30, "male", null, 2015, 1000L));
+        roster.add(new Employee(9001, "nowhere either", 31, "female", null, 2016, 2000L));
+        IndexedEmployeeRepository indexed = IndexedEmployeeRepository.of(roster);
+
+        assertEquals(app.countNumberOfEmployeesInEachDepartment(roster).toString(),
+                app.countNumberOfEmployeesInEachDepartment(indexed).toString());
+        assertEquals(app.allDepartments(roster), app.allDepartments(indexed));
+        assertEquals(app.employeesInEachDepartment(roster).toString(),
+                app.employeesInEachDepartment(indexed).toString());
+        assertEquals(app.employeesInSaleAndMarketing(roster).toString(),
+                app.employeesInSaleAndMarketing(indexed).toString());
+        assertSame(app.getYoungestMaleEmployee(roster), app.getYoungestMaleEmployee(indexed));
+        assertArrayEquals(new int[]{100, 101}, indexed.rowsOfDepartment(null));
+        assertArrayEquals(new int[]{100, 101}, indexed.rowsOfDepartmentIgnoreCase(null));
+        assertEquals(2, indexed.countOfDepartmentIgnoreCase(null));
+    }
+
+    /**
+     * Range lookups and counts on a small index
+     */
+    @Test
+    public void sortedIndexTest() {
+        SortedIndex index = SortedIndex.of(new long[]{5, 3, 5, 1, 3, 9, 9});
+        assertArrayEquals(new int[]{0, 1, 2, 4}, index.rowsBetween(3, 6));
+        assertEquals(4, index.count(3, 6));
+        assertEquals(0, index.count(6, 3));
+        assertEquals(3, index.firstOfMin());
+        assertEquals(5, index.firstOfMax());
+        assertEquals(-1, SortedIndex.of(new long[0]).firstOfMax());
+    }
+}
@@ -0,0 +1,170 @@
+package main_app.test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.MainApp;
+import org.example.aggregation.ExecutionMode;
+import org.example.aggregation.Report;
+import org.example.io.BinaryEmployeeWriter;
+import org.example.io.EmployeeReader;
+import org.example.metrics.Instrumentation;
+import org.example.metrics.LatencyHistogram;
+import org.example.metrics.MethodStats;
+import org.example.model.Employee;
+import org.example.model.EmployeeTable;
+import org.example.repository.IndexedEmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentationTest {
+
+    private final List<Employee> employees = getList();
+
+    private List<Employee> getList() {
+        Random random = new Random(19);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(40),
+                    random.nextBoolean() ? "male" : "female", "department" + random.nextInt(5),
+                    2000 + random.nextInt(24), 1000L * random.nextInt(100)));
+        return employees;
+    }
+
+    /**
+     * Every percentile is within the precision of the buckets of the exact one,
+     * from single nanoseconds up to minutes
+     */
+    @Test
+    public void histogramPercentilesTest() {
+        Random random = new Random(5);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 25);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.count());
+        assertEquals(values[values.length - 1], histogram.max());
+        for (double percentile : new double[]{0, 1, 25, 50, 90, 99, 99.9, 100}) {
+            long exact = values[Math.max(0, (int) Math.ceil(percentile / 100 * values.length) - 1)];
+            long estimate = histogram.valueAtPercentile(percentile);
+            assertTrue(estimate >= exact && estimate <= exact + exact / 64,
+                    percentile + "th percentile " + estimate + " for " + exact);
+        }
+
+        LatencyHistogram copy = histogram.copy();
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.valueAtPercentile(50));
+        assertEquals(values.length, copy.count());
+        assertEquals(Arrays.stream(values).sum(), copy.sum());
+    }
+
+    @Test
+    public void recordsCallsRowsAndAllocationsTest() {
+        Instrumentation instrumentation = new Instrumentation();
+        MainApp app = new MainApp().withInstrumentation(instrumentation);
+        EmployeeTable table = EmployeeTable.of(employees);
+
+        Object expected = new MainApp().countMaleAndFemale(employees);
+        assertEquals(expected, app.countMaleAndFemale(employees));
+        app.countMaleAndFemale(employees);
+        app.getEmployeesJoinedAfter2015(employees);
+        app.countMaleAndFemale(table);
+
+        MethodStats gender = instrumentation.snapshot("countMaleAndFemale(List)");
+        assertEquals(2, gender.calls());
+        assertEquals(2L * employees.size(), gender.rows());
+        assertEquals(2, gender.latencies().count());
+        assertTrue(gender.latencies().max() > 0);
+        MethodStats joined = instrumentation.snapshot("getEmployeesJoinedAfter(List)");
+        assertEquals(1, joined.calls());
+        // the result list alone takes more than a byte per employee that joined
+        assertTrue(joined.allocatedBytes() > 1000, "allocated " + joined.allocatedBytes());
+        assertEquals(1, instrumentation.snapshot("countMaleAndFemale(EmployeeColumns)").calls());
+        assertEquals(List.of("countMaleAndFemale(EmployeeColumns)", "countMaleAndFemale(List)",
+                "getEmployeesJoinedAfter(List)"), new ArrayList<>(instrumentation.snapshot().keySet()));
+
+        // a report made of other reports is only counted once
+        app.aggregate(employees);
+        assertEquals(2, instrumentation.snapshot("countMaleAndFemale(List)").calls());
+
+        instrumentation.reset();
+        assertTrue(instrumentation.snapshot().isEmpty());
+        assertEquals(0, instrumentation.snapshot("countMaleAndFemale(List)").calls());
+    }
+
+    /**
+     * The reports over a reader, over an indexed roster and in pages are counted
+     * too, the reader ones with the rows they read
+     */
+    @Test
+    public void recordsEveryKindOfRosterTest(@TempDir Path directory) throws IOException {
+        Instrumentation instrumentation = new Instrumentation();
+        MainApp app = new MainApp().withInstrumentation(instrumentation);
+        Path file = directory.resolve("employees.emp");
+        BinaryEmployeeWriter.write(file, employees);
+
+        try (EmployeeReader reader = EmployeeReader.open(file)) {
+            app.aggregate(reader, Report.GENDER_COUNT);
+        }
+        try (EmployeeReader reader = EmployeeReader.open(file)) {
+            app.approximate(reader);
+        }
+        IndexedEmployeeRepository repository = IndexedEmployeeRepository.of(employees);
+        app.countMaleAndFemale(repository);
+        app.oldestEmployee(repository);
+        app.pagedEmployeesJoinedAfter2015(employees);
+
+        assertEquals(employees.size(), instrumentation.snapshot("aggregate(EmployeeReader)").rows());
+        assertEquals(employees.size(), instrumentation.snapshot("approximate(EmployeeReader)").rows());
+        assertEquals(1, instrumentation.snapshot("countMaleAndFemale(IndexedEmployeeRepository)").calls());
+        assertEquals(1, instrumentation.snapshot("oldestEmployee(IndexedEmployeeRepository)").calls());
+        assertEquals(1, instrumentation.snapshot("pagedEmployeesJoinedAfter(List)").calls());
+    }
+
+    @Test
+    public void disabledByDefaultTest() {
+        MainApp app = new MainApp();
+        assertSame(Instrumentation.DISABLED, app.getInstrumentation());
+        app.countMaleAndFemale(employees);
+        assertTrue(Instrumentation.DISABLED.snapshot().isEmpty());
+        // nothing is allocated for a call that is not recorded
+        assertSame(Instrumentation.DISABLED.start("a", 1), Instrumentation.DISABLED.start("b", 2));
+
+        Instrumentation instrumentation = new Instrumentation();
+        MainApp parallel = app.withInstrumentation(instrumentation).withExecutionMode(ExecutionMode.PARALLEL);
+        assertSame(instrumentation, parallel.getInstrumentation());
+        parallel.oldestEmployee(employees);
+        assertEquals(1, instrumentation.snapshot("oldestEmployee(List)").calls());
+    }
+
+    @Test
+    public void emitsFlightRecorderEventsTest(@TempDir Path directory) throws IOException {
+        MainApp app = new MainApp().withInstrumentation(new Instrumentation());
+        Path file = directory.resolve("reports.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.ReportCall");
+            recording.start();
+            app.avgAndTotalSalary(employees);
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(1, events.size());
+        assertEquals("avgAndTotalSalary(List)", events.get(0).getString("method"));
+        assertEquals(employees.size(), events.get(0).getLong("rows"));
+    }
+}
@@ -0,0 +1,96 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.LiveAggregates;
+import org.example.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LiveAggregatesTest {
+
+    private final MainApp app = new MainApp();
+
+    private Employee randomEmployee(Random random, int id) {
+        String[] departments = {"development", "design", "sales", "marketing"};
+        return new Employee(id, "employee" + id, 20 + random.nextInt(10), random.nextBoolean() ? "male" : "female",
+                departments[random.nextInt(departments.length)], 2010 + random.nextInt(5), 1000L * random.nextInt(20));
+    }
+
+    /**
+     * After every random insert, update and delete the live aggregates should
+     * answer the same as a full rescan of the roster
+     */
+    @Test
+    public void matchesRescanAfterEveryEventTest() {
+        Random random = new Random(3);
+        Map<Integer, Employee> roster = new LinkedHashMap<>();
+        LiveAggregates aggregates = new LiveAggregates();
+
+        for (int event = 0; event < 3000; event++) {
+            int id = random.nextInt(60);
+            if (!roster.containsKey(id)) {
+                Employee employee = randomEmployee(random, id);
+                roster.put(id, employee);
+                aggregates.insert(employee);
+            } else if (random.nextBoolean()) {
+                Employee employee = randomEmployee(random, id);
+                roster.put(id, employee);
+                aggregates.update(employee);
+            } else {
+                assertSame(roster.remove(id), aggregates.delete(id));
+            }
+
+            if (roster.size() < 2)
+                continue;
+            List<Employee> employees = new ArrayList<>(roster.values());
+            assertEquals(employees.size(), aggregates.size());
+            assertEquals(new HashMap<>(app.countNumberOfEmployeesInEachDepartment(employees)),
+                    new HashMap<>(aggregates.countNumberOfEmployeesInEachDepartment()));
+            assertEquals(new HashMap<>(app.averageSalaryOfEachDepartment(employees)),
+                    new HashMap<>(aggregates.averageSalaryOfEachDepartment()));
+            assertEquals(app.avgAndTotalSalary(employees), aggregates.avgAndTotalSalary());
+            assertEquals(app.countMaleAndFemale(employees), aggregates.countMaleAndFemale());
+            assertSame(app.getMaxPayedEmployee(employees), aggregates.getMaxPayedEmployee());
+            assertSame(app.oldestEmployee(employees), aggregates.oldestEmployee());
+            assertSame(app.getMaxExperiencedEmployee(employees), aggregates.getMaxExperiencedEmployee());
+        }
+    }
+
+    /**
+     * Updating the only employee of a department keeps the department in its
+     * place, as a rescan of the roster would
+     */
+    @Test
+    public void updateKeepsDepartmentOrderTest() {
+        List<Employee> roster = new ArrayList<>(List.of(new Employee(1, "rakshith", 23, "male", "solo", 2016, 3500L),
+                new Employee(2, "ramya", 25, "female", "other", 2023, 34000L)));
+        LiveAggregates aggregates = LiveAggregates.of(roster);
+        roster.set(0, new Employee(1, "rakshith", 24, "male", "solo", 2016, 4000L));
+        aggregates.update(roster.get(0));
+        assertEquals(List.of("solo", "other"),
+                List.copyOf(aggregates.countNumberOfEmployeesInEachDepartment().keySet()));
+        assertEquals(app.averageSalaryOfEachDepartment(roster).toString(),
+                aggregates.averageSalaryOfEachDepartment().toString());
+    }
+
+    /**
+     * Inserting an existing id or updating a missing one is an error, deleting a
+     * missing one is not
+     */
+    @Test
+    public void invalidEventsTest() {
+        LiveAggregates aggregates = LiveAggregates.of(
+                List.of(new Employee(1, "rakshith", 23, "male", "development", 2016, 3500000L)));
+        assertThrows(IllegalArgumentException.class,
+                () -> aggregates.insert(new Employee(1, "ramya", 25, "female", "design", 2023, 34000L)));
+        assertThrows(IllegalArgumentException.class,
+                () -> aggregates.update(new Employee(2, "ramya", 25, "female", "design", 2023, 34000L)));
+        assertNull(aggregates.delete(2));
+        aggregates.delete(1);
+        assertTrue(aggregates.countNumberOfEmployeesInEachDepartment().isEmpty());
+        assertThrows(NoSuchElementException.class, aggregates::getMaxPayedEmployee);
+    }
+}
@@ -0,0 +1,109 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.ExecutionMode;
+import org.example.io.DelimitedEmployeeReader;
+import org.example.io.MappedEmployeeFile;
+import org.example.io.MappedEmployeeFileWriter;
+import org.example.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedEmployeeFileTest {
+
+    private final MainApp app = new MainApp();
+
+    private List<Employee> getList() {
+        String[] departments = {"development", "design", "sales", "marketing", "productDevelopment"};
+        Random random = new Random(11);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++)
+            employees.add(new Employee(i, "employée" + i, 20 + random.nextInt(40),
+                    random.nextBoolean() ? "male" : "female", departments[random.nextInt(departments.length)],
+                    2000 + random.nextInt(24), 10000L + random.nextInt(1000000)));
+        return employees;
+    }
+
+    /**
+     * The reports over the mapped file should be the reports over the list it was
+     * written from, in both execution modes
+     */
+    @Test
+    public void reportsMatchListTest(@TempDir Path directory) throws IOException {
+        List<Employee> employees = getList();
+        Path file = directory.resolve("employees.map");
+        MappedEmployeeFileWriter.write(file, employees);
+
+        try (MappedEmployeeFile mapped = MappedEmployeeFile.open(file)) {
+            assertEquals(employees.size(), mapped.size());
+            for (MainApp app : List.of(app, new MainApp(ExecutionMode.PARALLEL, 1))) {
+                assertEquals(app.countMaleAndFemale(employees), app.countMaleAndFemale(mapped));
+                assertEquals(app.allDepartments(employees), app.allDepartments(mapped));
+                assertEquals(app.averageSalaryOfEachDepartment(employees).toString(),
+                        app.averageSalaryOfEachDepartment(mapped).toString());
+                assertEquals(app.employeesInEachDepartment(employees), app.employeesInEachDepartment(mapped));
+                assertEquals(app.getMaxPayedEmployee(employees).getId(), app.getMaxPayedEmployee(mapped).getId());
+                assertEquals(app.getYoungestMaleEmployee(employees).getName(),
+                        app.getYoungestMaleEmployee(mapped).getName());
+            }
+        }
+    }
+
+    /**
+     * A CSV extract converted to the mapped format, read back through the
+     * flyweight view
+     */
+    @Test
+    public void convertAndReadRecordsTest(@TempDir Path directory) throws IOException {
+        String csv = "id,name,age,gender,department,yearOfJoining,salary\n"
+                + "1,rakshith,23,male,development,2016,3500000\n"
+                + "2,ramya,25,female,design,2023,34000\n"
+                + "3,,23,female,development,2022,350000\n";
+        Path file = directory.resolve("employees.map");
+        assertEquals(3, MappedEmployeeFileWriter.write(file, new DelimitedEmployeeReader(
+                Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))),
+                ',', true)));
+
+        try (MappedEmployeeFile mapped = MappedEmployeeFile.open(file)) {
+            MappedEmployeeFile.Record record = mapped.record();
+            assertEquals("rakshith", record.at(0).name());
+            assertTrue(record.isMale());
+            assertEquals(34000L, record.at(1).salary());
+            assertEquals("design", record.department());
+            assertEquals("", record.at(2).name());
+            assertEquals(2022, record.yearOfJoining());
+            assertThrows(IndexOutOfBoundsException.class, () -> record.at(3));
+            assertEquals(List.of("development", "design"), mapped.departmentDictionary().values());
+        }
+    }
+
+    /**
+     * A writer that cannot create its names file fails without keeping the
+     * row file open, and the file can be written again afterwards
+     */
+    @Test
+    public void failedOpenTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("employees.map");
+        Path names = Files.createDirectory(directory.resolve("employees.map.names.tmp"));
+        assertThrows(IOException.class, () -> new MappedEmployeeFileWriter(file));
+        Files.delete(names);
+        List<Employee> employees = List.of(new Employee(1, "a", 30, "male", "sales", 2015, 100L));
+        MappedEmployeeFileWriter.write(file, employees);
+        try (MappedEmployeeFile mapped = MappedEmployeeFile.open(file)) {
+            assertEquals(1, mapped.size());
+        }
+        assertFalse(Files.exists(names));
+    }
+}
@@ -0,0 +1,137 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.ExecutionMode;
+import org.example.io.DelimitedEmployeeReader;
+import org.example.model.Employee;
+import org.example.offheap.OffHeapEmployeeStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapEmployeeStoreTest {
+
+    private final MainApp app = new MainApp();
+
+    private List<Employee> getList() {
+        String[] departments = {"development", "design", "sales", "marketing", "productDevelopment"};
+        String[] genders = {"male", "female", "Male"};
+        Random random = new Random(13);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 150_000; i++)
+            employees.add(new Employee(i, i % 1000 == 0 ? "" : "employée" + i, 20 + random.nextInt(40),
+                    genders[random.nextInt(genders.length)], departments[random.nextInt(departments.length)],
+                    2000 + random.nextInt(24), 10000L + random.nextInt(1000000)));
+        return employees;
+    }
+
+    /**
+     * The reports over the store should be the reports over the list it was
+     * copied from, in both execution modes, with enough rows and names to fill
+     * several chunks
+     */
+    @Test
+    public void reportsMatchListTest() {
+        List<Employee> employees = getList();
+        try (OffHeapEmployeeStore store = OffHeapEmployeeStore.of(employees)) {
+            assertEquals(employees.size(), store.size());
+            assertTrue(store.byteSize() >= employees.size() * OffHeapEmployeeStore.ROW.byteSize());
+            for (MainApp app : List.of(app, new MainApp(ExecutionMode.PARALLEL, 1))) {
+                assertEquals(app.countMaleAndFemale(employees), app.countMaleAndFemale(store));
+                assertEquals(app.averageAgeOfEmployees(employees), app.averageAgeOfEmployees(store));
+                assertEquals(app.avgMaleFemaleSalary(employees), app.avgMaleFemaleSalary(store));
+                assertEquals(app.averageSalaryOfEachDepartment(employees).toString(),
+                        app.averageSalaryOfEachDepartment(store).toString());
+                assertEquals(app.employeesInEachDepartment(employees), app.employeesInEachDepartment(store));
+                assertEquals(app.getMaxPayedEmployee(employees).getId(), app.getMaxPayedEmployee(store).getId());
+                assertEquals(app.getYoungestMaleEmployee(employees).getName(),
+                        app.getYoungestMaleEmployee(store).getName());
+            }
+            for (int row : new int[]{0, 1, 65_535, 65_536, 149_999})
+                assertEquals(employees.get(row).getName(), store.name(row));
+        }
+    }
+
+    /**
+     * A CSV extract loaded through the reader, read back through the flyweight
+     * view, and unreadable once the store is closed
+     */
+    @Test
+    public void loadReadAndCloseTest() throws IOException {
+        String csv = "id,name,age,gender,department,yearOfJoining,salary\n"
+                + "1,rakshith,23,male,development,2016,3500000\n"
+                + "2,ramya,25,female,design,2023,34000\n"
+                + "3,,23,female,development,2022,350000\n";
+        OffHeapEmployeeStore store = new OffHeapEmployeeStore();
+        assertEquals(3, new DelimitedEmployeeReader(
+                Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))), ',', true)
+                .read(store::add));
+
+        OffHeapEmployeeStore.Record record = store.record();
+        assertEquals("rakshith", record.at(0).name());
+        assertTrue(record.isMale());
+        assertEquals(34000L, record.at(1).salary());
+        assertEquals("design", record.department());
+        assertEquals("", record.at(2).name());
+        assertEquals(2022, record.yearOfJoining());
+        assertThrows(IndexOutOfBoundsException.class, () -> record.at(3));
+
+        assertTrue(store.isOpen());
+        store.close();
+        store.close();
+        assertFalse(store.isOpen());
+        assertEquals(3, store.size());
+        assertThrows(IllegalStateException.class, () -> store.salary(0));
+        assertThrows(IllegalStateException.class, () -> app.avgMaleFemaleSalary(store));
+        assertThrows(IllegalStateException.class,
+                () -> store.add(4, "a", 30, "male", "sales", 2020, 1L));
+    }
+
+    /**
+     * Missing fields are kept as null, and a missing gender counts as female like
+     * in the list reports
+     */
+    @Test
+    public void nullFieldsTest() {
+        try (OffHeapEmployeeStore store = new OffHeapEmployeeStore()) {
+            store.add(1, null, 30, null, null, 2020, 100L);
+            store.add(2, "b", 40, "MALE", "sales", 2021, 200L);
+            OffHeapEmployeeStore.Record record = store.record();
+            assertNull(record.at(0).name());
+            assertNull(record.gender());
+            assertNull(record.department());
+            assertFalse(record.isMale());
+            assertEquals("b", record.at(1).name());
+            assertTrue(record.isMale());
+            assertEquals(Map.of("male", 1L, "female", 1L), app.countMaleAndFemale(store));
+        }
+    }
+
+    /**
+     * Scanning the store creates no objects for each row
+     */
+    @Test
+    public void scanAllocatesNothingPerRowTest() {
+        List<Employee> employees = getList();
+        try (OffHeapEmployeeStore store = OffHeapEmployeeStore.of(employees)) {
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            for (int i = 0; i < 5; i++)
+                app.avgMaleFemaleSalary(store);
+            long before = threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+            app.avgMaleFemaleSalary(store);
+            long bytes = threads.getThreadAllocatedBytes(Thread.currentThread().threadId()) - before;
+            assertTrue(bytes < store.size() / 10, "allocated " + bytes + " bytes for " + store.size() + " rows");
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.model.Departments;
+import org.example.model.Employee;
+import org.example.paging.Page;
+import org.example.paging.PagedRows;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PagedRowsTest {
+
+    private final MainApp app = new MainApp();
+
+    private List<Employee> getList() {
+        String[] departments = {"development", "design", "sales"};
+        Random random = new Random(23);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(40),
+                    random.nextBoolean() ? "male" : "female", departments[random.nextInt(departments.length)],
+                    2000 + random.nextInt(24), 10000L + i));
+        return employees;
+    }
+
+    /**
+     * Every page, from the first to the one without a cursor
+     */
+    private static <T> List<T> allPages(PagedRows<T> rows, int pageSize) {
+        List<T> items = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<T> page = rows.page(cursor, pageSize);
+            assertTrue(page.items().size() <= pageSize);
+            assertTrue(!page.hasNext() || page.items().size() == pageSize, "only the last page can be short");
+            items.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return items;
+    }
+
+    /**
+     * The pages put together are the lists of the reports, whatever the page size
+     */
+    @Test
+    public void pagesMatchReportsTest() {
+        List<Employee> employees = getList();
+        for (int pageSize : new int[]{1, 7, 100, 10_000}) {
+            assertEquals(app.getEmployeesJoinedAfter2015(employees),
+                    allPages(app.pagedEmployeesJoinedAfter2015(employees), pageSize));
+            assertEquals(app.separateEmployees(employees).get("under25"),
+                    allPages(app.pagedSeparateEmployees(employees, 25, "under25"), pageSize));
+            assertEquals(app.separateEmployees(employees).get("above25"),
+                    allPages(app.pagedSeparateEmployees(employees, 25, "above25"), pageSize));
+            assertEquals(app.employeesInEachDepartment(employees).get("design"),
+                    allPages(app.pagedEmployeesInDepartment(employees, "design"), pageSize));
+        }
+        assertEquals(List.of(), allPages(app.pagedEmployeesInDepartment(employees, "nowhere"), 10));
+        assertFalse(app.pagedEmployeesJoinedAfter(employees, 3000).page(null, 10).hasNext());
+    }
+
+    /**
+     * A page only reads the rows it needs, however many rows match
+     */
+    @Test
+    public void firstPageScansLittleTest() {
+        AtomicInteger tested = new AtomicInteger();
+        PagedRows<Integer> rows = new PagedRows<>("all", 10_000_000, row -> tested.incrementAndGet() > 0,
+                row -> row);
+        Page<Integer> page = rows.page(null, 10);
+        assertEquals(IntStream.range(0, 10).boxed().toList(), page.items());
+        assertTrue(tested.get() <= 11, tested.get() + " rows tested");
+        assertEquals(IntStream.range(10, 20).boxed().toList(), rows.page(page.nextCursor(), 10).items());
+    }
+
+    /**
+     * Cursors of another query or of another roster, and made up cursors, are
+     * rejected
+     */
+    @Test
+    public void invalidCursorTest() {
+        List<Employee> employees = getList();
+        String cursor = app.pagedEmployeesJoinedAfter2015(employees).page(null, 10).nextCursor();
+        assertNotNull(cursor);
+        assertThrows(IllegalArgumentException.class,
+                () -> app.pagedEmployeesJoinedAfter(employees, 2010).page(cursor, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> app.pagedEmployeesJoinedAfter2015(employees.subList(0, 100)).page(cursor, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> app.pagedEmployeesJoinedAfter2015(employees).page("not a cursor", 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> app.pagedEmployeesJoinedAfter2015(employees).page("AAAA", 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> app.pagedEmployeesJoinedAfter2015(employees).page(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> app.pagedSeparateEmployees(employees, 25, "under30"));
+
+        // "Aa" and "BB" have the same hash code
+        String colliding = new PagedRows<>("Aa", 100, row -> true, row -> row).page(null, 10).nextCursor();
+        assertThrows(IllegalArgumentException.class,
+                () -> new PagedRows<>("BB", 100, row -> true, row -> row).page(colliding, 10));
+        // a roster of the same size but another version
+        PagedRows<Integer> versioned = new PagedRows<>("all", 100, row -> true, row -> row).atVersion(1);
+        String first = versioned.page(null, 10).nextCursor();
+        assertEquals(10, versioned.page(first, 10).items().get(0));
+        assertThrows(IllegalArgumentException.class, () -> versioned.atVersion(2).page(first, 10));
+    }
+
+    /**
+     * Paging a department nobody is in does not add it to the departments
+     */
+    @Test
+    public void unknownDepartmentTest() {
+        List<Employee> employees = getList();
+        int departments = Departments.size();
+        assertEquals(List.of(), app.pagedEmployeesInDepartment(employees, "no such department").page(null, 10)
+                .items());
+        assertEquals(departments, Departments.size());
+        assertEquals(-1, Departments.find("no such department"));
+    }
+
+    /**
+     * Records what a subscriber receives, asking for the given number of items
+     * when it subscribes and then one more after each item until it has the limit
+     */
+    private static final class Recorder<T> implements Flow.Subscriber<T> {
+        private final long initial;
+        private final int limit;
+        private final List<T> items = new ArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        private Recorder(long initial, int limit) {
+            this.initial = initial;
+            this.limit = limit;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initial);
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+            if (items.size() < limit)
+                subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+    }
+
+    /**
+     * The publisher delivers the report one requested item at a time, and no
+     * more than was requested
+     */
+    @Test
+    public void publisherBackpressureTest() throws InterruptedException {
+        List<Employee> employees = getList();
+        List<Employee> expected = app.getEmployeesJoinedAfter2015(employees);
+
+        Recorder<Employee> all = new Recorder<>(1, Integer.MAX_VALUE);
+        app.pagedEmployeesJoinedAfter2015(employees).publisher().subscribe(all);
+        assertTrue(all.done.await(10, TimeUnit.SECONDS));
+        assertTrue(all.completed);
+        assertEquals(expected, all.items);
+
+        Executor direct = Runnable::run;
+        Recorder<Employee> five = new Recorder<>(1, 5);
+        app.pagedEmployeesJoinedAfter2015(employees).publisher(null, direct).subscribe(five);
+        assertEquals(expected.subList(0, 5), five.items);
+        assertFalse(five.completed);
+        five.subscription.request(3);
+        assertEquals(expected.subList(0, 8), five.items);
+        five.subscription.cancel();
+        five.subscription.request(100);
+        assertEquals(8, five.items.size());
+
+        String cursor = app.pagedEmployeesJoinedAfter2015(employees).page(null, 100).nextCursor();
+        Recorder<Employee> resumed = new Recorder<>(Long.MAX_VALUE, 0);
+        app.pagedEmployeesJoinedAfter2015(employees).publisher(cursor, direct).subscribe(resumed);
+        assertTrue(resumed.completed);
+        assertEquals(expected.subList(100, expected.size()), resumed.items);
+
+        Recorder<Integer> exact = new Recorder<>(3, 0);
+        new PagedRows<>("q", 5, row -> row < 3, row -> row).publisher(null, direct).subscribe(exact);
+        assertEquals(List.of(0, 1, 2), exact.items);
+        assertTrue(exact.completed, "a subscriber asking for exactly the results should see them complete");
+
+        Recorder<Employee> invalid = new Recorder<>(0, 0);
+        app.pagedEmployeesJoinedAfter2015(employees).publisher(null, direct).subscribe(invalid);
+        assertInstanceOf(IllegalArgumentException.class, invalid.error);
+    }
+}
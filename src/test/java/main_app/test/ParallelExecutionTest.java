@@ -0,0 +1,127 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.ExecutionMode;
+import org.example.aggregation.Report;
+import org.example.model.Employee;
+import org.example.model.EmployeeTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class ParallelExecutionTest {
+
+    private final List<Employee> employees = getList();
+    private final EmployeeTable table = EmployeeTable.of(employees);
+    private final MainApp sequential = new MainApp();
+    private final MainApp parallel = new MainApp(ExecutionMode.PARALLEL, 1);
+
+    /**
+     * Enough random employees to be split into many ranges, with ties on salary,
+     * age and year of joining so that the choice between equal employees is
+     * checked too
+     */
+    private List<Employee> getList() {
+        String[] departments = {"development", "design", "sales", "marketing", "productDevelopment", "hr", "finance"};
+        Random random = new Random(7);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(40),
+                    random.nextBoolean() ? "male" : "female",
+                    departments[Math.min(random.nextInt(departments.length) + i / 20_000, departments.length - 1)],
+                    2000 + random.nextInt(24), 10000L * random.nextInt(100)));
+        return employees;
+    }
+
+    /**
+     * The parallel mode should give exactly the sequential results, including the
+     * order of the LinkedHashMaps and lists and which of several equal employees
+     * is returned
+     */
+    @Test
+    public void parallelMatchesSequentialTest() {
+        assertEquals(sequential.countMaleAndFemale(employees), parallel.countMaleAndFemale(employees));
+        assertEquals(sequential.allDepartments(employees), parallel.allDepartments(employees));
+        assertEquals(sequential.averageAgeOfEmployees(employees), parallel.averageAgeOfEmployees(employees));
+        assertSame(sequential.getMaxPayedEmployee(employees), parallel.getMaxPayedEmployee(employees));
+        assertEquals(sequential.getEmployeesJoinedAfter2015(employees), parallel.getEmployeesJoinedAfter2015(employees));
+        assertEquals(sequential.countNumberOfEmployeesInEachDepartment(employees).toString(),
+                parallel.countNumberOfEmployeesInEachDepartment(employees).toString());
+        assertEquals(sequential.averageSalaryOfEachDepartment(employees).toString(),
+                parallel.averageSalaryOfEachDepartment(employees).toString());
+        assertSame(sequential.getYoungestMaleEmployee(employees), parallel.getYoungestMaleEmployee(employees));
+        assertSame(sequential.getMaxExperiencedEmployee(employees), parallel.getMaxExperiencedEmployee(employees));
+        assertEquals(sequential.employeesInSaleAndMarketing(employees).toString(),
+                parallel.employeesInSaleAndMarketing(employees).toString());
+        assertEquals(sequential.avgMaleFemaleSalary(employees), parallel.avgMaleFemaleSalary(employees));
+        assertEquals(sequential.employeesInEachDepartment(employees).toString(),
+                parallel.employeesInEachDepartment(employees).toString());
+        assertEquals(sequential.avgAndTotalSalary(employees), parallel.avgAndTotalSalary(employees));
+        assertEquals(sequential.separateEmployees(employees), parallel.separateEmployees(employees));
+        assertSame(sequential.oldestEmployee(employees), parallel.oldestEmployee(employees));
+    }
+
+    /**
+     * Same check for the table overloads, comparing row ids as the table creates
+     * new employees on every call
+     */
+    @Test
+    public void parallelTableMatchesSequentialTest() {
+        assertEquals(sequential.aggregate(table, Report.values()).departmentAverageSalary().toString(),
+                parallel.aggregate(table, Report.values()).departmentAverageSalary().toString());
+        assertEquals(sequential.getMaxPayedEmployee(table).getId(), parallel.getMaxPayedEmployee(table).getId());
+        assertEquals(sequential.getEmployeesJoinedAfter2015(table).size(),
+                parallel.getEmployeesJoinedAfter2015(table).size());
+        assertEquals(sequential.getYoungestMaleEmployee(table).getId(), parallel.getYoungestMaleEmployee(table).getId());
+        assertEquals(sequential.getMaxExperiencedEmployee(table).getId(),
+                parallel.getMaxExperiencedEmployee(table).getId());
+        assertEquals(sequential.employeesInSaleAndMarketing(table).toString(),
+                parallel.employeesInSaleAndMarketing(table).toString());
+        assertEquals(sequential.employeesInEachDepartment(table), parallel.employeesInEachDepartment(table));
+        assertEquals(sequential.separateEmployees(table).get("above25").size(),
+                parallel.separateEmployees(table).get("above25").size());
+        assertEquals(sequential.oldestEmployee(table).getId(), parallel.oldestEmployee(table).getId());
+    }
+
+    /**
+     * A list without random access is read with its iterator, in one pass, and
+     * gives the results of an array list in either mode
+     */
+    @Test
+    public void linkedListMatchesArrayListTest() {
+        List<Employee> linked = new LinkedList<>(employees);
+        for (MainApp app : List.of(sequential, parallel)) {
+            assertEquals(sequential.aggregate(employees, Report.values()).departmentAverageSalary(),
+                    app.aggregate(linked, Report.values()).departmentAverageSalary());
+            assertSame(sequential.getMaxPayedEmployee(employees), app.getMaxPayedEmployee(linked));
+            assertSame(sequential.getYoungestMaleEmployee(employees), app.getYoungestMaleEmployee(linked));
+            assertEquals(sequential.employeesInEachDepartment(employees), app.employeesInEachDepartment(linked));
+            assertEquals(sequential.separateEmployees(employees), app.separateEmployees(linked));
+            assertEquals(sequential.getTopPayedEmployees(employees, 10), app.getTopPayedEmployees(linked, 10));
+            assertEquals(sequential.groupByDepartment(employees).toMap(row -> row),
+                    app.groupByDepartment(linked).toMap(row -> row));
+            assertEquals(sequential.getEmployeesJoinedAfter2015(employees).subList(0, 50),
+                    app.pagedEmployeesJoinedAfter2015(linked).page(null, 50).items());
+        }
+    }
+
+    /**
+     * Below the threshold the parallel mode stays sequential, and the mode can be
+     * chosen for a single call
+     */
+    @Test
+    public void thresholdAndPerCallModeTest() {
+        MainApp app = new MainApp(ExecutionMode.PARALLEL, Integer.MAX_VALUE);
+        assertEquals(sequential.employeesInEachDepartment(employees), app.employeesInEachDepartment(employees));
+        assertSame(sequential, sequential.withExecutionMode(ExecutionMode.SEQUENTIAL));
+        assertEquals(ExecutionMode.PARALLEL, sequential.withExecutionMode(ExecutionMode.PARALLEL).getExecutionMode());
+    }
+}
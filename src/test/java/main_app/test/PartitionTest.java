@@ -0,0 +1,176 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.AggregationResult;
+import org.example.aggregation.PartialAggregate;
+import org.example.exceptions.EmployeeNotFound;
+import org.example.io.BinaryEmployeeWriter;
+import org.example.io.EmployeeReader;
+import org.example.io.MappedEmployeeFileWriter;
+import org.example.model.EmployeeRecord;
+import org.example.model.Gender;
+import org.example.partition.PartitionCoordinator;
+import org.example.partition.PartitionWorker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class PartitionTest {
+
+    private final List<EmployeeRecord> employees = getList(300_000);
+    private final MainApp app = new MainApp();
+
+    /**
+     * employees over 12 departments, with few distinct salaries, ages and years so
+     * the extreme employees have ties across partitions
+     */
+    private List<EmployeeRecord> getList(int size) {
+        Random random = new Random(16);
+        List<EmployeeRecord> employees = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+            employees.add(EmployeeRecord.of(i, "employee" + i, 20 + random.nextInt(40),
+                    random.nextBoolean() ? "Male" : "Female", "department" + random.nextInt(12),
+                    2000 + random.nextInt(20), 1000L * random.nextInt(100)));
+        return employees;
+    }
+
+    private void assertSameAsMainApp(PartialAggregate partial) {
+        AggregationResult result = partial.result();
+        assertEquals(employees.size(), partial.rows());
+        assertEquals(app.countMaleAndFemale(employees), result.genderCount());
+        assertEquals(app.averageAgeOfEmployees(employees), result.averageAge());
+        assertEquals(app.avgMaleFemaleSalary(employees), result.averageGenderSalary());
+        assertEquals(app.avgAndTotalSalary(employees), result.salaryTotals());
+        // toString compares the order of the departments too
+        assertEquals(app.countNumberOfEmployeesInEachDepartment(employees).toString(),
+                result.departmentCount().toString());
+        assertEquals(app.averageSalaryOfEachDepartment(employees).toString(),
+                result.departmentAverageSalary().toString());
+        assertEquals(app.getMaxPayedEmployee(employees), partial.maxPayedEmployee());
+        assertEquals(app.oldestEmployee(employees), partial.oldestEmployee());
+        assertEquals(app.getMaxExperiencedEmployee(employees), partial.maxExperiencedEmployee());
+        assertEquals(app.getYoungestMaleEmployee(employees, "department3"),
+                partial.youngestMaleEmployee("DEPARTMENT3"));
+        assertThrows(EmployeeNotFound.class, () -> partial.youngestMaleEmployee("productDevelopment"));
+    }
+
+    @Test
+    public void partialMatchesMainAppTest() {
+        assertSameAsMainApp(app.partial(employees));
+    }
+
+    /**
+     * Merging the partials of the partitions in any grouping and order gives the
+     * partial of the whole list
+     */
+    @Test
+    public void mergeIsAssociativeAndCommutativeTest() {
+        int third = employees.size() / 3;
+        List<PartialAggregate> parts = new ArrayList<>();
+        for (int from = 0; from < employees.size(); from += third) {
+            PartialAggregate part = new PartialAggregate();
+            for (int row = from; row < Math.min(employees.size(), from + third); row++)
+                part.accept(row, employees.get(row));
+            parts.add(part);
+        }
+        assertSameAsMainApp(new PartialAggregate().merge(parts.get(2)).merge(parts.get(0).merge(parts.get(1))));
+    }
+
+    @Test
+    public void serializationRoundTripTest() throws IOException {
+        PartialAggregate partial = app.partial(employees);
+        assertSameAsMainApp(PartialAggregate.fromBytes(partial.toBytes()));
+
+        PartialAggregate empty = PartialAggregate.fromBytes(new PartialAggregate().toBytes());
+        assertEquals(0, empty.rows());
+        assertThrows(java.util.NoSuchElementException.class, empty::maxPayedEmployee);
+
+        PartialAggregate withNullName = new PartialAggregate();
+        withNullName.accept(0, new EmployeeRecord(1, null, 30, Gender.MALE, 0, 2010, 100));
+        assertNull(PartialAggregate.fromBytes(withNullName.toBytes()).maxPayedEmployee().name());
+
+        PartialAggregate withNullDepartment = new PartialAggregate();
+        withNullDepartment.accept(0, EmployeeRecord.of(1, "nobody", 30, "male", null, 2010, 100));
+        PartialAggregate read = PartialAggregate.fromBytes(withNullDepartment.toBytes());
+        assertNull(read.maxPayedEmployee().department());
+        assertEquals(Collections.singletonMap(null, 1), read.result().departmentCount());
+
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertThrows(IOException.class, () -> PartialAggregate.fromBytes(garbage));
+    }
+
+    @Test
+    public void workerInProcessTest(@TempDir Path directory) throws IOException {
+        PartitionCoordinator coordinator = new PartitionCoordinator(directory);
+        PartialAggregate merged = new PartialAggregate();
+        for (Path partition : coordinator.partitionByDepartment(employees, 5))
+            merged.merge(PartitionWorker.aggregate(partition));
+        assertSameAsMainApp(merged);
+    }
+
+    /**
+     * Partitions read from a file, without the roster in memory, and row ranges of
+     * a mapped file give the same reports as a single pass. The timings are
+     * measured by {@code PartitionBenchmark}.
+     */
+    @Test
+    public void partitionFromSourceTest(@TempDir Path directory) throws IOException {
+        Path binary = directory.resolve("roster.emp");
+        Path mapped = directory.resolve("roster.map");
+        try (BinaryEmployeeWriter binaryWriter = BinaryEmployeeWriter.create(binary);
+             MappedEmployeeFileWriter mappedWriter = new MappedEmployeeFileWriter(mapped)) {
+            for (EmployeeRecord employee : employees) {
+                binaryWriter.accept(employee.id(), employee.name(), employee.age(), employee.gender().label(),
+                        employee.department(), employee.yearOfJoining(), employee.salary());
+                mappedWriter.accept(employee.id(), employee.name(), employee.age(), employee.gender().label(),
+                        employee.department(), employee.yearOfJoining(), employee.salary());
+            }
+        }
+        PartitionCoordinator coordinator = new PartitionCoordinator(directory.resolve("partitions"));
+        PartialAggregate merged = new PartialAggregate();
+        try (EmployeeReader source = EmployeeReader.open(binary)) {
+            for (Path partition : coordinator.partitionByDepartment(source, 4))
+                merged.merge(PartitionWorker.aggregate(partition));
+        }
+        assertSameAsMainApp(merged);
+
+        merged = new PartialAggregate();
+        for (int from = 0; from < employees.size(); from += 70_000)
+            merged.merge(PartitionWorker.aggregate(mapped, from, Math.min(employees.size(), from + 70_000)));
+        assertSameAsMainApp(merged);
+        assertThrows(IllegalArgumentException.class, () -> PartitionWorker.aggregate(mapped, 0, employees.size() + 1));
+    }
+
+    /**
+     * Fans out to worker processes, with any number of partitions, and checks the
+     * merge against a single pass
+     */
+    @Test
+    public void multiProcessTest(@TempDir Path directory) throws IOException {
+        for (int partitions : new int[]{1, 2, 4}) {
+            PartitionCoordinator coordinator = new PartitionCoordinator(directory.resolve("id-" + partitions));
+            assertSameAsMainApp(coordinator.run(coordinator.partitionByIdRange(employees, partitions)));
+        }
+        PartitionCoordinator coordinator = new PartitionCoordinator(directory.resolve("department"));
+        assertSameAsMainApp(coordinator.run(coordinator.partitionByDepartment(employees, 3)));
+
+        Path mapped = directory.resolve("roster.map");
+        try (MappedEmployeeFileWriter writer = new MappedEmployeeFileWriter(mapped)) {
+            for (EmployeeRecord employee : employees)
+                writer.accept(employee.id(), employee.name(), employee.age(), employee.gender().label(),
+                        employee.department(), employee.yearOfJoining(), employee.salary());
+        }
+        assertSameAsMainApp(new PartitionCoordinator(directory.resolve("ranges")).runRowRanges(mapped, 3));
+    }
+}
@@ -0,0 +1,154 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.ExecutionMode;
+import org.example.model.Employee;
+import org.example.query.*;
+import org.example.repository.IndexedEmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class QueryTest {
+
+    private final List<Employee> employees = getList();
+    private final IndexedEmployeeRepository repository = IndexedEmployeeRepository.of(employees);
+    private final MainApp app = new MainApp();
+
+    private List<Employee> getList() {
+        String[] departments = {"development", "Sales", "sales", "marketing", "productDevelopment", "HR"};
+        Random random = new Random(11);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 5000; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(20),
+                    random.nextBoolean() ? "male" : "female", departments[random.nextInt(departments.length)],
+                    2010 + random.nextInt(10), 1000L * random.nextInt(50)));
+        return employees;
+    }
+
+    private final Query joinedAfter2015 = Query.where(Filter.greaterThan(Field.YEAR_OF_JOINING, 2015));
+    private final Aggregate averageSalary = Aggregate.avg(Field.SALARY);
+    private final Query departmentSalaries = Query.all().groupBy(Field.DEPARTMENT).aggregate(averageSalary);
+    private final Aggregate averageAge = Aggregate.avg(Field.AGE);
+    private final Query genderAges = Query.all().groupBy(Field.GENDER).aggregate(averageAge);
+    private final Query youngMarketing = Query.where(Filter.equalTo(Field.DEPARTMENT, "MARKETING")
+                    .and(Filter.atMost(Field.AGE, 25)))
+            .aggregate(Aggregate.count(), Aggregate.min(Field.SALARY), Aggregate.max(Field.SALARY));
+    private final Query males2012 = Query.where(Filter.male().and(Filter.equalTo(Field.YEAR_OF_JOINING, 2012)));
+    private final Query femalesOrHr = Query.where(Filter.or(Filter.female(), Filter.equalTo(Field.DEPARTMENT, "hr")));
+
+    private List<Query> queries() {
+        return List.of(joinedAfter2015, departmentSalaries, genderAges, youngMarketing, males2012, femalesOrHr);
+    }
+
+    /**
+     * The queries should return what the hard coded reports return
+     */
+    @Test
+    public void queriesMatchReportsTest() {
+        List<QueryResult> results = app.query(employees, queries().toArray(new Query[0]));
+
+        assertEquals(app.getEmployeesJoinedAfter(employees, 2015), results.get(0).rows());
+        assertEquals(app.averageSalaryOfEachDepartment(employees).toString(),
+                results.get(1).values(averageSalary).toString());
+        Map<String, Long> ages = results.get(2).values(averageAge);
+        app.averageAgeOfEmployees(employees)
+                .forEach((gender, age) -> assertEquals((long) age, ages.get(gender)));
+
+        List<Employee> marketing = new ArrayList<>();
+        for (Employee employee : employees)
+            if (employee.getDepartment().equalsIgnoreCase("marketing") && employee.getAge() <= 25)
+                marketing.add(employee);
+        QueryResult young = results.get(3);
+        assertEquals(marketing.size(), young.value(Aggregate.count()));
+        assertEquals(marketing.stream().mapToLong(Employee::getSalary).min().getAsLong(),
+                young.value(Aggregate.min(Field.SALARY)));
+        assertEquals(marketing.stream().mapToLong(Employee::getSalary).max().getAsLong(),
+                young.value(Aggregate.max(Field.SALARY)));
+
+        for (Employee employee : results.get(4).rows())
+            assertTrue(employee.isMale() && employee.getYearOfJoining() == 2012);
+        for (Employee employee : results.get(5).rows())
+            assertTrue(!employee.isMale() || employee.getDepartment().equals("HR"));
+    }
+
+    /**
+     * The indexed plans and the parallel scan should return exactly what the
+     * sequential scan returns
+     */
+    @Test
+    public void plansAgreeTest() {
+        Query[] queries = queries().toArray(new Query[0]);
+        List<QueryResult> scanned = app.query(employees, queries);
+        List<QueryResult> indexed = app.query(repository, queries);
+        List<QueryResult> parallel = new MainApp(ExecutionMode.PARALLEL, 1).query(repository, queries);
+        for (int i = 0; i < queries.length; i++) {
+            assertEquals(describe(scanned.get(i)), describe(indexed.get(i)), queries[i].toString());
+            assertEquals(describe(scanned.get(i)), describe(parallel.get(i)), queries[i].toString());
+        }
+    }
+
+    private static String describe(QueryResult result) {
+        if (result.query().selectsRows())
+            return result.rows().toString();
+        StringBuilder description = new StringBuilder();
+        for (Aggregate aggregate : result.query().aggregates())
+            description.append(result.values(aggregate));
+        return description.toString();
+    }
+
+    /**
+     * Only the filters narrowing the roster down enough should use an index
+     */
+    @Test
+    public void planChoosesIndexTest() {
+        List<String> plans = QueryPlanner.explain(repository, queries());
+        assertEquals("scan", plans.get(0));
+        assertEquals("scan", plans.get(1));
+        assertEquals("scan", plans.get(2));
+        assertEquals("index DEPARTMENT = MARKETING", plans.get(3));
+        assertTrue(plans.get(4).startsWith("index YEAR_OF_JOINING"), plans.get(4));
+        assertEquals("scan", plans.get(5));
+    }
+
+    /**
+     * An aggregate over no employee has no value, except for count and sum
+     */
+    @Test
+    public void emptyGroupTest() {
+        Query nobody = Query.where(Filter.greaterThan(Field.AGE, 100))
+                .aggregate(Aggregate.count(), Aggregate.sum(Field.SALARY), Aggregate.max(Field.SALARY));
+        QueryResult result = app.query(employees, nobody).get(0);
+        assertEquals(0, result.value(Aggregate.count()));
+        assertEquals(0, result.value(Aggregate.sum(Field.SALARY)));
+        assertThrows(java.util.NoSuchElementException.class, () -> result.value(Aggregate.max(Field.SALARY)));
+    }
+
+    /**
+     * SUM and AVG stay exact when the salaries of a group sum past Long.MAX_VALUE
+     */
+    @Test
+    public void overflowingSumTest() {
+        List<Employee> huge = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            huge.add(new Employee(i, "employee" + i, 30, i % 2 == 0 ? "male" : "female", "department" + i % 3, 2010,
+                    Long.MAX_VALUE - i));
+        Aggregate total = Aggregate.sum(Field.SALARY);
+        Query query = Query.all().groupBy(Field.DEPARTMENT).aggregate(averageSalary, total);
+        for (MainApp mainApp : List.of(app, new MainApp(ExecutionMode.PARALLEL, 1))) {
+            QueryResult result = mainApp.query(huge, query).get(0);
+            assertEquals(app.averageSalaryOfEachDepartment(huge), result.values(averageSalary));
+            assertThrows(ArithmeticException.class, () -> result.value("department0", total));
+        }
+        List<Employee> one = huge.subList(0, 1);
+        assertEquals(Long.MAX_VALUE, app.query(one, query).get(0).value("department0", total));
+    }
+}
@@ -0,0 +1,165 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.cache.CacheStats;
+import org.example.cache.CachedReports;
+import org.example.cache.ReportCache;
+import org.example.cache.ReportKey;
+import org.example.model.Employee;
+import org.example.model.EmployeeRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportCacheTest {
+
+    private final MainApp app = new MainApp();
+
+    private List<Employee> getList() {
+        List<Employee> employees = new ArrayList<>();
+        employees.add(new Employee(1, "rahul", 23, "male", "development", 2012, 20000L));
+        employees.add(new Employee(2, "priya", 31, "female", "sales", 2016, 35000L));
+        employees.add(new Employee(3, "arjun", 27, "male", "sales", 2017, 28000L));
+        employees.add(new Employee(4, "meena", 45, "female", "marketing", 2010, 50000L));
+        employees.add(new Employee(5, "vikram", 24, "male", "productDevelopment", 2018, 22000L));
+        return employees;
+    }
+
+    /**
+     * A repeated call should return the cached instance, equal to a fresh report
+     */
+    @Test
+    public void hitReturnsCachedResultTest() {
+        List<Employee> employees = getList();
+        CachedReports reports = new CachedReports(app, employees);
+
+        Map<String, Long> first = reports.averageSalaryOfEachDepartment();
+        assertEquals(app.averageSalaryOfEachDepartment(employees), first);
+        assertSame(first, reports.averageSalaryOfEachDepartment());
+        assertEquals(app.employeesInEachDepartment(employees), reports.employeesInEachDepartment());
+        assertEquals(app.separateEmployees(EmployeeRecord.of(employees), 25), reports.separateEmployees(25));
+        assertNotSame(reports.separateEmployees(25), reports.separateEmployees(30));
+
+        CacheStats stats = reports.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(4, stats.misses());
+        assertEquals(4, stats.size());
+    }
+
+    /**
+     * No caller should be able to change a cached result, at any depth
+     */
+    @Test
+    public void resultsAreUnmodifiableTest() {
+        CachedReports reports = new CachedReports(app, getList());
+        Map<String, List<String>> departments = reports.employeesInEachDepartment();
+        assertThrows(UnsupportedOperationException.class, () -> departments.put("hr", List.of()));
+        assertThrows(UnsupportedOperationException.class, () -> departments.get("sales").add("someone"));
+        assertThrows(UnsupportedOperationException.class, () -> reports.avgAndTotalSalary().clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> reports.employeesInDepartments("sales").get("sales").put("male", 10));
+        assertEquals(List.of("priya", "arjun"), reports.employeesInEachDepartment().get("sales"));
+    }
+
+    /**
+     * The employees in a result are immutable copies, not the roster's beans
+     */
+    @Test
+    public void employeesAreImmutableTest() {
+        List<Employee> employees = getList();
+        CachedReports reports = new CachedReports(app, employees);
+        employees.get(3).setSalary(1L);
+        assertEquals(50000L, reports.getMaxPayedEmployee().salary());
+        assertEquals("meena", reports.getTopPayedEmployees(1).get(0).name());
+    }
+
+    /**
+     * Bumping the version should drop the old results and recompute on the new roster
+     */
+    @Test
+    public void invalidateTest() {
+        List<Employee> employees = getList();
+        CachedReports reports = new CachedReports(app, employees);
+        assertEquals(5, reports.countMaleAndFemale().values().stream().mapToLong(Long::longValue).sum());
+
+        employees.add(new Employee(6, "kiran", 29, "female", "sales", 2019, 30000L));
+        assertEquals(5, reports.countMaleAndFemale().values().stream().mapToLong(Long::longValue).sum());
+        reports.invalidate();
+        assertEquals(1, reports.version());
+        assertEquals(6, reports.countMaleAndFemale().values().stream().mapToLong(Long::longValue).sum());
+
+        reports.update(employees.subList(0, 2));
+        assertEquals(List.of("development", "sales"), reports.allDepartments());
+        assertEquals(1, reports.stats().size());
+    }
+
+    /**
+     * A result computed while its key was invalidated is returned but not kept
+     */
+    @Test
+    public void invalidatedWhileComputingTest() {
+        ReportCache cache = new ReportCache(10);
+        ReportKey old = new ReportKey(0, "a");
+        assertEquals("old", cache.get(old, () -> {
+            cache.invalidateBefore(1);
+            return "old";
+        }));
+        assertEquals(0, cache.stats().size());
+        assertEquals("again", cache.get(old, () -> "again"));
+        assertEquals(0, cache.stats().size());
+
+        ReportKey current = new ReportKey(1, "a");
+        assertEquals("cleared", cache.get(current, () -> {
+            cache.invalidateAll();
+            return "cleared";
+        }));
+        assertEquals(0, cache.stats().size());
+        assertEquals("kept", cache.get(current, () -> "kept"));
+        assertEquals("kept", cache.get(current, () -> "not computed"));
+    }
+
+    /**
+     * Parameters may be null, and later changes to the array do not change the key
+     */
+    @Test
+    public void nullParametersTest() {
+        ReportCache cache = new ReportCache(10);
+        Object[] parameters = {null, "sales"};
+        ReportKey key = new ReportKey(0, "a", parameters);
+        parameters[1] = "marketing";
+        assertEquals(new ReportKey(0, "a", null, "sales"), key);
+        assertEquals(1, cache.get(key, () -> 1));
+        assertEquals(1, cache.get(new ReportKey(0, "a", null, "sales"), () -> 2));
+    }
+
+    /**
+     * The least recently used result should be evicted first
+     */
+    @Test
+    public void evictionTest() {
+        ReportCache cache = new ReportCache(2);
+        AtomicInteger computed = new AtomicInteger();
+        ReportKey a = new ReportKey(0, "a");
+        ReportKey b = new ReportKey(0, "b", 1);
+        ReportKey c = new ReportKey(0, "b", 2);
+
+        cache.get(a, computed::incrementAndGet);
+        cache.get(b, computed::incrementAndGet);
+        cache.get(a, computed::incrementAndGet);
+        cache.get(c, computed::incrementAndGet);
+        assertEquals(3, computed.get());
+        assertEquals(1, cache.get(a, computed::incrementAndGet));
+        assertEquals(4, cache.get(b, computed::incrementAndGet));
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(4, stats.misses());
+        assertEquals(2, stats.evictions());
+        assertEquals(2, stats.size());
+    }
+}
@@ -0,0 +1,248 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.PartialAggregate;
+import org.example.model.EmployeeData;
+import org.example.model.EmployeeRecord;
+import org.example.server.ReportServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class ReportServerTest {
+
+    private final MainApp app = new MainApp();
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    private ReportServer server;
+    private URI base;
+
+    private List<EmployeeRecord> getList(int size, long seed) {
+        Random random = new Random(seed);
+        List<EmployeeRecord> employees = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+            employees.add(EmployeeRecord.of(i, "employee \"" + i + "\"", 20 + random.nextInt(40),
+                    random.nextBoolean() ? "male" : "female", "department" + random.nextInt(8),
+                    2000 + random.nextInt(20), 10_000L + random.nextInt(90_000)));
+        return employees;
+    }
+
+    @BeforeAll
+    public void start() throws IOException {
+        server = new ReportServer(app, getList(1000, 17));
+        base = URI.create("http://localhost:" + server.start(0));
+    }
+
+    @AfterAll
+    public void stop() {
+        server.stop();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(base.resolve(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long version(HttpResponse<?> response) {
+        return Long.parseLong(response.headers().firstValue(ReportServer.VERSION_HEADER).orElseThrow());
+    }
+
+    @Test
+    public void reportsTest() throws IOException, InterruptedException {
+        List<EmployeeRecord> employees = server.snapshot().employees();
+        String genders = get("/reports/countMaleAndFemale").body();
+        assertTrue(genders.contains("\"male\":" + app.countMaleAndFemale(employees).get("male")), genders);
+        assertTrue(genders.contains("\"female\":" + app.countMaleAndFemale(employees).get("female")), genders);
+
+        EmployeeRecord top = app.getMaxPayedEmployee(employees);
+        String body = get("/reports/getTopPayedEmployees?n=3").body();
+        assertTrue(body.startsWith("[{\"id\":" + top.id() + ",\"name\":\"employee \\\"" + top.id() + "\\\"\""), body);
+
+        assertEquals(200, get("/reports/salaryPercentiles?p=0.5,0.9").statusCode());
+        assertEquals(200, get("/reports").statusCode());
+        assertEquals(400, get("/reports/getTopPayedEmployees").statusCode());
+        assertEquals(400, get("/reports/getTopPayedEmployees?n=ten").statusCode());
+        assertEquals(404, get("/reports/noSuchReport").statusCode());
+        assertEquals(404, get("/reports/getYoungestMaleEmployee?department=nowhere").statusCode());
+    }
+
+    /**
+     * With a page size, the list reports come a page at a time and the pages put
+     * together are the whole report
+     */
+    @Test
+    public void pagedReportTest() throws IOException, InterruptedException {
+        List<EmployeeRecord> employees = server.snapshot().employees();
+        int expected = app.getEmployeesJoinedAfter(employees, 2010).size();
+        int received = 0;
+        String query = "/reports/getEmployeesJoinedAfter?year=2010&pageSize=100";
+        for (String cursor = ""; cursor != null; ) {
+            String body = get(query + (cursor.isEmpty() ? "" : "&cursor=" + cursor)).body();
+            assertTrue(body.startsWith("{\"items\":["), body);
+            received += body.split("\"id\":").length - 1;
+            int next = body.lastIndexOf("\"nextCursor\":\"");
+            cursor = next < 0 ? null : body.substring(next + 14, body.length() - 2);
+        }
+        assertEquals(expected, received);
+
+        assertTrue(get("/reports/separateEmployees?age=30&group=under30&pageSize=5").body().startsWith("{\"items\":["));
+        assertTrue(get("/reports/employeesInEachDepartment?department=department1&pageSize=1").body()
+                .contains("\"nextCursor\":\""));
+        assertEquals(400, get("/reports/employeesInEachDepartment?pageSize=10").statusCode());
+        assertEquals(400, get("/reports/getEmployeesJoinedAfter?year=2010&pageSize=10&cursor=broken").statusCode());
+    }
+
+    @Test
+    public void copyOnWriteUpdateTest() throws IOException, InterruptedException {
+        long before = server.snapshot().version();
+        List<EmployeeRecord> old = server.snapshot().employees();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve("/roster"))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "id,name,age,gender,department,yearOfJoining,salary\n"
+                                + "5000,Added,30,Male,department0,2020,1000000\n"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals(before + 1, version(response));
+        assertEquals(old.size() + 1, server.snapshot().employees().size());
+        assertTrue(get("/reports/getMaxPayedEmployee").body().contains("\"name\":\"Added\""));
+        assertFalse(old.stream().anyMatch(employee -> employee.id() == 5000), "the old snapshot was changed");
+        assertThrows(UnsupportedOperationException.class, () -> server.snapshot().employees().clear());
+
+        response = client.send(HttpRequest.newBuilder(base.resolve("/roster"))
+                .PUT(HttpRequest.BodyPublishers.ofString("id,name\n1,broken\n")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+        server.update(old);
+    }
+
+    /**
+     * A report or a roster change failing with an unexpected exception is answered
+     * with a 500 and its message, not a dropped connection
+     */
+    @Test
+    public void unexpectedFailureTest() throws IOException, InterruptedException {
+        AtomicBoolean broken = new AtomicBoolean();
+        MainApp failing = new MainApp() {
+            @Override
+            public List<String> allDepartments(List<? extends EmployeeData> employees) {
+                throw new IllegalStateException("departments unavailable");
+            }
+
+            @Override
+            public PartialAggregate partial(List<? extends EmployeeData> employees) {
+                if (broken.get())
+                    throw new IllegalStateException("roster unavailable");
+                return super.partial(employees);
+            }
+        };
+        ReportServer failingServer = new ReportServer(failing, getList(10, 3));
+        URI failingBase = URI.create("http://localhost:" + failingServer.start(0));
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                    failingBase.resolve("/reports/allDepartments")).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(500, response.statusCode());
+            assertEquals("{\"error\":\"departments unavailable\"}", response.body());
+
+            broken.set(true);
+            response = client.send(HttpRequest.newBuilder(failingBase.resolve("/roster"))
+                    .POST(HttpRequest.BodyPublishers.ofString("id,name,age,gender,department,yearOfJoining,salary\n"
+                            + "1,a,30,male,sales,2020,1000\n")).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(500, response.statusCode());
+            assertEquals("{\"error\":\"roster unavailable\"}", response.body());
+            assertEquals(0, version(response));
+        } finally {
+            failingServer.stop();
+        }
+    }
+
+    /**
+     * Changes racing each other are applied one after the other, each once
+     */
+    @Test
+    public void concurrentChangesTest() throws Exception {
+        List<EmployeeRecord> old = server.snapshot().employees();
+        long before = server.snapshot().version();
+        AtomicInteger calls = new AtomicInteger();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                int writer = i;
+                threads.submit(() -> {
+                    for (int change = 0; change < 10; change++) {
+                        server.append(getList(1, writer));
+                        server.update(current -> {
+                            calls.incrementAndGet();
+                            return current.subList(0, current.size() - 1);
+                        });
+                        server.append(getList(1, writer));
+                    }
+                });
+            }
+        }
+        assertEquals(80, calls.get());
+        assertEquals(before + 240, server.snapshot().version());
+        assertEquals(old.size() + 80, server.snapshot().employees().size());
+        assertEquals(old, server.snapshot().employees().subList(0, old.size()));
+        server.update(old);
+    }
+
+    /**
+     * Thousands of clients at once while the roster is swapped under them: every
+     * request should succeed and match the snapshot named in its version header.
+     */
+    @Test
+    public void loadTest() throws Exception {
+        Map<Long, String> expected = new ConcurrentHashMap<>();
+        expected.put(server.snapshot().version(), departmentCounts(server.snapshot().employees()));
+        int clients = 2000;
+        int requestsPerClient = 5;
+
+        List<HttpResponse<String>> responses = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++)
+                futures.add(threads.submit(() -> {
+                    for (int request = 0; request < requestsPerClient; request++)
+                        responses.add(get("/reports/countNumberOfEmployeesInEachDepartment"));
+                    return null;
+                }));
+            for (int update = 0; futures.stream().anyMatch(future -> !future.isDone()); update++) {
+                List<EmployeeRecord> roster = getList(500 + 100 * (update % 10), update);
+                long version = server.update(roster).version();
+                expected.put(version, departmentCounts(roster));
+                Thread.sleep(100);
+            }
+            for (Future<?> future : futures)
+                future.get();
+        }
+
+        assertEquals(clients * requestsPerClient, responses.size());
+        for (HttpResponse<String> response : responses) {
+            assertEquals(200, response.statusCode(), response.body());
+            assertEquals(expected.get(version(response)), response.body());
+        }
+    }
+
+    private String departmentCounts(List<EmployeeRecord> employees) {
+        StringJoiner json = new StringJoiner(",", "{", "}");
+        app.countNumberOfEmployeesInEachDepartment(employees)
+                .forEach((department, count) -> json.add("\"" + department + "\":" + count));
+        return json.toString();
+    }
+}
@@ -0,0 +1,182 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.ExecutionMode;
+import org.example.model.Employee;
+import org.example.model.EmployeeTable;
+import org.example.sketch.KllSketch;
+import org.example.sketch.TopK;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(Lifecycle.PER_CLASS)
+public class SketchTest {
+
+    private final List<Employee> employees = getList();
+    private final MainApp app = new MainApp();
+    private final MainApp parallelApp = new MainApp(ExecutionMode.PARALLEL, 1);
+
+    private List<Employee> getList() {
+        String[] departments = {"development", "sales", "marketing", "productDevelopment"};
+        Random random = new Random(13);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 20000; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(30),
+                    random.nextBoolean() ? "male" : "female", departments[random.nextInt(departments.length)],
+                    2010 + random.nextInt(10), 1000L * random.nextInt(500)));
+        return employees;
+    }
+
+    /**
+     * The top earners should be the first ones of a stable sort by salary
+     */
+    @Test
+    public void topPayedEmployeesTest() {
+        List<Employee> sorted = new ArrayList<>(employees);
+        sorted.sort(Comparator.comparingLong(Employee::getSalary).reversed());
+        assertEquals(sorted.subList(0, 50), app.getTopPayedEmployees(employees, 50));
+        assertEquals(sorted.subList(0, 50), parallelApp.getTopPayedEmployees(employees, 50));
+        assertEquals(sorted.subList(0, 50), app.getTopPayedEmployees(EmployeeTable.of(employees), 50).stream()
+                .map(Employee::getId).map(employees::get).collect(Collectors.toList()));
+        assertEquals(sorted, app.getTopPayedEmployees(employees, employees.size() + 1));
+        assertTrue(app.getTopPayedEmployees(employees, 0).isEmpty());
+        assertSame(app.getMaxPayedEmployee(employees), app.getTopPayedEmployees(employees, 1).get(0));
+    }
+
+    /**
+     * The youngest employees of a department should be the first ones of a stable
+     * sort of that department by age
+     */
+    @Test
+    public void youngestEmployeesOfEachDepartmentTest() {
+        Map<String, List<Employee>> expected = new LinkedHashMap<>();
+        for (Employee employee : employees)
+            expected.computeIfAbsent(employee.getDepartment(), department -> new ArrayList<>()).add(employee);
+        expected.replaceAll((department, list) -> list.stream()
+                .sorted(Comparator.comparingInt(Employee::getAge)).limit(10).collect(Collectors.toList()));
+
+        assertEquals(expected, app.getYoungestEmployeesOfEachDepartment(employees, 10));
+        assertEquals(expected, parallelApp.getYoungestEmployeesOfEachDepartment(employees, 10));
+        Map<String, List<Integer>> expectedIds = new LinkedHashMap<>();
+        expected.forEach((department, list) -> expectedIds.put(department,
+                list.stream().map(Employee::getId).collect(Collectors.toList())));
+        Map<String, List<Integer>> tableIds = new LinkedHashMap<>();
+        app.getYoungestEmployeesOfEachDepartment(EmployeeTable.of(employees), 10).forEach((department, list) ->
+                tableIds.put(department, list.stream().map(Employee::getId).collect(Collectors.toList())));
+        assertEquals(expectedIds, tableIds);
+    }
+
+    /**
+     * Merging top-ks of consecutive ranges should give the top-k of the whole
+     */
+    @Test
+    public void topKMergeTest() {
+        TopK<Integer> whole = TopK.smallest(5);
+        TopK<Integer> left = TopK.smallest(5);
+        TopK<Integer> right = TopK.smallest(5);
+        long[] keys = {5, 3, 3, 9, 1, 3, 7, 1, 3, 2};
+        for (int i = 0; i < keys.length; i++) {
+            whole.offer(keys[i], i, i);
+            (i < 5 ? left : right).offer(keys[i], i, i);
+        }
+        assertEquals(List.of(4, 7, 9, 1, 2), whole.result());
+        assertEquals(whole.result(), left.merge(right).result());
+    }
+
+    /**
+     * Below the capacity of the sketch the percentiles are exact nearest ranks
+     */
+    @Test
+    public void exactPercentilesForSmallInputTest() {
+        List<Employee> few = employees.subList(0, 100);
+        long[] salaries = few.stream().mapToLong(Employee::getSalary).sorted().toArray();
+        assertArrayEquals(new long[]{salaries[0], salaries[49], salaries[89], salaries[98], salaries[99]},
+                app.salaryPercentiles(few, 0, 0.5, 0.9, 0.99, 1));
+    }
+
+    /**
+     * Over a large stream every percentile should be within the rank error of the
+     * sketch, and merged sketches should be as accurate as a single one
+     */
+    @Test
+    public void boundedErrorTest() {
+        Random random = new Random(17);
+        int n = 1_000_000;
+        long[] values = new long[n];
+        KllSketch whole = new KllSketch();
+        KllSketch[] partitions = new KllSketch[8];
+        for (int p = 0; p < partitions.length; p++)
+            partitions[p] = new KllSketch();
+        for (int i = 0; i < n; i++) {
+            values[i] = (long) (Math.exp(random.nextGaussian()) * 50_000);
+            whole.update(values[i]);
+            partitions[i % partitions.length].update(values[i]);
+        }
+        KllSketch merged = partitions[0];
+        for (int p = 1; p < partitions.length; p++)
+            merged.merge(partitions[p]);
+        Arrays.sort(values);
+
+        assertEquals(n, merged.count());
+        assertTrue(whole.retained() < 4 * whole.k(), "retained " + whole.retained());
+        for (KllSketch sketch : List.of(whole, merged)) {
+            for (double quantile : new double[]{0.01, 0.1, 0.5, 0.9, 0.99}) {
+                long estimate = sketch.quantile(quantile);
+                double low = (double) lowerBound(values, estimate) / n;
+                double high = (double) upperBound(values, estimate) / n;
+                assertTrue(quantile >= low - sketch.rankError() && quantile <= high + sketch.rankError(),
+                        quantile + " estimated with the ranks [" + low + ", " + high + "]");
+            }
+        }
+        assertEquals(values[0], whole.quantile(0));
+        assertEquals(values[n - 1], whole.quantile(1));
+    }
+
+    private static int lowerBound(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0)
+            return -index - 1;
+        while (index > 0 && sorted[index - 1] == value)
+            index--;
+        return index;
+    }
+
+    private static int upperBound(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0)
+            return -index - 1;
+        while (index < sorted.length && sorted[index] == value)
+            index++;
+        return index;
+    }
+
+    /**
+     * Department percentiles should agree between the list, the table and the
+     * parallel scan on small departments where they are exact
+     */
+    @Test
+    public void departmentPercentilesTest() {
+        List<Employee> few = employees.subList(0, 400);
+        Map<String, long[]> percentiles = app.salaryPercentilesOfEachDepartment(few, 0.5, 0.9, 0.99);
+        for (Map.Entry<String, long[]> entry : percentiles.entrySet()) {
+            long[] salaries = few.stream().filter(employee -> employee.getDepartment().equals(entry.getKey()))
+                    .mapToLong(Employee::getSalary).sorted().toArray();
+            long[] expected = {salaries[(int) Math.ceil(0.5 * salaries.length) - 1],
+                    salaries[(int) Math.ceil(0.9 * salaries.length) - 1],
+                    salaries[(int) Math.ceil(0.99 * salaries.length) - 1]};
+            assertArrayEquals(expected, entry.getValue(), entry.getKey());
+            assertArrayEquals(expected, parallelApp.salaryPercentilesOfEachDepartment(few, 0.5, 0.9, 0.99)
+                    .get(entry.getKey()));
+            assertArrayEquals(expected, app.salaryPercentilesOfEachDepartment(EmployeeTable.of(few), 0.5, 0.9, 0.99)
+                    .get(entry.getKey()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> app.salaryPercentiles(few, 1.5));
+        assertThrows(NoSuchElementException.class, () -> app.salaryPercentiles(List.of(), 0.5));
+    }
+}
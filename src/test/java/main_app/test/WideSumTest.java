@@ -0,0 +1,170 @@
+package main_app.test;
+
+import org.example.MainApp;
+import org.example.aggregation.AggregationResult;
+import org.example.aggregation.ExecutionMode;
+import org.example.aggregation.LiveAggregates;
+import org.example.aggregation.PartialAggregate;
+import org.example.aggregation.Report;
+import org.example.aggregation.WideSum;
+import org.example.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WideSumTest {
+
+    private static final long HUGE = Long.MAX_VALUE / 4 * 3;
+
+    private final MainApp app = new MainApp();
+
+    private static long rounded(BigInteger sum, long count) {
+        return new BigDecimal(sum).divide(BigDecimal.valueOf(count), 0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Employees whose salaries add up to far more than a long can hold
+     */
+    private List<Employee> getHugeList(int size) {
+        Random random = new Random(3);
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+            employees.add(new Employee(i, "employee" + i, 20 + random.nextInt(40), i % 3 == 0 ? "female" : "male",
+                    "department" + random.nextInt(4), 2010, HUGE + random.nextInt(1000)));
+        return employees;
+    }
+
+    /**
+     * Adding and subtracting random values, extremes included, keeps the two
+     * words equal to the exact sum
+     */
+    @Test
+    public void carryAndBorrowTest() {
+        Random random = new Random(1);
+        long[] extremes = {Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1, -1, 0, 1};
+        long high = 0;
+        long low = 0;
+        BigInteger exact = BigInteger.ZERO;
+        for (int i = 0; i < 100_000; i++) {
+            long value = i % 10 == 0 ? extremes[random.nextInt(extremes.length)] : random.nextLong();
+            if (random.nextInt(3) == 0) {
+                long difference = low - value;
+                high += WideSum.borrow(low, value, difference);
+                low = difference;
+                exact = exact.subtract(BigInteger.valueOf(value));
+            } else {
+                long sum = low + value;
+                high += WideSum.carry(low, value, sum);
+                low = sum;
+                exact = exact.add(BigInteger.valueOf(value));
+            }
+            assertEquals(exact, WideSum.value(high, low));
+        }
+    }
+
+    /**
+     * Averages round halves away from zero, with and without a high word
+     */
+    @Test
+    public void averageRoundingTest() {
+        assertEquals(2, WideSum.average(3, 2));
+        assertEquals(-2, WideSum.average(-3, 2));
+        assertEquals(1, WideSum.average(4, 3));
+        assertEquals(2, WideSum.average(5, 3));
+        assertEquals(Long.MAX_VALUE, WideSum.average(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> WideSum.average(1, 0));
+
+        Random random = new Random(2);
+        for (int i = 0; i < 10_000; i++) {
+            long high = random.nextInt(5) - 2;
+            long low = random.nextLong();
+            long count = 1 + (random.nextBoolean() ? random.nextInt(10) : random.nextLong() >>> 1);
+            BigInteger sum = WideSum.value(high, low);
+            if (sum.abs().compareTo(BigInteger.valueOf(count).shiftLeft(62)) > 0)
+                continue;
+            assertEquals(rounded(sum, count), WideSum.average(high, low, count), sum + " / " + count);
+        }
+        assertThrows(ArithmeticException.class, () -> WideSum.longValueExact(1, 0));
+    }
+
+    /**
+     * The salary reports of a payroll past Long.MAX_VALUE are exact, whichever way
+     * the rows are aggregated
+     */
+    @Test
+    public void overflowingSalariesTest() {
+        List<Employee> employees = getHugeList(10_000);
+        BigInteger total = employees.stream().map(employee -> BigInteger.valueOf(employee.getSalary()))
+                .reduce(BigInteger.ZERO, BigInteger::add);
+        BigInteger female = employees.stream().filter(employee -> !employee.isMale())
+                .map(employee -> BigInteger.valueOf(employee.getSalary())).reduce(BigInteger.ZERO, BigInteger::add);
+        long females = employees.stream().filter(employee -> !employee.isMale()).count();
+
+        AggregationResult result = app.aggregate(employees, Report.values());
+        assertEquals(total, result.exactTotalSalary());
+        assertThrows(ArithmeticException.class, result::salaryTotals);
+        assertEquals(rounded(female, females), result.averageGenderSalary().get("female"));
+        assertEquals(rounded(total.subtract(female), employees.size() - females),
+                result.averageGenderSalary().get("male"));
+        for (Map.Entry<String, Long> department : result.departmentAverageSalary().entrySet()) {
+            List<Employee> members = employees.stream()
+                    .filter(employee -> employee.getDepartment().equals(department.getKey())).toList();
+            assertEquals(rounded(members.stream().map(employee -> BigInteger.valueOf(employee.getSalary()))
+                    .reduce(BigInteger.ZERO, BigInteger::add), members.size()), department.getValue());
+        }
+
+        AggregationResult parallel = new MainApp(ExecutionMode.PARALLEL, 1).aggregate(employees, Report.values());
+        assertEquals(total, parallel.exactTotalSalary());
+        assertEquals(result.averageGenderSalary(), parallel.averageGenderSalary());
+        assertEquals(result.departmentAverageSalary(), parallel.departmentAverageSalary());
+
+        PartialAggregate first = new PartialAggregate();
+        PartialAggregate second = new PartialAggregate();
+        for (int i = 0; i < employees.size(); i++)
+            (i < employees.size() / 2 ? first : second).accept(i, employees.get(i));
+        assertDoesNotThrow(() -> {
+            AggregationResult merged = PartialAggregate.fromBytes(first.toBytes())
+                    .merge(PartialAggregate.fromBytes(second.toBytes())).result();
+            assertEquals(total, merged.exactTotalSalary());
+            assertEquals(result.departmentAverageSalary(), merged.departmentAverageSalary());
+        });
+    }
+
+    /**
+     * Removing employees brings an overflowed sum back into a long
+     */
+    @Test
+    public void removeBelowOverflowTest() {
+        List<Employee> employees = getHugeList(4);
+        LiveAggregates live = LiveAggregates.of(employees);
+        assertThrows(ArithmeticException.class, live::avgAndTotalSalary);
+        live.delete(employees.get(0).getId());
+        live.delete(employees.get(1).getId());
+        live.delete(employees.get(2).getId());
+        assertEquals(Map.of("total", employees.get(3).getSalary(), "average", employees.get(3).getSalary()),
+                live.avgAndTotalSalary());
+    }
+
+    /**
+     * A gender without employees is left out of the averages instead of dividing
+     * by zero
+     */
+    @Test
+    public void emptyGenderTest() {
+        List<Employee> men = List.of(
+                new Employee(1, "a", 30, "male", "sales", 2020, 1000L),
+                new Employee(2, "b", 31, "male", "sales", 2021, 1001L));
+        assertEquals(Map.of("male", 31), app.averageAgeOfEmployees(men));
+        assertEquals(Map.of("male", 1001L), app.avgMaleFemaleSalary(men));
+        assertEquals(Map.of("sales", 1001L), app.averageSalaryOfEachDepartment(men));
+        assertEquals(Map.of(), app.avgMaleFemaleSalary(List.of()));
+    }
+}